@@ -10,16 +10,28 @@
 package org.openmrs;
 
 import org.apache.commons.lang3.StringUtils;
+import org.openmrs.util.IntBitmap;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
- * This class represents a list of patientIds.
+ * This class represents a list of patientIds. <br>
+ * <br>
+ * Cohorts created from patient ids and the results of {@link #union(Cohort, Cohort)},
+ * {@link #intersect(Cohort, Cohort)} and {@link #subtract(Cohort, Cohort)} keep their members as a
+ * compressed bitmap of patient ids, {@link #contains(Integer)} and {@link #size()} are answered from
+ * the bitmap and the {@link CohortMembership} objects are only created once they are asked for, e.g.
+ * through {@link #getMemberships()}.
  */
 public class Cohort extends BaseChangeableOpenmrsData {
 	
@@ -33,6 +45,12 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	
 	private Collection<CohortMembership> memberships;
 	
+	/**
+	 * The members of this cohort while its memberships have not been materialized, memberships is null
+	 * whenever this is set
+	 */
+	private LazyMemberships lazyMemberships;
+	
 	public Cohort() {
 		memberships = new TreeSet<>();
 	}
@@ -61,7 +79,7 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		this.name = name;
 		this.description = description;
 		if (ids != null) {
-			Arrays.stream(ids).forEach(this::addMember);
+			setLazyMemberIds(IntBitmap.of(Arrays.asList(ids)));
 		}
 	}
 	
@@ -76,7 +94,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public Cohort(String name, String description, Patient[] patients) {
 		this(name, description, (Integer[]) null);
 		if (patients != null) {
-			Arrays.stream(patients).forEach(p -> addMembership(new CohortMembership(p.getPatientId())));
+			IntBitmap patientIds = new IntBitmap();
+			Arrays.stream(patients).forEach(p -> patientIds.add(p.getPatientId()));
+			setLazyMemberIds(patientIds);
 		}
 	}
 	
@@ -103,13 +123,32 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public Cohort(String name, String description, Collection<?> patientsOrIds) {
 		this(name, description, (Integer[]) null);
 		if (patientsOrIds != null) {
+			IntBitmap patientIds = new IntBitmap();
 			for (Object o : patientsOrIds) {
 				if (o instanceof Patient) {
-					addMembership(new CohortMembership(((Patient) o).getPatientId()));
+					patientIds.add(((Patient) o).getPatientId());
 				} else if (o instanceof Integer) {
-					addMembership(new CohortMembership((Integer) o));
+					patientIds.add((Integer) o);
 				}
 			}
+			setLazyMemberIds(patientIds);
+		}
+	}
+	
+	/**
+	 * This constructor does not check whether the database contains patients with the given ids,
+	 * but {@link org.openmrs.api.CohortService#saveCohort(Cohort)} will. The memberships are only
+	 * created when they are first needed.
+	 * 
+	 * @param name
+	 * @param description optional description
+	 * @param patientIds the ids of the members, the bitmap is copied
+	 * @since 2.7.0
+	 */
+	public Cohort(String name, String description, IntBitmap patientIds) {
+		this(name, description, (Integer[]) null);
+		if (patientIds != null) {
+			setLazyMemberIds(patientIds.copy());
 		}
 	}
 	
@@ -123,7 +162,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public Cohort(String commaSeparatedIds) {
 		this();
 		String[] ids = StringUtils.split(commaSeparatedIds, ',');
-		Arrays.stream(ids).forEach(id -> addMembership(new CohortMembership(Integer.valueOf(id.trim()))));
+		IntBitmap patientIds = new IntBitmap();
+		Arrays.stream(ids).forEach(id -> patientIds.add(Integer.valueOf(id.trim())));
+		setLazyMemberIds(patientIds);
 	}
 	
 	/**
@@ -136,6 +177,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public boolean contains(Integer patientId) {
+		if (lazyMemberships != null) {
+			return patientId != null && lazyMemberships.memberIds.contains(patientId);
+		}
 		return getMemberships() != null
 		        && getMemberships().stream().anyMatch(m -> m.getPatientId().equals(patientId) && !m.getVoided());
 	}
@@ -146,7 +190,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		if (getName() != null) {
 			sb.append(" name=").append(getName());
 		}
-		if (getMemberships() != null) {
+		if (lazyMemberships != null) {
+			sb.append(" size=").append(size());
+		} else if (getMemberships() != null) {
 			sb.append(" size=").append(getMemberships().size());
 		}
 		return sb.toString();
@@ -192,10 +238,29 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public Collection<CohortMembership> getMemberships() {
 		if (memberships == null) {
 			memberships = new TreeSet<>();
+			if (lazyMemberships != null) {
+				LazyMemberships lazy = lazyMemberships;
+				lazyMemberships = null;
+				lazy.materialize(memberships::add);
+			}
 		}
 		return memberships;
 	}
 	
+	/**
+	 * Gets the ids of the patients with a non voided membership in this cohort, ignoring start and
+	 * end dates like {@link #contains(Integer)} does
+	 * 
+	 * @return a new bitmap of patient ids
+	 * @since 2.7.0
+	 */
+	public IntBitmap getMemberPatientIds() {
+		if (lazyMemberships != null) {
+			return lazyMemberships.memberIds.copy();
+		}
+		return LazyMemberships.forMemberships(getMemberships()).memberIds;
+	}
+	
 	/**
 	 * @since 2.1.0
 	 * @param asOfDate date used to return active memberships
@@ -217,6 +282,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public int size() {
+		if (lazyMemberships != null) {
+			return lazyMemberships.memberIds.getCardinality();
+		}
 		return getMemberships().stream().filter(m -> !m.getVoided()).collect(Collectors.toList())
 		        .size();
 	}
@@ -236,7 +304,8 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	// static utility methods
 	
 	/**
-	 * Returns the union of two cohorts
+	 * Returns the union of two cohorts, the result has the memberships of both cohorts including
+	 * voided and ended ones
 	 *
 	 * @param a The first Cohort
 	 * @param b The second Cohort
@@ -244,11 +313,10 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 */
 	public static Cohort union(Cohort a, Cohort b) {
 		Cohort ret = new Cohort();
-		if (a != null) {
-			ret.getMemberships().addAll(a.getMemberships());
-		}
-		if (b != null) {
-			ret.getMemberships().addAll(b.getMemberships());
+		if (a != null && b != null) {
+			ret.setLazyMemberships(LazyMemberships.union(a.toLazyMemberships(), b.toLazyMemberships()));
+		} else if (a != null || b != null) {
+			ret.setLazyMemberships((a != null ? a : b).toLazyMemberships());
 		}
 		if (a != null && b != null) {
 			ret.setName("(" + a.getName() + " + " + b.getName() + ")");
@@ -257,7 +325,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	/**
-	 * Returns the intersection of two cohorts, treating null as an empty cohort
+	 * Returns the intersection of two cohorts, treating null as an empty cohort. The result has the
+	 * memberships of the first cohort, including voided and ended ones, of the patients that also have
+	 * a membership in the second cohort.
 	 *
 	 * @param a The first Cohort
 	 * @param b The second Cohort
@@ -267,14 +337,14 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		Cohort ret = new Cohort();
 		ret.setName("(" + (a == null ? "NULL" : a.getName()) + " * " + (b == null ? "NULL" : b.getName()) + ")");
 		if (a != null && b != null) {
-			ret.getMemberships().addAll(a.getMemberships());
-			ret.getMemberships().retainAll(b.getMemberships());
+			ret.setLazyMemberships(LazyMemberships.intersect(a.toLazyMemberships(), b.toLazyMemberships()));
 		}
 		return ret;
 	}
 	
 	/**
-	 * Subtracts a cohort from a cohort
+	 * Subtracts a cohort from a cohort. The result has the memberships of the first cohort, including
+	 * voided and ended ones, of the patients that have no membership in the second cohort.
 	 *
 	 * @param a the original Cohort
 	 * @param b the Cohort to subtract
@@ -283,10 +353,11 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public static Cohort subtract(Cohort a, Cohort b) {
 		Cohort ret = new Cohort();
 		if (a != null) {
-			ret.getMemberships().addAll(a.getMemberships());
 			if (b != null) {
-				ret.getMemberships().removeAll(b.getMemberships());
+				ret.setLazyMemberships(LazyMemberships.subtract(a.toLazyMemberships(), b.toLazyMemberships()));
 				ret.setName("(" + a.getName() + " - " + b.getName() + ")");
+			} else {
+				ret.setLazyMemberships(a.toLazyMemberships());
 			}
 		}
 		return ret;
@@ -323,6 +394,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 */
 	@Deprecated
 	public Set<Integer> getMemberIds() {
+		if (lazyMemberships != null) {
+			return lazyMemberships.patientIds.toSet();
+		}
 		Set<Integer> memberIds = new TreeSet<>();
 		for (CohortMembership member : getMemberships()) {
 			memberIds.add(member.getPatientId());
@@ -336,10 +410,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 */
 	@Deprecated
 	public void setMemberIds(Set<Integer> memberIds) {
-		if (getMemberships().isEmpty()) {
-			for (Integer id : memberIds) {
-				addMembership(new CohortMembership(id));
-			}
+		boolean empty = lazyMemberships != null ? lazyMemberships.patientIds.isEmpty() : getMemberships().isEmpty();
+		if (empty) {
+			setLazyMemberIds(IntBitmap.of(memberIds));
 		}
 		else {
 			throw new IllegalArgumentException("since 2.1.0 cohorts are more complex than just a set of patient ids");
@@ -348,6 +421,7 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	
 	public void setMemberships(Collection<CohortMembership> members) {
 		this.memberships = members;
+		this.lazyMemberships = null;
 	}
 	
 	/**
@@ -403,4 +477,141 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public boolean hasNoActiveMemberships() {
 		return getActiveMemberships().isEmpty();
 	}
+	
+	private LazyMemberships toLazyMemberships() {
+		return lazyMemberships != null ? lazyMemberships : LazyMemberships.forMemberships(getMemberships());
+	}
+	
+	private void setLazyMemberships(LazyMemberships lazyMemberships) {
+		this.memberships = null;
+		this.lazyMemberships = lazyMemberships;
+	}
+	
+	private void setLazyMemberIds(IntBitmap patientIds) {
+		setLazyMemberships(LazyMemberships.forPatientIds(patientIds, this, new Date()));
+	}
+	
+	/**
+	 * The members of a cohort whose memberships have not been materialized yet. The patients are kept
+	 * as bitmaps and the memberships are either created from the patient ids, taken from a snapshot of
+	 * the memberships of a materialized cohort or taken from other instances, so set algebra on
+	 * cohorts only combines bitmaps. Instances are not modified once created, apart from remembering
+	 * the memberships they created from patient ids so those are only created once.
+	 */
+	private static final class LazyMemberships implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The patients with a membership, voided or not
+		 */
+		private final IntBitmap patientIds;
+		
+		/**
+		 * The patients with a non voided membership
+		 */
+		private final IntBitmap memberIds;
+		
+		/**
+		 * The instances this one was combined from, null for instances that hold memberships
+		 */
+		private final List<LazyMemberships> sources;
+		
+		/**
+		 * If not null, only memberships of these patients are taken from the sources
+		 */
+		private final IntBitmap filter;
+		
+		private final Cohort owner;
+		
+		private final Date startDate;
+		
+		private List<CohortMembership> memberships;
+		
+		private LazyMemberships(IntBitmap patientIds, IntBitmap memberIds, List<LazyMemberships> sources,
+		    IntBitmap filter, Cohort owner, Date startDate, List<CohortMembership> memberships) {
+			this.patientIds = patientIds;
+			this.memberIds = memberIds;
+			this.sources = sources;
+			this.filter = filter;
+			this.owner = owner;
+			this.startDate = startDate;
+			this.memberships = memberships;
+		}
+		
+		/**
+		 * Memberships for the given patients starting on the given date are created for the owner when
+		 * they are first needed
+		 */
+		static LazyMemberships forPatientIds(IntBitmap patientIds, Cohort owner, Date startDate) {
+			return new LazyMemberships(patientIds, patientIds, null, null, owner, startDate, null);
+		}
+		
+		static LazyMemberships forMemberships(Collection<CohortMembership> memberships) {
+			IntBitmap patientIds = new IntBitmap();
+			IntBitmap memberIds = new IntBitmap();
+			for (CohortMembership membership : memberships) {
+				if (membership.getPatientId() != null) {
+					patientIds.add(membership.getPatientId());
+					if (!membership.getVoided()) {
+						memberIds.add(membership.getPatientId());
+					}
+				}
+			}
+			return new LazyMemberships(patientIds, memberIds, null, null, null, null, new ArrayList<>(memberships));
+		}
+		
+		static LazyMemberships union(LazyMemberships a, LazyMemberships b) {
+			return new LazyMemberships(IntBitmap.or(a.patientIds, b.patientIds), IntBitmap.or(a.memberIds, b.memberIds),
+			        Arrays.asList(a, b), null, null, null, null);
+		}
+		
+		static LazyMemberships intersect(LazyMemberships a, LazyMemberships b) {
+			IntBitmap patientIds = IntBitmap.and(a.patientIds, b.patientIds);
+			return new LazyMemberships(patientIds, IntBitmap.and(a.memberIds, b.patientIds),
+			        Collections.singletonList(a), patientIds, null, null, null);
+		}
+		
+		static LazyMemberships subtract(LazyMemberships a, LazyMemberships b) {
+			IntBitmap patientIds = IntBitmap.andNot(a.patientIds, b.patientIds);
+			return new LazyMemberships(patientIds, IntBitmap.andNot(a.memberIds, b.patientIds),
+			        Collections.singletonList(a), patientIds, null, null, null);
+		}
+		
+		/**
+		 * Passes all memberships to the given consumer, a membership can be passed more than once if the
+		 * same cohort was combined with itself
+		 */
+		void materialize(Consumer<CohortMembership> consumer) {
+			if (sources == null) {
+				getOrCreateMemberships().forEach(consumer);
+				return;
+			}
+			
+			Consumer<CohortMembership> sourceConsumer = consumer;
+			if (filter != null) {
+				sourceConsumer = m -> {
+					if (m.getPatientId() != null && filter.contains(m.getPatientId())) {
+						consumer.accept(m);
+					}
+				};
+			}
+			for (LazyMemberships source : sources) {
+				source.materialize(sourceConsumer);
+			}
+		}
+		
+		private synchronized List<CohortMembership> getOrCreateMemberships() {
+			if (memberships == null) {
+				List<CohortMembership> created = new ArrayList<>(patientIds.getCardinality());
+				patientIds.forEach(patientId -> {
+					CohortMembership membership = new CohortMembership(patientId, startDate);
+					membership.setCohort(owner);
+					created.add(membership);
+				});
+				memberships = created;
+			}
+			return memberships;
+		}
+	}
 }
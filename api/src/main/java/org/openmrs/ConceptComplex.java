@@ -10,6 +10,7 @@
 package org.openmrs;
 
 import org.hibernate.search.annotations.Indexed;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 import org.openmrs.obs.ComplexObsHandler;
 
 /**
@@ -17,7 +18,7 @@ import org.openmrs.obs.ComplexObsHandler;
  *
  * @since 1.5
  */
-@Indexed
+@Indexed(interceptor = DeferrableIndexingInterceptor.class)
 public class ConceptComplex extends Concept {
 	
 	public static final long serialVersionUID = 473231233L;
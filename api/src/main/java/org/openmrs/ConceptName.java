@@ -28,16 +28,18 @@ import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.FieldBridge;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.search.annotations.SortableField;
 import org.hibernate.search.annotations.TokenFilterDef;
 import org.hibernate.search.annotations.TokenizerDef;
 import org.openmrs.api.ConceptNameType;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 import org.openmrs.api.db.hibernate.search.bridge.LocaleFieldBridge;
 
 /**
  * ConceptName is the real world term used to express a Concept within the idiom of a particular
  * locale.
  */
-@Indexed
+@Indexed(interceptor = DeferrableIndexingInterceptor.class)
 @AnalyzerDef(
 	name = "ConceptNameAnalyzer", tokenizer = @TokenizerDef(factory = StandardTokenizerFactory.class), filters = {
         @TokenFilterDef(factory = StandardFilterFactory.class), 
@@ -126,6 +128,20 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 		return concept;
 	}
 	
+	/**
+	 * Indexes the id of the concept with numeric doc values, which lets concept searches return one
+	 * name per concept while the search runs
+	 * 
+	 * @return the id of the concept or null
+	 * @since 2.7.0
+	 */
+	@JsonIgnore
+	@Field(name = "conceptIdDocValues", analyze = Analyze.NO)
+	@SortableField(forField = "conceptIdDocValues")
+	public Integer getConceptIdDocValues() {
+		return concept != null ? concept.getConceptId() : null;
+	}
+	
 	public void setConcept(Concept concept) {
 		this.concept = concept;
 	}
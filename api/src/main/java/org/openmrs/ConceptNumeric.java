@@ -14,13 +14,14 @@ import java.util.TreeSet;
 
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.hibernate.search.annotations.Indexed;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 
 /**
  * The ConceptNumeric extends upon the Concept object by adding some number range values
  * 
  * @see Concept
  */
-@Indexed
+@Indexed(interceptor = DeferrableIndexingInterceptor.class)
 public class ConceptNumeric extends Concept {
 	
 	public static final long serialVersionUID = 47323L;
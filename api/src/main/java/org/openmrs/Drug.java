@@ -20,11 +20,12 @@ import org.hibernate.search.annotations.DocumentId;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 
 /**
  * Drug
  */
-@Indexed
+@Indexed(interceptor = DeferrableIndexingInterceptor.class)
 public class Drug extends BaseChangeableOpenmrsMetadata {
 	
 	public static final long serialVersionUID = 285L;
@@ -15,6 +15,7 @@ import java.lang.reflect.Method;
 import java.util.Comparator;
 
 import org.codehaus.jackson.annotate.JsonIgnore;
+import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Analyzer;
 import org.hibernate.search.annotations.Boost;
 import org.hibernate.search.annotations.DocumentId;
@@ -184,6 +185,20 @@ public class PatientIdentifier extends BaseChangeableOpenmrsData implements java
 		return patient;
 	}
 	
+	/**
+	 * Indexes the id of the patient with numeric doc values, which lets patient searches return one
+	 * identifier per patient and page through them by id while the search runs
+	 * 
+	 * @return the id of the patient or null
+	 * @since 2.7.0
+	 */
+	@JsonIgnore
+	@Field(name = "personIdDocValues", analyze = Analyze.NO)
+	@SortableField(forField = "personIdDocValues")
+	public Integer getPersonIdDocValues() {
+		return patient != null ? patient.getPersonId() : null;
+	}
+	
 	/**
 	 * @param patient The patient to set.
 	 */
@@ -0,0 +1,99 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The clinical data that is typically shown when a patient's chart is opened: the active orders,
+ * the latest observation of each concept, the active conditions, the allergies and the active
+ * visit.
+ *
+ * @see org.openmrs.api.PatientService#getPatientSummary(Patient)
+ * @since 2.7.0
+ */
+public class PatientSummary {
+	
+	private final Patient patient;
+	
+	private final List<Order> activeOrders;
+	
+	private final Map<Integer, Obs> latestObsByConceptId;
+	
+	private final List<Condition> activeConditions;
+	
+	private final Allergies allergies;
+	
+	private final Visit activeVisit;
+	
+	public PatientSummary(Patient patient, List<Order> activeOrders, Map<Integer, Obs> latestObsByConceptId,
+	    List<Condition> activeConditions, Allergies allergies, Visit activeVisit) {
+		this.patient = patient;
+		this.activeOrders = Collections.unmodifiableList(activeOrders);
+		this.latestObsByConceptId = Collections.unmodifiableMap(latestObsByConceptId);
+		this.activeConditions = Collections.unmodifiableList(activeConditions);
+		this.allergies = allergies;
+		this.activeVisit = activeVisit;
+	}
+	
+	/**
+	 * @return the patient
+	 */
+	public Patient getPatient() {
+		return patient;
+	}
+	
+	/**
+	 * @return the orders of the patient that are active now
+	 */
+	public List<Order> getActiveOrders() {
+		return activeOrders;
+	}
+	
+	/**
+	 * @return the most recent non voided observation of the patient for each concept, by concept id
+	 */
+	public Map<Integer, Obs> getLatestObsByConceptId() {
+		return latestObsByConceptId;
+	}
+	
+	/**
+	 * @param concept the concept
+	 * @return the most recent non voided observation of the patient for the concept or null if there
+	 *         is none
+	 */
+	public Obs getLatestObs(Concept concept) {
+		return latestObsByConceptId.get(concept.getConceptId());
+	}
+	
+	/**
+	 * @return the active conditions of the patient
+	 */
+	public List<Condition> getActiveConditions() {
+		return activeConditions;
+	}
+	
+	/**
+	 * @return the allergies of the patient along with the allergy status
+	 */
+	public Allergies getAllergies() {
+		return allergies;
+	}
+	
+	/**
+	 * @return the most recently started visit of the patient that is active now or null if there is
+	 *         none
+	 */
+	public Visit getActiveVisit() {
+		return activeVisit;
+	}
+}
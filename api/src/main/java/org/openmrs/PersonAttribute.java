@@ -16,6 +16,8 @@ import java.util.Comparator;
 import java.util.Date;
 
 import org.apache.commons.lang3.StringUtils;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Analyzer;
 import org.hibernate.search.annotations.Boost;
 import org.hibernate.search.annotations.DocumentId;
@@ -23,6 +25,7 @@ import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.Fields;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.search.annotations.SortableField;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.hibernate.search.LuceneAnalyzers;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -169,6 +172,20 @@ public class PersonAttribute extends BaseChangeableOpenmrsData implements java.i
 		return person;
 	}
 	
+	/**
+	 * Indexes the id of the person with numeric doc values, which lets person searches return one
+	 * attribute per person and page through them by id while the search runs
+	 * 
+	 * @return the id of the person or null
+	 * @since 2.7.0
+	 */
+	@JsonIgnore
+	@Field(name = "personIdDocValues", analyze = Analyze.NO)
+	@SortableField(forField = "personIdDocValues")
+	public Integer getPersonIdDocValues() {
+		return person != null ? person.getPersonId() : null;
+	}
+	
 	/**
 	 * @param person The person to set.
 	 */
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.openmrs.api.context.EffectivePrivileges;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,6 +71,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setPrivileges(Set<Privilege> privileges) {
 		this.privileges = privileges;
+		EffectivePrivileges.invalidateAll();
 	}
 	
 	@Override
@@ -88,6 +90,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		}
 		if (privilege != null && !containsPrivilege(privileges, privilege.getPrivilege())) {
 			privileges.add(privilege);
+			EffectivePrivileges.invalidateAll();
 		}
 	}
 	
@@ -106,8 +109,8 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 * @param privilege Privilege to remove
 	 */
 	public void removePrivilege(Privilege privilege) {
-		if (privileges != null) {
-			privileges.remove(privilege);
+		if (privileges != null && privileges.remove(privilege)) {
+			EffectivePrivileges.invalidateAll();
 		}
 	}
 	
@@ -176,6 +179,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setInheritedRoles(Set<Role> inheritedRoles) {
 		this.inheritedRoles = inheritedRoles;
+		EffectivePrivileges.invalidateAll();
 	}
 	
 	/**
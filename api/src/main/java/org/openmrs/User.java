@@ -44,6 +44,7 @@ import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 import org.hibernate.annotations.Parameter;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.EffectivePrivileges;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -114,6 +115,9 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	@Transient
 	private String parsedProficientLocalesProperty = "";
 
+	@Transient
+	private transient EffectivePrivileges effectivePrivileges = null;
+
 	@ManyToOne
 	@JoinColumn(name = "creator", nullable = false)
 	private User creator;
@@ -181,20 +185,23 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 			return true;
 		}
 		
-		if (isSuperUser()) {
-			return true;
-		}
-		
-		Set<Role> tmproles = getAllRoles();
-		
-		// loop over the roles and check each for the privilege
-		for (Role tmprole : tmproles) {
-			if (tmprole.hasPrivilege(privilege)) {
-				return true;
-			}
+		return getEffectivePrivileges().hasPrivilege(privilege);
+	}
+	
+	/**
+	 * Gets the flattened privileges of all roles and inherited roles of this user, the result is
+	 * cached until roles or privileges change
+	 * 
+	 * @return the effective privileges of this user
+	 * @since 2.7.0
+	 */
+	public EffectivePrivileges getEffectivePrivileges() {
+		EffectivePrivileges effective = effectivePrivileges;
+		if (effective == null || !effective.isCurrent()) {
+			effective = EffectivePrivileges.forUser(this);
+			effectivePrivileges = effective;
 		}
-		
-		return false;
+		return effective;
 	}
 	
 	/**
@@ -322,6 +329,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 */
 	public void setRoles(Set<Role> roles) {
 		this.roles = roles;
+		EffectivePrivileges.invalidateAll();
 	}
 	
 	/**
@@ -336,6 +344,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 		}
 		if (!roles.contains(role) && role != null) {
 			roles.add(role);
+			EffectivePrivileges.invalidateAll();
 		}
 		
 		return this;
@@ -348,8 +357,8 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * @return this user with the given role removed
 	 */
 	public User removeRole(Role role) {
-		if (roles != null) {
-			roles.remove(role);
+		if (roles != null && roles.remove(role)) {
+			EffectivePrivileges.invalidateAll();
 		}
 		
 		return this;
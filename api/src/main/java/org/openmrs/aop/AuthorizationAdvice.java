@@ -70,9 +70,10 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 					return;
 				}
 				
-				log.debug("User has privilege {}? {}", privilege, Context.hasPrivilege(privilege));
+				boolean hasPrivilege = Context.hasPrivilege(privilege);
+				log.debug("User has privilege {}? {}", privilege, hasPrivilege);
 				
-				if (Context.hasPrivilege(privilege)) {
+				if (hasPrivilege) {
 					if (!requireAll) {
 						// if not all required, the first one that they have
 						// causes them to "pass"
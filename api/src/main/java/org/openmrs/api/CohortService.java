@@ -18,6 +18,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.util.IntBitmap;
 import org.openmrs.util.PrivilegeConstants;
 
 /**
@@ -290,4 +291,21 @@ public interface CohortService extends OpenmrsService {
 	 */
 	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
 	List<CohortMembership> getCohortMemberships(Integer patientId, Date activeOnDate, boolean includeVoided);
+	
+	/**
+	 * Gets the ids of the patients with a non voided membership in the given cohort, optionally only
+	 * those active on a specific date. For a saved cohort only the patient ids are loaded from the
+	 * database, not the memberships, so this is the cheap way to get the members of a large cohort.
+	 * The result can be turned back into a cohort with
+	 * {@link Cohort#Cohort(String, String, IntBitmap)} for set operations.
+	 *
+	 * @since 2.7.0
+	 * @param cohort the cohort to get the members of
+	 * @param activeOnDate optional, if set only memberships active on this date are included
+	 * @return the patient ids of the members
+	 * <strong>Should</strong> get the patient ids of all non voided members
+	 * <strong>Should</strong> only get the patient ids of members active on the given date
+	 */
+	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
+	IntBitmap getMemberPatientIds(Cohort cohort, Date activeOnDate);
 }
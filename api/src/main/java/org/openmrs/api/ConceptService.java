@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.openmrs.Concept;
@@ -38,6 +39,7 @@ import org.openmrs.ConceptStopWord;
 import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.annotation.Authorized;
+import org.openmrs.api.cache.CacheRegionStatistics;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.util.PrivilegeConstants;
 
@@ -130,6 +132,38 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
 	public Concept saveConcept(Concept concept) throws APIException;
 	
+	/**
+	 * Saves a large number of concepts at once, such as a whole reference dictionary with the names,
+	 * descriptions, mappings, answers and set members of its concepts. The concepts go through the
+	 * same save handlers, validation and checks as {@link #saveConcept(Concept)}, but:
+	 * <ul>
+	 * <li>the names of the new concepts are looked up for duplicates in the database by several
+	 * threads, see {@link org.openmrs.util.OpenmrsConstants#GP_CONCEPT_IMPORT_VALIDATION_THREADS}</li>
+	 * <li>the session is flushed and cleared after every
+	 * {@link org.openmrs.util.OpenmrsConstants#GP_BATCH_SAVE_CHUNK_SIZE} concepts, which is also the
+	 * jdbc batch size while the concepts are written</li>
+	 * <li>the concepts are not indexed as they are saved, the search index of concept names is rebuilt
+	 * once at the end instead</li>
+	 * <li>the cached lookups by mapping are evicted once instead of per concept</li>
+	 * </ul>
+	 * Since the session is cleared, the caller must not keep using objects it loaded before the
+	 * import. Concepts that are answers or set members of imported concepts must either exist already
+	 * or come earlier in the list. Rebuilding the index takes time in proportion to the size of the
+	 * whole dictionary, so saving a few concepts is faster with {@link #saveConcept(Concept)}.
+	 * 
+	 * @param concepts the concepts to save
+	 * @return the saved concepts
+	 * @throws APIException
+	 * @throws ConceptsLockedException
+	 * @since 2.7.0
+	 * <strong>Should</strong> save new concepts with their names mappings and answers
+	 * <strong>Should</strong> make the imported concepts searchable by name
+	 * <strong>Should</strong> fail for a name that is duplicated among the imported concepts
+	 * <strong>Should</strong> update concepts already existing in database
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public List<Concept> importConcepts(List<Concept> concepts) throws APIException;
+	
 	/**
 	 * Save or update the given <code>Drug</code> in the database. If this is a new drug, the
 	 * returned drug object will have a new {@link Drug#getDrugId()} inserted into it that was
@@ -1211,6 +1245,7 @@ public interface ConceptService extends OpenmrsService {
 	 * <strong>Should</strong> not return concepts with matching names that are voided
 	 * <strong>Should</strong> return preferred names higher
 	 * <strong>Should</strong> find concept by full code
+	 * <strong>Should</strong> return the requested page of unique concepts
 	 * @since 1.8
 	 */
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
@@ -1971,4 +2006,15 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	boolean hasAnyConceptAttribute(ConceptAttributeType conceptAttributeType);
 	
+	/**
+	 * Gets the usage counts of the cache regions that concept lookups by uuid, by name and by
+	 * mapping are served from, lookups by id are served from the hibernate second level cache
+	 * 
+	 * @return the statistics of each cache region by region name
+	 * @since 2.7.0
+	 * <strong>Should</strong> count hits and misses of concept lookups
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public Map<String, CacheRegionStatistics> getConceptLookupCacheStatistics();
+	
 }
@@ -76,6 +76,26 @@ public interface EncounterService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_ENCOUNTERS, PrivilegeConstants.EDIT_ENCOUNTERS })
 	public Encounter saveEncounter(Encounter encounter) throws APIException;
 	
+	/**
+	 * Saves many encounters at once, e.g. when importing data or syncing forms entered offline.
+	 * Every encounter is saved like {@link #saveEncounter(Encounter)} does, except that the new
+	 * observations of every {@link org.openmrs.util.OpenmrsConstants#GP_BATCH_SAVE_CHUNK_SIZE}
+	 * encounters are written together with {@link ObsService#saveObsBatch(List, String)} and the
+	 * session is flushed after every such chunk. The saved encounters and their observations are then
+	 * evicted from the session, other objects loaded in the current session stay attached.
+	 *
+	 * @param encounters the encounters to save
+	 * @return the saved encounters in the order they were passed in
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> save new encounters with their obs
+	 * <strong>Should</strong> void and create new obs of existing encounters
+	 * <strong>Should</strong> save encounters loaded in the session after the first chunk
+	 * <strong>Should</strong> fail if user is not supposed to edit encounters of type of given encounter
+	 */
+	@Authorized( { PrivilegeConstants.ADD_ENCOUNTERS, PrivilegeConstants.EDIT_ENCOUNTERS })
+	public List<Encounter> saveEncounters(List<Encounter> encounters) throws APIException;
+	
 	/**
 	 * Get encounter by internal identifier
 	 * 
@@ -367,6 +367,34 @@ public interface LocationService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
 	public List<Location> getRootLocations(boolean includeRetired);
 	
+	/**
+	 * Returns the ids of all locations below the given location in the location hierarchy. Unlike
+	 * {@link Location#getDescendantLocations(boolean)} this does not walk the child locations, the
+	 * descendants of all locations are read with a single query and kept in memory.
+	 * 
+	 * @param location the location whose descendants to get
+	 * @param includeRetired whether retired descendants are included
+	 * @return the unmodifiable list of descendant ids, the children first
+	 * <strong>Should</strong> return the ids of all descendants
+	 * <strong>Should</strong> not return retired descendants if includeRetired is false
+	 * <strong>Should</strong> return the new descendants of a location after a child is moved
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired);
+	
+	/**
+	 * Returns the ids of all locations above the given location in the location hierarchy, read with a
+	 * single query
+	 * 
+	 * @param location the location whose ancestors to get
+	 * @return the ids of the ancestors, the parent first
+	 * <strong>Should</strong> return the ids of all ancestors starting with the parent
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Integer> getAncestorLocationIds(Location location);
+	
 	/**
 	 * Given an Address object, returns all the possible values for the specified AddressField. This
 	 * method is not implemented in core, but is meant to overridden by implementing modules such as
@@ -12,6 +12,7 @@ package org.openmrs.api;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -127,6 +128,31 @@ public interface ObsService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException;
 	
+	/**
+	 * Saves many observations at once, e.g. when importing data. New and existing observations are
+	 * handled like {@link #saveObs(Obs, String)} does, but the save handlers and validators run once
+	 * for the whole batch instead of once per observation and group member, and the session is
+	 * flushed every {@link org.openmrs.util.OpenmrsConstants#GP_BATCH_SAVE_CHUNK_SIZE} observations
+	 * and the saved ones are evicted from it so that hibernate neither keeps all of them in memory nor
+	 * dirty checks all of them on every flush. Other objects loaded in the current session stay
+	 * attached.
+	 *
+	 * @param observations the observations to save
+	 * @param changeMessage String explaining why the existing observations are being changed, it is
+	 *            required if any of the observations is an existing one
+	 * @return the saved observations in the order they were passed in, with every existing
+	 *         observation replaced by its new version
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> save new obs and their group members
+	 * <strong>Should</strong> void and create new obs for existing obs
+	 * <strong>Should</strong> save obs loaded in the session after the first chunk
+	 * <strong>Should</strong> set creator and dateCreated on new obs
+	 * <strong>Should</strong> fail if an existing obs is saved without a change message
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
+	public List<Obs> saveObsBatch(List<Obs> observations, String changeMessage) throws APIException;
+	
 	/**
 	 * Equivalent to deleting an observation
 	 * 
@@ -281,6 +307,50 @@ public interface ObsService extends OpenmrsService {
 	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
 	        String accessionNumber) throws APIException;
 	
+	/**
+	 * Works like
+	 * {@link #getObservations(List, List, List, List, List, List, List, Integer, Integer, Date, Date, boolean, String)}
+	 * but instead of returning a list of all matching observations it passes them to the given
+	 * consumer one at a time as they are read from the database, so that extracts and reports over
+	 * millions of observations can be run without loading them all into memory. <br>
+	 * <br>
+	 * The session is cleared after every batch of observations, so the consumer should treat the
+	 * observations as read only and must not keep references to them or to other objects loaded in
+	 * the session, these are detached once the batch they belong to has been processed. Pending
+	 * changes in the session are flushed before the first observation is read. <br>
+	 * <br>
+	 * Note: on MySQL the connection url needs <code>useCursorFetch=true</code> for the driver to
+	 * fetch the results in batches instead of reading the whole result set at once.
+	 * 
+	 * @param whom List&lt;Person&gt; to restrict obs to (optional)
+	 * @param encounters List&lt;Encounter&gt; to restrict obs to (optional)
+	 * @param questions List&lt;Concept&gt; to restrict the obs to (optional)
+	 * @param answers List&lt;Concept&gt; to restrict the valueCoded to (optional)
+	 * @param personTypes List&lt;PERSON_TYPE&gt; objects to restrict this to. Only used if
+	 *            <code>whom</code> is an empty list (optional)
+	 * @param locations The org.openmrs.Location objects to restrict to (optional)
+	 * @param sort list of column names to sort on (obsId, obsDatetime, etc) if null, defaults to
+	 *            obsDatetime (optional)
+	 * @param mostRecentN restrict the number of obs returned to this size (optional)
+	 * @param obsGroupId the Obs.getObsGroupId() to this integer (optional)
+	 * @param fromDate the earliest Obs date to get (optional)
+	 * @param toDate the latest Obs date to get (optional)
+	 * @param includeVoidedObs true/false whether to also include the voided obs (required)
+	 * @param accessionNumber accession number (optional)
+	 * @param consumer called with each matching observation, in the requested order (required)
+	 * @return the number of observations that were passed to the consumer
+	 * @since 2.7.0
+	 * @throws APIException
+	 * <strong>Should</strong> pass the same obs in the same order as getObservations
+	 * <strong>Should</strong> not include voided obs
+	 * <strong>Should</strong> limit number of obs passed to mostRecentN parameter
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public long streamObservations(List<Person> whom, List<Encounter> encounters, List<Concept> questions,
+	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, List<String> sort,
+	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
+	        String accessionNumber, Consumer<Obs> consumer) throws APIException;
+	
 	/**
 	 * This method fetches the count of observations according to the criteria in the given
 	 * arguments. All arguments are optional and nullable. If more than one argument is non-null,
@@ -387,6 +457,27 @@ public interface ObsService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_OBS)
 	public List<Obs> getObservationsByPersonAndConcept(Person who, Concept question) throws APIException;
 	
+	/**
+	 * Gets the most recent non voided observation of each of the given persons for each of the given
+	 * concepts, where the most recent observation is the one with the latest obs datetime and then the
+	 * highest id. The observations are read from a table that is kept up to date whenever observations
+	 * are saved, voided or purged, so the observation history of the persons is not scanned.
+	 * 
+	 * @param persons the persons to get the observations of
+	 * @param concepts the question concepts to get the observations of
+	 * @return the latest observations ordered by person and then concept, there is no entry for a
+	 *         person and concept without observations
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> get the latest obs for each person and concept
+	 * <strong>Should</strong> return a newly saved obs if it is more recent
+	 * <strong>Should</strong> return the previous obs when the latest obs is voided
+	 * <strong>Should</strong> return the revised obs when the latest obs is edited
+	 * <strong>Should</strong> return an empty list if no persons or concepts are given
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public List<Obs> getLatestObs(List<Person> persons, List<Concept> concepts) throws APIException;
+	
 	/**
 	 * Get a complex observation. If obs.isComplex() is true, then returns an Obs with its
 	 * ComplexData. Otherwise returns a simple Obs. 
@@ -483,6 +574,28 @@ public interface ObsService extends OpenmrsService {
 	 */
 	public void removeHandler(String key) throws APIException;
 	
+	/**
+	 * Moves the files of existing complex obs that are kept under their own name directly in the
+	 * complex obs directory into the {@link org.openmrs.obs.ContentAddressedComplexObsStorage}, a
+	 * batch of obs at a time. The value complex of the obs, voided ones included, is changed in place
+	 * without making a new version of them since only the location of the file changes. The obs sharing
+	 * a file are moved along with it, obs whose file cannot be found are left as they are.
+	 * 
+	 * @param afterObsId the id returned for the previous batch, null for the first batch
+	 * @param batchSize the number of obs to look at
+	 * @return the id of the last obs looked at, to be passed in for the next batch, or null if there
+	 *         are no more obs to move
+	 * @throws APIException if the content addressed storage is not the complex obs storage in use
+	 * @since 2.7.0
+	 * <strong>Should</strong> move the files of complex obs into the content addressed storage
+	 * <strong>Should</strong> count the references of obs sharing a file
+	 * <strong>Should</strong> skip obs whose file is missing
+	 * <strong>Should</strong> return null when there are no more obs to move
+	 * <strong>Should</strong> fail if the content addressed storage is not in use
+	 */
+	@Authorized(PrivilegeConstants.EDIT_OBS)
+	public Integer migrateComplexObsStorage(Integer afterObsId, int batchSize) throws APIException;
+	
 	/**
 	 * Gets the number of observations(including voided ones) that are using the specified
 	 * conceptNames as valueCodedName answers
@@ -347,6 +347,20 @@ public interface OrderService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.ADD_ORDERS)
 	public Long getNextOrderNumberSeedSequenceValue();
 	
+	/**
+	 * Reserves a block of consecutive order number seeds in a single short transaction, this allows
+	 * generators to hand out order numbers without locking the seed global property for every order
+	 * 
+	 * @param blockSize the number of seeds to reserve
+	 * @return the first seed in the reserved block, the block ends at the returned value plus
+	 *         blockSize (exclusive)
+	 * @since 2.7.0
+	 * <strong>Should</strong> advance the seed by the block size
+	 * <strong>Should</strong> fail if the block size is less than one
+	 */
+	@Authorized(PrivilegeConstants.ADD_ORDERS)
+	public Long reserveOrderNumberSeedBlock(int blockSize);
+	
 	/**
 	 * Gets the order matching the specified order number and its previous orders in the ordering
 	 * they occurred, i.e if this order has a previous order, fetch it and if it also has a previous
@@ -12,6 +12,7 @@ package org.openmrs.api;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
@@ -21,8 +22,11 @@ import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
+import org.openmrs.PatientSummary;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.PatientDAO;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
 import org.openmrs.patient.IdentifierValidator;
 import org.openmrs.person.PersonMergeLogData;
@@ -460,6 +464,33 @@ public interface PatientService extends OpenmrsService {
 	 */
 	@Authorized( { PrivilegeConstants.GET_PATIENTS })
 	public List<Patient> getPatients(String query, boolean includeVoided, Integer start, Integer length) throws APIException;
+	
+	/**
+	 * Searches patients by identifier, name and searchable person attributes like
+	 * {@link #getPatients(String, boolean, Integer, Integer)} does, but pages through the results with
+	 * a continuation token instead of an offset. Reading a later page neither reads the results of the
+	 * earlier pages again nor reruns the search to count the results.
+	 * <p>
+	 * Patients matched by identifier come first, then the remaining patients matched by name and then
+	 * by attribute, each ordered by relevance and then by id. If the search index changes between
+	 * pages, results can move to a page that was already read.
+	 * 
+	 * @param query the string to search on
+	 * @param includeVoided true/false whether or not to included voided patients
+	 * @param continuationToken the token of the previous page or null to get the first page
+	 * @param length the maximum number of patients to return, limited by the person search max
+	 *            results global property
+	 * @param includeCount whether to count the matching patients of all pages
+	 * @return the page of matching patients
+	 * @throws APIException if the continuation token is invalid or belongs to a different search
+	 * @since 2.7.0
+	 * <strong>Should</strong> page through all matching patients without repeating any
+	 * <strong>Should</strong> return the approximate count if requested
+	 * <strong>Should</strong> fail for a continuation token of a different search
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public SearchResultPage<Patient> searchPatients(String query, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws APIException;
 		
 	/**
 	 * This method tries to find a patient in the database given the attributes on the given
@@ -491,6 +522,29 @@ public interface PatientService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_PATIENTS })
 	public List<Patient> getDuplicatePatientsByAttributes(List<String> attributes) throws APIException;
 	
+	/**
+	 * Finds the pairs of non voided patients that are likely to be the same person and passes them to
+	 * the given consumer as they are found, in no particular order. Unlike
+	 * {@link #getDuplicatePatientsByAttributes(List)} the patients do not need to match exactly, the
+	 * pairs are scored on the agreement of their names, also by the way they sound, birthdate, gender
+	 * and identifiers. Only the patients that share a soundex of their names, a birth year or an
+	 * identifier are compared with each other, so that the whole registry can be searched in a
+	 * nightly task. <br>
+	 * <br>
+	 * The consumer is called on the calling thread and should not take long, the scoring pauses while
+	 * the matches that are not consumed yet pile up.
+	 * 
+	 * @param minimumScore the minimum score of the pairs to find, from 0 to 1
+	 * @param consumer called with each pair of patients that scores at least the minimum score
+	 * @return the number of pairs that were passed to the consumer
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> find patients with the same names birthdate and gender
+	 * <strong>Should</strong> not find patients that score below the minimum score
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public long findDuplicatePatients(double minimumScore, Consumer<DuplicatePatientMatch> consumer) throws APIException;
+	
 	/**
 	 * Convenience method to join two patients' information into one record.
 	 * <ol>
@@ -794,6 +848,26 @@ public interface PatientService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.DELETE_ALLERGIES })
 	public void voidAllergy(Allergy allergy, String reason) throws APIException;
 	
+	/**
+	 * Gets the summary of a patient's chart: the active orders, the latest observation of each
+	 * concept, the active conditions, the allergies and the active visit. The ids making up the
+	 * summary are cached per patient until data of the patient is saved, voided or unvoided, so
+	 * reopening the chart of a patient only loads that data by id.
+	 *
+	 * @param patient the patient
+	 * @return the patient summary
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> get the active orders latest obs conditions allergies and active visit
+	 * <strong>Should</strong> reflect obs saved after the summary was cached
+	 * <strong>Should</strong> reflect orders voided after the summary was cached
+	 * <strong>Should</strong> fail if patient is null
+	 */
+	@Authorized(value = { PrivilegeConstants.GET_PATIENTS, PrivilegeConstants.GET_ORDERS, PrivilegeConstants.GET_OBS,
+	        PrivilegeConstants.GET_CONDITIONS, PrivilegeConstants.GET_ALLERGIES, PrivilegeConstants.GET_VISITS },
+	        requireAll = true)
+	public PatientSummary getPatientSummary(Patient patient) throws APIException;
+	
 	/**
 	 * Return the number of unvoided patients with names or patient identifiers or searchable person
 	 * attributes starting with or equal to the specified text
@@ -23,6 +23,7 @@ import org.openmrs.Relationship;
 import org.openmrs.RelationshipType;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.PersonDAO;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.OpenmrsConstants;
@@ -110,6 +111,32 @@ public interface PersonService extends OpenmrsService {
 	
 	@Authorized( { PrivilegeConstants.GET_PERSONS })
 	public List<Person> getPeople(String searchPhrase, Boolean dead, Boolean voided) throws APIException;
+	
+	/**
+	 * Searches people by name and searchable person attributes like
+	 * {@link #getPeople(String, Boolean, Boolean)} does, but pages through the results with a
+	 * continuation token instead of returning up to the person search max results at once. Reading
+	 * a later page neither reads the results of the earlier pages again nor reruns the search to
+	 * count the results.
+	 * <p>
+	 * People matched by name come first and then the remaining people matched by attribute, each
+	 * ordered by relevance and then by id. A blank search phrase pages through all people by id.
+	 * 
+	 * @param searchPhrase the string to search on
+	 * @param includeVoided true/false whether or not to included voided people
+	 * @param continuationToken the token of the previous page or null to get the first page
+	 * @param length the maximum number of people to return, limited by the person search max results
+	 *            global property
+	 * @param includeCount whether to count the matching people of all pages
+	 * @return the page of matching people
+	 * @throws APIException if the continuation token is invalid or belongs to a different search
+	 * @since 2.7.0
+	 * <strong>Should</strong> page through all matching people without repeating any
+	 * <strong>Should</strong> page through all people by id for a blank search phrase
+	 */
+	@Authorized( { PrivilegeConstants.GET_PERSONS })
+	public SearchResultPage<Person> searchPeople(String searchPhrase, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws APIException;
 		
 	/**
 	 * Save the given person attribute type in the database. <br>
@@ -0,0 +1,77 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.cache;
+
+/**
+ * A snapshot of the usage counts of a cache region
+ *
+ * @since 2.7.0
+ */
+public class CacheRegionStatistics {
+	
+	private final String regionName;
+	
+	private final long hitCount;
+	
+	private final long missCount;
+	
+	private final long evictionCount;
+	
+	private final long size;
+	
+	public CacheRegionStatistics(String regionName, long hitCount, long missCount, long evictionCount, long size) {
+		this.regionName = regionName;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.size = size;
+	}
+	
+	/**
+	 * @return the name of the cache region
+	 */
+	public String getRegionName() {
+		return regionName;
+	}
+	
+	/**
+	 * @return the number of lookups that were served from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * @return the number of lookups that had to go to the database
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * @return the number of entries that were evicted because the data they were loaded from changed
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+	
+	/**
+	 * @return the number of cached entries or -1 if the cache does not report its size
+	 */
+	public long getSize() {
+		return size;
+	}
+	
+	@Override
+	public String toString() {
+		return regionName + " [hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount
+		        + ", size: " + size + "]";
+	}
+}
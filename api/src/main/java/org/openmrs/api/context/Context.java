@@ -40,6 +40,8 @@ import org.openmrs.api.SerializationService;
 import org.openmrs.api.UserService;
 import org.openmrs.api.VisitService;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.search.SearchIndexProgress;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.logic.LogicService;
 import org.openmrs.messagesource.MessageSourceService;
@@ -1384,6 +1386,30 @@ public class Context {
 		return getContextDAO().updateSearchIndexAsync();
 	}
 
+	/**
+	 * Gets the progress of the current or last rebuild of the search index for each indexed type.
+	 * <p>
+	 * The list is empty if the index was not rebuilt since the application was started.
+	 *
+	 * @return the progress of each type in the order the types are indexed in
+	 * @since 2.7.0
+	 */
+	public static List<SearchIndexProgress> getSearchIndexProgress() {
+		return getContextDAO().getSearchIndexProgress();
+	}
+
+	/**
+	 * Gets the depth and lag of the queue of objects waiting for the search index to be updated, and
+	 * how many objects have been indexed from it.
+	 *
+	 * @return the statistics, which report no async updates in the sync update mode
+	 * @see OpenmrsConstants#SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY
+	 * @since 2.7.0
+	 */
+	public static SearchIndexUpdateStatistics getSearchIndexUpdateStatistics() {
+		return getContextDAO().getSearchIndexUpdateStatistics();
+	}
+
 	/**
 	 * Updates the search index for objects of the given type.
 	 *
@@ -1397,8 +1423,12 @@ public class Context {
 
 	/**
 	 * Updates the search index for the given object.
+	 * <p>
+	 * In the async search index update mode the object is indexed by a background worker once the
+	 * current transaction has committed.
 	 *
 	 * @see #updateSearchIndex()
+	 * @see OpenmrsConstants#SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY
 	 * @param object
 	 * @since 1.11
 	 */
@@ -24,6 +24,7 @@ import org.openmrs.module.Module;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.executor.ExecutorSchedulerTask;
 import org.openmrs.scheduler.timer.TimerSchedulerTask;
 import org.openmrs.util.OpenmrsSecurityManager;
 import org.slf4j.Logger;
@@ -193,7 +194,8 @@ public class Daemon {
 	/**
 	 * Executes the given task in a new thread that is authenticated as the daemon user. <br>
 	 * <br>
-	 * This can only be called from {@link TimerSchedulerTask} during actual task execution
+	 * This can only be called from {@link TimerSchedulerTask} or {@link ExecutorSchedulerTask} during
+	 * actual task execution
 	 *
 	 * @param task the task to run
 	 * <strong>Should</strong> not be called from other methods other than TimerSchedulerTask
@@ -203,7 +205,8 @@ public class Daemon {
 		
 		// quick check to make sure we're only being called by ourselves
 		Class<?> callerClass = new OpenmrsSecurityManager().getCallerClass(0);
-		if (!TimerSchedulerTask.class.isAssignableFrom(callerClass)) {
+		if (!TimerSchedulerTask.class.isAssignableFrom(callerClass)
+		        && !ExecutorSchedulerTask.class.isAssignableFrom(callerClass)) {
 			throw new APIException("Scheduler.timer.task.only", new Object[] { callerClass.getName() });
 		}
 		
@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.context;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.User;
+import org.openmrs.util.RoleConstants;
+
+/**
+ * An immutable, flattened set of the privileges granted by a collection of roles, including the
+ * roles they inherit from, so that a privilege check is a single hash lookup instead of a walk over
+ * the role hierarchy. <br>
+ * <br>
+ * Instances are tied to a global version which is incremented whenever roles or privileges change,
+ * either in memory through {@link User#addRole(Role)}, {@link Role#addPrivilege(Privilege)} and the
+ * like, or when they are saved or purged through the {@link org.openmrs.api.UserService}. Holders
+ * should check {@link #isCurrent()} and recompute when it returns false.
+ *
+ * @since 2.7.0
+ */
+public final class EffectivePrivileges {
+	
+	private static final AtomicLong version = new AtomicLong();
+	
+	private final long computedForVersion;
+	
+	private final boolean superUser;
+	
+	private final Set<String> privileges;
+	
+	private EffectivePrivileges(long computedForVersion, boolean superUser, Set<String> privileges) {
+		this.computedForVersion = computedForVersion;
+		this.superUser = superUser;
+		this.privileges = Collections.unmodifiableSet(privileges);
+	}
+	
+	/**
+	 * Computes the privileges of the given user from all of their roles and inherited roles
+	 *
+	 * @param user the user to compute the privileges for
+	 * @return the effective privileges of the user
+	 */
+	public static EffectivePrivileges forUser(User user) {
+		return forRoles(user.getAllRoles());
+	}
+	
+	/**
+	 * Computes the privileges granted by the given roles, inherited roles of the given roles are not
+	 * expanded, callers should pass in all roles that apply
+	 *
+	 * @param roles the roles to include, null elements are ignored
+	 * @return the effective privileges of the given roles
+	 */
+	public static EffectivePrivileges forRoles(Collection<Role> roles) {
+		return forRoles(roles, Collections.emptyList());
+	}
+	
+	/**
+	 * Computes the privileges granted by the given roles plus the given individual privileges, e.g.
+	 * proxy privileges
+	 *
+	 * @param roles the roles to include, null elements are ignored
+	 * @param additionalPrivileges names of privileges granted on top of the roles
+	 * @return the effective privileges
+	 */
+	public static EffectivePrivileges forRoles(Collection<Role> roles, Collection<String> additionalPrivileges) {
+		long currentVersion = version.get();
+		boolean superUser = false;
+		Set<String> privileges = new HashSet<>();
+		for (Role role : roles) {
+			if (role == null) {
+				continue;
+			}
+			if (RoleConstants.SUPERUSER.equalsIgnoreCase(role.getRole())) {
+				superUser = true;
+			}
+			if (role.getPrivileges() != null) {
+				for (Privilege privilege : role.getPrivileges()) {
+					privileges.add(toKey(privilege.getPrivilege()));
+				}
+			}
+		}
+		for (String privilege : additionalPrivileges) {
+			if (privilege != null) {
+				privileges.add(toKey(privilege));
+			}
+		}
+		return new EffectivePrivileges(currentVersion, superUser, privileges);
+	}
+	
+	/**
+	 * Marks all computed privilege sets as out of date, this should be called whenever roles,
+	 * privileges or role assignments change
+	 */
+	public static void invalidateAll() {
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * @return true if no roles or privileges have changed since this instance was computed
+	 */
+	public boolean isCurrent() {
+		return computedForVersion == version.get();
+	}
+	
+	/**
+	 * Checks whether the given privilege is granted, privilege names are compared case insensitively
+	 * like {@link Role#hasPrivilege(String)} does
+	 *
+	 * @param privilege the name of the privilege to check
+	 * @return true if one of the roles grants the privilege or one of them is the super user role
+	 */
+	public boolean hasPrivilege(String privilege) {
+		if (superUser) {
+			return true;
+		}
+		return privilege != null && privileges.contains(toKey(privilege));
+	}
+	
+	/**
+	 * @return true if one of the roles is the super user role
+	 */
+	public boolean isSuperUser() {
+		return superUser;
+	}
+	
+	private static String toKey(String privilege) {
+		return privilege.toLowerCase(Locale.ROOT);
+	}
+}
@@ -75,6 +75,12 @@ public class UserContext implements Serializable {
 	 */
 	private Role anonymousRole = null;
 	
+	/**
+	 * Flattened privileges of the authenticated user, the authenticated and anonymous roles and the
+	 * proxy privileges, recomputed when any of them change
+	 */
+	private transient EffectivePrivileges effectivePrivileges = null;
+	
 	/**
 	 * User's defined location
 	 */
@@ -113,6 +119,7 @@ public class UserContext implements Serializable {
 		try {
 			authenticated = authenticationScheme.authenticate(credentials);
 			this.user = authenticated.getUser();
+			effectivePrivileges = null;
 			notifyUserSessionListener(this.user, Event.LOGIN, Status.SUCCESS);
 		}
 		catch (ContextAuthenticationException e) {
@@ -142,6 +149,7 @@ public class UserContext implements Serializable {
 		
 		if (user != null) {
 			user = Context.getUserService().getUser(user.getUserId());
+			effectivePrivileges = null;
 			//update the stored location in the user's session
 			setUserLocation(false);
 			setUserLocale(false);
@@ -183,6 +191,7 @@ public class UserContext implements Serializable {
 		}
 		
 		this.user = userToBecome;
+		effectivePrivileges = null;
 		
 		//update the user's location and locale
 		setUserLocation(false);
@@ -219,6 +228,7 @@ public class UserContext implements Serializable {
 		locationId = null;
 		locale = null;
 		proxies.clear();
+		effectivePrivileges = null;
 	}
 	
 	/**
@@ -241,6 +251,7 @@ public class UserContext implements Serializable {
 		log.debug("Adding proxy privilege: {}", privilege);
 		
 		proxies.add(privilege);
+		effectivePrivileges = null;
 	}
 	
 	/**
@@ -251,6 +262,7 @@ public class UserContext implements Serializable {
 	public void removeProxyPrivilege(String privilege) {
 		log.debug("Removing proxy privilege: {}", privilege);
 		proxies.remove(privilege);
+		effectivePrivileges = null;
 	}
 	
 	/**
@@ -324,27 +336,9 @@ public class UserContext implements Serializable {
 	 */
 	public boolean hasPrivilege(String privilege) {
 		
-		// if a user has logged in, check their privileges
-		if (isAuthenticated()
-			&& (getAuthenticatedUser().hasPrivilege(privilege) || getAuthenticatedRole().hasPrivilege(privilege))) {
-			
-			// check user's privileges
-			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
-			return true;
-			
-		}
-		
-		log.debug("Checking '{}' against proxies: {}", privilege, proxies);
-		
-		// check proxied privileges
-		for (String s : proxies) {
-			if (s.equals(privilege)) {
-				notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
-				return true;
-			}
-		}
-		
-		if (getAnonymousRole().hasPrivilege(privilege)) {
+		// all authenticated users have the "" (empty) privilege, otherwise check the user's privileges,
+		// the authenticated and anonymous roles and the proxied privileges in one lookup
+		if ((isAuthenticated() && StringUtils.isEmpty(privilege)) || getEffectivePrivileges().hasPrivilege(privilege)) {
 			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
 			return true;
 		}
@@ -354,6 +348,29 @@ public class UserContext implements Serializable {
 		return false;
 	}
 	
+	/**
+	 * Gets the privileges available in this context, they are computed once and then reused until the
+	 * authenticated user, the proxy privileges or any roles or privileges change
+	 *
+	 * @return the effective privileges of this context
+	 */
+	private EffectivePrivileges getEffectivePrivileges() {
+		EffectivePrivileges effective = effectivePrivileges;
+		if (effective == null || !effective.isCurrent()) {
+			List<Role> roles = new ArrayList<>();
+			if (isAuthenticated()) {
+				roles.addAll(user.getAllRoles());
+				roles.add(getAuthenticatedRole());
+			}
+			roles.add(getAnonymousRole());
+			
+			log.debug("Computing privileges of {} from roles {} and proxies {}", user, roles, proxies);
+			effective = EffectivePrivileges.forRoles(roles, proxies);
+			effectivePrivileges = effective;
+		}
+		return effective;
+	}
+	
 	/**
 	 * Convenience method to get the Role in the system designed to be given to all users
 	 *
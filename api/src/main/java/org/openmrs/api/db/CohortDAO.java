@@ -14,6 +14,7 @@ import java.util.List;
 
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
+import org.openmrs.util.IntBitmap;
 
 /**
  * Database methods for cohort objects.
@@ -107,6 +108,15 @@ public interface CohortDAO {
 	 */
 	List<CohortMembership> getCohortMemberships(Integer patientId, Date activeOnDate, boolean includeVoided);
 	
+	/**
+	 * @param cohort a saved cohort
+	 * @param activeOnDate optional
+	 * @return the patient ids of the non voided members of the cohort (optionally active on a given
+	 *         date)
+	 * @since 2.7.0
+	 */
+	IntBitmap getMemberPatientIds(Cohort cohort, Date activeOnDate);
+	
 	/**
 	 * @param cohortMembership
 	 * @return the cohortMembership (now persisted or updated)
@@ -53,6 +53,17 @@ public interface ConceptDAO {
 	 */
 	public Concept saveConcept(Concept concept) throws DAOException;
 	
+	/**
+	 * Saves the given concepts without indexing them, the session is flushed and cleared after every
+	 * batch of concepts
+	 * 
+	 * @param concepts the concepts to save
+	 * @param batchSize the number of concepts to write before the session is flushed and cleared
+	 * @see org.openmrs.api.ConceptService#importConcepts(List)
+	 * @since 2.7.0
+	 */
+	public void importConcepts(List<Concept> concepts, int batchSize) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#purgeConcept(org.openmrs.Concept)
 	 * <strong>Should</strong> purge concept
@@ -17,6 +17,8 @@ import java.util.concurrent.Future;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
+import org.openmrs.api.search.SearchIndexProgress;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
 import org.openmrs.util.OpenmrsConstants;
 
 /**
@@ -169,6 +171,18 @@ public interface ContextDAO {
 	 */
 	public Future<?> updateSearchIndexAsync();
 	
+	/**
+	 * @see Context#getSearchIndexProgress()
+	 * @since 2.7.0
+	 */
+	public List<SearchIndexProgress> getSearchIndexProgress();
+	
+	/**
+	 * @see Context#getSearchIndexUpdateStatistics()
+	 * @since 2.7.0
+	 */
+	public SearchIndexUpdateStatistics getSearchIndexUpdateStatistics();
+	
 	/**
 	 * @see Context#updateSearchIndexForObject(Object)
 	 */
@@ -201,4 +201,25 @@ public interface LocationDAO {
 	 * <strong>Should</strong> ignore null values in location tag list
 	 */
 	List<Location> getLocationsHavingAllTags(List<LocationTag> locationTagIdList);
+	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location, boolean)
+	 * @since 2.7.0
+	 */
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired);
+	
+	/**
+	 * @see LocationService#getAncestorLocationIds(Location)
+	 * @since 2.7.0
+	 */
+	public List<Integer> getAncestorLocationIds(Location location);
+	
+	/**
+	 * Gets the descendants of all locations with a single query
+	 *
+	 * @param includeRetired whether retired descendants are included
+	 * @return the ids of the descendants ordered by depth by the id of each location that has any
+	 * @since 2.7.0
+	 */
+	public Map<Integer, List<Integer>> getAllDescendantLocationIds(boolean includeRetired);
 }
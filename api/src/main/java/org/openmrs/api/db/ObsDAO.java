@@ -11,6 +11,7 @@ package org.openmrs.api.db;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -54,6 +55,25 @@ public interface ObsDAO {
 	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
 	        String accessionNumber) throws DAOException;
 	
+	/**
+	 * Passes the observations matching the given criteria to the consumer one at a time, reading
+	 * them from a database cursor and clearing the session after every batch so that only one batch
+	 * of observations is held in memory
+	 * 
+	 * @see org.openmrs.api.ObsService#streamObservations(java.util.List, java.util.List,
+	 *      java.util.List, java.util.List, java.util.List, java.util.List, java.util.List,
+	 *      java.lang.Integer, java.lang.Integer, java.util.Date, java.util.Date, boolean,
+	 *      java.lang.String, java.util.function.Consumer)
+	 * @param batchSize the number of observations to fetch from the database at a time and to
+	 *            process before the session is cleared
+	 * @return the number of observations passed to the consumer
+	 * @since 2.7.0
+	 */
+	public long streamObservations(List<Person> whom, List<Encounter> encounters, List<Concept> questions,
+	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, List<String> sort,
+	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
+	        String accessionNumber, int batchSize, Consumer<Obs> consumer) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObservationCount(java.util.List, java.util.List,
 	 *      java.util.List, java.util.List, java.util.List, java.util.List, java.lang.Integer,
@@ -87,4 +107,46 @@ public interface ObsDAO {
 	 */
 	public Obs.Status getSavedStatus(Obs obs);
 	
+	/**
+	 * Gets the most recent non voided obs of each of the given persons for each of the given
+	 * concepts from the latest obs table
+	 * 
+	 * @param personIds the ids of the persons
+	 * @param conceptIds the ids of the concepts
+	 * @return the latest obs ordered by person id and then concept id
+	 * @since 2.7.0
+	 */
+	public List<Obs> getLatestObs(List<Integer> personIds, List<Integer> conceptIds) throws DAOException;
+	
+	/**
+	 * Gets complex obs, voided ones included, whose file is not in the sharded layout of the
+	 * {@link org.openmrs.obs.ContentAddressedComplexObsStorage}
+	 * 
+	 * @param afterObsId only obs with a greater id are returned, null to start from the first obs
+	 * @param maxResults the number of obs to return
+	 * @return the obs ordered by id
+	 * @since 2.7.0
+	 */
+	public List<Obs> getComplexObsWithUnshardedFiles(Integer afterObsId, int maxResults) throws DAOException;
+	
+	/**
+	 * Gets the obs, voided ones included, whose value complex ends with the given file name. The name
+	 * is matched with like, so obs whose file name only matches it as a pattern may be returned too.
+	 * 
+	 * @param fileName the name of a complex obs file
+	 * @return the obs that may refer to the file
+	 * @since 2.7.0
+	 */
+	public List<Obs> getObsByComplexDataFileName(String fileName) throws DAOException;
+	
+	/**
+	 * Changes the value complex of an obs in the database without making a new version of it, the obs
+	 * given is not changed
+	 * 
+	 * @param obs the obs to change
+	 * @param valueComplex the new value complex
+	 * @since 2.7.0
+	 */
+	public void updateValueComplex(Obs obs, String valueComplex) throws DAOException;
+	
 }
@@ -104,6 +104,16 @@ public interface OrderDAO {
 	 */
 	public Long getNextOrderNumberSeedSequenceValue();
 	
+	/**
+	 * Reserves a block of consecutive order number seeds by advancing the seed global property by
+	 * the block size in a single update
+	 * 
+	 * @param blockSize the number of seeds to reserve
+	 * @return the first seed in the reserved block
+	 * @since 2.7.0
+	 */
+	public Long reserveOrderNumberSeedBlock(int blockSize);
+	
 	/**
 	 * @see org.openmrs.api.OrderService#getActiveOrders(org.openmrs.Patient, org.openmrs.OrderType,
 	 *      org.openmrs.CareSetting, java.util.Date)
@@ -10,6 +10,8 @@
 package org.openmrs.api.db;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
@@ -19,6 +21,8 @@ import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
 import org.openmrs.api.PatientService;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.api.search.SearchResultPage;
 
 /**
  * Database methods for the PatientService
@@ -125,6 +129,13 @@ public interface PatientDAO {
 	 */
 	public List<Patient> getPatients(String query, boolean includeVoided, Integer start, Integer length) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.PatientService#searchPatients(String, boolean, String, int, boolean)
+	 * @since 2.7.0
+	 */
+	public SearchResultPage<Patient> searchPatients(String query, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws DAOException;
+	
 	/**
 	 * @see PatientService#getPatients(String, String, List, boolean, Integer, Integer)
 	 */
@@ -186,6 +197,12 @@ public interface PatientDAO {
 	 */
 	public List<Patient> getDuplicatePatientsByAttributes(List<String> attributes) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.PatientService#findDuplicatePatients(double, Consumer)
+	 * @since 2.7.0
+	 */
+	public long findDuplicatePatients(double minimumScore, Consumer<DuplicatePatientMatch> consumer) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.PatientService#isIdentifierInUseByAnotherPatient(PatientIdentifier)
 	 */
@@ -298,6 +315,28 @@ public interface PatientDAO {
 	 */
 	public Allergy saveAllergy(Allergy allergy);
 
+	/**
+	 * Gets the id of the most recent non voided observation of a patient for each concept from the
+	 * latest obs table, where the most recent observation is the one with the latest obs datetime and
+	 * then the highest id
+	 * 
+	 * @param patient the patient
+	 * @return the obs ids by concept id
+	 * @since 2.7.0
+	 */
+	public Map<Integer, Integer> getLatestObsIdsByConcept(Patient patient);
+	
+	/**
+	 * Loads the objects of a type with the given ids, using as few queries as possible for the
+	 * objects that are not in the session yet
+	 * 
+	 * @param type the mapped type of the objects
+	 * @param ids the ids of the objects
+	 * @return the objects in the order of the given ids, with null for ids that do not exist
+	 * @since 2.7.0
+	 */
+	public <T> List<T> getObjectsByIds(Class<T> type, List<Integer> ids);
+	
 	/**
 	 * Gets a List of Patient Identifiers associated to a program 
 	 * @param patientProgram the program that matches the patientIdentifier
@@ -16,6 +16,7 @@ import org.openmrs.PersonAttributeType;
 import org.openmrs.PersonName;
 import org.openmrs.Relationship;
 import org.openmrs.RelationshipType;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.util.OpenmrsConstants;
 
@@ -53,6 +54,13 @@ public interface PersonDAO {
 	
 	public List<Person> getPeople(String searchPhrase, Boolean dead, Boolean voided) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.PersonService#searchPeople(String, boolean, String, int, boolean)
+	 * @since 2.7.0
+	 */
+	public SearchResultPage<Person> searchPeople(String searchPhrase, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.PersonService#savePersonAttributeType(org.openmrs.PersonAttributeType)
 	 */
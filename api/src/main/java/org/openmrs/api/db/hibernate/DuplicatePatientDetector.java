@@ -0,0 +1,524 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.codec.language.Soundex;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.openmrs.api.db.DAOException;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the patients that are likely to be the same person. <br>
+ * <br>
+ * Comparing every patient with every other patient does not scale, so the patients are first put
+ * into blocks of patients that share a blocking key, which are the soundex of the family name with
+ * the birth year, the soundex of the given and family names with the gender and each identifier.
+ * The soundex codes are made by the same encoder as the soundex fields of the person name index.
+ * Only the patients within a block are compared with each other, a pair of patients that shares
+ * several blocks is compared once. Blocks with more patients than the maximum block size are left
+ * out, these are made by very common names and would otherwise dominate the run time. <br>
+ * <br>
+ * The blocking keys are split into partitions by their hash so that only the blocks of one
+ * partition are in memory at a time. The patients are streamed once per partition and only the ones
+ * with a key in the partition are kept, the number of partitions grows with the number of patients.
+ * The blocks of a partition are scored in parallel in a fork/join pool while the matches are passed
+ * to the consumer on the calling thread as they are found.
+ *
+ * @since 2.7.0
+ */
+public class DuplicatePatientDetector {
+	
+	private static final Logger log = LoggerFactory.getLogger(DuplicatePatientDetector.class);
+	
+	public static final int DEFAULT_MAX_BLOCK_SIZE = 1000;
+	
+	public static final int DEFAULT_PATIENTS_PER_PARTITION = 50000;
+	
+	private static final int FETCH_SIZE = 1000;
+	
+	private static final int BLOCKS_PER_TASK = 16;
+	
+	private static final int MATCH_QUEUE_CAPACITY = 10000;
+	
+	private static final long POLL_INTERVAL_MILLIS = 100;
+	
+	private static final double FAMILY_NAME_WEIGHT = 0.3;
+	
+	private static final double GIVEN_NAME_WEIGHT = 0.25;
+	
+	private static final double BIRTHDATE_WEIGHT = 0.2;
+	
+	private static final double GENDER_WEIGHT = 0.05;
+	
+	private static final double IDENTIFIER_WEIGHT = 0.2;
+	
+	/**
+	 * The agreement of two names that differ but sound the same
+	 */
+	private static final double SOUNDEX_AGREEMENT = 0.8;
+	
+	private final SessionFactory sessionFactory;
+	
+	private final int maxBlockSize;
+	
+	private final int parallelism;
+	
+	private final int patientsPerPartition;
+	
+	private final Soundex soundex = new Soundex();
+	
+	/**
+	 * @param sessionFactory the session factory to read the patients with
+	 * @param maxBlockSize the maximum number of patients in a block that is scored
+	 * @param parallelism the number of threads that score blocks
+	 */
+	public DuplicatePatientDetector(SessionFactory sessionFactory, int maxBlockSize, int parallelism) {
+		this(sessionFactory, maxBlockSize, parallelism, DEFAULT_PATIENTS_PER_PARTITION);
+	}
+	
+	/**
+	 * @param sessionFactory the session factory to read the patients with
+	 * @param maxBlockSize the maximum number of patients in a block that is scored
+	 * @param parallelism the number of threads that score blocks
+	 * @param patientsPerPartition the number of patients per partition of the blocking keys
+	 */
+	public DuplicatePatientDetector(SessionFactory sessionFactory, int maxBlockSize, int parallelism,
+	    int patientsPerPartition) {
+		this.sessionFactory = sessionFactory;
+		this.maxBlockSize = maxBlockSize;
+		this.parallelism = parallelism;
+		this.patientsPerPartition = patientsPerPartition;
+	}
+	
+	/**
+	 * Finds the pairs of non voided patients whose score is at least the given minimum score, in no
+	 * particular order
+	 *
+	 * @param minimumScore the minimum score of the pairs to pass to the consumer, from 0 to 1
+	 * @param consumer called on the calling thread with each pair
+	 * @return the number of pairs that were passed to the consumer
+	 */
+	public long findDuplicates(double minimumScore, Consumer<DuplicatePatientMatch> consumer) {
+		KeyOrder keyOrder = new KeyOrder(countPartitions());
+		Set<String> oversizedKeys = new HashSet<>();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		long count = 0;
+		int blockCount = 0;
+		try {
+			for (int partition = 0; partition < keyOrder.partitions; partition++) {
+				List<Map.Entry<String, List<PatientRecord>>> blocks = createBlocks(keyOrder, partition, oversizedKeys);
+				blockCount += blocks.size();
+				count += scoreBlocks(pool, new ScoringContext(blocks, keyOrder, oversizedKeys, minimumScore,
+				        new ArrayBlockingQueue<>(MATCH_QUEUE_CAPACITY)), consumer);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		
+		log.info("Found {} pairs of duplicate patients in {} blocks", count, blockCount);
+		return count;
+	}
+	
+	private int countPartitions() {
+		Long patients = sessionFactory.getCurrentSession()
+		        .createQuery("select count(p) from Patient p where p.voided = false", Long.class).uniqueResult();
+		return (int) Math.max(1, (patients + patientsPerPartition - 1) / patientsPerPartition);
+	}
+	
+	private long scoreBlocks(ForkJoinPool pool, ScoringContext scoringContext, Consumer<DuplicatePatientMatch> consumer) {
+		BlockingQueue<DuplicatePatientMatch> matches = scoringContext.matches;
+		long count = 0;
+		try {
+			ForkJoinTask<Void> scoring = pool.submit(new ScoringTask(scoringContext, 0, scoringContext.blocks.size()));
+			while (!scoring.isDone() || !matches.isEmpty()) {
+				DuplicatePatientMatch match = matches.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (match != null) {
+					consumer.accept(match);
+					count++;
+				}
+			}
+			scoring.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DAOException("Interrupted while finding duplicate patients", e);
+		}
+		catch (ExecutionException e) {
+			throw new DAOException("Failed to score the candidate duplicate patients", e.getCause());
+		}
+		finally {
+			scoringContext.cancelled = true;
+		}
+		return count;
+	}
+	
+	/**
+	 * Streams the names, birthdate, gender and identifiers of all non voided patients as scalars, so
+	 * that no entities are loaded into the session, and groups the patients that have a key in the
+	 * given partition by blocking key. The blocks that have a single patient or more than the maximum
+	 * block size are left out, the keys of the latter are added to the given oversized keys.
+	 */
+	private List<Map.Entry<String, List<PatientRecord>>> createBlocks(KeyOrder keyOrder, int partition,
+	        Set<String> oversizedKeys) {
+		Map<String, List<PatientRecord>> blocksByKey = new HashMap<>();
+		Query<Object[]> patients = sessionFactory.getCurrentSession().createQuery(
+		    "select p.patientId, p.gender, p.birthdate, n.givenName, n.familyName, t.patientIdentifierTypeId, "
+		            + "pi.identifier from Patient p join p.names n left join p.identifiers pi with pi.voided = false "
+		            + "left join pi.identifierType t where p.voided = false and n.voided = false order by p.patientId",
+		    Object[].class);
+		int loaded = 0;
+		try (ScrollableResults results = scroll(patients)) {
+			PatientRecord record = null;
+			while (results.next()) {
+				Integer patientId = (Integer) results.get(0);
+				if (record == null || !record.patientId.equals(patientId)) {
+					if (record != null && addToBlocks(record, keyOrder, partition, blocksByKey)) {
+						loaded++;
+					}
+					record = new PatientRecord(patientId, (String) results.get(1), (Date) results.get(2));
+				}
+				String givenName = (String) results.get(3);
+				String familyName = (String) results.get(4);
+				if (!record.hasName(givenName, familyName)) {
+					record.names.add(new Name(givenName, familyName, encode(givenName), encode(familyName)));
+				}
+				String identifier = StringUtils.upperCase(StringUtils.trimToNull((String) results.get(6)));
+				if (identifier != null) {
+					record.identifiers.add(results.get(5) + ":" + identifier);
+				}
+			}
+			if (record != null && addToBlocks(record, keyOrder, partition, blocksByKey)) {
+				loaded++;
+			}
+		}
+		log.debug("Loaded {} patients with a blocking key in partition {} of {}", loaded, partition + 1,
+		    keyOrder.partitions);
+		
+		List<Map.Entry<String, List<PatientRecord>>> blocks = new ArrayList<>();
+		int oversizedBlocks = 0;
+		for (Map.Entry<String, List<PatientRecord>> block : blocksByKey.entrySet()) {
+			int size = block.getValue().size();
+			if (size > maxBlockSize) {
+				oversizedKeys.add(block.getKey());
+				oversizedBlocks++;
+			} else if (size > 1) {
+				blocks.add(block);
+			}
+		}
+		if (oversizedBlocks > 0) {
+			log.warn("Left out {} blocks with more than {} patients when finding duplicate patients", oversizedBlocks,
+			    maxBlockSize);
+		}
+		return blocks;
+	}
+	
+	private ScrollableResults scroll(Query<Object[]> query) {
+		query.setFetchSize(FETCH_SIZE);
+		query.setReadOnly(true);
+		query.setCacheMode(CacheMode.IGNORE);
+		return query.scroll(ScrollMode.FORWARD_ONLY);
+	}
+	
+	/**
+	 * Computes the blocking keys of the given patient and adds it to the blocks of its keys that are
+	 * in the given partition
+	 *
+	 * @return true if the patient has a key in the partition
+	 */
+	private static boolean addToBlocks(PatientRecord record, KeyOrder keyOrder, int partition,
+	        Map<String, List<PatientRecord>> blocksByKey) {
+		Set<String> keys = new HashSet<>();
+		for (Name name : record.names) {
+			if (!name.familySoundex.isEmpty() && record.birthYear != null) {
+				keys.add("y:" + record.birthYear + ":" + name.familySoundex);
+			}
+			if (!name.givenSoundex.isEmpty() && !name.familySoundex.isEmpty()) {
+				keys.add("n:" + StringUtils.defaultString(record.gender) + ":" + name.givenSoundex + ":"
+				        + name.familySoundex);
+			}
+		}
+		for (String identifier : record.identifiers) {
+			keys.add("i:" + identifier);
+		}
+		
+		record.blockingKeys = keys.toArray(new String[0]);
+		Arrays.sort(record.blockingKeys, keyOrder);
+		boolean inPartition = false;
+		for (String key : record.blockingKeys) {
+			if (keyOrder.partition(key) == partition) {
+				blocksByKey.computeIfAbsent(key, k -> new ArrayList<>(2)).add(record);
+				inPartition = true;
+			}
+		}
+		return inPartition;
+	}
+	
+	private String encode(String name) {
+		String trimmed = StringUtils.trimToEmpty(name);
+		try {
+			return soundex.soundex(trimmed);
+		}
+		catch (IllegalArgumentException e) {
+			// the encoder only maps the letters of the English alphabet
+			return trimmed.toUpperCase();
+		}
+	}
+	
+	/**
+	 * @return the score of two patients, from 0 to 1
+	 */
+	private static double score(PatientRecord patient, PatientRecord other) {
+		double nameScore = 0;
+		for (Name name : patient.names) {
+			for (Name otherName : other.names) {
+				double score = FAMILY_NAME_WEIGHT
+				        * agreement(name.familyName, otherName.familyName, name.familySoundex, otherName.familySoundex)
+				        + GIVEN_NAME_WEIGHT
+				        * agreement(name.givenName, otherName.givenName, name.givenSoundex, otherName.givenSoundex);
+				nameScore = Math.max(nameScore, score);
+			}
+		}
+		
+		double score = nameScore;
+		if (patient.birthYear != null && patient.birthYear.equals(other.birthYear)) {
+			score += patient.birthDayOfYear == other.birthDayOfYear ? BIRTHDATE_WEIGHT : BIRTHDATE_WEIGHT / 2;
+		}
+		if (patient.gender != null && patient.gender.equalsIgnoreCase(other.gender)) {
+			score += GENDER_WEIGHT;
+		}
+		if (!Collections.disjoint(patient.identifiers, other.identifiers)) {
+			score += IDENTIFIER_WEIGHT;
+		}
+		return score;
+	}
+	
+	private static double agreement(String name, String otherName, String soundex, String otherSoundex) {
+		if (StringUtils.isBlank(name) || StringUtils.isBlank(otherName)) {
+			return 0;
+		}
+		if (name.trim().equalsIgnoreCase(otherName.trim())) {
+			return 1;
+		}
+		return !soundex.isEmpty() && soundex.equals(otherSoundex) ? SOUNDEX_AGREEMENT : 0;
+	}
+	
+	/**
+	 * @return true if the given block is the first block the two patients share that is not
+	 *         oversized, so that a pair is only scored in one of the blocks they share. The keys are
+	 *         ordered by partition first, so the keys before the given block are in the partitions that
+	 *         have already been scored and whether their blocks are oversized is known
+	 */
+	private static boolean isFirstSharedBlock(String blockKey, PatientRecord patient, PatientRecord other,
+	        ScoringContext context) {
+		for (String key : patient.blockingKeys) {
+			if (!context.oversizedKeys.contains(key)
+			        && Arrays.binarySearch(other.blockingKeys, key, context.keyOrder) >= 0) {
+				return key.equals(blockKey);
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Orders the blocking keys by their partition and then alphabetically
+	 */
+	private static class KeyOrder implements Comparator<String> {
+		
+		private final int partitions;
+		
+		private KeyOrder(int partitions) {
+			this.partitions = partitions;
+		}
+		
+		private int partition(String key) {
+			return Math.floorMod(key.hashCode(), partitions);
+		}
+		
+		@Override
+		public int compare(String key, String other) {
+			int result = Integer.compare(partition(key), partition(other));
+			return result != 0 ? result : key.compareTo(other);
+		}
+	}
+	
+	private static class PatientRecord {
+		
+		private final Integer patientId;
+		
+		private final String gender;
+		
+		private final Integer birthYear;
+		
+		private final int birthDayOfYear;
+		
+		private final List<Name> names = new ArrayList<>(1);
+		
+		private final Set<String> identifiers = new HashSet<>(2);
+		
+		private String[] blockingKeys;
+		
+		private PatientRecord(Integer patientId, String gender, Date birthdate) {
+			this.patientId = patientId;
+			this.gender = StringUtils.trimToNull(gender);
+			if (birthdate != null) {
+				Calendar calendar = Calendar.getInstance();
+				calendar.setTime(birthdate);
+				this.birthYear = calendar.get(Calendar.YEAR);
+				this.birthDayOfYear = calendar.get(Calendar.DAY_OF_YEAR);
+			} else {
+				this.birthYear = null;
+				this.birthDayOfYear = 0;
+			}
+		}
+		
+		/**
+		 * @return true if the patient has the given name already, a patient with several identifiers is
+		 *         read once per name and identifier
+		 */
+		private boolean hasName(String givenName, String familyName) {
+			for (Name name : names) {
+				if (StringUtils.equals(name.givenName, givenName) && StringUtils.equals(name.familyName, familyName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	private static class Name {
+		
+		private final String givenName;
+		
+		private final String familyName;
+		
+		private final String givenSoundex;
+		
+		private final String familySoundex;
+		
+		private Name(String givenName, String familyName, String givenSoundex, String familySoundex) {
+			this.givenName = givenName;
+			this.familyName = familyName;
+			this.givenSoundex = givenSoundex;
+			this.familySoundex = familySoundex;
+		}
+	}
+	
+	private static class ScoringContext {
+		
+		private final List<Map.Entry<String, List<PatientRecord>>> blocks;
+		
+		private final KeyOrder keyOrder;
+		
+		private final Set<String> oversizedKeys;
+		
+		private final double minimumScore;
+		
+		private final BlockingQueue<DuplicatePatientMatch> matches;
+		
+		private volatile boolean cancelled = false;
+		
+		private ScoringContext(List<Map.Entry<String, List<PatientRecord>>> blocks, KeyOrder keyOrder,
+		    Set<String> oversizedKeys, double minimumScore, BlockingQueue<DuplicatePatientMatch> matches) {
+			this.blocks = blocks;
+			this.keyOrder = keyOrder;
+			this.oversizedKeys = oversizedKeys;
+			this.minimumScore = minimumScore;
+			this.matches = matches;
+		}
+	}
+	
+	/**
+	 * Scores the pairs of patients in a range of blocks, splitting the range in halves until it is
+	 * small enough to score directly
+	 */
+	private static class ScoringTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final transient ScoringContext context;
+		
+		private final int from;
+		
+		private final int to;
+		
+		private ScoringTask(ScoringContext context, int from, int to) {
+			this.context = context;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > BLOCKS_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ScoringTask(context, from, middle), new ScoringTask(context, middle, to));
+				return;
+			}
+			
+			try {
+				for (int i = from; i < to && !context.cancelled; i++) {
+					scoreBlock(context.blocks.get(i));
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		private void scoreBlock(Map.Entry<String, List<PatientRecord>> block) throws InterruptedException {
+			List<PatientRecord> patients = block.getValue();
+			for (int i = 0; i < patients.size(); i++) {
+				PatientRecord patient = patients.get(i);
+				for (int j = i + 1; j < patients.size(); j++) {
+					PatientRecord other = patients.get(j);
+					if (!isFirstSharedBlock(block.getKey(), patient, other, context)) {
+						continue;
+					}
+					
+					double score = score(patient, other);
+					if (score >= context.minimumScore) {
+						boolean inOrder = patient.patientId < other.patientId;
+						context.matches.put(new DuplicatePatientMatch(inOrder ? patient.patientId : other.patientId,
+						        inOrder ? other.patientId : patient.patientId, score));
+					}
+				}
+			}
+		}
+	}
+}
@@ -17,6 +17,7 @@ import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -24,6 +25,7 @@ import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
 import org.openmrs.api.db.CohortDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.util.IntBitmap;
 
 /**
  * Hibernate implementation of the CohortDAO
@@ -201,6 +203,39 @@ public class HibernateCohortDAO implements CohortDAO {
 		return session.createQuery(cq).getResultList();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.CohortDAO#getMemberPatientIds(Cohort, Date)
+	 */
+	@Override
+	public IntBitmap getMemberPatientIds(Cohort cohort, Date activeOnDate) {
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+		Root<CohortMembership> root = cq.from(CohortMembership.class);
+		
+		List<Predicate> predicates = new ArrayList<>();
+		
+		predicates.add(cb.equal(root.get("cohort"), cohort));
+		predicates.add(cb.isFalse(root.get(VOIDED)));
+		
+		if (activeOnDate != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.get("startDate"), activeOnDate));
+			
+			Predicate endDateIsNull = cb.isNull(root.get("endDate"));
+			Predicate endDateIsGreater = cb.greaterThanOrEqualTo(root.get("endDate"), activeOnDate);
+			
+			predicates.add(cb.or(endDateIsNull, endDateIsGreater));
+		}
+		
+		cq.select(root.get("patientId")).where(predicates.toArray(new Predicate[] {}));
+		
+		IntBitmap patientIds = new IntBitmap();
+		try (Stream<Integer> results = session.createQuery(cq).stream()) {
+			results.forEach(patientIds::add);
+		}
+		return patientIds;
+	}
+	
 	@Override
 	public CohortMembership saveCohortMembership(CohortMembership cohortMembership) {
 		sessionFactory.getCurrentSession().saveOrUpdate(cohortMembership);
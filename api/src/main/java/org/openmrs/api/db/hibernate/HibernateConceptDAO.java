@@ -66,6 +66,7 @@ import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.collection.ListPart;
 import org.openmrs.util.ConceptMapTypeComparator;
@@ -141,6 +142,38 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return concept;
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#importConcepts(List, int)
+	 */
+	@Override
+	public void importConcepts(List<Concept> concepts, int batchSize) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		// pending changes would be indexed without the indexing of the concepts being deferred
+		session.flush();
+		
+		Integer jdbcBatchSize = session.getJdbcBatchSize();
+		boolean wasIndexingDeferred = DeferrableIndexingInterceptor.setIndexingDeferred(true);
+		try {
+			session.setJdbcBatchSize(batchSize);
+			int unflushed = 0;
+			for (Concept concept : concepts) {
+				saveConcept(concept);
+				if (++unflushed == batchSize) {
+					//ensure changes are persisted to DB before reclaiming memory
+					session.flush();
+					session.clear();
+					unflushed = 0;
+				}
+			}
+			// the changes are handed to the indexer as the session is flushed
+			session.flush();
+		}
+		finally {
+			session.setJdbcBatchSize(jdbcBatchSize);
+			DeferrableIndexingInterceptor.setIndexingDeferred(wasIndexingDeferred);
+		}
+	}
+	
 	/**
 	 * Convenience method that will check this concept for subtype values (ConceptNumeric,
 	 * ConceptDerived, etc) and insert a line into that subtable if needed. This prevents a
@@ -586,9 +619,9 @@ public class HibernateConceptDAO implements ConceptDAO {
 			locale = loc;
 		}
 		
-		LuceneQuery<ConceptName> conceptNameQuery = newConceptNameLuceneQuery(name, !searchOnPhrase,
+		LuceneQuery<ConceptName> conceptNameQuery = collapseByConcept(newConceptNameLuceneQuery(name, !searchOnPhrase,
 				Collections.singletonList(locale),
-		    false, false, classes, null, datatypes, null, null);
+		    false, false, classes, null, datatypes, null, null));
 		
 		List<ConceptName> names = conceptNameQuery.list();
 
@@ -1484,7 +1517,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 			query.append(" OR concept.conceptId:(").append(concept.getConceptId()).append(")^0.1");
 		} else if (searchDrugConceptNames) {
 			LuceneQuery<ConceptName> conceptNameQuery = newConceptNameLuceneQuery(drugName, searchKeywords,
-					Collections.singletonList(locale), exactLocale, includeRetired, null, null, null, null, null);
+					Collections.singletonList(locale), exactLocale, includeRetired, null, null, null, null, null)
+					.skipSame("concept.conceptId");
 			List<Object[]> conceptIds = conceptNameQuery.listProjection("concept.conceptId");
 			if (!conceptIds.isEmpty()) {
 				CollectionUtils.transform(conceptIds, input -> ((Object[]) input)[0].toString());
@@ -1513,8 +1547,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 	        final List<ConceptDatatype> requireDatatypes, final List<ConceptDatatype> excludeDatatypes,
 	        final Concept answersToConcept, final Integer start, final Integer size) throws DAOException {
 		
-		LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
-		    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+		LuceneQuery<ConceptName> query = collapseByConcept(newConceptNameLuceneQuery(phrase, true, locales, false,
+		    includeRetired, requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept));
 		
 		ListPart<ConceptName> names = query.listPart(start, size);
 		
@@ -1532,8 +1566,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 	        List<ConceptClass> requireClasses, List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
 	        List<ConceptDatatype> excludeDatatypes, Concept answersToConcept) throws DAOException {
 		
-		LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
-		    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+		LuceneQuery<ConceptName> query = collapseByConcept(newConceptNameLuceneQuery(phrase, true, locales, false,
+		    includeRetired, requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept));
 		
 		Long size = query.resultSize();
 		return size.intValue();
@@ -1579,11 +1613,20 @@ public class HibernateConceptDAO implements ConceptDAO {
 			luceneQuery.include("concept.retired", false);
 		}
 		
-		luceneQuery.skipSame("concept.conceptId");
-		
 		return luceneQuery;
 	}
 	
+	/**
+	 * Makes the given query return only the best matching name of every concept, the names are
+	 * de-duplicated while the query runs so that a page of results does not load every matching name
+	 * 
+	 * @param query the query to de-duplicate
+	 * @return the query
+	 */
+	private LuceneQuery<ConceptName> collapseByConcept(LuceneQuery<ConceptName> query) {
+		return query.collapse("concept.conceptId", "conceptIdDocValues");
+	}
+	
 	private String[] transformToIds(final List<? extends OpenmrsObject> items) {
 		if (items == null || items.isEmpty()) {
 			return new String[0];
@@ -1964,8 +2007,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 		
 		boolean searchExactLocale = (exactLocale == null) ? false : exactLocale;
 		
-		LuceneQuery<ConceptName> conceptNameQuery = newConceptNameLuceneQuery(name, true, locales, searchExactLocale, false,
-		    null, null, null, null, null);
+		LuceneQuery<ConceptName> conceptNameQuery = collapseByConcept(newConceptNameLuceneQuery(name, true, locales,
+		    searchExactLocale, false, null, null, null, null, null));
 		
 		List<ConceptName> names = conceptNameQuery.list();
 
@@ -16,6 +16,7 @@ import org.hibernate.HibernateException;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.proxy.HibernateProxyHelper;
 import org.hibernate.search.FullTextSession;
 import org.hibernate.stat.QueryStatistics;
 import org.hibernate.stat.Statistics;
@@ -28,6 +29,10 @@ import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.ContextDAO;
 import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.search.SearchIndexRebuilder;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdateQueue;
+import org.openmrs.api.search.SearchIndexProgress;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.Security;
@@ -37,16 +42,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.orm.hibernate5.SessionFactoryUtils;
 import org.springframework.orm.hibernate5.SessionHolder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.File;
+import java.io.Serializable;
 import java.net.URL;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -63,6 +75,8 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private static final Long DEFAULT_UNLOCK_ACCOUNT_WAITING_TIME = TimeUnit.MILLISECONDS.convert(5L, TimeUnit.MINUTES);
 	
+	private static final long SEARCH_INDEX_UPDATE_SHUTDOWN_TIMEOUT_SECONDS = 30;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -73,6 +87,20 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private UserDAO userDao;
 	
+	private final SearchIndexRebuilder searchIndexRebuilder = new SearchIndexRebuilder();
+	
+	/**
+	 * Updates the search index for objects passed to {@link #updateSearchIndexForObject(Object)} in
+	 * the async update mode, null in the sync mode or before {@link #startup(Properties)}
+	 */
+	private volatile SearchIndexUpdateQueue searchIndexUpdateQueue;
+	
+	/**
+	 * Runs the rebuilds started by {@link #updateSearchIndexAsync()} one at a time on a daemon thread,
+	 * created on the first rebuild
+	 */
+	private ExecutorService searchIndexRebuildExecutor;
+	
 	/**
 	 * Session factory to use for this DAO. This is usually injected by spring and its application
 	 * context.
@@ -387,6 +415,9 @@ public class HibernateContextDAO implements ContextDAO {
 	@Override
 	@Transactional
 	public void startup(Properties properties) {
+		if (searchIndexUpdateQueue == null && SearchIndexUpdateQueue.isAsyncMode(properties)) {
+			searchIndexUpdateQueue = SearchIndexUpdateQueue.start(() -> sessionFactory.openSession(), properties);
+		}
 	}
 	
 	/**
@@ -398,6 +429,20 @@ public class HibernateContextDAO implements ContextDAO {
 			showUsageStatistics();
 		}
 		
+		SearchIndexUpdateQueue queue = searchIndexUpdateQueue;
+		if (queue != null) {
+			log.debug("Stopping the search index updates");
+			queue.stop(SEARCH_INDEX_UPDATE_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			searchIndexUpdateQueue = null;
+		}
+		
+		synchronized (this) {
+			if (searchIndexRebuildExecutor != null) {
+				searchIndexRebuildExecutor.shutdownNow();
+				searchIndexRebuildExecutor = null;
+			}
+		}
+		
 		if (sessionFactory != null) {
 			
 			log.debug("Closing any open sessions");
@@ -520,14 +565,48 @@ public class HibernateContextDAO implements ContextDAO {
 	}
 	
 	/**
+	 * In the async update mode the object is queued once the current transaction has committed,
+	 * objects that have not been saved yet are indexed right away.
+	 * 
 	 * @see org.openmrs.api.db.ContextDAO#updateSearchIndexForObject(java.lang.Object)
 	 */
 	@Override
 	@Transactional
 	public void updateSearchIndexForObject(Object object) {
-		FullTextSession session = fullTextSessionFactory.getFullTextSession();
-		session.index(object);
-		session.flushToIndexes();
+		SearchIndexUpdateQueue queue = searchIndexUpdateQueue;
+		Serializable id = queue != null ? (Serializable) sessionFactory.getPersistenceUnitUtil().getIdentifier(object)
+		        : null;
+		if (id == null) {
+			FullTextSession session = fullTextSessionFactory.getFullTextSession();
+			session.index(object);
+			session.flushToIndexes();
+			return;
+		}
+		
+		Class<?> type = HibernateProxyHelper.getClassWithoutInitializingProxy(object);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCommit() {
+					queue.add(type, id);
+				}
+			});
+		} else {
+			queue.add(type, id);
+		}
+	}
+	
+	/**
+	 * @see ContextDAO#getSearchIndexUpdateStatistics()
+	 */
+	@Override
+	public SearchIndexUpdateStatistics getSearchIndexUpdateStatistics() {
+		SearchIndexUpdateQueue queue = searchIndexUpdateQueue;
+		if (queue == null) {
+			return new SearchIndexUpdateStatistics(false, 0, 0, 0, 0, 0, 0);
+		}
+		return queue.getStatistics();
 	}
 	
 	/**
@@ -538,7 +617,7 @@ public class HibernateContextDAO implements ContextDAO {
 		String gp = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION, "");
 		
 		if (!OpenmrsConstants.SEARCH_INDEX_VERSION.toString().equals(gp)) {
-			updateSearchIndex();
+			rebuildSearchIndex(getCompletedSearchIndexTypes());
 		}
 	}
 	
@@ -547,23 +626,60 @@ public class HibernateContextDAO implements ContextDAO {
 	 */
 	@Override
 	public void updateSearchIndex() {
+		rebuildSearchIndex(new HashSet<>());
+	}
+	
+	/**
+	 * Rebuilds the index of all types except for the given completed ones, recording every type once
+	 * it has been indexed so that the rebuild can be resumed by {@link #setupSearchIndex()} if it is
+	 * interrupted.
+	 */
+	private void rebuildSearchIndex(Set<String> completedTypes) {
 		try {
-			log.info("Updating the search index... It may take a few minutes.");
-			fullTextSessionFactory.getFullTextSession().createIndexer().startAndWait();
-			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
-			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
-			if (gp == null) {
-				gp = new GlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
+			if (completedTypes.isEmpty()) {
+				log.info("Updating the search index... It may take a few minutes.");
+			} else {
+				log.info("Resuming the update of the search index, skipping the already indexed types {}", completedTypes);
 			}
-			gp.setPropertyValue(OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
-			Context.getAdministrationService().saveGlobalProperty(gp);
+			searchIndexRebuilder.rebuild(fullTextSessionFactory.getFullTextSession(),
+			    SearchIndexRebuilder.Settings.fromGlobalProperties(), completedTypes, type -> {
+				    completedTypes.add(type);
+				    saveSearchIndexGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_COMPLETED_TYPES,
+				        OpenmrsConstants.SEARCH_INDEX_VERSION + ":" + StringUtils.join(completedTypes, ","));
+			    });
+			saveSearchIndexGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION,
+			    OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
+			saveSearchIndexGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_COMPLETED_TYPES, "");
 			log.info("Finished updating the search index");
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to update the search index", e);
 		}
 	}
-
+	
+	/**
+	 * @return the types indexed by an earlier rebuild for the current search index version
+	 */
+	private Set<String> getCompletedSearchIndexTypes() {
+		Set<String> completedTypes = new HashSet<>();
+		String value = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_SEARCH_INDEX_COMPLETED_TYPES, "");
+		String prefix = OpenmrsConstants.SEARCH_INDEX_VERSION + ":";
+		if (value.startsWith(prefix)) {
+			Collections.addAll(completedTypes, StringUtils.split(value.substring(prefix.length()), ','));
+		}
+		return completedTypes;
+	}
+	
+	private void saveSearchIndexGlobalProperty(String property, String value) {
+		GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(property);
+		if (gp == null) {
+			gp = new GlobalProperty(property);
+		}
+		gp.setPropertyValue(value);
+		Context.getAdministrationService().saveGlobalProperty(gp);
+	}
+	
 	/**
 	 * @see ContextDAO#updateSearchIndexAsync()
 	 */
@@ -571,12 +687,46 @@ public class HibernateContextDAO implements ContextDAO {
 	public Future<?> updateSearchIndexAsync() {
 		try {
 			log.info("Started asynchronously updating the search index...");
-			return fullTextSessionFactory.getFullTextSession().createIndexer().start();
+			SearchIndexRebuilder.Settings settings = SearchIndexRebuilder.Settings.fromGlobalProperties();
+			return getSearchIndexRebuildExecutor().submit(() -> {
+				// the rebuild runs in a session of its own, the session of the caller is closed once
+				// its request or transaction ends
+				Context.openSession();
+				try {
+					searchIndexRebuilder.rebuild(fullTextSessionFactory.getFullTextSession(), settings,
+					    Collections.emptySet(), type -> {
+					    });
+					log.info("Finished asynchronously updating the search index");
+					return null;
+				}
+				finally {
+					Context.closeSession();
+				}
+			});
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to start asynchronous search index update", e);
 		}
 	}
+	
+	private synchronized ExecutorService getSearchIndexRebuildExecutor() {
+		if (searchIndexRebuildExecutor == null) {
+			searchIndexRebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "OpenMRS search index update");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return searchIndexRebuildExecutor;
+	}
+	
+	/**
+	 * @see ContextDAO#getSearchIndexProgress()
+	 */
+	@Override
+	public List<SearchIndexProgress> getSearchIndexProgress() {
+		return searchIndexRebuilder.getProgress();
+	}
 
 	/**
 	 * @see ContextDAO#getDatabaseConnection() 
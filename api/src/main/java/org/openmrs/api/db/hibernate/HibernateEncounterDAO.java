@@ -399,9 +399,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 
 		// only include this where clause if patients were passed in
 		if (patients != null) {
-			ArrayList<Integer> patientIds = new ArrayList<>();
-			patients.getMemberships().forEach(m -> patientIds.add(m.getPatientId()));
-			predicates.add(root.get("patient").get("personId").in(patientIds));
+			predicates.add(root.get("patient").get("personId").in(patients.getMemberIds()));
 		}
 
 		return predicates;
@@ -17,8 +17,10 @@ import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -63,10 +65,91 @@ public class HibernateLocationDAO implements LocationDAO {
 			}
 		}
 		
+		// new child locations of a new location are saved by cascade
+		List<Location> newLocations = new ArrayList<>();
+		collectNewLocations(location, newLocations);
+		
 		sessionFactory.getCurrentSession().saveOrUpdate(location);
+		
+		updateLocationClosure(location);
+		for (Location newLocation : newLocations) {
+			if (newLocation != location) {
+				updateLocationClosure(newLocation);
+			}
+		}
 		return location;
 	}
 	
+	private void collectNewLocations(Location location, List<Location> newLocations) {
+		if (location.getLocationId() == null) {
+			newLocations.add(location);
+			if (location.getChildLocations() != null) {
+				for (Location child : location.getChildLocations()) {
+					collectNewLocations(child, newLocations);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Brings the closure rows of the given location and its descendants in line with the parent
+	 * chain of the location. Nothing is written if the ancestors of the location did not change.
+	 */
+	private void updateLocationClosure(Location location) {
+		Integer locationId = location.getLocationId();
+		List<Integer> ancestorIds = new ArrayList<>();
+		ancestorIds.add(locationId);
+		for (Location parent = location.getParentLocation(); parent != null && parent.getLocationId() != null
+		        && !ancestorIds.contains(parent.getLocationId()); parent = parent.getParentLocation()) {
+			ancestorIds.add(parent.getLocationId());
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		List<Integer> currentAncestorIds = session
+		        .createQuery("select c.ancestorId from LocationClosure c where c.descendantId = :id order by c.depth",
+		            Integer.class)
+		        .setParameter("id", locationId).getResultList();
+		if (currentAncestorIds.equals(ancestorIds)) {
+			return;
+		}
+		
+		// the location moved, so its subtree is detached from its old ancestors and attached to the new ones
+		Map<Integer, Integer> subtreeDepths = new HashMap<>();
+		for (Object[] row : session
+		        .createQuery("select c.descendantId, c.depth from LocationClosure c where c.ancestorId = :id", Object[].class)
+		        .setParameter("id", locationId).getResultList()) {
+			subtreeDepths.put((Integer) row[0], (Integer) row[1]);
+		}
+		List<LocationClosure> newRows = new ArrayList<>();
+		if (!subtreeDepths.containsKey(locationId)) {
+			subtreeDepths.put(locationId, 0);
+			newRows.add(new LocationClosure(locationId, locationId, 0));
+		}
+		
+		session.createQuery(
+		    "delete from LocationClosure c where c.descendantId in (:subtree) and c.ancestorId not in (:subtree)")
+		        .setParameterList("subtree", subtreeDepths.keySet()).executeUpdate();
+		for (int depth = 1; depth < ancestorIds.size(); depth++) {
+			for (Map.Entry<Integer, Integer> descendant : subtreeDepths.entrySet()) {
+				newRows.add(new LocationClosure(ancestorIds.get(depth), descendant.getKey(), depth + descendant.getValue()));
+			}
+		}
+		
+		// written with plain jdbc, the rows are never loaded as entities so the session does not have to track them
+		session.doWork(connection -> {
+			try (PreparedStatement insert = connection.prepareStatement(
+			    "insert into location_closure (ancestor_location_id, descendant_location_id, depth) values (?, ?, ?)")) {
+				for (LocationClosure row : newRows) {
+					insert.setInt(1, row.getAncestorId());
+					insert.setInt(2, row.getDescendantId());
+					insert.setInt(3, row.getDepth());
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+		});
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.LocationDAO#getLocation(java.lang.Integer)
 	 */
@@ -122,7 +205,15 @@ public class HibernateLocationDAO implements LocationDAO {
 	 */
 	@Override
 	public void deleteLocation(Location location) {
-		sessionFactory.getCurrentSession().delete(location);
+		// child locations are deleted by cascade, so the rows of the whole subtree go
+		Session session = sessionFactory.getCurrentSession();
+		List<Integer> subtree = new ArrayList<>(session
+		        .createQuery("select c.descendantId from LocationClosure c where c.ancestorId = :id", Integer.class)
+		        .setParameter("id", location.getLocationId()).getResultList());
+		subtree.add(location.getLocationId());
+		session.createQuery("delete from LocationClosure c where c.descendantId in (:subtree) or c.ancestorId in (:subtree)")
+		        .setParameterList("subtree", subtree).executeUpdate();
+		session.delete(location);
 	}
 	
 	/**
@@ -421,6 +512,49 @@ public class HibernateLocationDAO implements LocationDAO {
 		return session.createQuery(mainQuery).getResultList();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getDescendantLocationIds(Location, boolean)
+	 */
+	@Override
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired) {
+		return sessionFactory.getCurrentSession()
+		        .createQuery("select c.descendantId from LocationClosure c, Location l where c.ancestorId = :id"
+		                + " and c.depth > 0 and l.locationId = c.descendantId"
+		                + (includeRetired ? "" : " and l.retired = false") + " order by c.depth, c.descendantId",
+		            Integer.class)
+		        .setParameter("id", location.getLocationId()).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getAncestorLocationIds(Location)
+	 */
+	@Override
+	public List<Integer> getAncestorLocationIds(Location location) {
+		return sessionFactory.getCurrentSession()
+		        .createQuery("select c.ancestorId from LocationClosure c where c.descendantId = :id and c.depth > 0"
+		                + " order by c.depth",
+		            Integer.class)
+		        .setParameter("id", location.getLocationId()).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getAllDescendantLocationIds(boolean)
+	 */
+	@Override
+	public Map<Integer, List<Integer>> getAllDescendantLocationIds(boolean includeRetired) {
+		List<Object[]> rows = sessionFactory.getCurrentSession()
+		        .createQuery("select c.ancestorId, c.descendantId from LocationClosure c, Location l where c.depth > 0"
+		                + " and l.locationId = c.descendantId" + (includeRetired ? "" : " and l.retired = false")
+		                + " order by c.ancestorId, c.depth, c.descendantId",
+		            Object[].class)
+		        .getResultList();
+		Map<Integer, List<Integer>> descendantIds = new HashMap<>();
+		for (Object[] row : rows) {
+			descendantIds.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+		}
+		return descendantIds;
+	}
+	
 	/**
 	 * Extract locationTagIds from the list of LocationTag objects provided.
 	 *
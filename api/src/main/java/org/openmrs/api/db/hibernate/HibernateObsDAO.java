@@ -9,11 +9,15 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Order;
@@ -23,10 +27,15 @@ import javax.persistence.criteria.Subquery;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
+import org.hibernate.LockMode;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
@@ -48,6 +57,16 @@ import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
  */
 public class HibernateObsDAO implements ObsDAO {
 	
+	/**
+	 * The number of obs fetched at a time while looking for the obs that replaces a voided latest obs
+	 */
+	private static final int LATEST_OBS_CANDIDATES = 10;
+	
+	/**
+	 * The maximum number of person ids passed to a single latest obs query
+	 */
+	private static final int MAX_IDS_PER_QUERY = 1000;
+	
 	protected SessionFactory sessionFactory;
 	
 	/**
@@ -64,9 +83,25 @@ public class HibernateObsDAO implements ObsDAO {
 	 */
 	@Override
 	public void deleteObs(Obs obs) throws DAOException {
+		releaseLatestObs(obs);
 		sessionFactory.getCurrentSession().delete(obs);
 	}
 	
+	/**
+	 * Moves the latest obs rows pointing to the given obs or to its group members, which are deleted
+	 * with it, to the next most recent obs
+	 */
+	private void releaseLatestObs(Obs obs) {
+		LatestObs latest = getLatestObsRow(obs);
+		if (latest != null && latest.getObsId().equals(obs.getObsId())) {
+			replaceLatestObs(latest, obs.getObsId());
+		}
+		
+		for (Obs member : obs.getGroupMembers(true)) {
+			releaseLatestObs(member);
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObs(java.lang.Integer)
 	 */
@@ -92,10 +127,182 @@ public class HibernateObsDAO implements ObsDAO {
 		}
 		
 		sessionFactory.getCurrentSession().saveOrUpdate(obs);
+		updateLatestObs(obs);
 		
 		return obs;
 	}
 	
+	/**
+	 * Points the latest obs row of the person and concept of the given obs and of its group members
+	 * to them if they are more recent, or to the next most recent obs if the obs it points to was
+	 * voided
+	 */
+	private void updateLatestObs(Obs obs) {
+		if (obs.getObsId() == null || obs.getPerson() == null || obs.getPerson().getPersonId() == null
+		        || obs.getConcept() == null || obs.getObsDatetime() == null) {
+			return;
+		}
+		
+		LatestObs latest = getLatestObsRow(obs);
+		if (!obs.getVoided()) {
+			if (latest == null) {
+				latest = insertLatestObsRow(obs);
+			}
+			if (latest.getObsId().equals(obs.getObsId()) || latest.isBefore(obs.getObsId(), obs.getObsDatetime())) {
+				latest.setObs(obs.getObsId(), obs.getObsDatetime());
+			}
+		} else if (latest != null && latest.getObsId().equals(obs.getObsId())) {
+			replaceLatestObs(latest, obs.getObsId());
+		}
+		
+		for (Obs member : obs.getGroupMembers(true)) {
+			updateLatestObs(member);
+		}
+	}
+	
+	/**
+	 * Loads the latest obs row of the person and concept of the given obs and locks it until the
+	 * transaction ends, so that concurrent saves for the same person and concept update it one after
+	 * the other
+	 */
+	private LatestObs getLatestObsRow(Obs obs) {
+		if (obs.getPerson() == null || obs.getConcept() == null) {
+			return null;
+		}
+		return sessionFactory.getCurrentSession().get(LatestObs.class,
+		    new LatestObs(obs.getPerson().getPersonId(), obs.getConcept().getConceptId()), LockMode.PESSIMISTIC_WRITE);
+	}
+	
+	/**
+	 * Inserts the latest obs row of the person and concept of the given obs pointing to it, and
+	 * returns it locked. The insert is rolled back to a savepoint if it fails, which happens when a
+	 * concurrent transaction inserted the row first, and the row of that transaction is returned.
+	 */
+	private LatestObs insertLatestObsRow(Obs obs) {
+		SQLException failure = sessionFactory.getCurrentSession().doReturningWork(connection -> {
+			Savepoint savepoint = connection.setSavepoint();
+			try (PreparedStatement insert = connection.prepareStatement(
+			    "insert into obs_latest (person_id, concept_id, obs_id, obs_datetime) values (?, ?, ?, ?)")) {
+				insert.setInt(1, obs.getPerson().getPersonId());
+				insert.setInt(2, obs.getConcept().getConceptId());
+				insert.setInt(3, obs.getObsId());
+				insert.setTimestamp(4, new Timestamp(obs.getObsDatetime().getTime()));
+				insert.executeUpdate();
+				connection.releaseSavepoint(savepoint);
+				return null;
+			}
+			catch (SQLException e) {
+				connection.rollback(savepoint);
+				return e;
+			}
+		});
+		
+		LatestObs latest = getLatestObsRow(obs);
+		if (latest == null) {
+			throw new DAOException("Could not insert the latest obs row of person " + obs.getPerson().getPersonId()
+			        + " and concept " + obs.getConcept().getConceptId(), failure);
+		}
+		return latest;
+	}
+	
+	/**
+	 * Points a latest obs row to the most recent non voided obs of its person and concept other than
+	 * the given one, or deletes it if there is none
+	 */
+	private void replaceLatestObs(LatestObs latest, Integer excludedObsId) {
+		Session session = sessionFactory.getCurrentSession();
+		// the query must not flush obs that the calling service method has not handled yet, obs that
+		// were voided or deleted in this session but not flushed are skipped by checking their session
+		// state
+		FlushMode flushMode = session.getHibernateFlushMode();
+		session.setHibernateFlushMode(FlushMode.MANUAL);
+		try {
+			Query<Integer> query = session.createQuery(
+			    "select o.obsId from Obs o where o.person.personId = :personId and o.concept.conceptId = :conceptId "
+			            + "and o.voided = false and o.obsId <> :obsId order by o.obsDatetime desc, o.obsId desc",
+			    Integer.class);
+			query.setParameter("personId", latest.getPersonId());
+			query.setParameter("conceptId", latest.getConceptId());
+			query.setParameter("obsId", excludedObsId);
+			query.setMaxResults(LATEST_OBS_CANDIDATES);
+			for (int first = 0;; first += LATEST_OBS_CANDIDATES) {
+				List<Integer> obsIds = query.setFirstResult(first).list();
+				for (Integer obsId : obsIds) {
+					Obs candidate = session.get(Obs.class, obsId);
+					if (candidate != null && !candidate.getVoided()) {
+						latest.setObs(candidate.getObsId(), candidate.getObsDatetime());
+						return;
+					}
+				}
+				if (obsIds.size() < LATEST_OBS_CANDIDATES) {
+					break;
+				}
+			}
+			// deleted right away, a row inserted for the same person and concept later in the
+			// transaction would collide with it otherwise
+			session.evict(latest);
+			session.createQuery("delete from LatestObs l where l.personId = :personId and l.conceptId = :conceptId")
+			        .setParameter("personId", latest.getPersonId()).setParameter("conceptId", latest.getConceptId())
+			        .executeUpdate();
+		}
+		finally {
+			session.setHibernateFlushMode(flushMode);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getLatestObs(java.util.List, java.util.List)
+	 */
+	@Override
+	public List<Obs> getLatestObs(List<Integer> personIds, List<Integer> conceptIds) throws DAOException {
+		List<Obs> latestObs = new ArrayList<>();
+		if (personIds.isEmpty() || conceptIds.isEmpty()) {
+			return latestObs;
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		for (int from = 0; from < personIds.size(); from += MAX_IDS_PER_QUERY) {
+			List<Integer> personIdChunk = personIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, personIds.size()));
+			latestObs.addAll(session.createQuery(
+			    "select o from Obs o, LatestObs l where o.obsId = l.obsId and l.personId in (:personIds) "
+			            + "and l.conceptId in (:conceptIds) order by l.personId, l.conceptId", Obs.class)
+			        .setParameterList("personIds", personIdChunk).setParameterList("conceptIds", conceptIds).list());
+		}
+		return latestObs;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getComplexObsWithUnshardedFiles(java.lang.Integer, int)
+	 */
+	@Override
+	public List<Obs> getComplexObsWithUnshardedFiles(Integer afterObsId, int maxResults) throws DAOException {
+		// a sharded file name starts with two levels of two character directories
+		return sessionFactory.getCurrentSession().createQuery(
+		    "from Obs o where o.valueComplex is not null and o.valueComplex not like '%|__/__/%' "
+		            + "and o.valueComplex not like '__/__/%' and o.obsId > :afterObsId order by o.obsId", Obs.class)
+		        .setParameter("afterObsId", afterObsId == null ? 0 : afterObsId).setMaxResults(maxResults).list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getObsByComplexDataFileName(java.lang.String)
+	 */
+	@Override
+	public List<Obs> getObsByComplexDataFileName(String fileName) throws DAOException {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "from Obs o where o.valueComplex = :fileName or o.valueComplex like :valueComplex order by o.obsId", Obs.class)
+		        .setParameter("fileName", fileName).setParameter("valueComplex", "%|" + fileName).list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#updateValueComplex(org.openmrs.Obs, java.lang.String)
+	 */
+	@Override
+	public void updateValueComplex(Obs obs, String valueComplex) throws DAOException {
+		// a bulk update, obs are immutable once saved and saving a changed obs voids it
+		sessionFactory.getCurrentSession().createQuery("update Obs set valueComplex = :valueComplex where obsId = :obsId")
+		        .setParameter("valueComplex", valueComplex).setParameter("obsId", obs.getObsId()).executeUpdate();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.ObsDAO#getObservations(List, List, List, List, List, List, List,
 	 *      Integer, Integer, Date, Date, boolean, String)
@@ -105,6 +312,47 @@ public class HibernateObsDAO implements ObsDAO {
 	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, List<String> sortList,
 	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
 	        String accessionNumber) throws DAOException {
+		return createGetObservationsQuery(whom, encounters, questions, answers, personTypes, locations, sortList,
+		    mostRecentN, obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#streamObservations(List, List, List, List, List, List, List,
+	 *      Integer, Integer, Date, Date, boolean, String, int, Consumer)
+	 */
+	@Override
+	public long streamObservations(List<Person> whom, List<Encounter> encounters, List<Concept> questions,
+	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, List<String> sortList,
+	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
+	        String accessionNumber, int batchSize, Consumer<Obs> consumer) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		// pending changes would be lost when the session is cleared
+		session.flush();
+		
+		Query<Obs> query = createGetObservationsQuery(whom, encounters, questions, answers, personTypes, locations,
+		    sortList, mostRecentN, obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber);
+		query.setFetchSize(batchSize);
+		query.setReadOnly(true);
+		query.setCacheMode(CacheMode.IGNORE);
+		
+		long count = 0;
+		try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				consumer.accept((Obs) results.get(0));
+				count++;
+				if (count % batchSize == 0) {
+					// free the memory held by the obs that have been processed
+					session.clear();
+				}
+			}
+		}
+		return count;
+	}
+	
+	private Query<Obs> createGetObservationsQuery(List<Person> whom, List<Encounter> encounters, List<Concept> questions,
+	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, List<String> sortList,
+	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
+	        String accessionNumber) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Obs> cq = cb.createQuery(Obs.class);
@@ -117,13 +365,13 @@ public class HibernateObsDAO implements ObsDAO {
 
 		cq.orderBy(createOrderList(cb, root, sortList));
 
-		TypedQuery<Obs> query = session.createQuery(cq);
+		Query<Obs> query = session.createQuery(cq);
 		
 		if (mostRecentN != null && mostRecentN > 0) {
 			query.setMaxResults(mostRecentN);
 		}
 		
-		return query.getResultList();
+		return query;
 	}
 						
 	/**
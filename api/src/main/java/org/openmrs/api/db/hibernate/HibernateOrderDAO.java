@@ -19,6 +19,7 @@ import org.openmrs.ConceptClass;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
 import org.openmrs.GlobalProperty;
+import org.openmrs.Obs;
 import org.openmrs.Order;
 import org.openmrs.OrderAttribute;
 import org.openmrs.OrderAttributeType;
@@ -30,6 +31,7 @@ import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.api.APIException;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.ObsDAO;
 import org.openmrs.api.db.OrderDAO;
 import org.openmrs.parameter.OrderSearchCriteria;
 import org.openmrs.User;
@@ -75,6 +77,8 @@ public class HibernateOrderDAO implements OrderDAO {
 	 */
 	private SessionFactory sessionFactory;
 	
+	private ObsDAO obsDAO;
+	
 	public HibernateOrderDAO() {
 	}
 	
@@ -87,6 +91,16 @@ public class HibernateOrderDAO implements OrderDAO {
 		this.sessionFactory = sessionFactory;
 	}
 	
+	/**
+	 * Set the obs dao, the obs of a purged order are deleted through it
+	 * 
+	 * @param obsDAO
+	 * @since 2.7.0
+	 */
+	public void setObsDAO(ObsDAO obsDAO) {
+		this.obsDAO = obsDAO;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.OrderDAO#saveOrder(org.openmrs.Order)
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
@@ -379,13 +393,18 @@ public class HibernateOrderDAO implements OrderDAO {
 	}
 	
 	/**
-	 * Delete Obs that references (deleted) Order
+	 * Delete Obs that references (deleted) Order, each obs is deleted through the {@link ObsDAO} so
+	 * that the latest obs rows pointing to it are moved to the next most recent obs
 	 */
 	@Override
 	public void deleteObsThatReference(Order order) {
 		if (order != null) {
-			sessionFactory.getCurrentSession().createQuery("delete Obs where order = :order").setParameter("order", order)
-			        .executeUpdate();
+			List<Obs> obsList = sessionFactory.getCurrentSession()
+			        .createQuery("from Obs where order = :order order by obsId desc", Obs.class).setParameter("order", order)
+			        .list();
+			for (Obs obs : obsList) {
+				obsDAO.deleteObs(obs);
+			}
 		}
 	}
 	
@@ -409,6 +428,18 @@ public class HibernateOrderDAO implements OrderDAO {
 	 */
 	@Override
 	public Long getNextOrderNumberSeedSequenceValue() {
+		return reserveOrderNumberSeedBlock(1);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.OrderDAO#reserveOrderNumberSeedBlock(int)
+	 */
+	@Override
+	public Long reserveOrderNumberSeedBlock(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("blockSize must be at least 1");
+		}
+		
 		GlobalProperty globalProperty = sessionFactory.getCurrentSession().get(GlobalProperty.class,
 		    OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED, LockOptions.UPGRADE);
 		
@@ -431,7 +462,7 @@ public class HibernateOrderDAO implements OrderDAO {
 			        new Object[] { OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED });
 		}
 		
-		globalProperty.setPropertyValue(String.valueOf(gpNumericValue + 1));
+		globalProperty.setPropertyValue(String.valueOf(gpNumericValue + blockSize));
 		
 		sessionFactory.getCurrentSession().save(globalProperty);
 		
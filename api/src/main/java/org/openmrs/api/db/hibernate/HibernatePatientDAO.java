@@ -15,10 +15,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -44,7 +46,10 @@ import org.openmrs.PersonName;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PatientDAO;
+import org.openmrs.api.db.hibernate.search.LuceneKeysetPager;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.collection.ListPart;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -212,6 +217,47 @@ public class HibernatePatientDAO implements PatientDAO {
 		return new ArrayList<>(patients);
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#searchPatients(String, boolean, String, int, boolean)
+	 */
+	@Override
+	public SearchResultPage<Patient> searchPatients(String query, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws DAOException {
+		Long emptyCount = includeCount ? 0L : null;
+		if (StringUtils.isBlank(query) || length < 1) {
+			return new SearchResultPage<>(Collections.emptyList(), null, emptyCount);
+		}
+		
+		String escapedQuery = LuceneQuery.escapeQuery(query);
+		String minChars = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS);
+		if (minChars == null || !StringUtils.isNumeric(minChars)) {
+			minChars = "" + OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS;
+		}
+		if (escapedQuery.length() < Integer.parseInt(minChars)) {
+			return new SearchResultPage<>(Collections.emptyList(), null, emptyCount);
+		}
+		
+		PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
+		List<LuceneQuery<?>> queries = new ArrayList<>();
+		queries.add(getCollapsedPatientIdentifierLuceneQuery(escapedQuery, includeVoided));
+		queries.add(personLuceneQuery.getCollapsedPatientNameQuery(escapedQuery, includeVoided));
+		queries.add(personLuceneQuery.getCollapsedPatientAttributeQuery(escapedQuery, includeVoided));
+		
+		int pageLength = Math.min(length, HibernatePersonDAO.getMaximumSearchResults());
+		LuceneKeysetPager.Page page = LuceneKeysetPager.page(queries, "patients:" + includeVoided + ":" + query,
+		    continuationToken, pageLength, includeCount);
+		
+		List<Integer> patientIds = new ArrayList<>(page.getValues().size());
+		page.getValues().forEach(patientId -> patientIds.add(patientId.intValue()));
+		List<Patient> patients = new ArrayList<>(patientIds.size());
+		for (Patient patient : getObjectsByIds(Patient.class, patientIds)) {
+			if (patient != null) {
+				patients.add(patient);
+			}
+		}
+		return new SearchResultPage<>(patients, page.getContinuationToken(), page.getCount());
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.PatientDAO#getPatients(String, Integer, Integer)
 	 */
@@ -434,6 +480,15 @@ public class HibernatePatientDAO implements PatientDAO {
 		sortDuplicatePatients(patients, patientIds);
 		return patients;
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#findDuplicatePatients(double, Consumer)
+	 */
+	@Override
+	public long findDuplicatePatients(double minimumScore, Consumer<DuplicatePatientMatch> consumer) {
+		return new DuplicatePatientDetector(sessionFactory, DuplicatePatientDetector.DEFAULT_MAX_BLOCK_SIZE, Runtime
+		        .getRuntime().availableProcessors()).findDuplicates(minimumScore, consumer);
+	}
 
 	private String getDuplicatePatientsSQLString(List<String> attributes) {
 		StringBuilder outerSelect = new StringBuilder("select distinct t1.patient_id from patient t1 ");
@@ -861,6 +916,17 @@ public class HibernatePatientDAO implements PatientDAO {
         return luceneQuery;
     }
 
+	private LuceneQuery<PatientIdentifier> getCollapsedPatientIdentifierLuceneQuery(String query, boolean includeVoided) {
+		LuceneQuery<PatientIdentifier> luceneQuery = getPatientIdentifierLuceneQuery(query, false);
+		if (!includeVoided) {
+			luceneQuery.include("voided", false);
+			luceneQuery.include("patient.voided", false);
+		}
+		luceneQuery.include("patient.isPatient", true);
+		
+		return luceneQuery.collapse("patient.personId", "personIdDocValues");
+	}
+	
 	private String removeIdentifierPadding(String query) {
 		String regex = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_REGEX, "");
 		if (Pattern.matches("^\\^.{1}\\*.*$", regex)) {
@@ -949,6 +1015,33 @@ public class HibernatePatientDAO implements PatientDAO {
 			    "select allergy_status from patient where patient_id = :patientId").setInteger("patientId", patient.getPatientId()).uniqueResult();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getLatestObsIdsByConcept(org.openmrs.Patient)
+	 */
+	@Override
+	public Map<Integer, Integer> getLatestObsIdsByConcept(Patient patient) {
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select l.conceptId, l.obsId from LatestObs l where l.personId = :personId order by l.conceptId",
+		    Object[].class).setParameter("personId", patient.getPatientId()).list();
+		
+		Map<Integer, Integer> obsIdsByConceptId = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			obsIdsByConceptId.put((Integer) row[0], (Integer) row[1]);
+		}
+		return obsIdsByConceptId;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getObjectsByIds(java.lang.Class, java.util.List)
+	 */
+	@Override
+	public <T> List<T> getObjectsByIds(Class<T> type, List<Integer> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return sessionFactory.getCurrentSession().byMultipleIds(type).enableSessionCheck(true).multiLoad(ids);
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.PatientDAO#saveAllergies(org.openmrs.Patient,
 	 *      org.openmrsallergyapi.Allergies)
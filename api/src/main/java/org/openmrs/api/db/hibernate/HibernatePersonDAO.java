@@ -34,7 +34,9 @@ import org.openmrs.RelationshipType;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PersonDAO;
+import org.openmrs.api.db.hibernate.search.LuceneKeysetPager;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.collection.ListPart;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.util.OpenmrsConstants;
@@ -285,6 +287,87 @@ public class HibernatePersonDAO implements PersonDAO {
 		return getPeople(searchString, dead, null);
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.PersonDAO#searchPeople(String, boolean, String, int, boolean)
+	 */
+	@Override
+	public SearchResultPage<Person> searchPeople(String searchPhrase, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) {
+		if (searchPhrase == null || length < 1) {
+			return new SearchResultPage<>(new ArrayList<>(), null, includeCount ? 0L : null);
+		}
+		
+		int pageLength = Math.min(length, getMaximumSearchResults());
+		String fingerprint = "people:" + includeVoided + ":" + searchPhrase;
+		if (StringUtils.isBlank(searchPhrase)) {
+			return searchAllPeople(includeVoided, fingerprint, continuationToken, pageLength, includeCount);
+		}
+		
+		String query = LuceneQuery.escapeQuery(searchPhrase);
+		PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
+		List<LuceneQuery<?>> queries = new ArrayList<>();
+		queries.add(personLuceneQuery.getCollapsedPersonNameQueryWithOrParser(query, includeVoided));
+		queries.add(personLuceneQuery.getCollapsedPersonAttributeQueryWithOrParser(query, includeVoided));
+		
+		LuceneKeysetPager.Page page = LuceneKeysetPager.page(queries, fingerprint, continuationToken, pageLength,
+		    includeCount);
+		
+		List<Integer> personIds = new ArrayList<>(page.getValues().size());
+		page.getValues().forEach(personId -> personIds.add(personId.intValue()));
+		return new SearchResultPage<>(getPeopleByIds(personIds), page.getContinuationToken(), page.getCount());
+	}
+	
+	/**
+	 * Pages through all people by id, reading only the requested page from the database
+	 */
+	private SearchResultPage<Person> searchAllPeople(boolean includeVoided, String fingerprint, String continuationToken,
+	        int length, boolean includeCount) {
+		LuceneKeysetPager.Position after = LuceneKeysetPager.Position.decode(continuationToken, fingerprint);
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		
+		CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+		Root<Person> root = cq.from(Person.class);
+		List<Predicate> predicates = new ArrayList<>();
+		if (after != null) {
+			predicates.add(cb.greaterThan(root.get("personId"), (int) after.getValue()));
+		}
+		if (!includeVoided) {
+			predicates.add(cb.isFalse(root.get("personVoided")));
+		}
+		cq.select(root.get("personId")).where(predicates.toArray(new Predicate[] {})).orderBy(cb.asc(root.get("personId")));
+		List<Integer> personIds = new ArrayList<>(session.createQuery(cq).setMaxResults(length + 1).getResultList());
+		
+		String nextToken = null;
+		if (personIds.size() > length) {
+			personIds = personIds.subList(0, length);
+			nextToken = new LuceneKeysetPager.Position(0, 0f, personIds.get(length - 1)).encode(fingerprint);
+		}
+		
+		Long count = null;
+		if (includeCount) {
+			CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+			Root<Person> countRoot = countQuery.from(Person.class);
+			countQuery.select(cb.count(countRoot));
+			if (!includeVoided) {
+				countQuery.where(cb.isFalse(countRoot.get("personVoided")));
+			}
+			count = session.createQuery(countQuery).getSingleResult();
+		}
+		
+		return new SearchResultPage<>(getPeopleByIds(personIds), nextToken, count);
+	}
+	
+	private List<Person> getPeopleByIds(List<Integer> personIds) {
+		List<Person> people = new ArrayList<>(personIds.size());
+		for (Person person : sessionFactory.getCurrentSession().byMultipleIds(Person.class).multiLoad(personIds)) {
+			if (person != null) {
+				people.add(person);
+			}
+		}
+		return people;
+	}
+	
 	/**
 	 * Fetch the max results value from the global properties table
 	 * 
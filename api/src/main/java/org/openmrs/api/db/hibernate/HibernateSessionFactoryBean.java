@@ -29,6 +29,7 @@ import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.integrator.spi.Integrator;
 import org.hibernate.service.spi.SessionFactoryServiceRegistry;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdateQueue;
 import org.openmrs.module.Module;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.util.OpenmrsUtil;
@@ -42,6 +43,8 @@ public class HibernateSessionFactoryBean extends LocalSessionFactoryBean impleme
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateSessionFactoryBean.class);
 	
+	private static final String SEARCH_WORKER_EXECUTION = "hibernate.search.default.worker.execution";
+	
 	protected Set<String> mappingResources = new HashSet<>();
 	
 	/**
@@ -159,6 +162,12 @@ public class HibernateSessionFactoryBean extends LocalSessionFactoryBean impleme
 			log.error(MarkerFactory.getMarker("FATAL"), "Unable to load default hibernate properties", e);
 		}
 		
+		// in the async search index update mode the documents of objects that are indexed on commit
+		// are written to the index by the bounded queue of the Hibernate Search worker
+		if (SearchIndexUpdateQueue.isAsyncMode(properties) && !config.containsKey(SEARCH_WORKER_EXECUTION)) {
+			config.setProperty(SEARCH_WORKER_EXECUTION, "async");
+		}
+		
 		log.debug("Replacing variables in hibernate properties");
 		final String applicationDataDirectory = OpenmrsUtil.getApplicationDataDirectory();
 		for (Entry<Object, Object> entry : config.entrySet()) {
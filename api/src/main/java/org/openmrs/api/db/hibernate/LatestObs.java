@@ -0,0 +1,111 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * A row of the latest obs table, which points to the most recent non voided observation of a person
+ * for a concept so that it can be found without scanning the observation history. The most recent
+ * observation is the one with the latest obs datetime and then the highest id. The rows are
+ * maintained by {@link HibernateObsDAO} whenever an observation is saved, voided or deleted.
+ *
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "obs_latest")
+public class LatestObs implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "person_id")
+	private Integer personId;
+	
+	@Id
+	@Column(name = "concept_id")
+	private Integer conceptId;
+	
+	@Column(name = "obs_id", nullable = false)
+	private Integer obsId;
+	
+	@Column(name = "obs_datetime", nullable = false)
+	private Date obsDatetime;
+	
+	public LatestObs() {
+	}
+	
+	/**
+	 * @param personId the id of the person
+	 * @param conceptId the id of the concept
+	 */
+	public LatestObs(Integer personId, Integer conceptId) {
+		this.personId = personId;
+		this.conceptId = conceptId;
+	}
+	
+	public Integer getPersonId() {
+		return personId;
+	}
+	
+	public Integer getConceptId() {
+		return conceptId;
+	}
+	
+	public Integer getObsId() {
+		return obsId;
+	}
+	
+	public Date getObsDatetime() {
+		return obsDatetime;
+	}
+	
+	/**
+	 * @param obsId the id of the most recent observation
+	 * @param obsDatetime the obs datetime of the most recent observation
+	 */
+	public void setObs(Integer obsId, Date obsDatetime) {
+		this.obsId = obsId;
+		this.obsDatetime = obsDatetime;
+	}
+	
+	/**
+	 * @param obsId the id of an observation of the same person and concept
+	 * @param obsDatetime the obs datetime of that observation
+	 * @return true if that observation is more recent than the one this row points to
+	 */
+	public boolean isBefore(Integer obsId, Date obsDatetime) {
+		int compared = this.obsDatetime.compareTo(obsDatetime);
+		return compared < 0 || (compared == 0 && this.obsId < obsId);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LatestObs)) {
+			return false;
+		}
+		LatestObs other = (LatestObs) obj;
+		return Objects.equals(personId, other.personId) && Objects.equals(conceptId, other.conceptId);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(personId, conceptId);
+	}
+}
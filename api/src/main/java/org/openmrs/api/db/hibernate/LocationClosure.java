@@ -0,0 +1,85 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A row of the location closure table, which links every location to itself and to each of its
+ * ancestors so that the descendants or ancestors of a location can be selected with a single query.
+ * The rows are maintained by {@link HibernateLocationDAO} whenever a location is saved or deleted.
+ *
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "location_closure")
+public class LocationClosure implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "ancestor_location_id")
+	private Integer ancestorId;
+	
+	@Id
+	@Column(name = "descendant_location_id")
+	private Integer descendantId;
+	
+	@Column(name = "depth", nullable = false)
+	private Integer depth;
+	
+	public LocationClosure() {
+	}
+	
+	/**
+	 * @param ancestorId the id of the ancestor location
+	 * @param descendantId the id of the descendant location
+	 * @param depth the number of levels between the two locations, 0 if they are the same
+	 */
+	public LocationClosure(Integer ancestorId, Integer descendantId, Integer depth) {
+		this.ancestorId = ancestorId;
+		this.descendantId = descendantId;
+		this.depth = depth;
+	}
+	
+	public Integer getAncestorId() {
+		return ancestorId;
+	}
+	
+	public Integer getDescendantId() {
+		return descendantId;
+	}
+	
+	public Integer getDepth() {
+		return depth;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LocationClosure)) {
+			return false;
+		}
+		LocationClosure other = (LocationClosure) obj;
+		return Objects.equals(ancestorId, other.ancestorId) && Objects.equals(descendantId, other.descendantId);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(ancestorId, descendantId);
+	}
+}
@@ -47,35 +47,51 @@ public class PersonLuceneQuery {
 	}
 
 	public LuceneQuery<PersonName> getPersonNameQuery(String query, boolean includeVoided) {
-		return getPersonNameQuery(query, false, includeVoided, false, null);
+		return getPersonNameQuery(query, false, includeVoided, false, null, false);
 	}
 
 	public LuceneQuery<PersonName> getPatientNameQuery(String query, boolean includeVoided) {
-		return getPersonNameQuery(query, false, includeVoided, true, null);
+		return getPersonNameQuery(query, false, includeVoided, true, null, false);
 	}
 
 	public LuceneQuery<PersonName> getPersonNameQuery(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonNameQuery(query, false, includeVoided, false, skipSame);
+		return getPersonNameQuery(query, false, includeVoided, false, skipSame, false);
 	}
 
 	public LuceneQuery<PersonName> getPatientNameQuery(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonNameQuery(query, false, includeVoided, true, skipSame);
+		return getPersonNameQuery(query, false, includeVoided, true, skipSame, false);
 	}
 
 	public LuceneQuery<PersonName> getPersonNameQueryWithOrParser(String query, boolean includeVoided) {
-		return getPersonNameQuery(query, true, includeVoided, false, null);
+		return getPersonNameQuery(query, true, includeVoided, false, null, false);
 	}
 
 	public LuceneQuery<PersonName> getPatientNameQueryWithOrParser(String query, boolean includeVoided) {
-		return getPersonNameQuery(query, true, includeVoided, true, null);
+		return getPersonNameQuery(query, true, includeVoided, true, null, false);
 	}
 
 	public LuceneQuery<PersonName> getPersonNameQueryWithOrParser(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonNameQuery(query, true, includeVoided, false, skipSame);
+		return getPersonNameQuery(query, true, includeVoided, false, skipSame, false);
 	}
 
 	public LuceneQuery<PersonName> getPatientNameQueryWithOrParser(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonNameQuery(query, true, includeVoided, true, skipSame);
+		return getPersonNameQuery(query, true, includeVoided, true, skipSame, false);
+	}
+
+	/**
+	 * @see LuceneQuery#collapse(String, String)
+	 * @since 2.7.0
+	 */
+	public LuceneQuery<PersonName> getCollapsedPatientNameQuery(String query, boolean includeVoided) {
+		return getPersonNameQuery(query, false, includeVoided, true, null, true);
+	}
+
+	/**
+	 * @see LuceneQuery#collapse(String, String)
+	 * @since 2.7.0
+	 */
+	public LuceneQuery<PersonName> getCollapsedPersonNameQueryWithOrParser(String query, boolean includeVoided) {
+		return getPersonNameQuery(query, true, includeVoided, false, null, true);
 	}
 	
 	/**
@@ -189,7 +205,7 @@ public class PersonLuceneQuery {
 	}
 		
 		
-	private LuceneQuery<PersonName> getPersonNameQuery(String query, boolean orQueryParser, boolean includeVoided, boolean patientsOnly, LuceneQuery<?> skipSame) {
+	private LuceneQuery<PersonName> getPersonNameQuery(String query, boolean orQueryParser, boolean includeVoided, boolean patientsOnly, LuceneQuery<?> skipSame, boolean collapse) {
 		List<String> fields = new ArrayList<>();
 		fields.addAll(Arrays.asList("givenNameExact", "middleNameExact", "familyNameExact", "familyName2Exact"));
 		fields.addAll(Arrays.asList("givenNameStart", "middleNameStart", "familyNameStart", "familyName2Start"));
@@ -214,7 +230,9 @@ public class PersonLuceneQuery {
 			luceneQuery.include("person.isPatient", true);
 		}
 
-		if (skipSame != null) {
+		if (collapse) {
+			luceneQuery.collapse("person.personId", "personIdDocValues");
+		} else if (skipSame != null) {
 			luceneQuery.skipSame("person.personId", skipSame);
 		} else {
 			luceneQuery.skipSame("person.personId");
@@ -224,22 +242,38 @@ public class PersonLuceneQuery {
 	}
 
 	public LuceneQuery<PersonAttribute> getPersonAttributeQuery(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonAttributeQuery(query, false, includeVoided, false, skipSame);
+		return getPersonAttributeQuery(query, false, includeVoided, false, skipSame, false);
 	}
 
 	public LuceneQuery<PersonAttribute> getPatientAttributeQuery(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonAttributeQuery(query, false, includeVoided, true, skipSame);
+		return getPersonAttributeQuery(query, false, includeVoided, true, skipSame, false);
 	}
 
 	public LuceneQuery<PersonAttribute> getPersonAttributeQueryWithOrParser(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonAttributeQuery(query, true, includeVoided, false, skipSame);
+		return getPersonAttributeQuery(query, true, includeVoided, false, skipSame, false);
 	}
 
 	public LuceneQuery<PersonAttribute> getPatientAttributeQueryWithOrParser(String query, boolean includeVoided, LuceneQuery<?> skipSame) {
-		return getPersonAttributeQuery(query, true, includeVoided, true, skipSame);
+		return getPersonAttributeQuery(query, true, includeVoided, true, skipSame, false);
+	}
+
+	/**
+	 * @see LuceneQuery#collapse(String, String)
+	 * @since 2.7.0
+	 */
+	public LuceneQuery<PersonAttribute> getCollapsedPatientAttributeQuery(String query, boolean includeVoided) {
+		return getPersonAttributeQuery(query, false, includeVoided, true, null, true);
+	}
+
+	/**
+	 * @see LuceneQuery#collapse(String, String)
+	 * @since 2.7.0
+	 */
+	public LuceneQuery<PersonAttribute> getCollapsedPersonAttributeQueryWithOrParser(String query, boolean includeVoided) {
+		return getPersonAttributeQuery(query, true, includeVoided, false, null, true);
 	}
 
-	private LuceneQuery<PersonAttribute> getPersonAttributeQuery(String query, boolean orQueryParser, boolean includeVoided, boolean patientsOnly, LuceneQuery<?> skipSame) {
+	private LuceneQuery<PersonAttribute> getPersonAttributeQuery(String query, boolean orQueryParser, boolean includeVoided, boolean patientsOnly, LuceneQuery<?> skipSame, boolean collapse) {
 		List<String> fields = new ArrayList<>();
 		fields.add("valuePhrase"); //will position whole phrase match higher
 		fields.add("valueExact");
@@ -267,7 +301,9 @@ public class PersonLuceneQuery {
 			luceneQuery.include("person.isPatient", true);
 		}
 
-		if (skipSame != null) {
+		if (collapse) {
+			luceneQuery.collapse("person.personId", "personIdDocValues");
+		} else if (skipSame != null) {
 			luceneQuery.skipSame("person.personId", skipSame);
 		} else {
 			luceneQuery.skipSame("person.personId");
@@ -0,0 +1,73 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+
+/**
+ * Lets a thread turn off the automatic indexing of the entities it saves, for bulk loads that
+ * rebuild the index of the affected types once they are done instead. The changes are read from the
+ * events of the session as it is flushed, so indexing must be deferred until the session has been
+ * flushed for the last time.
+ *
+ * @since 2.7.0
+ */
+public class DeferrableIndexingInterceptor implements EntityIndexingInterceptor<Object> {
+	
+	private static final ThreadLocal<Boolean> deferred = ThreadLocal.withInitial(() -> Boolean.FALSE);
+	
+	/**
+	 * Sets whether the indexing of the entities saved by the current thread is deferred
+	 *
+	 * @param defer true to skip indexing, false to index as usual
+	 * @return whether indexing was deferred before, to restore once the bulk load is done
+	 */
+	public static boolean setIndexingDeferred(boolean defer) {
+		boolean wasDeferred = deferred.get();
+		if (defer) {
+			deferred.set(Boolean.TRUE);
+		} else {
+			deferred.remove();
+		}
+		return wasDeferred;
+	}
+	
+	/**
+	 * @return true if the indexing of the entities saved by the current thread is deferred
+	 */
+	public static boolean isIndexingDeferred() {
+		return deferred.get();
+	}
+	
+	@Override
+	public IndexingOverride onAdd(Object entity) {
+		return getOverride();
+	}
+	
+	@Override
+	public IndexingOverride onUpdate(Object entity) {
+		return getOverride();
+	}
+	
+	@Override
+	public IndexingOverride onDelete(Object entity) {
+		return getOverride();
+	}
+	
+	@Override
+	public IndexingOverride onCollectionUpdate(Object entity) {
+		return getOverride();
+	}
+	
+	private static IndexingOverride getOverride() {
+		return isIndexingDeferred() ? IndexingOverride.SKIP : IndexingOverride.APPLY_DEFAULT;
+	}
+}
@@ -0,0 +1,226 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.APIException;
+
+/**
+ * Pages through the values matched by a sequence of collapsed queries with a continuation token
+ * instead of an offset, e.g. through the patients matched by identifier, then by name and then by
+ * attribute.
+ * <p>
+ * Every query contributes the values that no earlier query matched, ordered by their best score and
+ * then by the value. The token records the query, score and value of the last result of a page, so
+ * the next page is read from the best scores the queries collect from the doc values of the index,
+ * without projecting the stored fields of the matching documents or loading the results of the
+ * earlier pages.
+ *
+ * @see LuceneQuery#collapsedScores()
+ * @since 2.7.0
+ */
+public class LuceneKeysetPager {
+	
+	private static final String TOKEN_VERSION = "1";
+	
+	private static final Comparator<Map.Entry<Long, Float>> BY_SCORE_AND_VALUE = (a, b) -> {
+		int byScore = Float.compare(b.getValue(), a.getValue());
+		return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+	};
+	
+	private LuceneKeysetPager() {
+	}
+	
+	/**
+	 * Gets the page of values that follows the position recorded in the given token
+	 *
+	 * @param queries the collapsed queries in the order their results are returned in
+	 * @param fingerprint identifies the search, e.g. the phrase and the filters, a token can only be
+	 *            used with the fingerprint of the search that created it
+	 * @param continuationToken the token of the previous page or null for the first page
+	 * @param length the maximum number of values to return
+	 * @param includeCount whether to count the values matched by all queries
+	 * @return the page of values
+	 * @throws APIException if the token is invalid or belongs to a different search
+	 */
+	public static Page page(List<? extends LuceneQuery<?>> queries, String fingerprint, String continuationToken,
+	        int length, boolean includeCount) {
+		Position after = Position.decode(continuationToken, fingerprint);
+		int firstQuery = after != null ? after.query : 0;
+		
+		Set<Long> earlierValues = new HashSet<>();
+		List<Long> values = new ArrayList<>();
+		Position last = null;
+		boolean hasMore = false;
+		for (int i = 0; i < queries.size(); i++) {
+			if (hasMore && !includeCount) {
+				break;
+			}
+			
+			Map<Long, Float> scores = queries.get(i).collapsedScores();
+			List<Map.Entry<Long, Float>> candidates = new ArrayList<>();
+			if (i >= firstQuery) {
+				for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+					if (!earlierValues.contains(entry.getKey())
+					        && (i > firstQuery || after == null || after.isBefore(entry.getValue(), entry.getKey()))) {
+						candidates.add(entry);
+					}
+				}
+			}
+			earlierValues.addAll(scores.keySet());
+			
+			int remaining = length - values.size();
+			if (candidates.size() > remaining) {
+				hasMore = true;
+			}
+			if (remaining > 0 && !candidates.isEmpty()) {
+				candidates.sort(BY_SCORE_AND_VALUE);
+				for (Map.Entry<Long, Float> candidate : candidates.subList(0, Math.min(remaining, candidates.size()))) {
+					values.add(candidate.getKey());
+					last = new Position(i, candidate.getValue(), candidate.getKey());
+				}
+			}
+		}
+		
+		String nextToken = hasMore ? last.encode(fingerprint) : null;
+		return new Page(values, nextToken, includeCount ? (long) earlierValues.size() : null);
+	}
+	
+	/**
+	 * A page of values along with the token to get the next page with
+	 */
+	public static class Page {
+		
+		private final List<Long> values;
+		
+		private final String continuationToken;
+		
+		private final Long count;
+		
+		public Page(List<Long> values, String continuationToken, Long count) {
+			this.values = values;
+			this.continuationToken = continuationToken;
+			this.count = count;
+		}
+		
+		/**
+		 * @return the values in the order of the queries, their scores and the values
+		 */
+		public List<Long> getValues() {
+			return values;
+		}
+		
+		/**
+		 * @return the token to get the next page with or null if this is the last page
+		 */
+		public String getContinuationToken() {
+			return continuationToken;
+		}
+		
+		/**
+		 * @return the number of values matched by all queries or null if it was not requested
+		 */
+		public Long getCount() {
+			return count;
+		}
+	}
+	
+	/**
+	 * The position of the last result of a page, encoded in the continuation token
+	 */
+	public static class Position {
+		
+		private final int query;
+		
+		private final float score;
+		
+		private final long value;
+		
+		public Position(int query, float score, long value) {
+			this.query = query;
+			this.score = score;
+			this.value = value;
+		}
+		
+		public int getQuery() {
+			return query;
+		}
+		
+		public float getScore() {
+			return score;
+		}
+		
+		public long getValue() {
+			return value;
+		}
+		
+		/**
+		 * @param score the score of a result of the same query
+		 * @param value the value of the result
+		 * @return true if the result comes after this position
+		 */
+		public boolean isBefore(float score, long value) {
+			int byScore = Float.compare(this.score, score);
+			return byScore > 0 || (byScore == 0 && value > this.value);
+		}
+		
+		/**
+		 * @param fingerprint identifies the search
+		 * @return the opaque continuation token
+		 */
+		public String encode(String fingerprint) {
+			String token = TOKEN_VERSION + ":" + Integer.toHexString(fingerprint.hashCode()) + ":" + query + ":"
+			        + Integer.toHexString(Float.floatToIntBits(score)) + ":" + value;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+		}
+		
+		/**
+		 * @param continuationToken the token to decode
+		 * @param fingerprint identifies the search
+		 * @return the position or null if the token is blank
+		 * @throws APIException if the token is invalid or belongs to a different search
+		 */
+		public static Position decode(String continuationToken, String fingerprint) {
+			if (StringUtils.isBlank(continuationToken)) {
+				return null;
+			}
+			
+			String[] parts;
+			try {
+				parts = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8).split(":");
+			}
+			catch (IllegalArgumentException e) {
+				throw new APIException("Invalid continuation token: " + continuationToken, e);
+			}
+			if (parts.length != 5 || !TOKEN_VERSION.equals(parts[0])) {
+				throw new APIException("Invalid continuation token: " + continuationToken);
+			}
+			if (!Integer.toHexString(fingerprint.hashCode()).equals(parts[1])) {
+				throw new APIException("The continuation token belongs to a different search");
+			}
+			try {
+				return new Position(Integer.parseInt(parts[2]),
+				        Float.intBitsToFloat(Integer.parseUnsignedInt(parts[3], 16)), Long.parseLong(parts[4]));
+			}
+			catch (NumberFormatException e) {
+				throw new APIException("Invalid continuation token: " + continuationToken, e);
+			}
+		}
+	}
+}
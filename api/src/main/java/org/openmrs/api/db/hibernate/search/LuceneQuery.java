@@ -9,24 +9,42 @@
  */
 package org.openmrs.api.db.hibernate.search;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
+import org.hibernate.NonUniqueResultException;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.search.query.dsl.QueryBuilder;
 import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.PatientIdentifier;
@@ -52,6 +70,10 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 
 	private Set<Object> skipSameValues;
 
+	private String collapseField;
+
+	private String collapseDocValuesField;
+
 	boolean useOrQueryParser = false;
 	
 	/**
@@ -340,9 +362,39 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 
 		return this;
 	}
-	
+
+	/**
+	 * Skip elements, values of which repeat in the given field, like {@link #skipSame(String)} does,
+	 * but while the query is run instead of before.
+	 * <p>
+	 * Only the best scoring element of every value is included in the results. The values are read
+	 * from the numeric doc values of the docValuesField, so unlike {@link #skipSame(String)} the
+	 * matching documents are neither projected nor turned into a filter and only the requested page
+	 * of elements is loaded. Segments of the index written before the docValuesField was added, e.g.
+	 * while the index is rebuilt, fall back to the stored values of the field.
+	 *
+	 * @param field the stored field with the integer values to skip duplicates of
+	 * @param docValuesField the field with the same values indexed as numeric doc values
+	 * @return this
+	 * @since 2.7.0
+	 */
+	public LuceneQuery<T> collapse(String field, String docValuesField) {
+		collapseField = field;
+		collapseDocValuesField = docValuesField;
+
+		return this;
+	}
+
 	@Override
 	public T uniqueResult() {
+		if (collapseField != null) {
+			List<T> list = list();
+			if (list.size() > 1) {
+				throw new NonUniqueResultException(list.size());
+			}
+			return list.isEmpty() ? null : list.get(0);
+		}
+
 		if (noUniqueTerms) {
 			return null;
 		}
@@ -355,6 +407,10 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	
 	@Override
 	public List<T> list() {
+		if (collapseField != null) {
+			return loadEntities(collapsedIds(0, Integer.MAX_VALUE).ids);
+		}
+		
 		if (noUniqueTerms) {
 			return Collections.emptyList();
 		}
@@ -367,6 +423,14 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	
 	@Override
 	public ListPart<T> listPart(Long firstResult, Long maxResults) {
+		if (collapseField != null) {
+			int first = (firstResult != null) ? firstResult.intValue() : 0;
+			int max = (maxResults != null) ? maxResults.intValue() : Integer.MAX_VALUE;
+			CollapsedIds collapsedIds = collapsedIds(first, max);
+			return ListPart.newListPart(loadEntities(collapsedIds.ids), firstResult, maxResults,
+			    (long) collapsedIds.hitCount, true);
+		}
+		
 		if (noUniqueTerms) {
 			return ListPart.newListPart(Collections.emptyList(), firstResult, maxResults, 0L, true);
 		}
@@ -386,6 +450,10 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	 */
 	@Override
 	public long resultSize() {
+		if (collapseField != null) {
+			return withIndexReader(reader -> collect(reader).bestHits.size());
+		}
+		
 		if (noUniqueTerms) {
 			return 0;
 		}
@@ -452,6 +520,196 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		return fullTextQuery;
 	}
 	
+	/**
+	 * Runs the query against the index like {@link #collapse(String, String)} does and gets the best
+	 * score of every value of the collapse field, without reading the ids of the documents.
+	 * 
+	 * @return the best score by value
+	 * @throws IllegalStateException if {@link #collapse(String, String)} was not called
+	 * @since 2.7.0
+	 */
+	public Map<Long, Float> collapsedScores() {
+		if (collapseField == null) {
+			throw new IllegalStateException("The collapse method must be called before calling this method.");
+		}
+		
+		Map<Long, Float> scores = new HashMap<>();
+		for (Map.Entry<Long, ScoreDoc> hit : withIndexReader(this::collect).bestHits.entrySet()) {
+			scores.put(hit.getKey(), hit.getValue().score);
+		}
+		return scores;
+	}
+	
+	/**
+	 * Runs the query against the index, keeps the best scoring document of every value of the
+	 * collapse field and reads the ids of the given page of the kept documents, ordered by score as
+	 * the full text query would order them. Document numbers are only valid within the reader that
+	 * collected them, so the ids are read with the same reader.
+	 */
+	private CollapsedIds collapsedIds(int firstResult, int maxResults) {
+		String idPropertyName = getSession().getSessionFactory().getClassMetadata(getType()).getIdentifierPropertyName();
+		Class<?> idType = getSession().getSessionFactory().getClassMetadata(getType()).getIdentifierType()
+		        .getReturnedClass();
+		return withIndexReader(reader -> {
+			List<ScoreDoc> hits = new ArrayList<>(collect(reader).bestHits.values());
+			hits.sort((a, b) -> a.score != b.score ? Float.compare(b.score, a.score) : Integer.compare(a.doc, b.doc));
+			
+			CollapsedIds collapsedIds = new CollapsedIds(hits.size());
+			int last = (int) Math.min((long) firstResult + maxResults, hits.size());
+			if (firstResult < last) {
+				IndexSearcher searcher = new IndexSearcher(reader);
+				for (ScoreDoc hit : hits.subList(firstResult, last)) {
+					String id = searcher.doc(hit.doc, Collections.singleton(idPropertyName)).get(idPropertyName);
+					collapsedIds.ids.add(Integer.class.equals(idType) ? Integer.valueOf(id) : id);
+				}
+			}
+			return collapsedIds;
+		});
+	}
+	
+	private CollapsingCollector collect(IndexReader reader) throws IOException {
+		Query query;
+		try {
+			query = prepareQuery();
+		}
+		catch (ParseException e) {
+			throw new IllegalStateException("Invalid query", e);
+		}
+		
+		TermsFilterFactory termsFilterFactory = new TermsFilterFactory();
+		termsFilterFactory.setIncludeTerms(includeTerms);
+		termsFilterFactory.setExcludeTerms(excludeTerms);
+		Query filteredQuery = new BooleanQuery.Builder().add(query, Occur.MUST).add(termsFilterFactory.getQuery(),
+		    Occur.FILTER).build();
+		
+		CollapsingCollector collector = new CollapsingCollector(collapseField, collapseDocValuesField);
+		new IndexSearcher(reader).search(filteredQuery, collector);
+		return collector;
+	}
+	
+	/**
+	 * Opens a reader of the index of the type, passes it to the given callback and releases it
+	 */
+	private <R> R withIndexReader(IndexReaderCallback<R> callback) {
+		IndexReaderAccessor readerAccessor = getFullTextSession().getSearchFactory().getIndexReaderAccessor();
+		IndexReader reader = readerAccessor.open(getType());
+		try {
+			return callback.doWithReader(reader);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to search the index of " + getType().getSimpleName(), e);
+		}
+		finally {
+			readerAccessor.close(reader);
+		}
+	}
+	
+	/**
+	 * Loads the entities with the given ids in the order of the ids, ids of entities that no longer
+	 * exist are skipped
+	 */
+	private List<T> loadEntities(List<Serializable> ids) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		List<T> entities = new ArrayList<>(ids.size());
+		for (T entity : getSession().byMultipleIds(getType()).multiLoad(ids)) {
+			if (entity != null) {
+				entities.add(entity);
+			}
+		}
+		return entities;
+	}
+	
+	private interface IndexReaderCallback<R> {
+		
+		R doWithReader(IndexReader reader) throws IOException;
+	}
+	
+	/**
+	 * The ids of a page of the collapsed documents and the number of collapsed documents
+	 */
+	private static class CollapsedIds {
+		
+		private final List<Serializable> ids = new ArrayList<>();
+		
+		private final int hitCount;
+		
+		CollapsedIds(int hitCount) {
+			this.hitCount = hitCount;
+		}
+	}
+	
+	/**
+	 * Keeps the best scoring document of every value of a field. Documents are collected in the
+	 * order of their ids, so the document with the lowest id wins among documents with the same
+	 * score, which is the document the full text query would return first.
+	 */
+	private static class CollapsingCollector extends SimpleCollector {
+		
+		private final String field;
+		
+		private final String docValuesField;
+		
+		private final Map<Long, ScoreDoc> bestHits = new HashMap<>();
+		
+		private Scorer scorer;
+		
+		private LeafReader leafReader;
+		
+		private NumericDocValues docValues;
+		
+		private int docBase;
+		
+		CollapsingCollector(String field, String docValuesField) {
+			this.field = field;
+			this.docValuesField = docValuesField;
+		}
+		
+		@Override
+		protected void doSetNextReader(LeafReaderContext context) throws IOException {
+			leafReader = context.reader();
+			docBase = context.docBase;
+			FieldInfo fieldInfo = leafReader.getFieldInfos().fieldInfo(docValuesField);
+			if (fieldInfo != null && fieldInfo.getDocValuesType() == DocValuesType.NUMERIC) {
+				docValues = leafReader.getNumericDocValues(docValuesField);
+			} else {
+				docValues = null;
+			}
+		}
+		
+		@Override
+		public void setScorer(Scorer scorer) {
+			this.scorer = scorer;
+		}
+		
+		@Override
+		public boolean needsScores() {
+			return true;
+		}
+		
+		@Override
+		public void collect(int doc) throws IOException {
+			Long value;
+			if (docValues != null) {
+				value = docValues.get(doc);
+			} else {
+				String storedValue = leafReader.document(doc, Collections.singleton(field)).get(field);
+				if (storedValue == null) {
+					return;
+				}
+				value = Long.valueOf(storedValue);
+			}
+			
+			float score = scorer.score();
+			ScoreDoc best = bestHits.get(value);
+			if (best == null || score > best.score) {
+				bestHits.put(value, new ScoreDoc(docBase + doc, score));
+			}
+		}
+	}
+	
 	private void applyPartialResults(FullTextQuery fullTextQuery, Long firstResult, Long maxResults) {
 		if (firstResult != null) {
 			fullTextQuery.setFirstResult(firstResult.intValue());
@@ -0,0 +1,340 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.MassIndexer;
+import org.hibernate.search.batchindexing.MassIndexerProgressMonitor;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.search.SearchIndexProgress;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the search index one indexed type at a time, so that the progress of every type can be
+ * reported and a rebuild that was interrupted can skip the types it has already indexed. Each type
+ * is indexed by a {@link MassIndexer} of its own, which is tuned with {@link Settings}.
+ *
+ * @since 2.7.0
+ */
+public class SearchIndexRebuilder {
+	
+	private static final Logger log = LoggerFactory.getLogger(SearchIndexRebuilder.class);
+	
+	private volatile Map<String, TypeProgress> progress = Collections.emptyMap();
+	
+	/**
+	 * Rebuilds the index of every indexed type, except for the given completed types.
+	 * <p>
+	 * The types are indexed in the order of their names, {@link Settings#getTypesToIndexInParallel()}
+	 * at a time. Types that fail to be indexed do not stop the other types from being indexed, the
+	 * first failure is rethrown once all types are done.
+	 *
+	 * @param session the session to create the indexers with
+	 * @param settings the settings to tune the indexers with
+	 * @param completedTypes the names of the types that were indexed by an earlier rebuild and are
+	 *            skipped
+	 * @param typeCompleted called on the calling thread with the name of every type that has been
+	 *            indexed
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the indexers
+	 */
+	public void rebuild(FullTextSession session, Settings settings, Set<String> completedTypes,
+	        Consumer<String> typeCompleted) throws InterruptedException {
+		List<Class<?>> types = getRootIndexedTypes(session);
+		Map<String, TypeProgress> newProgress = new LinkedHashMap<>();
+		for (Class<?> type : types) {
+			TypeProgress typeProgress = new TypeProgress(type.getName());
+			if (completedTypes.contains(type.getName())) {
+				typeProgress.status = SearchIndexProgress.Status.SKIPPED;
+			}
+			newProgress.put(type.getName(), typeProgress);
+		}
+		progress = newProgress;
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(settings.getTypesToIndexInParallel(), r -> {
+			Thread thread = new Thread(r, "OpenMRS search index rebuild " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+			int submitted = 0;
+			for (Class<?> type : types) {
+				TypeProgress typeProgress = newProgress.get(type.getName());
+				if (typeProgress.status == SearchIndexProgress.Status.PENDING) {
+					completionService.submit(() -> {
+						indexType(session, type, settings, typeProgress);
+						return type.getName();
+					});
+					submitted++;
+				}
+			}
+			
+			Exception failure = null;
+			for (int i = 0; i < submitted; i++) {
+				Future<String> future = completionService.take();
+				try {
+					typeCompleted.accept(future.get());
+				}
+				catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+			if (failure != null) {
+				throw new IllegalStateException("Failed to index all types", failure.getCause());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @return the progress of every type of the current or last rebuild, in the order the types are
+	 *         indexed in
+	 */
+	public List<SearchIndexProgress> getProgress() {
+		List<SearchIndexProgress> snapshot = new ArrayList<>();
+		for (TypeProgress typeProgress : progress.values()) {
+			snapshot.add(typeProgress.toSearchIndexProgress());
+		}
+		return snapshot;
+	}
+	
+	private void indexType(FullTextSession session, Class<?> type, Settings settings, TypeProgress typeProgress)
+	        throws InterruptedException {
+		log.info("Indexing {} with {} threads", type.getName(), settings.getThreadsToLoadObjects(type));
+		typeProgress.started();
+		try {
+			MassIndexer indexer = session.createIndexer(type).typesToIndexInParallel(1)
+			        .threadsToLoadObjects(settings.getThreadsToLoadObjects(type))
+			        .batchSizeToLoadObjects(settings.getBatchSizeToLoadObjects()).idFetchSize(settings.getIdFetchSize())
+			        .cacheMode(CacheMode.IGNORE).purgeAllOnStart(true).progressMonitor(typeProgress);
+			indexer.startAndWait();
+			typeProgress.finished(SearchIndexProgress.Status.COMPLETED);
+			log.info("Finished indexing {}", typeProgress.toSearchIndexProgress());
+		}
+		catch (InterruptedException | RuntimeException e) {
+			typeProgress.finished(SearchIndexProgress.Status.FAILED);
+			log.error("Failed to index " + type.getName(), e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the indexed types sorted by name, leaving out the types whose superclass is indexed as
+	 * well since the indexer of the superclass indexes them too.
+	 */
+	private List<Class<?>> getRootIndexedTypes(FullTextSession session) {
+		Set<Class<?>> indexedTypes = session.getSearchFactory().getIndexedTypes();
+		List<Class<?>> rootTypes = new ArrayList<>();
+		for (Class<?> type : indexedTypes) {
+			boolean root = true;
+			for (Class<?> other : indexedTypes) {
+				if (other != type && other.isAssignableFrom(type)) {
+					root = false;
+					break;
+				}
+			}
+			if (root) {
+				rootTypes.add(type);
+			}
+		}
+		rootTypes.sort(Comparator.comparing(Class::getName));
+		return rootTypes;
+	}
+	
+	/**
+	 * Tracks the progress of a single type, the indexer reports to it from its own threads
+	 */
+	private static class TypeProgress implements MassIndexerProgressMonitor {
+		
+		private final String type;
+		
+		private final LongAdder totalCount = new LongAdder();
+		
+		private final LongAdder indexedCount = new LongAdder();
+		
+		private volatile SearchIndexProgress.Status status = SearchIndexProgress.Status.PENDING;
+		
+		private volatile long startTime;
+		
+		private volatile long endTime;
+		
+		TypeProgress(String type) {
+			this.type = type;
+		}
+		
+		void started() {
+			startTime = System.currentTimeMillis();
+			status = SearchIndexProgress.Status.RUNNING;
+		}
+		
+		void finished(SearchIndexProgress.Status status) {
+			endTime = System.currentTimeMillis();
+			this.status = status;
+		}
+		
+		SearchIndexProgress toSearchIndexProgress() {
+			return new SearchIndexProgress(type, status, totalCount.sum(), indexedCount.sum(), startTime, endTime);
+		}
+		
+		@Override
+		public void documentsAdded(long increment) {
+			indexedCount.add(increment);
+		}
+		
+		@Override
+		public void documentsBuilt(int number) {
+		}
+		
+		@Override
+		public void entitiesLoaded(int size) {
+		}
+		
+		@Override
+		public void addToTotalCount(long count) {
+			totalCount.add(count);
+		}
+		
+		@Override
+		public void indexingCompleted() {
+		}
+	}
+	
+	/**
+	 * The settings to tune the indexers with, read from the global properties.
+	 */
+	public static class Settings {
+		
+		private final int threadsToLoadObjects;
+		
+		private final Map<String, Integer> threadsPerType;
+		
+		private final int batchSizeToLoadObjects;
+		
+		private final int idFetchSize;
+		
+		private final int typesToIndexInParallel;
+		
+		public Settings(int threadsToLoadObjects, Map<String, Integer> threadsPerType, int batchSizeToLoadObjects,
+		    int idFetchSize, int typesToIndexInParallel) {
+			this.threadsToLoadObjects = threadsToLoadObjects;
+			this.threadsPerType = threadsPerType;
+			this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+			this.idFetchSize = idFetchSize;
+			this.typesToIndexInParallel = typesToIndexInParallel;
+		}
+		
+		/**
+		 * Reads the settings from the global properties, this needs to be called on a thread with an
+		 * open session.
+		 *
+		 * @return the settings
+		 */
+		public static Settings fromGlobalProperties() {
+			Map<String, Integer> threadsPerType = new HashMap<>();
+			String value = Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_PER_TYPE);
+			for (String entry : StringUtils.split(StringUtils.defaultString(value), ',')) {
+				String[] typeAndThreads = StringUtils.split(entry, ':');
+				try {
+					int threads = typeAndThreads.length == 2 ? Integer.parseInt(typeAndThreads[1].trim()) : 0;
+					if (threads > 0) {
+						threadsPerType.put(typeAndThreads[0].trim(), threads);
+						continue;
+					}
+				}
+				catch (NumberFormatException e) {
+					// fall through to the warning
+				}
+				log.warn("Ignoring invalid entry '{}' of global property {}", entry,
+				    OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_PER_TYPE);
+			}
+			
+			return new Settings(
+			        getPositiveIntegerGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS,
+			            OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS_DEFAULT_VALUE),
+			        threadsPerType,
+			        getPositiveIntegerGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS,
+			            OpenmrsConstants.GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS_DEFAULT_VALUE),
+			        getPositiveIntegerGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_ID_FETCH_SIZE,
+			            OpenmrsConstants.GP_SEARCH_INDEXER_ID_FETCH_SIZE_DEFAULT_VALUE),
+			        getPositiveIntegerGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_TYPES_IN_PARALLEL,
+			            OpenmrsConstants.GP_SEARCH_INDEXER_TYPES_IN_PARALLEL_DEFAULT_VALUE));
+		}
+		
+		/**
+		 * @param type the indexed type
+		 * @return the number of threads to load the entities of the given type with, configured either
+		 *         by the simple or the fully qualified class name
+		 */
+		public int getThreadsToLoadObjects(Class<?> type) {
+			Integer threads = threadsPerType.get(type.getName());
+			if (threads == null) {
+				threads = threadsPerType.get(type.getSimpleName());
+			}
+			return threads != null ? threads : threadsToLoadObjects;
+		}
+		
+		public int getBatchSizeToLoadObjects() {
+			return batchSizeToLoadObjects;
+		}
+		
+		public int getIdFetchSize() {
+			return idFetchSize;
+		}
+		
+		public int getTypesToIndexInParallel() {
+			return typesToIndexInParallel;
+		}
+		
+		private static int getPositiveIntegerGlobalProperty(String propertyName, int defaultValue) {
+			String value = Context.getAdministrationService().getGlobalProperty(propertyName);
+			if (StringUtils.isNotBlank(value)) {
+				try {
+					int intValue = Integer.parseInt(value.trim());
+					if (intValue > 0) {
+						return intValue;
+					}
+				}
+				catch (NumberFormatException e) {
+					// fall through to the default
+				}
+				log.warn("Invalid value '{}' for global property {}, using {}", value, propertyName, defaultValue);
+			}
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Updates the search index for saved objects on a background worker, so that the thread that saved
+ * them does not wait for the documents to be built and written. The objects are queued by type and
+ * id once their transaction has committed, and the worker loads them in a session of its own and
+ * writes up to a batch of them to the index at once, indexing every object only once per batch.
+ * <p>
+ * The queue is bounded, once it is full the objects are indexed by the thread that queues them,
+ * which slows down the threads that save faster than the index can keep up with.
+ *
+ * @since 2.7.0
+ */
+public class SearchIndexUpdateQueue {
+	
+	private static final Logger log = LoggerFactory.getLogger(SearchIndexUpdateQueue.class);
+	
+	private final Supplier<Session> sessionOpener;
+	
+	private final int capacity;
+	
+	private final int batchSize;
+	
+	private final BlockingQueue<Entry> queue;
+	
+	private final LongAdder indexedCount = new LongAdder();
+	
+	private final LongAdder indexedByCallerCount = new LongAdder();
+	
+	private final LongAdder failedCount = new LongAdder();
+	
+	private final Object idleMonitor = new Object();
+	
+	/**
+	 * The number of objects that were queued and have not been indexed yet, including the batch the
+	 * worker is indexing, guarded by {@link #idleMonitor}
+	 */
+	private int pendingCount = 0;
+	
+	/**
+	 * The time in nanoseconds the oldest object of the batch the worker is indexing was queued at, 0
+	 * if the worker is idle
+	 */
+	private volatile long batchQueuedTime = 0;
+	
+	/**
+	 * Guarded by {@link #idleMonitor} for writes, so that no object is queued once the worker may
+	 * have stopped
+	 */
+	private volatile boolean stopped = false;
+	
+	private final Thread worker;
+	
+	/**
+	 * @param runtimeProperties the runtime properties
+	 * @return true if the runtime properties set the search index update mode to
+	 *         {@link OpenmrsConstants#SEARCH_INDEX_UPDATE_MODE_ASYNC}, false otherwise
+	 * @see OpenmrsConstants#SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY
+	 */
+	public static boolean isAsyncMode(Properties runtimeProperties) {
+		String mode = runtimeProperties.getProperty(OpenmrsConstants.SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY);
+		return OpenmrsConstants.SEARCH_INDEX_UPDATE_MODE_ASYNC.equalsIgnoreCase(StringUtils.trim(mode));
+	}
+	
+	/**
+	 * Creates a queue with the capacity and batch size set by the runtime properties
+	 *
+	 * @param sessionOpener opens a new session for the worker to load the objects with
+	 * @param runtimeProperties the runtime properties
+	 * @return the started queue
+	 */
+	public static SearchIndexUpdateQueue start(Supplier<Session> sessionOpener, Properties runtimeProperties) {
+		int capacity = getPositiveIntegerProperty(runtimeProperties,
+		    OpenmrsConstants.SEARCH_INDEX_UPDATE_QUEUE_SIZE_RUNTIME_PROPERTY,
+		    OpenmrsConstants.SEARCH_INDEX_UPDATE_QUEUE_SIZE_DEFAULT_VALUE);
+		int batchSize = getPositiveIntegerProperty(runtimeProperties,
+		    OpenmrsConstants.SEARCH_INDEX_UPDATE_BATCH_SIZE_RUNTIME_PROPERTY,
+		    OpenmrsConstants.SEARCH_INDEX_UPDATE_BATCH_SIZE_DEFAULT_VALUE);
+		log.info("Updating the search index asynchronously with a queue of {} objects and batches of {}", capacity,
+		    batchSize);
+		return new SearchIndexUpdateQueue(sessionOpener, capacity, batchSize);
+	}
+	
+	/**
+	 * Creates the queue and starts its worker
+	 *
+	 * @param sessionOpener opens a new session for the worker to load the objects with
+	 * @param capacity the number of objects that can wait to be indexed
+	 * @param batchSize the maximum number of objects to write to the index at once
+	 */
+	public SearchIndexUpdateQueue(Supplier<Session> sessionOpener, int capacity, int batchSize) {
+		this.sessionOpener = sessionOpener;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.queue = new LinkedBlockingQueue<>(capacity);
+		worker = new Thread(this::work, "OpenMRS search index updates");
+		worker.setDaemon(true);
+		worker.start();
+	}
+	
+	/**
+	 * Queues an object to be indexed, it is indexed on the calling thread if the queue is full or
+	 * has been stopped. The object is loaded again before it is indexed and removed from the index if
+	 * it no longer exists.
+	 *
+	 * @param type the indexed type of the object
+	 * @param id the id of the object
+	 */
+	public void add(Class<?> type, Serializable id) {
+		Entry entry = new Entry(type, id, System.nanoTime());
+		synchronized (idleMonitor) {
+			if (!stopped && queue.offer(entry)) {
+				pendingCount++;
+				return;
+			}
+		}
+		
+		List<Entry> entries = new ArrayList<>(1);
+		entries.add(entry);
+		if (index(entries)) {
+			indexedByCallerCount.increment();
+		}
+	}
+	
+	/**
+	 * Waits until all the queued objects have been indexed
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the unit of the timeout
+	 * @return true if the queue is idle, false if the timeout elapsed first
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (idleMonitor) {
+			while (pendingCount > 0) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(idleMonitor, remaining);
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Stops the worker once it has indexed the queued objects or the timeout elapses, objects that
+	 * are queued afterwards are indexed on the calling thread
+	 *
+	 * @param timeout the maximum time to wait for the queued objects to be indexed
+	 * @param unit the unit of the timeout
+	 */
+	public void stop(long timeout, TimeUnit unit) {
+		synchronized (idleMonitor) {
+			stopped = true;
+		}
+		try {
+			if (!awaitIdle(timeout, unit)) {
+				log.warn("Stopping the search index updates with {} objects left to index, the index can be updated "
+				        + "by rebuilding it", queue.size());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		worker.interrupt();
+	}
+	
+	/**
+	 * @return the current state of the queue
+	 */
+	public SearchIndexUpdateStatistics getStatistics() {
+		long now = System.nanoTime();
+		long oldestQueuedTime = batchQueuedTime;
+		Entry head = queue.peek();
+		if (oldestQueuedTime == 0 && head != null) {
+			oldestQueuedTime = head.queuedTime;
+		}
+		long lagMillis = oldestQueuedTime != 0 ? TimeUnit.NANOSECONDS.toMillis(now - oldestQueuedTime) : 0;
+		return new SearchIndexUpdateStatistics(true, queue.size(), capacity, lagMillis, indexedCount.sum(),
+		        indexedByCallerCount.sum(), failedCount.sum());
+	}
+	
+	private static int getPositiveIntegerProperty(Properties runtimeProperties, String propertyName, int defaultValue) {
+		String value = runtimeProperties.getProperty(propertyName);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int intValue = Integer.parseInt(value.trim());
+				if (intValue > 0) {
+					return intValue;
+				}
+			}
+			catch (NumberFormatException e) {
+				// fall through to the default
+			}
+			log.warn("Invalid value '{}' for runtime property {}, using {}", value, propertyName, defaultValue);
+		}
+		return defaultValue;
+	}
+	
+	private void work() {
+		List<Entry> batch = new ArrayList<>(batchSize);
+		while (!stopped || !queue.isEmpty()) {
+			try {
+				batch.add(queue.take());
+			}
+			catch (InterruptedException e) {
+				if (stopped) {
+					break;
+				}
+				continue;
+			}
+			queue.drainTo(batch, batchSize - 1);
+			batchQueuedTime = batch.get(0).queuedTime;
+			try {
+				if (index(batch)) {
+					indexedCount.add(batch.size());
+				}
+			}
+			finally {
+				batchQueuedTime = 0;
+				synchronized (idleMonitor) {
+					pendingCount -= batch.size();
+					idleMonitor.notifyAll();
+				}
+				batch.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Indexes the given objects in a new session, writing them to the index at once
+	 *
+	 * @return true if the objects were indexed
+	 */
+	private boolean index(List<Entry> entries) {
+		Map<Entry, Entry> distinctEntries = new LinkedHashMap<>();
+		for (Entry entry : entries) {
+			distinctEntries.putIfAbsent(entry, entry);
+		}
+		
+		try (Session session = sessionOpener.get()) {
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setCacheMode(CacheMode.IGNORE);
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			Transaction transaction = fullTextSession.beginTransaction();
+			try {
+				for (Entry entry : distinctEntries.keySet()) {
+					Object object = fullTextSession.get(entry.type, entry.id);
+					if (object != null) {
+						fullTextSession.index(object);
+					} else {
+						fullTextSession.purge(entry.type, entry.id);
+					}
+				}
+				fullTextSession.flushToIndexes();
+				transaction.commit();
+				return true;
+			}
+			catch (RuntimeException e) {
+				transaction.rollback();
+				throw e;
+			}
+		}
+		catch (RuntimeException e) {
+			failedCount.add(entries.size());
+			log.error("Failed to update the search index for " + distinctEntries.size()
+			        + " objects, the index can be updated by rebuilding it", e);
+			return false;
+		}
+	}
+	
+	/**
+	 * An object waiting to be indexed, two entries are equal if they are for the same object
+	 */
+	private static final class Entry {
+		
+		private final Class<?> type;
+		
+		private final Serializable id;
+		
+		private final long queuedTime;
+		
+		Entry(Class<?> type, Serializable id, long queuedTime) {
+			this.type = type;
+			this.id = id;
+			this.queuedTime = queuedTime;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			Entry other = (Entry) obj;
+			return type.equals(other.type) && id.equals(other.id);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, id);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.handler;
+
+import java.util.Date;
+
+import org.openmrs.Allergy;
+import org.openmrs.Condition;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Order;
+import org.openmrs.User;
+import org.openmrs.Visit;
+import org.openmrs.annotation.Handler;
+import org.openmrs.aop.RequiredDataAdvice;
+import org.openmrs.api.impl.PatientSummaryCache;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * This class evicts the cached summary of a patient when data that makes up the summary is saved via
+ * a save* method in an Openmrs Service. This handler is automatically called by the
+ * {@link RequiredDataAdvice} AOP class.
+ * 
+ * @see RequiredDataHandler
+ * @see SaveHandler
+ * @see PatientSummaryCache
+ * @since 2.7.0
+ */
+@Handler(supports = { Obs.class, Order.class, Condition.class, Allergy.class, Visit.class, Encounter.class })
+public class PatientSummarySaveHandler implements SaveHandler<OpenmrsObject> {
+	
+	@Autowired(required = false)
+	private PatientSummaryCache patientSummaryCache;
+	
+	/**
+	 * @see org.openmrs.api.handler.SaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, java.lang.String)
+	 */
+	@Override
+	public void handle(OpenmrsObject object, User creator, Date dateCreated, String other) {
+		if (patientSummaryCache != null) {
+			patientSummaryCache.evict(object);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.handler;
+
+import java.util.Date;
+
+import org.openmrs.Allergy;
+import org.openmrs.Condition;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.Order;
+import org.openmrs.User;
+import org.openmrs.Visit;
+import org.openmrs.Voidable;
+import org.openmrs.annotation.Handler;
+import org.openmrs.aop.RequiredDataAdvice;
+import org.openmrs.api.impl.PatientSummaryCache;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * This class evicts the cached summary of a patient when data that makes up the summary is voided
+ * or unvoided via a void* or unvoid* method in an Openmrs Service. This handler is automatically
+ * called by the {@link RequiredDataAdvice} AOP class.
+ * 
+ * @see RequiredDataHandler
+ * @see VoidHandler
+ * @see UnvoidHandler
+ * @see PatientSummaryCache
+ * @since 2.7.0
+ */
+@Handler(supports = { Obs.class, Order.class, Condition.class, Allergy.class, Visit.class, Encounter.class })
+public class PatientSummaryVoidHandler implements VoidHandler<Voidable>, UnvoidHandler<Voidable> {
+	
+	@Autowired(required = false)
+	private PatientSummaryCache patientSummaryCache;
+	
+	/**
+	 * @see org.openmrs.api.handler.VoidHandler#handle(org.openmrs.Voidable, org.openmrs.User,
+	 *      java.util.Date, java.lang.String)
+	 */
+	@Override
+	public void handle(Voidable voidableObject, User voidingUser, Date voidedDate, String voidReason) {
+		if (patientSummaryCache != null) {
+			patientSummaryCache.evict(voidableObject);
+		}
+	}
+}
@@ -77,6 +77,11 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	 */
 	private GlobalLocaleList globalLocaleList;
 	
+	/**
+	 * Cached global property values, evicted through the global property listeners
+	 */
+	private GlobalPropertyCache globalPropertyCache;
+	
 	private HttpClient implementationIdHttpClient;
 	
 	/**
@@ -96,6 +101,14 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	public void setEventListeners(EventListeners eventListeners) {
 		this.eventListeners = eventListeners;
 	}
+	
+	/**
+	 * @param globalPropertyCache the cache to serve {@link #getGlobalProperty(String)} from
+	 * @since 2.7.0
+	 */
+	public void setGlobalPropertyCache(GlobalPropertyCache globalPropertyCache) {
+		this.globalPropertyCache = globalPropertyCache;
+	}
 		
 	/**
 	 * Static-ish variable used to cache the system variables. This is not static so that every time
@@ -152,17 +165,32 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		GlobalProperty gp = dao.getGlobalPropertyObject(propertyName);
-		if (gp != null) {
-			if (canViewGlobalProperty(gp)) {
-				return gp.getPropertyValue();
+		if (globalPropertyCache == null) {
+			GlobalProperty gp = dao.getGlobalPropertyObject(propertyName);
+			if (gp != null) {
+				if (canViewGlobalProperty(gp)) {
+					return gp.getPropertyValue();
+				} else {
+					throw new APIException("GlobalProperty.error.privilege.required.view", new Object[] {
+						gp.getViewPrivilege().getPrivilege(), propertyName });
+				}
 			} else {
-				throw new APIException("GlobalProperty.error.privilege.required.view", new Object[] {
-					gp.getViewPrivilege().getPrivilege(), propertyName });
+				return null;
 			}
-		} else {
+		}
+		
+		GlobalPropertyCache.CachedGlobalProperty cached = globalPropertyCache.get(propertyName,
+		    dao::getGlobalPropertyObject);
+		if (!cached.exists()) {
 			return null;
 		}
+		
+		String viewPrivilege = cached.getViewPrivilege();
+		if (viewPrivilege != null && !Context.getAuthenticatedUser().hasPrivilege(viewPrivilege)) {
+			throw new APIException("GlobalProperty.error.privilege.required.view", new Object[] { viewPrivilege,
+			        propertyName });
+		}
+		return cached.getValue();
 	}
 	
 	private boolean canViewGlobalProperty(GlobalProperty property) {
@@ -268,6 +296,9 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		
 		gp.setPropertyValue(propertyValue);
 		dao.saveGlobalProperty(gp);
+		if (globalPropertyCache != null) {
+			globalPropertyCache.evict(propertyName);
+		}
 	}
 	
 	/**
@@ -388,6 +419,11 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
+		if (!selectOnly && globalPropertyCache != null) {
+			// the statement may change global properties behind the cache's back
+			globalPropertyCache.clear();
+		}
+		
 		return dao.executeSQL(sql, selectOnly);
 	}
 	
@@ -806,6 +842,19 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			}
 		});
 		
+		if (globalPropertyCache != null) {
+			systemInfoMap.put("SystemInfo.title.cacheInformation", new LinkedHashMap<String, String>() {
+				
+				private static final long serialVersionUID = 1L;
+				
+				{
+					put("SystemInfo.Cache.globalPropertySize", String.valueOf(globalPropertyCache.getSize()));
+					put("SystemInfo.Cache.globalPropertyHits", String.valueOf(globalPropertyCache.getHitCount()));
+					put("SystemInfo.Cache.globalPropertyMisses", String.valueOf(globalPropertyCache.getMissCount()));
+				}
+			});
+		}
+		
 		systemInfoMap.put("SystemInfo.title.dataBaseInformation", new LinkedHashMap<String, String>() {
 			
 			Properties properties = Context.getRuntimeProperties();
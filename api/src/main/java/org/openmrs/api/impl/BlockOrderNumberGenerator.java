@@ -0,0 +1,155 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.OrderContext;
+import org.openmrs.api.OrderNumberGenerator;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link OrderNumberGenerator} that reserves blocks of order number seeds from the
+ * {@link OpenmrsConstants#GP_NEXT_ORDER_NUMBER_SEED} global property and hands them out from
+ * memory, the seed global property is only locked once per block instead of once per order. The
+ * generated order numbers have the same format as those of the default generator but seeds that
+ * are reserved and not used before a restart are skipped, so order numbers can have gaps and are
+ * not strictly increasing across nodes sharing the same database. <br>
+ * <br>
+ * To use it, set {@link OpenmrsConstants#GP_ORDER_NUMBER_GENERATOR_BEAN_ID} to
+ * <code>blockOrderNumberGenerator</code>, the block size is read from
+ * {@link OpenmrsConstants#GP_ORDER_NUMBER_SEED_BLOCK_SIZE}.
+ *
+ * @since 2.7.0
+ */
+public class BlockOrderNumberGenerator implements OrderNumberGenerator, GlobalPropertyListener {
+	
+	private static final Logger log = LoggerFactory.getLogger(BlockOrderNumberGenerator.class);
+	
+	static final int DEFAULT_BLOCK_SIZE = 50;
+	
+	private volatile SeedBlock currentBlock = null;
+	
+	/**
+	 * @see org.openmrs.api.OrderNumberGenerator#getNewOrderNumber(org.openmrs.api.OrderContext)
+	 */
+	@Override
+	public String getNewOrderNumber(OrderContext orderContext) {
+		return OrderServiceImpl.ORDER_NUMBER_PREFIX + getNextSeed();
+	}
+	
+	/**
+	 * Gets the next seed from the current block, a new block is only reserved when the current one
+	 * is used up, all other callers take a seed without any locking
+	 *
+	 * @return the next unused order number seed
+	 */
+	long getNextSeed() {
+		while (true) {
+			SeedBlock block = currentBlock;
+			if (block != null) {
+				long seed = block.next.getAndIncrement();
+				if (seed < block.end) {
+					return seed;
+				}
+			}
+			synchronized (this) {
+				// another thread may have already replaced the exhausted block
+				if (currentBlock == block) {
+					currentBlock = reserveBlock(getBlockSize());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reserves a new block of seeds, this runs in its own short transaction
+	 *
+	 * @param blockSize the number of seeds to reserve
+	 * @return the reserved block
+	 */
+	SeedBlock reserveBlock(int blockSize) {
+		long start = Context.getOrderService().reserveOrderNumberSeedBlock(blockSize);
+		log.debug("Reserved order number seeds {} to {}", start, start + blockSize - 1);
+		return new SeedBlock(start, start + blockSize);
+	}
+	
+	int getBlockSize() {
+		String value = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE);
+		if (value != null) {
+			try {
+				int blockSize = Integer.parseInt(value.trim());
+				if (blockSize > 0) {
+					return blockSize;
+				}
+			}
+			catch (NumberFormatException e) {
+				// fall through to the default
+			}
+			log.warn("Invalid value '{}' for global property {}, using the default block size of {}", value,
+			    OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE, DEFAULT_BLOCK_SIZE);
+		}
+		return DEFAULT_BLOCK_SIZE;
+	}
+	
+	/**
+	 * Discards the remaining seeds of the current block so that the next order number comes from a
+	 * newly reserved block
+	 */
+	public synchronized void reset() {
+		currentBlock = null;
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#supportsPropertyName(java.lang.String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED.equals(propertyName)
+		        || OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE.equals(propertyName);
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyChanged(org.openmrs.GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		reset();
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyDeleted(java.lang.String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		reset();
+	}
+	
+	/**
+	 * A range of reserved seeds, from start (inclusive) to end (exclusive)
+	 */
+	static final class SeedBlock {
+		
+		private final AtomicLong next;
+		
+		private final long end;
+		
+		SeedBlock(long start, long end) {
+			this.next = new AtomicLong(start);
+			this.end = end;
+		}
+	}
+}
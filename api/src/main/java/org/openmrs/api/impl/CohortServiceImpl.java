@@ -23,6 +23,7 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.CohortService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.util.IntBitmap;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
@@ -279,4 +280,21 @@ public class CohortServiceImpl extends BaseOpenmrsService implements CohortServi
 		}
 		return dao.getCohortMemberships(patientId, activeOnDate, includeVoided);
 	}
+	
+	/**
+	 * @see org.openmrs.api.CohortService#getMemberPatientIds(org.openmrs.Cohort, java.util.Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public IntBitmap getMemberPatientIds(Cohort cohort, Date activeOnDate) {
+		if (cohort.getCohortId() != null) {
+			return dao.getMemberPatientIds(cohort, activeOnDate);
+		}
+		if (activeOnDate == null) {
+			return cohort.getMemberPatientIds();
+		}
+		IntBitmap patientIds = new IntBitmap();
+		cohort.getActiveMemberships(activeOnDate).forEach(m -> patientIds.add(m.getPatientId()));
+		return patientIds;
+	}
 }
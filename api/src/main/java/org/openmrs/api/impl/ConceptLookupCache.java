@@ -0,0 +1,414 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import net.sf.ehcache.Ehcache;
+import org.openmrs.Concept;
+import org.openmrs.ConceptMap;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.ConceptSource;
+import org.openmrs.api.cache.CacheRegionStatistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches the ids of the concepts found by uuid, by name in a locale and by mapping in regions of
+ * the api cache manager. {@link ConceptServiceImpl} loads the concepts by id, which is served by the
+ * hibernate second level cache of concepts. <br>
+ * <br>
+ * Only the entries that may refer to a concept are evicted when it is saved or purged, these are
+ * the entries that were loaded as that concept plus the entries for its current uuid, names and
+ * mappings. Changes to concept sources and reference terms clear the mapping region. Because the
+ * cache is shared by all threads, a transaction that has changed a concept reads straight from the
+ * database until it completes, and the evictions are repeated once it has committed or rolled
+ * back.
+ *
+ * @since 2.7.0
+ */
+public class ConceptLookupCache {
+	
+	public static final String CONCEPT_IDS_BY_UUID_CACHE_NAME = "conceptIdsByUuid";
+	
+	public static final String CONCEPT_IDS_BY_NAME_CACHE_NAME = "conceptIdsByName";
+	
+	public static final String CONCEPT_IDS_BY_MAPPING_CACHE_NAME = "conceptIdsByMapping";
+	
+	private static final List<String> REGION_NAMES = Arrays.asList(CONCEPT_IDS_BY_UUID_CACHE_NAME,
+	    CONCEPT_IDS_BY_NAME_CACHE_NAME, CONCEPT_IDS_BY_MAPPING_CACHE_NAME);
+	
+	private volatile Map<String, Region> regions = Collections.emptyMap();
+	
+	/**
+	 * The keys of the cached name lookups by lower cased name, used to evict the lookups of a name
+	 * in all locales when a concept gets that name
+	 */
+	private final Map<String, Set<Object>> nameKeysByName = new HashMap<>();
+	
+	/**
+	 * Incremented on every eviction, a value loaded from the database is only cached if no eviction
+	 * happened while it was being loaded
+	 */
+	private long generation = 0;
+	
+	/**
+	 * @param cacheManager the cache manager that holds the cache regions, lookups are not cached for
+	 *            regions it does not have
+	 */
+	public synchronized void setCacheManager(CacheManager cacheManager) {
+		Map<String, Region> newRegions = new HashMap<>();
+		if (cacheManager != null) {
+			for (String regionName : REGION_NAMES) {
+				Cache cache = cacheManager.getCache(regionName);
+				if (cache != null) {
+					newRegions.put(regionName, new Region(cache));
+				}
+			}
+		}
+		generation++;
+		nameKeysByName.clear();
+		regions = newRegions;
+	}
+	
+	/**
+	 * Gets the id of the concept with the given uuid, loading and caching it if it is not cached yet
+	 *
+	 * @param uuid the uuid of the concept
+	 * @param loader used to look up the concept id in the database on a cache miss
+	 * @return the concept id or null if there is no such concept, which is not cached
+	 */
+	public Integer getConceptIdByUuid(String uuid, Supplier<Integer> loader) {
+		return get(CONCEPT_IDS_BY_UUID_CACHE_NAME, uuid, null, loader);
+	}
+	
+	/**
+	 * Gets the id of the concept with the given name in the given locale, loading and caching it if
+	 * it is not cached yet
+	 *
+	 * @param name the name of the concept, matched case insensitively
+	 * @param locale the locale the name is looked up in
+	 * @param loader used to look up the concept id in the database on a cache miss
+	 * @return the concept id or null if there is no such concept, which is not cached
+	 */
+	public Integer getConceptIdByName(String name, Locale locale, Supplier<Integer> loader) {
+		String nameKey = toKey(name);
+		return get(CONCEPT_IDS_BY_NAME_CACHE_NAME, new SimpleKey(nameKey, locale), nameKey, loader);
+	}
+	
+	/**
+	 * Gets the ids of the concepts mapped to the given reference term, loading and caching them if
+	 * they are not cached yet
+	 *
+	 * @param code the code of the reference term, matched case insensitively
+	 * @param sourceName the name or hl7 code of the concept source, matched case insensitively
+	 * @param includeRetired whether retired concepts are included
+	 * @param loader used to look up the concept ids in the database on a cache miss
+	 * @return the concept ids, empty results are cached too
+	 */
+	public List<Integer> getConceptIdsByMapping(String code, String sourceName, boolean includeRetired,
+	        Supplier<List<Integer>> loader) {
+		return get(CONCEPT_IDS_BY_MAPPING_CACHE_NAME, mappingKey(code, sourceName, includeRetired), null, loader);
+	}
+	
+	/**
+	 * Evicts the lookups that may refer to the given concept, if called within a transaction the
+	 * lookups are evicted again after the transaction completes and the current transaction stops
+	 * using the cache until then
+	 *
+	 * @param concept the concept that was saved or purged
+	 */
+	public void evictConcept(Concept concept) {
+		Integer conceptId = concept.getConceptId();
+		Set<Object> uuidKeys = concept.getUuid() != null ? Collections.<Object> singleton(concept.getUuid())
+		        : Collections.emptySet();
+		
+		Set<Object> mappingKeys = new HashSet<>();
+		for (ConceptMap conceptMap : concept.getConceptMappings()) {
+			ConceptReferenceTerm term = conceptMap.getConceptReferenceTerm();
+			if (term == null || term.getCode() == null || term.getConceptSource() == null) {
+				continue;
+			}
+			ConceptSource source = term.getConceptSource();
+			for (String sourceName : Arrays.asList(source.getName(), source.getHl7Code())) {
+				if (sourceName != null) {
+					mappingKeys.add(mappingKey(term.getCode(), sourceName, true));
+					mappingKeys.add(mappingKey(term.getCode(), sourceName, false));
+				}
+			}
+		}
+		
+		Set<String> names = new HashSet<>();
+		for (ConceptName conceptName : concept.getNames(true)) {
+			if (conceptName.getName() != null) {
+				names.add(toKey(conceptName.getName()));
+			}
+		}
+		
+		Runnable eviction = () -> evict(conceptId, uuidKeys, mappingKeys, names);
+		eviction.run();
+		repeatAfterTransaction(eviction, true);
+	}
+	
+	/**
+	 * Evicts the lookups that may refer to concepts that were created in bulk. Only the lookups by
+	 * mapping need to be evicted since lookups by uuid and name that find no concept are not cached,
+	 * they are all evicted at once instead of per concept. If called within a transaction the lookups
+	 * are evicted again after the transaction completes and the current transaction stops using the
+	 * cache until then.
+	 */
+	public void evictNewConcepts() {
+		Runnable eviction = () -> clear(Collections.singletonList(CONCEPT_IDS_BY_MAPPING_CACHE_NAME));
+		eviction.run();
+		repeatAfterTransaction(eviction, true);
+	}
+	
+	/**
+	 * Evicts all lookups by mapping, used when concept sources or reference terms change. If called
+	 * within a transaction the lookups are evicted again after the transaction completes.
+	 */
+	public void evictMappings() {
+		Runnable eviction = () -> clear(Collections.singletonList(CONCEPT_IDS_BY_MAPPING_CACHE_NAME));
+		eviction.run();
+		repeatAfterTransaction(eviction, false);
+	}
+	
+	/**
+	 * Evicts all cached lookups, if called within a transaction the lookups are evicted again after
+	 * the transaction completes
+	 */
+	public void clear() {
+		Runnable eviction = () -> clear(REGION_NAMES);
+		eviction.run();
+		repeatAfterTransaction(eviction, false);
+	}
+	
+	/**
+	 * @return the usage counts of each cache region by region name
+	 */
+	public synchronized Map<String, CacheRegionStatistics> getStatistics() {
+		Map<String, CacheRegionStatistics> statistics = new LinkedHashMap<>();
+		for (String regionName : REGION_NAMES) {
+			Region region = regions.get(regionName);
+			if (region != null) {
+				statistics.put(regionName, new CacheRegionStatistics(regionName, region.hits.sum(), region.misses.sum(),
+				        region.evictions.sum(), region.getSize()));
+			}
+		}
+		return statistics;
+	}
+	
+	/**
+	 * @param name the lower cased name for lookups by name, null otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T get(String regionName, Object key, String name, Supplier<T> loader) {
+		Region region = regions.get(regionName);
+		if (region == null) {
+			return loader.get();
+		}
+		
+		boolean bypass = isChangedInCurrentTransaction();
+		if (!bypass) {
+			ValueWrapper cached = region.cache.get(key);
+			if (cached != null) {
+				region.hits.increment();
+				return (T) cached.get();
+			}
+		}
+		
+		region.misses.increment();
+		long generationBeforeLoad = getGeneration();
+		T loaded = loader.get();
+		if (!bypass && loaded != null) {
+			synchronized (this) {
+				if (generation == generationBeforeLoad) {
+					region.put(key, loaded);
+					if (name != null) {
+						nameKeysByName.computeIfAbsent(name, k -> new HashSet<>()).add(key);
+					}
+				}
+			}
+		}
+		
+		return loaded;
+	}
+	
+	private synchronized void evict(Integer conceptId, Collection<Object> uuidKeys, Collection<Object> mappingKeys,
+	        Collection<String> names) {
+		generation++;
+		if (conceptId != null) {
+			for (Region region : regions.values()) {
+				Set<Object> keys = region.keysByConceptId.remove(conceptId);
+				if (keys != null) {
+					keys.forEach(region::evict);
+				}
+			}
+		}
+		
+		evict(CONCEPT_IDS_BY_UUID_CACHE_NAME, uuidKeys);
+		evict(CONCEPT_IDS_BY_MAPPING_CACHE_NAME, mappingKeys);
+		List<Object> nameKeys = new ArrayList<>();
+		for (String name : names) {
+			Set<Object> keys = nameKeysByName.remove(name);
+			if (keys != null) {
+				nameKeys.addAll(keys);
+			}
+		}
+		evict(CONCEPT_IDS_BY_NAME_CACHE_NAME, nameKeys);
+	}
+	
+	private void evict(String regionName, Collection<Object> keys) {
+		Region region = regions.get(regionName);
+		if (region != null) {
+			keys.forEach(region::evict);
+		}
+	}
+	
+	private synchronized void clear(Collection<String> regionNames) {
+		generation++;
+		for (String regionName : regionNames) {
+			Region region = regions.get(regionName);
+			if (region != null) {
+				region.clear();
+			}
+			if (CONCEPT_IDS_BY_NAME_CACHE_NAME.equals(regionName)) {
+				nameKeysByName.clear();
+			}
+		}
+	}
+	
+	/**
+	 * @param conceptChanged whether the current transaction should stop using the cache
+	 */
+	private void repeatAfterTransaction(Runnable eviction, boolean conceptChanged) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		
+		PendingEvictions pendingEvictions = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+		if (pendingEvictions == null) {
+			PendingEvictions pending = new PendingEvictions();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ConceptLookupCache.this);
+					pending.evictions.forEach(Runnable::run);
+				}
+			});
+			pendingEvictions = pending;
+		}
+		pendingEvictions.evictions.add(eviction);
+		pendingEvictions.conceptChanged |= conceptChanged;
+	}
+	
+	private synchronized long getGeneration() {
+		return generation;
+	}
+	
+	private boolean isChangedInCurrentTransaction() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		PendingEvictions pendingEvictions = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+		return pendingEvictions != null && pendingEvictions.conceptChanged;
+	}
+	
+	/**
+	 * Reference term codes, source names and concept names are matched case insensitively by the
+	 * database layer
+	 */
+	private static String toKey(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+	
+	private static Object mappingKey(String code, String sourceName, boolean includeRetired) {
+		return new SimpleKey(toKey(code), toKey(sourceName), includeRetired);
+	}
+	
+	/**
+	 * The evictions to repeat once the current transaction completes
+	 */
+	private static final class PendingEvictions {
+		
+		private final List<Runnable> evictions = new ArrayList<>();
+		
+		private boolean conceptChanged;
+	}
+	
+	/**
+	 * A cache region along with its usage counts and the keys of its entries by the ids of the
+	 * concepts they were loaded as, the latter is guarded by the enclosing cache
+	 */
+	private static final class Region {
+		
+		private final Cache cache;
+		
+		private final Map<Integer, Set<Object>> keysByConceptId = new HashMap<>();
+		
+		private final LongAdder hits = new LongAdder();
+		
+		private final LongAdder misses = new LongAdder();
+		
+		private final LongAdder evictions = new LongAdder();
+		
+		Region(Cache cache) {
+			this.cache = cache;
+		}
+		
+		void put(Object key, Object value) {
+			cache.put(key, value);
+			Collection<?> conceptIds = value instanceof Collection ? (Collection<?>) value
+			        : Collections.singleton(value);
+			for (Object conceptId : conceptIds) {
+				keysByConceptId.computeIfAbsent((Integer) conceptId, k -> new HashSet<>()).add(key);
+			}
+		}
+		
+		void evict(Object key) {
+			if (cache.evictIfPresent(key)) {
+				evictions.increment();
+			}
+		}
+		
+		void clear() {
+			long size = getSize();
+			cache.clear();
+			keysByConceptId.clear();
+			if (size > 0) {
+				evictions.add(size);
+			}
+		}
+		
+		long getSize() {
+			Object nativeCache = cache.getNativeCache();
+			return nativeCache instanceof Ehcache ? ((Ehcache) nativeCache).getSize() : -1;
+		}
+	}
+}
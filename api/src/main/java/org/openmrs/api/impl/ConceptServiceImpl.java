@@ -12,17 +12,24 @@ package org.openmrs.api.impl;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.collections.CollectionUtils;
@@ -52,6 +59,7 @@ import org.openmrs.ConceptStopWord;
 import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.Obs;
+import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.ConceptInUseException;
@@ -59,17 +67,19 @@ import org.openmrs.api.ConceptNameInUseException;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.ConceptStopWordException;
 import org.openmrs.api.ConceptsLockedException;
+import org.openmrs.api.DuplicateConceptNameException;
+import org.openmrs.api.cache.CacheRegionStatistics;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -92,7 +102,10 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 
 	private static final String ERROR_MESSAGE = "Error generated";
 
-	private static final String CONCEPT_IDS_BY_MAPPING_CACHE_NAME = "conceptIdsByMapping";
+	// the uuids of the names of the concept import running on the thread that were already looked up
+	private final ThreadLocal<Set<String>> namesCheckedForDuplicates = new ThreadLocal<>();
+
+	private ConceptLookupCache conceptLookupCache;
 
 	/**
 	 * @see org.openmrs.api.ConceptService#setConceptDAO(org.openmrs.api.db.ConceptDAO)
@@ -101,6 +114,14 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	public void setConceptDAO(ConceptDAO dao) {
 		this.dao = dao;
 	}
+	
+	/**
+	 * @param conceptLookupCache the cache to serve concept lookups by uuid, name and mapping from
+	 * @since 2.7.0
+	 */
+	public void setConceptLookupCache(ConceptLookupCache conceptLookupCache) {
+		this.conceptLookupCache = conceptLookupCache;
+	}
 
 	/**
 	 * @see org.openmrs.api.ConceptService#saveConcept(org.openmrs.Concept)
@@ -110,9 +131,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * <strong>Should</strong> set default preferred name to fully specified first
 	 * <strong>Should</strong> not set default preferred name to short or index terms
      * <strong>Should</strong> force set flag if set members exist
+	 * <strong>Should</strong> only evict the cached lookups of the saved concept
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public Concept saveConcept(Concept concept) throws APIException {
 		ensureConceptMapTypeIsSet(concept);
 
@@ -120,6 +141,85 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 
 		// make sure the administrator hasn't turned off concept editing
 		checkIfLocked();
+		prepareConceptToSave(concept);
+		
+		Concept savedConcept = dao.saveConcept(concept);
+		if (conceptLookupCache != null) {
+			conceptLookupCache.evictConcept(savedConcept);
+		}
+		return savedConcept;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#importConcepts(List)
+	 */
+	@Override
+	public List<Concept> importConcepts(List<Concept> concepts) throws APIException {
+		checkIfLocked();
+		List<Concept> existingConcepts = new ArrayList<>();
+		List<Concept> newConcepts = new ArrayList<>();
+		for (Concept concept : concepts) {
+			if (concept == null) {
+				throw new APIException("error.null", (Object[]) null);
+			}
+			ensureConceptMapTypeIsSet(concept);
+			CustomDatatypeUtil.saveAttributesIfNecessary(concept);
+			// not a save method, so the required data advice does not handle the concepts
+			RequiredDataAdvice.recursivelyHandle(SaveHandler.class, concept, null);
+			if (concept.getConceptId() != null) {
+				existingConcepts.add(concept);
+			} else {
+				newConcepts.add(concept);
+			}
+		}
+		
+		failIfNamesAreDuplicated(concepts);
+		// the concepts refer to objects and lazy collections of the session of this thread, so they are
+		// validated by this thread, only the duplicate name lookups of the new concepts run in parallel
+		namesCheckedForDuplicates.set(failIfNamesAreDuplicatesInParallel(newConcepts));
+		try {
+			concepts.forEach(ValidateUtil::validate);
+		}
+		finally {
+			namesCheckedForDuplicates.remove();
+		}
+		
+		Set<Class<?>> typesToIndex = new LinkedHashSet<>();
+		typesToIndex.add(ConceptName.class);
+		for (Concept concept : concepts) {
+			prepareConceptToSave(concept);
+			if (concept instanceof ConceptNumeric) {
+				typesToIndex.add(ConceptNumeric.class);
+			} else if (concept instanceof ConceptComplex) {
+				typesToIndex.add(ConceptComplex.class);
+			}
+		}
+		if (!existingConcepts.isEmpty()) {
+			// the documents of drugs embed their concept
+			typesToIndex.add(Drug.class);
+		}
+		
+		if (conceptLookupCache != null) {
+			// evicted before the session is cleared by the dao, which leaves the lazy collections unloadable
+			existingConcepts.forEach(conceptLookupCache::evictConcept);
+		}
+		dao.importConcepts(concepts, getBatchSaveChunkSize());
+		if (conceptLookupCache != null) {
+			conceptLookupCache.evictNewConcepts();
+		}
+		
+		// the dao deferred the indexing of the concepts to a single rebuild of the affected types
+		for (Class<?> type : typesToIndex) {
+			Context.updateSearchIndexForType(type);
+		}
+		return concepts;
+	}
+	
+	/**
+	 * Runs the checks and the changes of {@link #saveConcept(Concept)} that follow the validation,
+	 * the given concept is ready to be written by the dao afterwards
+	 */
+	private void prepareConceptToSave(Concept concept) {
 		checkIfDatatypeCanBeChanged(concept);
 		
 		List<ConceptName> changedConceptNames = null;
@@ -181,8 +281,134 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		if (!concept.getSet() && (!concept.getSetMembers().isEmpty())) {
 			concept.setSet(true);
 		}
-
-		return dao.saveConcept(concept);
+	}
+	
+	/**
+	 * The validator looks for duplicate names in the database, which does not have the names of the
+	 * other concepts that are imported yet, so the names are compared among the imported concepts
+	 * the same way first
+	 * 
+	 * @see org.openmrs.api.db.ConceptDAO#isConceptNameDuplicate(ConceptName)
+	 */
+	private void failIfNamesAreDuplicated(List<Concept> concepts) {
+		Map<String, Concept> conceptsByDefaultName = new HashMap<>();
+		List<ConceptName> defaultNames = new ArrayList<>();
+		for (Concept concept : concepts) {
+			if (concept.getRetired()) {
+				continue;
+			}
+			for (ConceptName name : concept.getNames()) {
+				if (name.getName() != null && name.getLocale() != null && name.equals(concept.getName(name.getLocale()))) {
+					conceptsByDefaultName.putIfAbsent(name.getName().toLowerCase() + "|" + name.getLocale(), concept);
+					defaultNames.add(name);
+				}
+			}
+		}
+		
+		for (ConceptName name : defaultNames) {
+			String key = name.getName().toLowerCase() + "|";
+			for (Locale locale : Arrays.asList(name.getLocale(), new Locale(name.getLocale().getLanguage()))) {
+				Concept other = conceptsByDefaultName.get(key + locale);
+				if (other != null && other != name.getConcept()) {
+					throw new DuplicateConceptNameException("'" + name.getName() + "' is a duplicate name in locale '"
+					        + name.getLocale() + "'");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Looks up in the database whether the default names of the given concepts are duplicates, with
+	 * the number of threads set by {@link OpenmrsConstants#GP_CONCEPT_IMPORT_VALIDATION_THREADS}.
+	 * Each thread gets copies of the names with their plain values only and looks them up in a session
+	 * of its own with the user context of the calling thread.
+	 *
+	 * @return the uuids of the names that were looked up, empty if they are left to the validator
+	 */
+	private Set<String> failIfNamesAreDuplicatesInParallel(List<Concept> concepts) {
+		List<ConceptName> names = new ArrayList<>();
+		for (Concept concept : concepts) {
+			if (concept.getRetired()) {
+				continue;
+			}
+			for (ConceptName name : concept.getNames()) {
+				if (name.getName() != null && name.getLocale() != null && !name.getVoided()
+				        && name.equals(concept.getName(name.getLocale()))) {
+					ConceptName copy = new ConceptName(name.getName(), name.getLocale());
+					copy.setUuid(name.getUuid());
+					names.add(copy);
+				}
+			}
+		}
+		int threads = Math.min(getConceptImportValidationThreads(), names.size());
+		if (threads <= 1) {
+			return Collections.emptySet();
+		}
+		
+		UserContext userContext = Context.getUserContext();
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "OpenMRS concept import validation " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> lookups = new ArrayList<>(threads);
+			int partSize = (names.size() + threads - 1) / threads;
+			for (int first = 0; first < names.size(); first += partSize) {
+				List<ConceptName> part = names.subList(first, Math.min(first + partSize, names.size()));
+				lookups.add(executor.submit(() -> failIfNamesAreDuplicates(part, userContext)));
+			}
+			for (Future<?> lookup : lookups) {
+				lookup.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new APIException("Interrupted while validating the imported concepts", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new APIException("Failed to validate the imported concepts", e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		Set<String> uuids = new HashSet<>();
+		names.forEach(name -> uuids.add(name.getUuid()));
+		return uuids;
+	}
+	
+	private static void failIfNamesAreDuplicates(List<ConceptName> names, UserContext userContext) {
+		Context.setUserContext(userContext);
+		Context.openSessionWithCurrentUser();
+		try {
+			for (ConceptName name : names) {
+				if (Context.getConceptService().isConceptNameDuplicate(name)) {
+					throw new DuplicateConceptNameException("'" + name.getName() + "' is a duplicate name in locale '"
+					        + name.getLocale() + "'");
+				}
+			}
+		}
+		finally {
+			Context.closeSessionWithCurrentUser();
+			Context.clearUserContext();
+		}
+	}
+	
+	private int getConceptImportValidationThreads() {
+		Integer threads = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_CONCEPT_IMPORT_VALIDATION_THREADS, 0);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+	
+	private int getBatchSaveChunkSize() {
+		Integer chunkSize = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE);
+		return chunkSize > 0 ? chunkSize : OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE;
 	}
 
 	private void ensureConceptMapTypeIsSet(Concept concept) {
@@ -279,6 +505,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		
 		dao.purgeConcept(concept);
+		if (conceptLookupCache != null) {
+			conceptLookupCache.evictConcept(concept);
+		}
 	}
 	
 	/**
@@ -473,7 +702,13 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		if (StringUtils.isBlank(name)) {
 			return null;
 		}
-		return dao.getConceptByName(name);
+		if (conceptLookupCache == null) {
+			return dao.getConceptByName(name);
+		}
+		
+		Integer conceptId = conceptLookupCache.getConceptIdByName(name, Context.getLocale(),
+		    () -> getConceptId(dao.getConceptByName(name)));
+		return conceptId != null ? dao.getConcept(conceptId) : null;
 	}
 
 	/**
@@ -1006,9 +1241,10 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#purgeConceptSource(org.openmrs.ConceptSource)
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public ConceptSource purgeConceptSource(ConceptSource cs) throws APIException {
-		return dao.deleteConceptSource(cs);
+		ConceptSource deletedConceptSource = dao.deleteConceptSource(cs);
+		evictConceptMappingsFromLookupCache();
+		return deletedConceptSource;
 	}
 	
 	/**
@@ -1024,9 +1260,10 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#saveConceptSource(org.openmrs.ConceptSource)
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public ConceptSource saveConceptSource(ConceptSource conceptSource) throws APIException {
-		return dao.saveConceptSource(conceptSource);
+		ConceptSource savedConceptSource = dao.saveConceptSource(conceptSource);
+		evictConceptMappingsFromLookupCache();
+		return savedConceptSource;
 	}
 	
 	/**
@@ -1054,7 +1291,16 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	@Transactional(readOnly = true)
 	public Concept getConceptByUuid(String uuid) {
-		return dao.getConceptByUuid(uuid);
+		if (conceptLookupCache == null || uuid == null) {
+			return dao.getConceptByUuid(uuid);
+		}
+		
+		Integer conceptId = conceptLookupCache.getConceptIdByUuid(uuid, () -> getConceptId(dao.getConceptByUuid(uuid)));
+		return conceptId != null ? dao.getConcept(conceptId) : null;
+	}
+	
+	private Integer getConceptId(Concept concept) {
+		return concept != null ? concept.getConceptId() : null;
 	}
 	
 	/**
@@ -1229,9 +1475,12 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	@Transactional(readOnly = true)
-	@Cacheable(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME)
 	public List<Integer> getConceptIdsByMapping(String code, String sourceName, boolean includeRetired) throws APIException {
-		return dao.getConceptIdsByMapping(code, sourceName, includeRetired);
+		if (conceptLookupCache == null || code == null || sourceName == null) {
+			return dao.getConceptIdsByMapping(code, sourceName, includeRetired);
+		}
+		return conceptLookupCache.getConceptIdsByMapping(code, sourceName, includeRetired,
+		    () -> dao.getConceptIdsByMapping(code, sourceName, includeRetired));
 	}
 	
 	/**
@@ -1556,9 +1805,11 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see ConceptService#updateConceptIndexes()
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public void updateConceptIndexes() throws APIException {
 		Context.updateSearchIndexForType(ConceptName.class);
+		if (conceptLookupCache != null) {
+			conceptLookupCache.clear();
+		}
 	}
 	
 	/**
@@ -1796,9 +2047,10 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#saveConceptReferenceTerm(org.openmrs.ConceptReferenceTerm)
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public ConceptReferenceTerm saveConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
-		return dao.saveConceptReferenceTerm(conceptReferenceTerm);
+		ConceptReferenceTerm savedConceptReferenceTerm = dao.saveConceptReferenceTerm(conceptReferenceTerm);
+		evictConceptMappingsFromLookupCache();
+		return savedConceptReferenceTerm;
 	}
 	
 	/**
@@ -1827,12 +2079,18 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#purgeConceptReferenceTerm(org.openmrs.ConceptReferenceTerm)
 	 */
 	@Override
-	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
 	public void purgeConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
 		if (dao.isConceptReferenceTermInUse(conceptReferenceTerm)) {
 			throw new APIException("ConceptRefereceTerm.inUse", (Object[]) null);
 		}
 		dao.deleteConceptReferenceTerm(conceptReferenceTerm);
+		evictConceptMappingsFromLookupCache();
+	}
+	
+	private void evictConceptMappingsFromLookupCache() {
+		if (conceptLookupCache != null) {
+			conceptLookupCache.evictMappings();
+		}
 	}
 	
 	/**
@@ -1894,6 +2152,11 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public boolean isConceptNameDuplicate(ConceptName name) {
+		Set<String> checkedNameUuids = namesCheckedForDuplicates.get();
+		if (checkedNameUuids != null && checkedNameUuids.contains(name.getUuid())) {
+			// looked up already by the concept import, which failed if it was a duplicate
+			return false;
+		}
 		return dao.isConceptNameDuplicate(name);
 	}
 	
@@ -2111,4 +2374,13 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		return mappedClasses;
 	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#getConceptLookupCacheStatistics()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, CacheRegionStatistics> getConceptLookupCacheStatistics() {
+		return conceptLookupCache != null ? conceptLookupCache.getStatistics() : Collections.emptyMap();
+	}
 }
@@ -93,6 +93,51 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	 */
 	@Override
 	public Encounter saveEncounter(Encounter encounter) throws APIException {
+		return saveEncounter(encounter, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.EncounterService#saveEncounters(java.util.List)
+	 */
+	@Override
+	public List<Encounter> saveEncounters(List<Encounter> encounters) throws APIException {
+		int chunkSize = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE);
+		if (chunkSize < 1) {
+			chunkSize = OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE;
+		}
+		
+		List<Encounter> savedEncounters = new ArrayList<>(encounters.size());
+		for (int first = 0; first < encounters.size(); first += chunkSize) {
+			List<Obs> newObs = new ArrayList<>();
+			int chunkStart = savedEncounters.size();
+			for (Encounter encounter : encounters.subList(first, Math.min(first + chunkSize, encounters.size()))) {
+				savedEncounters.add(saveEncounter(encounter, newObs));
+			}
+			Context.getObsService().saveObsBatch(newObs, null);
+			
+			//ensure changes are persisted to DB before reclaiming memory, only the saved encounters
+			//are evicted so that the objects the caller loaded in the session stay attached
+			Context.flushSession();
+			for (Encounter encounter : savedEncounters.subList(chunkStart, savedEncounters.size())) {
+				for (Obs obs : encounter.getAllObs(true)) {
+					Context.evictFromSession(obs);
+				}
+				Context.evictFromSession(encounter);
+			}
+		}
+		return savedEncounters;
+	}
+	
+	/**
+	 * Saves the given encounter, new obs of the encounter are added to the given list instead of
+	 * being saved if the list is not null
+	 * 
+	 * @param encounter the encounter to save
+	 * @param newObsToSave the list to collect the new top level obs in or null to save them
+	 * @return the saved encounter
+	 */
+	private Encounter saveEncounter(Encounter encounter, List<Obs> newObsToSave) throws APIException {
 		
 		// if authenticated user is not supposed to edit encounter of certain type
 		failIfDeniedToEdit(encounter);
@@ -183,7 +228,11 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		List<Obs> obsToAdd = new ArrayList<>();
 		for (Obs o : encounter.getObsAtTopLevel(true)) {
 			if (o.getId() == null) {
-				os.saveObs(o, null);
+				if (newObsToSave != null) {
+					newObsToSave.add(o);
+				} else {
+					os.saveObs(o, null);
+				}
 			} else {
 				Obs newObs = os.saveObs(o, changeMessage);
 				//The logic in saveObs evicts the old obs instance, so we need to update the collection
@@ -0,0 +1,225 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A read-through cache of global property values used by
+ * {@link AdministrationServiceImpl#getGlobalProperty(String)}. Only the value and the name of the
+ * view privilege are cached so that the view privilege can still be checked for every caller. <br>
+ * <br>
+ * Entries are evicted when a global property is saved or purged through the
+ * {@link org.openmrs.api.AdministrationService}, this class is registered as a
+ * {@link GlobalPropertyListener} for all property names. Because the cache is shared by all threads,
+ * a transaction that has changed a global property reads straight from the database until it
+ * completes, and the changed entries are evicted again once it has committed or rolled back.
+ *
+ * @since 2.7.0
+ */
+public class GlobalPropertyCache implements GlobalPropertyListener {
+	
+	private final ConcurrentMap<String, CachedGlobalProperty> values = new ConcurrentHashMap<>();
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	/**
+	 * Incremented on every eviction, a value loaded from the database is only cached if no eviction
+	 * happened while it was being loaded
+	 */
+	private long generation = 0;
+	
+	/**
+	 * Gets the cached global property with the given name, loading and caching it if it is not
+	 * cached yet
+	 *
+	 * @param propertyName the name of the global property
+	 * @param loader used to fetch the global property from the database on a cache miss
+	 * @return the cached global property, never null, {@link CachedGlobalProperty#exists()} is false
+	 *         if there is no global property with the given name
+	 */
+	public CachedGlobalProperty get(String propertyName, Function<String, GlobalProperty> loader) {
+		String key = toKey(propertyName);
+		boolean bypass = isChangedInCurrentTransaction();
+		if (!bypass) {
+			CachedGlobalProperty cached = values.get(key);
+			if (cached != null) {
+				hits.increment();
+				return cached;
+			}
+		}
+		
+		misses.increment();
+		long generationBeforeLoad = getGeneration();
+		CachedGlobalProperty loaded = new CachedGlobalProperty(loader.apply(propertyName));
+		if (!bypass) {
+			synchronized (this) {
+				if (generation == generationBeforeLoad) {
+					values.put(key, loaded);
+				}
+			}
+		}
+		
+		return loaded;
+	}
+	
+	/**
+	 * Evicts the global property with the given name, if called within a transaction the entry is
+	 * evicted again after the transaction completes and the current transaction stops using the
+	 * cache until then
+	 *
+	 * @param propertyName the name of the global property
+	 */
+	public void evict(String propertyName) {
+		String key = toKey(propertyName);
+		evictKey(key);
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			@SuppressWarnings("unchecked")
+			Set<String> changedKeys = (Set<String>) TransactionSynchronizationManager.getResource(this);
+			if (changedKeys == null) {
+				Set<String> keys = new HashSet<>();
+				TransactionSynchronizationManager.bindResource(this, keys);
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					
+					@Override
+					public void afterCompletion(int status) {
+						TransactionSynchronizationManager.unbindResourceIfPossible(GlobalPropertyCache.this);
+						keys.forEach(GlobalPropertyCache.this::evictKey);
+					}
+				});
+				changedKeys = keys;
+			}
+			changedKeys.add(key);
+		}
+	}
+	
+	/**
+	 * Evicts all cached global properties
+	 */
+	public synchronized void clear() {
+		generation++;
+		values.clear();
+	}
+	
+	/**
+	 * @return the number of lookups that were served from the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return the number of lookups that had to go to the database
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return the number of cached global properties
+	 */
+	public int getSize() {
+		return values.size();
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#supportsPropertyName(java.lang.String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return true;
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyChanged(org.openmrs.GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		evict(newValue.getProperty());
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyDeleted(java.lang.String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		evict(propertyName);
+	}
+	
+	private synchronized void evictKey(String key) {
+		generation++;
+		values.remove(key);
+	}
+	
+	private synchronized long getGeneration() {
+		return generation;
+	}
+	
+	private boolean isChangedInCurrentTransaction() {
+		return TransactionSynchronizationManager.isSynchronizationActive()
+		        && TransactionSynchronizationManager.hasResource(this);
+	}
+	
+	/**
+	 * Global property names are matched case insensitively by the database layer
+	 */
+	private static String toKey(String propertyName) {
+		return propertyName.toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * The parts of a global property that are needed to serve a value to a caller
+	 */
+	public static final class CachedGlobalProperty {
+		
+		private final boolean exists;
+		
+		private final String value;
+		
+		private final String viewPrivilege;
+		
+		CachedGlobalProperty(GlobalProperty gp) {
+			this.exists = gp != null;
+			this.value = gp != null ? gp.getPropertyValue() : null;
+			this.viewPrivilege = gp != null && gp.getViewPrivilege() != null ? gp.getViewPrivilege().getPrivilege()
+			        : null;
+		}
+		
+		public boolean exists() {
+			return exists;
+		}
+		
+		public String getValue() {
+			return value;
+		}
+		
+		/**
+		 * @return the name of the privilege required to view the global property or null if none is
+		 *         required
+		 */
+		public String getViewPrivilege() {
+			return viewPrivilege;
+		}
+	}
+}
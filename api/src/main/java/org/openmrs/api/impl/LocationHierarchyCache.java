@@ -0,0 +1,116 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the descendants of all locations in memory, loaded from the location closure table with a
+ * single query the first time they are needed. <br>
+ * <br>
+ * The whole hierarchy is dropped whenever a location is saved or purged. Because the cache is shared
+ * by all threads, a transaction that has changed a location reads straight from the database until
+ * it completes, and the hierarchy is dropped again once it has committed or rolled back.
+ *
+ * @since 2.7.0
+ */
+public class LocationHierarchyCache {
+	
+	/**
+	 * The descendant ids by location id, with and without retired descendants
+	 */
+	private volatile Map<Boolean, Map<Integer, List<Integer>>> descendantIds = Collections.emptyMap();
+	
+	/**
+	 * Incremented whenever the hierarchy is dropped, a hierarchy loaded from the database is only
+	 * kept if it was not dropped while it was being loaded
+	 */
+	private long generation = 0;
+	
+	/**
+	 * Gets the ids of the descendants of a location, loading the descendants of all locations if they
+	 * are not cached yet
+	 *
+	 * @param locationId the id of the location
+	 * @param includeRetired whether retired descendants are included
+	 * @param loader loads the descendants of all locations, with or without retired ones
+	 * @param directLoader loads the descendants of the location only, used by transactions that have
+	 *            changed a location
+	 * @return the unmodifiable list of descendant ids
+	 */
+	public List<Integer> getDescendantLocationIds(Integer locationId, boolean includeRetired,
+	        Function<Boolean, Map<Integer, List<Integer>>> loader, Supplier<List<Integer>> directLoader) {
+		if (isChangedInCurrentTransaction()) {
+			return Collections.unmodifiableList(directLoader.get());
+		}
+		
+		Map<Integer, List<Integer>> hierarchy = descendantIds.get(includeRetired);
+		if (hierarchy == null) {
+			long generationBeforeLoad = getGeneration();
+			Map<Integer, List<Integer>> loaded = loader.apply(includeRetired);
+			hierarchy = new HashMap<>(loaded.size() * 4 / 3 + 1);
+			for (Map.Entry<Integer, List<Integer>> entry : loaded.entrySet()) {
+				hierarchy.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+			}
+			synchronized (this) {
+				if (generation == generationBeforeLoad) {
+					Map<Boolean, Map<Integer, List<Integer>>> newDescendantIds = new HashMap<>(descendantIds);
+					newDescendantIds.put(includeRetired, hierarchy);
+					descendantIds = newDescendantIds;
+				}
+			}
+		}
+		
+		List<Integer> ids = hierarchy.get(locationId);
+		return ids != null ? ids : Collections.emptyList();
+	}
+	
+	/**
+	 * Drops the cached hierarchy, if called within a transaction it is dropped again after the
+	 * transaction completes and the current transaction stops using the cache until then
+	 */
+	public void clear() {
+		drop();
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+		        && TransactionSynchronizationManager.getResource(this) == null) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(LocationHierarchyCache.this);
+					drop();
+				}
+			});
+		}
+	}
+	
+	private synchronized void drop() {
+		generation++;
+		descendantIds = Collections.emptyMap();
+	}
+	
+	private synchronized long getGeneration() {
+		return generation;
+	}
+	
+	private boolean isChangedInCurrentTransaction() {
+		return TransactionSynchronizationManager.isSynchronizationActive()
+		        && TransactionSynchronizationManager.getResource(this) != null;
+	}
+}
@@ -10,6 +10,7 @@
 package org.openmrs.api.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,8 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	
 	private LocationDAO dao;
 	
+	private LocationHierarchyCache locationHierarchyCache;
+	
 	/**
 	 * @see org.openmrs.api.LocationService#setLocationDAO(org.openmrs.api.db.LocationDAO)
 	 */
@@ -53,6 +56,14 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param locationHierarchyCache the cache to serve the descendants of locations from
+	 * @since 2.7.0
+	 */
+	public void setLocationHierarchyCache(LocationHierarchyCache locationHierarchyCache) {
+		this.locationHierarchyCache = locationHierarchyCache;
+	}
+	
 	/**
 	 * @see org.openmrs.api.LocationService#saveLocation(org.openmrs.Location)
 	 */
@@ -85,7 +96,11 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		
 		CustomDatatypeUtil.saveAttributesIfNecessary(location);
 		
-		return dao.saveLocation(location);
+		Location savedLocation = dao.saveLocation(location);
+		if (locationHierarchyCache != null) {
+			locationHierarchyCache.clear();
+		}
+		return savedLocation;
 	}
 	
 	/**
@@ -268,6 +283,9 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	@Override
 	public void purgeLocation(Location location) throws APIException {
 		dao.deleteLocation(location);
+		if (locationHierarchyCache != null) {
+			locationHierarchyCache.clear();
+		}
 	}
 	
 	/**
@@ -398,6 +416,34 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		return dao.getRootLocations(includeRetired);
 	}
 	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired) {
+		if (location.getLocationId() == null) {
+			return Collections.emptyList();
+		}
+		if (locationHierarchyCache == null) {
+			return dao.getDescendantLocationIds(location, includeRetired);
+		}
+		return locationHierarchyCache.getDescendantLocationIds(location.getLocationId(), includeRetired,
+		    dao::getAllDescendantLocationIds, () -> dao.getDescendantLocationIds(location, includeRetired));
+	}
+	
+	/**
+	 * @see LocationService#getAncestorLocationIds(Location)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> getAncestorLocationIds(Location location) {
+		if (location.getLocationId() == null) {
+			return Collections.emptyList();
+		}
+		return dao.getAncestorLocationIds(location);
+	}
+	
 	/**
 	 * @see org.openmrs.api.LocationService#getPossibleAddressValues(Address, String)
 	 */
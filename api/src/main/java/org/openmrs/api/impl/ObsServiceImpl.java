@@ -10,11 +10,15 @@
 package org.openmrs.api.impl;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -33,11 +37,16 @@ import org.openmrs.api.db.ObsDAO;
 import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.obs.ComplexObsStorage;
+import org.openmrs.obs.ContentAddressedComplexObsStorage;
 import org.openmrs.obs.handler.AbstractHandler;
 import org.openmrs.util.OpenmrsClassLoader;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -48,6 +57,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	
+	private static final Logger log = LoggerFactory.getLogger(ObsServiceImpl.class);
+	
+	/**
+	 * The number of observations {@link #streamObservations} holds in memory at a time
+	 */
+	private static final int STREAM_BATCH_SIZE = 500;
+	
 	/**
 	 * The data access object for the obs service
 	 */
@@ -114,6 +130,71 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		}
 	}
 
+	/**
+	 * @see org.openmrs.api.ObsService#saveObsBatch(java.util.List, String)
+	 */
+	@Override
+	public List<Obs> saveObsBatch(List<Obs> observations, String changeMessage) throws APIException {
+		int chunkSize = getBatchSaveChunkSize();
+		List<Obs> savedObs = new ArrayList<>(observations.size());
+		int chunkStart = 0;
+		for (Obs obs : observations) {
+			if (obs == null) {
+				throw new APIException("Obs.error.cannot.be.null", (Object[]) null);
+			}
+
+			// the save handlers of the whole batch have already been run by the aop advice around this
+			// method, so new obs are written directly instead of going through saveObs again
+			if (obs.getObsId() == null) {
+				savedObs.add(saveNewObsInBatch(obs, changeMessage));
+			} else {
+				savedObs.add(saveObs(obs, changeMessage));
+			}
+
+			if (savedObs.size() - chunkStart == chunkSize) {
+				//ensure changes are persisted to DB before reclaiming memory, only the saved obs are
+				//evicted so that the objects the caller loaded in the session stay attached
+				Context.flushSession();
+				for (Obs saved : savedObs.subList(chunkStart, savedObs.size())) {
+					evictObsAndGroupMembers(saved);
+				}
+				chunkStart = savedObs.size();
+			}
+		}
+		return savedObs;
+	}
+
+	private void evictObsAndGroupMembers(Obs obs) {
+		if (obs.hasGroupMembers(true)) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				evictObsAndGroupMembers(member);
+			}
+		}
+		Context.evictFromSession(obs);
+	}
+
+	private Obs saveNewObsInBatch(Obs obs, String changeMessage) {
+		handleExistingObsWithComplexConcept(obs);
+		ensureRequirePrivilege(obs);
+		dao.saveObs(obs);
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				if (member.getObsId() == null) {
+					saveNewObsInBatch(member, changeMessage);
+				} else {
+					saveObs(member, changeMessage);
+				}
+			}
+		}
+		return obs;
+	}
+
+	private int getBatchSaveChunkSize() {
+		Integer chunkSize = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE);
+		return chunkSize > 0 ? chunkSize : OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE;
+	}
+
 	private void setPersonFromEncounter(Obs obs) {
 		Encounter encounter = obs.getEncounter();
 		if (encounter != null) {
@@ -132,10 +213,11 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 			// the fact that the obs is now voided
 			evictObsAndChildren(obs);
 			obs = Context.getObsService().getObs(obs.getObsId());
-			//delete the previous file from the appdata/complex_obs folder
-			if (newObs.hasPreviousVersion() && newObs.getPreviousVersion().isComplex()) {
-				File previousFile = AbstractHandler.getComplexDataFile(obs);
-				previousFile.delete();
+			//delete the previous file from the appdata/complex_obs folder, a content addressed file may be
+			//shared so the voided obs keeps its reference until it is purged, purging releases it once
+			if (newObs.hasPreviousVersion() && newObs.getPreviousVersion().isComplex()
+			        && !ContentAddressedComplexObsStorage.isContentAddressed(AbstractHandler.getComplexDataFileName(obs))) {
+				AbstractHandler.releaseComplexDataFile(obs);
 			}
 			// calling this via the service so that AOP hooks are called
 			Context.getObsService().voidObs(obs, changeMessage);
@@ -372,6 +454,33 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		    obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ObsService#streamObservations(java.util.List, java.util.List,
+	 *      java.util.List, java.util.List, java.util.List, java.util.List, java.util.List,
+	 *      java.lang.Integer, java.lang.Integer, java.util.Date, java.util.Date, boolean,
+	 *      java.lang.String, java.util.function.Consumer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long streamObservations(List<Person> whom, List<Encounter> encounters, List<Concept> questions,
+	                               List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations,
+	                               List<String> sort, Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate,
+	                               boolean includeVoidedObs, String accessionNumber, Consumer<Obs> consumer) throws APIException {
+		
+		if (consumer == null) {
+			throw new IllegalArgumentException("consumer is required");
+		}
+		if (sort == null) {
+			sort = new ArrayList<>();
+		}
+		if (sort.isEmpty()) {
+			sort.add("obsDatetime");
+		}
+		
+		return dao.streamObservations(whom, encounters, questions, answers, personTypes, locations, sort, mostRecentN,
+		    obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber, STREAM_BATCH_SIZE, consumer);
+	}
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObservationCount(java.util.List, java.util.List,
 	 *      java.util.List, java.util.List, java.util.List, java.util.List, java.lang.Integer,
@@ -481,6 +590,62 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		    null, false);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getLatestObs(java.util.List, java.util.List)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Obs> getLatestObs(List<Person> persons, List<Concept> concepts) throws APIException {
+		List<Integer> personIds = persons.stream().map(Person::getPersonId).filter(Objects::nonNull).distinct()
+		        .collect(Collectors.toList());
+		List<Integer> conceptIds = concepts.stream().map(Concept::getConceptId).filter(Objects::nonNull).distinct()
+		        .collect(Collectors.toList());
+		return dao.getLatestObs(personIds, conceptIds);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#migrateComplexObsStorage(java.lang.Integer, int)
+	 */
+	@Override
+	@Transactional
+	public Integer migrateComplexObsStorage(Integer afterObsId, int batchSize) throws APIException {
+		ComplexObsStorage storage = AbstractHandler.getComplexObsStorage();
+		if (!(storage instanceof ContentAddressedComplexObsStorage)) {
+			throw new APIException("The complex obs storage in use is " + storage.getClass().getName() + ", not "
+			        + ContentAddressedComplexObsStorage.class.getName());
+		}
+		
+		File directory = AbstractHandler.getComplexObsDirectory();
+		List<Obs> batch = dao.getComplexObsWithUnshardedFiles(afterObsId, batchSize);
+		for (Obs obs : batch) {
+			String fileName = AbstractHandler.getComplexDataFileName(obs);
+			File file = new File(directory, fileName);
+			if (!file.isFile()) {
+				// moved already along with an earlier obs sharing it, or lost
+				log.debug("Not moving the complex data of obs {}, there is no file {}", obs.getObsId(), file);
+				continue;
+			}
+			
+			List<Obs> sharing = dao.getObsByComplexDataFileName(fileName).stream()
+			        .filter(o -> fileName.equals(AbstractHandler.getComplexDataFileName(o))).collect(Collectors.toList());
+			String name;
+			try {
+				name = ((ContentAddressedComplexObsStorage) storage).store(directory, file, sharing.size());
+			}
+			catch (IOException e) {
+				// the other files of the batch are still moved, this one is tried again in the next run
+				log.warn("Could not move the complex data of obs {} at {}", obs.getObsId(), file, e);
+				continue;
+			}
+			for (Obs o : sharing) {
+				String valueComplex = o.getValueComplex();
+				dao.updateValueComplex(o, valueComplex.substring(0, valueComplex.length() - fileName.length()) + name);
+			}
+		}
+		
+		return batch.isEmpty() ? null : batch.get(batch.size() - 1).getObsId();
+	}
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObsByUuid(java.lang.String)
 	 */
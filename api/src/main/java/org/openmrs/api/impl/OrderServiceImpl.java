@@ -84,11 +84,13 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	
 	private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
 	
-	private static final String ORDER_NUMBER_PREFIX = "ORD-";
+	static final String ORDER_NUMBER_PREFIX = "ORD-";
 	
 	protected OrderDAO dao;
 	
 	private static OrderNumberGenerator orderNumberGenerator = null;
+	
+	private PatientSummaryCache patientSummaryCache;
 
 	public OrderServiceImpl() {
 	}
@@ -101,6 +103,14 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param patientSummaryCache the cache of patient summaries to evict when orders change
+	 * @since 2.7.0
+	 */
+	public void setPatientSummaryCache(PatientSummaryCache patientSummaryCache) {
+		this.patientSummaryCache = patientSummaryCache;
+	}
+	
 	/**
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
 	 */
@@ -350,9 +360,17 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 			}
 		}
 		
+		// discontinuing and revising orders stop the previous order without going through the save handlers
+		evictPatientSummary(order);
 		return dao.saveOrder(order);
 	}
 	
+	private void evictPatientSummary(Order order) {
+		if (patientSummaryCache != null) {
+			patientSummaryCache.evict(order);
+		}
+	}
+	
 	private void setProperty(Order order, String propertyName, Object value) {
 		Boolean isAccessible = null;
 		Field field = null;
@@ -485,6 +503,7 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 			dao.deleteObsThatReference(order);
 		}
 		
+		evictPatientSummary(order);
 		dao.deleteOrder(order);
 	}
 	
@@ -664,6 +683,15 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 		return dao.getNextOrderNumberSeedSequenceValue();
 	}
 	
+	/**
+	 * @see org.openmrs.api.OrderService#reserveOrderNumberSeedBlock(int)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public synchronized Long reserveOrderNumberSeedBlock(int blockSize) {
+		return dao.reserveOrderNumberSeedBlock(blockSize);
+	}
+	
 	/**
 	 * @see org.openmrs.api.OrderService#getOrderHistoryByOrderNumber(java.lang.String)
 	 */
@@ -17,8 +17,10 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -27,6 +29,7 @@ import org.openmrs.Allergies;
 import org.openmrs.Allergy;
 import org.openmrs.BaseOpenmrsMetadata;
 import org.openmrs.Concept;
+import org.openmrs.Condition;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
@@ -35,6 +38,7 @@ import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
+import org.openmrs.PatientSummary;
 import org.openmrs.Person;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
@@ -59,6 +63,8 @@ import org.openmrs.api.VisitService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.HibernateUtil;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
@@ -90,6 +96,8 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	
 	private PatientDAO dao;
 	
+	private PatientSummaryCache patientSummaryCache;
+	
 	/**
 	 * PatientIdentifierValidators registered through spring's applicationContext-service.xml
 	 */
@@ -103,6 +111,14 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param patientSummaryCache the cache to serve patient summaries from
+	 * @since 2.7.0
+	 */
+	public void setPatientSummaryCache(PatientSummaryCache patientSummaryCache) {
+		this.patientSummaryCache = patientSummaryCache;
+	}
+	
 	/**
 	 * Clean up after this class. Set the static var to null so that the classloader can reclaim the
 	 * space.
@@ -354,6 +370,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	@Override
 	public void purgePatient(Patient patient) throws APIException {
+		evictPatientSummary(patient);
 		dao.deletePatient(patient);
 	}
 	
@@ -538,6 +555,15 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.getDuplicatePatientsByAttributes(attributes);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PatientService#findDuplicatePatients(double, Consumer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long findDuplicatePatients(double minimumScore, Consumer<DuplicatePatientMatch> consumer) throws APIException {
+		return dao.findDuplicatePatients(minimumScore, consumer);
+	}
+	
 	/**
 	 * generate a relationship hash for use in mergePatients; follows the convention:
 	 * [relationshipType][A|B][relativeId]
@@ -572,6 +598,8 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 			throw new APIException("Patient.merge.cancelled", new Object[] { preferred.getPatientId() });
 		}
 		requireNoActiveOrderOfSameType(preferred,notPreferred);
+		evictPatientSummary(preferred);
+		evictPatientSummary(notPreferred);
 		PersonMergeLogData mergedData = new PersonMergeLogData();
 		mergeVisits(preferred, notPreferred, mergedData);
 		mergeEncounters(preferred, notPreferred, mergedData);
@@ -1481,9 +1509,88 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 			}
 		}
 		
+		evictPatientSummary(patient);
 		return dao.saveAllergies(patient, allergies);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientSummary(org.openmrs.Patient)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PatientSummary getPatientSummary(Patient patient) throws APIException {
+		if (patient == null || patient.getPatientId() == null) {
+			throw new IllegalArgumentException("An existing (NOT NULL) patient is required to get the patient summary");
+		}
+		
+		PatientSummaryCache.Snapshot snapshot = patientSummaryCache != null ? patientSummaryCache.getSnapshot(
+		    patient.getPatientId(), () -> loadPatientSummarySnapshot(patient)) : loadPatientSummarySnapshot(patient);
+		
+		// orders and visits end as time passes, so they are checked again against the current time
+		Date now = new Date();
+		List<Order> activeOrders = new ArrayList<>();
+		for (Order order : dao.getObjectsByIds(Order.class, snapshot.getOrderIds())) {
+			if (order != null && !order.getVoided() && order.isActive(now)) {
+				activeOrders.add(order);
+			}
+		}
+		
+		Map<Integer, Obs> latestObsByConceptId = new LinkedHashMap<>();
+		for (Obs obs : dao.getObjectsByIds(Obs.class, snapshot.getLatestObsIds())) {
+			if (obs != null) {
+				latestObsByConceptId.put(obs.getConcept().getConceptId(), obs);
+			}
+		}
+		
+		List<Condition> activeConditions = dao.getObjectsByIds(Condition.class, snapshot.getConditionIds()).stream()
+		        .filter(Objects::nonNull).collect(Collectors.toList());
+		
+		Allergies allergies = new Allergies();
+		List<Allergy> allergyList = dao.getObjectsByIds(Allergy.class, snapshot.getAllergyIds()).stream()
+		        .filter(Objects::nonNull).collect(Collectors.toList());
+		if (!allergyList.isEmpty()) {
+			allergies.addAll(allergyList);
+		} else if (Allergies.NO_KNOWN_ALLERGIES.equals(snapshot.getAllergyStatus())) {
+			allergies.confirmNoKnownAllergies();
+		}
+		
+		Visit activeVisit = null;
+		if (snapshot.getVisitId() != null) {
+			Visit visit = dao.getObjectsByIds(Visit.class, Collections.singletonList(snapshot.getVisitId())).get(0);
+			if (visit != null && (visit.getStopDatetime() == null || visit.getStopDatetime().after(now))) {
+				activeVisit = visit;
+			}
+		}
+		
+		return new PatientSummary(patient, activeOrders, latestObsByConceptId, activeConditions, allergies, activeVisit);
+	}
+	
+	private PatientSummaryCache.Snapshot loadPatientSummarySnapshot(Patient patient) {
+		List<Integer> orderIds = Context.getOrderService().getActiveOrders(patient, null, null, null).stream()
+		        .map(Order::getOrderId).collect(Collectors.toList());
+		List<Integer> latestObsIds = new ArrayList<>(dao.getLatestObsIdsByConcept(patient).values());
+		List<Integer> conditionIds = Context.getConditionService().getActiveConditions(patient).stream()
+		        .map(Condition::getConditionId).collect(Collectors.toList());
+		List<Integer> allergyIds = dao.getAllergies(patient).stream().map(Allergy::getAllergyId)
+		        .collect(Collectors.toList());
+		
+		Visit activeVisit = null;
+		for (Visit visit : Context.getVisitService().getActiveVisitsByPatient(patient)) {
+			if (activeVisit == null || visit.getStartDatetime().after(activeVisit.getStartDatetime())) {
+				activeVisit = visit;
+			}
+		}
+		
+		return new PatientSummaryCache.Snapshot(orderIds, latestObsIds, conditionIds, allergyIds,
+		        dao.getAllergyStatus(patient), activeVisit != null ? activeVisit.getVisitId() : null);
+	}
+	
+	private void evictPatientSummary(Patient patient) {
+		if (patientSummaryCache != null && patient != null && patient.getPatientId() != null) {
+			patientSummaryCache.evict(patient.getPatientId());
+		}
+	}
+	
 	/**
 	 * Voids a given allergy
 	 * 
@@ -1602,6 +1709,16 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.getPatients(query, includeVoided, start, length);
 	}
 	
+	/**
+	 * @see PatientService#searchPatients(String, boolean, String, int, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public SearchResultPage<Patient> searchPatients(String query, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws APIException {
+		return dao.searchPatients(query, includeVoided, continuationToken, length, includeCount);
+	}
+	
 	/**
 	 * @see PatientService#getPatients(String, String, List, boolean, Integer, Integer)
 	 */
@@ -0,0 +1,247 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.openmrs.Allergy;
+import org.openmrs.Condition;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Order;
+import org.openmrs.Person;
+import org.openmrs.Visit;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches a snapshot of the ids of the data that makes up the summary of a patient in a region of the
+ * api cache manager, so that opening the chart of a patient again only needs to load that data by
+ * id. <br>
+ * <br>
+ * The snapshot of a patient is evicted by the save, void and unvoid handlers of the data it is made
+ * of, and by the services for changes that do not go through those handlers. Because the cache is
+ * shared by all threads, a transaction that has changed the data of a patient reads the summary of
+ * that patient straight from the database until it completes, and the eviction is repeated once it
+ * has committed or rolled back. The region expires its entries after a while, which bounds the
+ * staleness caused by changes that bypass the api.
+ *
+ * @since 2.7.0
+ */
+public class PatientSummaryCache {
+	
+	public static final String PATIENT_SUMMARIES_CACHE_NAME = "patientSummaries";
+	
+	private volatile Cache cache;
+	
+	/**
+	 * Incremented on every eviction, a snapshot loaded from the database is only cached if no
+	 * eviction happened while it was being loaded
+	 */
+	private long generation = 0;
+	
+	/**
+	 * @param cacheManager the cache manager that holds the cache region, summaries are not cached if
+	 *            it does not have it
+	 */
+	public synchronized void setCacheManager(CacheManager cacheManager) {
+		generation++;
+		cache = cacheManager != null ? cacheManager.getCache(PATIENT_SUMMARIES_CACHE_NAME) : null;
+	}
+	
+	/**
+	 * Gets the snapshot of the summary of a patient, loading and caching it if it is not cached yet
+	 *
+	 * @param patientId the id of the patient
+	 * @param loader used to load the snapshot from the database on a cache miss
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshot(Integer patientId, Supplier<Snapshot> loader) {
+		Cache region = cache;
+		if (region == null || patientId == null) {
+			return loader.get();
+		}
+		
+		boolean bypass = isChangedInCurrentTransaction(patientId);
+		if (!bypass) {
+			ValueWrapper cached = region.get(patientId);
+			if (cached != null) {
+				return (Snapshot) cached.get();
+			}
+		}
+		
+		long generationBeforeLoad = getGeneration();
+		Snapshot loaded = loader.get();
+		if (!bypass) {
+			synchronized (this) {
+				if (generation == generationBeforeLoad) {
+					region.put(patientId, loaded);
+				}
+			}
+		}
+		
+		return loaded;
+	}
+	
+	/**
+	 * Evicts the summary of the patient the given object belongs to, does nothing for objects that
+	 * are not part of a summary
+	 *
+	 * @param object an order, observation, condition, allergy, visit or encounter
+	 * @see #evict(Integer)
+	 */
+	public void evict(OpenmrsObject object) {
+		Integer patientId = getPatientId(object);
+		if (patientId != null) {
+			evict(patientId);
+		}
+	}
+	
+	/**
+	 * Evicts the summary of a patient, if called within a transaction it is evicted again after the
+	 * transaction completes and the current transaction stops using the cached summary of the
+	 * patient until then
+	 *
+	 * @param patientId the id of the patient
+	 */
+	public void evict(Integer patientId) {
+		evictNow(patientId);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		
+		@SuppressWarnings("unchecked")
+		Set<Integer> changedPatientIds = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+		if (changedPatientIds == null) {
+			Set<Integer> changed = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, changed);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PatientSummaryCache.this);
+					changed.forEach(PatientSummaryCache.this::evictNow);
+				}
+			});
+			changedPatientIds = changed;
+		}
+		changedPatientIds.add(patientId);
+	}
+	
+	/**
+	 * Evicts all cached summaries
+	 */
+	public synchronized void clear() {
+		generation++;
+		Cache region = cache;
+		if (region != null) {
+			region.clear();
+		}
+	}
+	
+	private synchronized void evictNow(Integer patientId) {
+		generation++;
+		Cache region = cache;
+		if (region != null) {
+			region.evict(patientId);
+		}
+	}
+	
+	private synchronized long getGeneration() {
+		return generation;
+	}
+	
+	private boolean isChangedInCurrentTransaction(Integer patientId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		Set<?> changedPatientIds = (Set<?>) TransactionSynchronizationManager.getResource(this);
+		return changedPatientIds != null && changedPatientIds.contains(patientId);
+	}
+	
+	private static Integer getPatientId(OpenmrsObject object) {
+		Person person = null;
+		if (object instanceof Obs) {
+			person = ((Obs) object).getPerson();
+		} else if (object instanceof Order) {
+			person = ((Order) object).getPatient();
+		} else if (object instanceof Condition) {
+			person = ((Condition) object).getPatient();
+		} else if (object instanceof Allergy) {
+			person = ((Allergy) object).getPatient();
+		} else if (object instanceof Visit) {
+			person = ((Visit) object).getPatient();
+		} else if (object instanceof Encounter) {
+			person = ((Encounter) object).getPatient();
+		}
+		return person != null ? person.getPersonId() : null;
+	}
+	
+	/**
+	 * The ids of the data that makes up the summary of a patient, the active orders and visit are
+	 * checked again when the summary is read since they end as time passes
+	 */
+	public static final class Snapshot {
+		
+		private final List<Integer> orderIds;
+		
+		private final List<Integer> latestObsIds;
+		
+		private final List<Integer> conditionIds;
+		
+		private final List<Integer> allergyIds;
+		
+		private final String allergyStatus;
+		
+		private final Integer visitId;
+		
+		public Snapshot(List<Integer> orderIds, List<Integer> latestObsIds, List<Integer> conditionIds,
+		    List<Integer> allergyIds, String allergyStatus, Integer visitId) {
+			this.orderIds = Collections.unmodifiableList(orderIds);
+			this.latestObsIds = Collections.unmodifiableList(latestObsIds);
+			this.conditionIds = Collections.unmodifiableList(conditionIds);
+			this.allergyIds = Collections.unmodifiableList(allergyIds);
+			this.allergyStatus = allergyStatus;
+			this.visitId = visitId;
+		}
+		
+		public List<Integer> getOrderIds() {
+			return orderIds;
+		}
+		
+		public List<Integer> getLatestObsIds() {
+			return latestObsIds;
+		}
+		
+		public List<Integer> getConditionIds() {
+			return conditionIds;
+		}
+		
+		public List<Integer> getAllergyIds() {
+			return allergyIds;
+		}
+		
+		public String getAllergyStatus() {
+			return allergyStatus;
+		}
+		
+		public Integer getVisitId() {
+			return visitId;
+		}
+	}
+}
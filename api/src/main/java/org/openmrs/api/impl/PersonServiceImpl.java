@@ -24,6 +24,7 @@ import org.openmrs.api.PersonAttributeTypeLockedException;
 import org.openmrs.api.PersonService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PersonDAO;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.serialization.SerializationException;
@@ -93,6 +94,16 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 		return dao.getPeople(searchPhrase, dead, voided);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PersonService#searchPeople(String, boolean, String, int, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public SearchResultPage<Person> searchPeople(String searchPhrase, boolean includeVoided, String continuationToken,
+	        int length, boolean includeCount) throws APIException {
+		return dao.searchPeople(searchPhrase, includeVoided, continuationToken, length, includeCount);
+	}
+	
 	/**
 	 * @see org.openmrs.api.PersonService#getAllPersonAttributeTypes()
 	 */
@@ -20,6 +20,7 @@ import org.openmrs.annotation.Logging;
 import org.openmrs.api.*;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.EffectivePrivileges;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LoginCredential;
 import org.openmrs.api.db.UserDAO;
@@ -175,6 +176,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 				+ " is already in use.");
 		}
 		
+		EffectivePrivileges.invalidateAll();
 		return dao.saveUser(user, null);
 	}
 	
@@ -248,6 +250,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			throw new APIException("Privilege.cannot.delete.core", (Object[]) null);
 		}
 		
+		EffectivePrivileges.invalidateAll();
 		dao.deletePrivilege(privilege);
 	}
 	
@@ -256,6 +259,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Privilege savePrivilege(Privilege privilege) throws APIException {
+		EffectivePrivileges.invalidateAll();
 		return dao.savePrivilege(privilege);
 	}
 	
@@ -294,6 +298,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			throw new CannotDeleteRoleWithChildrenException();
 		}
 		
+		EffectivePrivileges.invalidateAll();
 		dao.deleteRole(role);
 	}
 	
@@ -310,6 +315,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		
 		checkPrivileges(role);
 		
+		EffectivePrivileges.invalidateAll();
 		return dao.saveRole(role);
 	}
 	
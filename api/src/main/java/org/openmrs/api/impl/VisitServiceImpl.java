@@ -46,6 +46,8 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 	
 	private VisitDAO dao;
 	
+	private PatientSummaryCache patientSummaryCache;
+	
 	/**
 	 * Method used to inject the visit data access object.
 	 *
@@ -55,6 +57,14 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param patientSummaryCache the cache of patient summaries to evict when visits are purged
+	 * @since 2.7.0
+	 */
+	public void setPatientSummaryCache(PatientSummaryCache patientSummaryCache) {
+		this.patientSummaryCache = patientSummaryCache;
+	}
+	
 	public VisitDAO getVisitDAO() {
 		return dao;
 	}
@@ -220,6 +230,9 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 		if (!Context.getEncounterService().getEncountersByVisit(visit, true).isEmpty()) {
 			throw new APIException("Visit.purge.inUse", (Object[]) null);
 		}
+		if (patientSummaryCache != null) {
+			patientSummaryCache.evict(visit);
+		}
 		dao.deleteVisit(visit);
 	}
 	
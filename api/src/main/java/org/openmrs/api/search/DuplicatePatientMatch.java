@@ -0,0 +1,63 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.search;
+
+/**
+ * Two patients that are likely to be the same person along with how similar they are
+ *
+ * @see org.openmrs.api.PatientService#findDuplicatePatients(double, java.util.function.Consumer)
+ * @since 2.7.0
+ */
+public class DuplicatePatientMatch {
+	
+	private final Integer patientId;
+	
+	private final Integer otherPatientId;
+	
+	private final double score;
+	
+	/**
+	 * @param patientId the id of the patient with the lower id
+	 * @param otherPatientId the id of the patient with the higher id
+	 * @param score the similarity of the patients, from 0 to 1
+	 */
+	public DuplicatePatientMatch(Integer patientId, Integer otherPatientId, double score) {
+		this.patientId = patientId;
+		this.otherPatientId = otherPatientId;
+		this.score = score;
+	}
+	
+	/**
+	 * @return the id of the patient with the lower id
+	 */
+	public Integer getPatientId() {
+		return patientId;
+	}
+	
+	/**
+	 * @return the id of the patient with the higher id
+	 */
+	public Integer getOtherPatientId() {
+		return otherPatientId;
+	}
+	
+	/**
+	 * @return the similarity of the patients, from 0 for nothing in common to 1 for the same names,
+	 *         birthdate, gender and a shared identifier
+	 */
+	public double getScore() {
+		return score;
+	}
+	
+	@Override
+	public String toString() {
+		return "DuplicatePatientMatch[" + patientId + ", " + otherPatientId + ", " + score + "]";
+	}
+}
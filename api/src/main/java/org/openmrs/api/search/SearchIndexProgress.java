@@ -0,0 +1,131 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.search;
+
+import java.util.Date;
+
+/**
+ * A snapshot of the progress of rebuilding the search index of a single indexed type
+ *
+ * @since 2.7.0
+ */
+public class SearchIndexProgress {
+	
+	public enum Status {
+		/**
+		 * The type is waiting to be indexed
+		 */
+		PENDING,
+		/**
+		 * The type is being indexed
+		 */
+		RUNNING,
+		/**
+		 * The type has been indexed
+		 */
+		COMPLETED,
+		/**
+		 * The type was indexed by an earlier rebuild that was interrupted and has not been indexed again
+		 */
+		SKIPPED,
+		/**
+		 * Indexing the type failed, it is indexed again by the next rebuild
+		 */
+		FAILED
+	}
+	
+	private final String type;
+	
+	private final Status status;
+	
+	private final long totalCount;
+	
+	private final long indexedCount;
+	
+	private final long startTime;
+	
+	private final long endTime;
+	
+	/**
+	 * @param type the name of the indexed class
+	 * @param status the status of the type
+	 * @param totalCount the number of entities to index
+	 * @param indexedCount the number of entities indexed so far
+	 * @param startTime the time in milliseconds the type was started to be indexed at, 0 if it was not
+	 *            started yet
+	 * @param endTime the time in milliseconds the type was finished to be indexed at, 0 if it was not
+	 *            finished yet
+	 */
+	public SearchIndexProgress(String type, Status status, long totalCount, long indexedCount, long startTime,
+	    long endTime) {
+		this.type = type;
+		this.status = status;
+		this.totalCount = totalCount;
+		this.indexedCount = indexedCount;
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+	
+	/**
+	 * @return the name of the indexed class
+	 */
+	public String getType() {
+		return type;
+	}
+	
+	public Status getStatus() {
+		return status;
+	}
+	
+	/**
+	 * @return the number of entities to index
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * @return the number of entities indexed so far
+	 */
+	public long getIndexedCount() {
+		return indexedCount;
+	}
+	
+	/**
+	 * @return the time the type was started to be indexed at or null if it was not started yet
+	 */
+	public Date getStartTime() {
+		return startTime > 0 ? new Date(startTime) : null;
+	}
+	
+	/**
+	 * @return the time the type was finished to be indexed at or null if it was not finished yet
+	 */
+	public Date getEndTime() {
+		return endTime > 0 ? new Date(endTime) : null;
+	}
+	
+	/**
+	 * @return the number of entities indexed per second, up to now if the type is still being indexed
+	 */
+	public double getDocumentsPerSecond() {
+		if (startTime <= 0) {
+			return 0;
+		}
+		long elapsed = (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+		return elapsed > 0 ? indexedCount * 1000.0 / elapsed : 0;
+	}
+	
+	@Override
+	public String toString() {
+		return type + " [status: " + status + ", indexed: " + indexedCount + "/" + totalCount + ", documents/s: "
+		        + String.format("%.1f", getDocumentsPerSecond()) + "]";
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.search;
+
+/**
+ * A snapshot of the state of the queue of objects waiting for the search index to be updated in the
+ * async update mode
+ *
+ * @see org.openmrs.util.OpenmrsConstants#SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY
+ * @since 2.7.0
+ */
+public class SearchIndexUpdateStatistics {
+	
+	private final boolean async;
+	
+	private final int queueDepth;
+	
+	private final int queueCapacity;
+	
+	private final long lagMillis;
+	
+	private final long indexedCount;
+	
+	private final long indexedByCallerCount;
+	
+	private final long failedCount;
+	
+	/**
+	 * @param async whether the index is updated by a background worker
+	 * @param queueDepth the number of objects waiting to be indexed
+	 * @param queueCapacity the maximum number of objects that can wait to be indexed
+	 * @param lagMillis how long the oldest waiting object has been waiting for in milliseconds
+	 * @param indexedCount the number of objects indexed by the background worker
+	 * @param indexedByCallerCount the number of objects indexed by the thread that saved them because
+	 *            the queue was full
+	 * @param failedCount the number of objects that failed to be indexed
+	 */
+	public SearchIndexUpdateStatistics(boolean async, int queueDepth, int queueCapacity, long lagMillis,
+	    long indexedCount, long indexedByCallerCount, long failedCount) {
+		this.async = async;
+		this.queueDepth = queueDepth;
+		this.queueCapacity = queueCapacity;
+		this.lagMillis = lagMillis;
+		this.indexedCount = indexedCount;
+		this.indexedByCallerCount = indexedByCallerCount;
+		this.failedCount = failedCount;
+	}
+	
+	/**
+	 * @return true if the index is updated by a background worker, false if it is updated before the
+	 *         call that saved an object returns
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+	
+	/**
+	 * @return the number of objects waiting to be indexed
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+	
+	/**
+	 * @return the maximum number of objects that can wait to be indexed
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+	
+	/**
+	 * @return how long the oldest waiting object has been waiting for in milliseconds, 0 if the queue
+	 *         is empty
+	 */
+	public long getLagMillis() {
+		return lagMillis;
+	}
+	
+	/**
+	 * @return the number of objects indexed by the background worker
+	 */
+	public long getIndexedCount() {
+		return indexedCount;
+	}
+	
+	/**
+	 * @return the number of objects indexed by the thread that saved them because the queue was full
+	 */
+	public long getIndexedByCallerCount() {
+		return indexedByCallerCount;
+	}
+	
+	/**
+	 * @return the number of objects that failed to be indexed
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+	
+	@Override
+	public String toString() {
+		return "[async: " + async + ", queued: " + queueDepth + "/" + queueCapacity + ", lag: " + lagMillis
+		        + "ms, indexed: " + indexedCount + ", indexed by caller: " + indexedByCallerCount + ", failed: "
+		        + failedCount + "]";
+	}
+}
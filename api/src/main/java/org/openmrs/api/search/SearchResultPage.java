@@ -0,0 +1,71 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of search results along with the token to get the next page with
+ *
+ * @param <T> the type of the results
+ * @since 2.7.0
+ */
+public class SearchResultPage<T> {
+	
+	private final List<T> results;
+	
+	private final String continuationToken;
+	
+	private final Long approximateCount;
+	
+	/**
+	 * @param results the results of the page
+	 * @param continuationToken the token to get the next page with or null if this is the last page
+	 * @param approximateCount the approximate number of results of all pages or null if it was not
+	 *            requested
+	 */
+	public SearchResultPage(List<T> results, String continuationToken, Long approximateCount) {
+		this.results = Collections.unmodifiableList(results);
+		this.continuationToken = continuationToken;
+		this.approximateCount = approximateCount;
+	}
+	
+	/**
+	 * @return the results of the page
+	 */
+	public List<T> getResults() {
+		return results;
+	}
+	
+	/**
+	 * @return the opaque token to pass to the search to get the next page or null if this is the last
+	 *         page
+	 */
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+	
+	/**
+	 * @return true if there is a next page
+	 */
+	public boolean hasNextPage() {
+		return continuationToken != null;
+	}
+	
+	/**
+	 * @return the approximate number of results of all pages or null if it was not requested, it is
+	 *         read from the search index and can differ from the actual number of results while the
+	 *         index is being updated
+	 */
+	public Long getApproximateCount() {
+		return approximateCount;
+	}
+}
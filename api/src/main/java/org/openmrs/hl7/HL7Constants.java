@@ -118,6 +118,20 @@ public class HL7Constants {
 	 */
 	public static final int MIGRATION_MAX_BATCH_SIZE = 2000;
 	
+	/**
+	 * the name of the directory in the hl7 archives directory that archives are migrated into
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String HL7_ARCHIVE_SEGMENTS_DIRECTORY_NAME = "segments";
+	
+	/**
+	 * the size in bytes beyond which the migration starts a new segment file
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final long HL7_ARCHIVE_SEGMENT_MAX_SIZE = 64L * 1024 * 1024;
+	
 	// List of datatypes that do not require complex definitions
 	public static final Map<String, String> simpleDatatypes = new HashMap<>();
 	
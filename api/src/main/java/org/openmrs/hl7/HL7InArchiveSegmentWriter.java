@@ -0,0 +1,229 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the hl7 in archives migrated to the file system into a few large segment files instead of
+ * a file per archive. Each message is compressed on its own and appended to the current segment as
+ * a gzip member, so that it can be read back without reading the rest of the segment. The location
+ * of a message is the uri of its segment with the offset and length of its member as the fragment,
+ * e.g. <code>file:/.../segment-20240101-120000-1.hl7.gz#1024+311</code>.<br>
+ * <br>
+ * Next to each segment an index file lists the uuid, offset and length of every message in it, one
+ * per line, so that a segment can be checked against the database. A new segment is started once
+ * the current one reaches the maximum size, and by every new writer, so a segment is never appended
+ * to after the migration was stopped. Instances are not thread safe.
+ *
+ * @since 2.7.0
+ */
+public class HL7InArchiveSegmentWriter implements Closeable {
+	
+	private static final Logger log = LoggerFactory.getLogger(HL7InArchiveSegmentWriter.class);
+	
+	public static final String SEGMENT_SUFFIX = ".hl7.gz";
+	
+	public static final String INDEX_SUFFIX = ".idx";
+	
+	private static final Pattern MEMBER = Pattern.compile("(\\d+)\\+(\\d+)");
+	
+	private final File directory;
+	
+	private final long maxSegmentSize;
+	
+	// the compressed message, reused for every message
+	private final ByteArrayOutputStream member = new ByteArrayOutputStream(8192);
+	
+	private File segment;
+	
+	private FileOutputStream segmentOut;
+	
+	private FileOutputStream indexOut;
+	
+	private Writer index;
+	
+	private int segmentNumber;
+	
+	// thrown by the next sync, a segment closed after a failed append may not be on disk
+	private IOException syncFailure;
+	
+	/**
+	 * @param directory the directory to write the segments to
+	 * @param maxSegmentSize the size in bytes beyond which a new segment is started
+	 */
+	public HL7InArchiveSegmentWriter(File directory, long maxSegmentSize) {
+		this.directory = directory;
+		this.maxSegmentSize = maxSegmentSize;
+	}
+	
+	/**
+	 * Appends the hl7 data of the given archive to the current segment. The data is only sure to be
+	 * on disk once {@link #sync()} returns.
+	 *
+	 * @param archive the archive whose hl7 data is written
+	 * @return the location of the message, to be kept as the hl7 data of the migrated archive
+	 * @throws IOException if the message cannot be written, later messages go to a new segment
+	 */
+	public URI append(HL7InArchive archive) throws IOException {
+		member.reset();
+		try (GZIPOutputStream out = new GZIPOutputStream(member)) {
+			out.write(archive.getHL7Data().getBytes(StandardCharsets.UTF_8));
+		}
+		
+		if (segmentOut != null && segmentOut.getChannel().position() > 0
+		        && segmentOut.getChannel().position() + member.size() > maxSegmentSize) {
+			closeSegment();
+		}
+		if (segmentOut == null) {
+			openSegment();
+		}
+		
+		try {
+			long offset = segmentOut.getChannel().position();
+			member.writeTo(segmentOut);
+			index.write(archive.getUuid() + "\t" + offset + "\t" + member.size() + "\n");
+			return URI.create(segment.toURI() + "#" + offset + "+" + member.size());
+		}
+		catch (IOException e) {
+			// the segment may end with part of the message now, the messages before it must still reach the disk
+			try {
+				sync();
+			}
+			catch (IOException syncError) {
+				e.addSuppressed(syncError);
+				syncFailure = syncError;
+			}
+			closeSegmentQuietly();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Forces the messages appended so far and their index entries to disk, to be called before the
+	 * archives are updated with their locations
+	 *
+	 * @throws IOException if the segment or its index cannot be written, or a segment closed after a
+	 *             failed append could not be forced to disk
+	 */
+	public void sync() throws IOException {
+		if (syncFailure != null) {
+			IOException e = syncFailure;
+			syncFailure = null;
+			throw e;
+		}
+		if (segmentOut != null) {
+			index.flush();
+			segmentOut.getFD().sync();
+			indexOut.getFD().sync();
+		}
+	}
+	
+	/**
+	 * Syncs and closes the current segment
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		closeSegment();
+	}
+	
+	/**
+	 * Reads back a message written by this class
+	 *
+	 * @param location the location returned by {@link #append(HL7InArchive)}
+	 * @return the hl7 data of the message
+	 * @throws IOException if the location is not the location of a message in a segment or the
+	 *             segment cannot be read
+	 */
+	public static String readMessage(URI location) throws IOException {
+		Matcher matcher = MEMBER.matcher(location.getFragment() == null ? "" : location.getFragment());
+		if (!matcher.matches()) {
+			throw new IOException(location + " is not the location of a message in an hl7 archive segment");
+		}
+		long offset = Long.parseLong(matcher.group(1));
+		long length = Long.parseLong(matcher.group(2));
+		File segment = new File(URI.create(location.getScheme() + ":" + location.getRawSchemeSpecificPart()));
+		
+		try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+			channel.position(offset);
+			InputStream in = new GZIPInputStream(BoundedInputStream.builder()
+			        .setInputStream(Channels.newInputStream(channel)).setMaxCount(length).get());
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+	
+	private void openSegment() throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create the directory " + directory.getAbsolutePath());
+		}
+		
+		String prefix = "segment-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-";
+		do {
+			segment = new File(directory, prefix + (++segmentNumber) + SEGMENT_SUFFIX);
+		} while (segment.exists());
+		
+		segmentOut = new FileOutputStream(segment);
+		try {
+			indexOut = new FileOutputStream(new File(directory, segment.getName() + INDEX_SUFFIX));
+		}
+		catch (IOException e) {
+			closeSegmentQuietly();
+			throw e;
+		}
+		index = new BufferedWriter(new OutputStreamWriter(indexOut, StandardCharsets.UTF_8));
+		log.debug("Writing hl7 archives to {}", segment);
+	}
+	
+	private void closeSegment() throws IOException {
+		if (segmentOut == null) {
+			return;
+		}
+		
+		try {
+			sync();
+		}
+		finally {
+			closeSegmentQuietly();
+		}
+	}
+	
+	private void closeSegmentQuietly() {
+		IOUtils.closeQuietly(index, segmentOut, indexOut);
+		index = null;
+		segmentOut = null;
+		indexOut = null;
+	}
+}
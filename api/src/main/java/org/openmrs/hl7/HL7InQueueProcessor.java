@@ -9,7 +9,17 @@
  */
 package org.openmrs.hl7;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,7 +30,13 @@ import ca.uhn.hl7v2.HL7Exception;
  * Processes message in the HL7 inbound queue. Messages are moved into either the archive or error
  * table depending on success or failure of the processing. You may, however, set a global property
  * that causes the processor to ignore messages regarding unknown patients from a non-local HL7
- * source. (i.e. those messages neither go to the archive or the error table.)
+ * source. (i.e. those messages neither go to the archive or the error table.) <br>
+ * <br>
+ * By default one message is processed at a time. If {@link OpenmrsConstants#GP_HL7_PROCESSOR_POOL_SIZE}
+ * is greater than 1, pending messages are fetched in batches of
+ * {@link OpenmrsConstants#GP_HL7_PROCESSOR_BATCH_SIZE} and processed by that many worker threads.
+ * Messages are assigned to workers by the patient identifiers in their PID segment, so messages
+ * about the same patient are still processed one after the other in the order they were received.
  *
  * @version 1.0
  */
@@ -35,6 +51,12 @@ public class HL7InQueueProcessor /* implements Runnable */{
 	
 	private static Integer count = 0;
 	
+	static final int DEFAULT_BATCH_SIZE = 100;
+	
+	private volatile int lastRunCount = 0;
+	
+	private volatile double lastRunMessagesPerSecond = 0;
+	
 	// processor per JVM
 	
 	/**
@@ -108,9 +130,19 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		}
 		try {
 			log.debug("Start processing hl7 in queue");
-			while (processNextHL7InQueue()) {
-				// loop until queue is empty
+			int poolSize = getPositiveIntegerGlobalProperty(OpenmrsConstants.GP_HL7_PROCESSOR_POOL_SIZE, 1);
+			long start = System.nanoTime();
+			int processed = 0;
+			if (poolSize > 1) {
+				processed = processHL7InQueueInParallel(poolSize, getPositiveIntegerGlobalProperty(
+				    OpenmrsConstants.GP_HL7_PROCESSOR_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+			} else {
+				while (processNextHL7InQueue()) {
+					// loop until queue is empty
+					processed++;
+				}
 			}
+			recordRun(processed, System.nanoTime() - start, poolSize);
 			log.debug("Done processing hl7 in queue");
 		}
 		finally {
@@ -118,4 +150,177 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		}
 	}
 	
+	/**
+	 * @return the number of queue entries processed by the last completed run of
+	 *         {@link #processHL7InQueue()}
+	 * @since 2.7.0
+	 */
+	public int getLastRunCount() {
+		return lastRunCount;
+	}
+	
+	/**
+	 * @return the number of queue entries processed per second by the last completed run of
+	 *         {@link #processHL7InQueue()}
+	 * @since 2.7.0
+	 */
+	public double getLastRunMessagesPerSecond() {
+		return lastRunMessagesPerSecond;
+	}
+	
+	/**
+	 * Processes all pending queue entries with the given number of worker threads. The calling thread
+	 * fetches the pending entries in batches and hands them to the workers, the workers process each
+	 * entry in a session of their own with the user context of the calling thread. At most one batch
+	 * worth of entries is waiting to be processed at any time.
+	 *
+	 * @param poolSize the number of worker threads
+	 * @param batchSize the number of queue entries to fetch at a time
+	 * @return the number of processed queue entries
+	 */
+	int processHL7InQueueInParallel(int poolSize, int batchSize) {
+		UserContext userContext = Context.getUserContext();
+		Semaphore pending = new Semaphore(batchSize);
+		AtomicInteger processed = new AtomicInteger();
+		ExecutorService[] workers = new ExecutorService[poolSize];
+		for (int i = 0; i < poolSize; i++) {
+			String threadName = "HL7 in queue processor " + (i + 1);
+			workers[i] = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, threadName);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		try {
+			HL7Service hl7Service = Context.getHL7Service();
+			Integer lastId = null;
+			List<HL7InQueue> batch = hl7Service.getNextHL7InQueueBatch(lastId, batchSize);
+			while (!batch.isEmpty()) {
+				for (HL7InQueue hl7InQueue : batch) {
+					Integer hl7InQueueId = hl7InQueue.getHL7InQueueId();
+					String partitionKey = getPatientIdentifiers(hl7InQueue.getHL7Data());
+					int worker = Math.floorMod(partitionKey != null ? partitionKey.hashCode() : hl7InQueueId, poolSize);
+					
+					pending.acquire();
+					workers[worker].execute(() -> {
+						try {
+							if (processQueueEntry(hl7InQueueId, userContext)) {
+								processed.incrementAndGet();
+							}
+						}
+						finally {
+							pending.release();
+						}
+					});
+					lastId = hl7InQueueId;
+				}
+				// the workers load the entries themselves, the copies fetched here are not needed anymore
+				Context.clearSession();
+				batch = hl7Service.getNextHL7InQueueBatch(lastId, batchSize);
+			}
+		}
+		catch (InterruptedException e) {
+			log.warn("Interrupted while processing the hl7 inbound queue, stopping the workers");
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			for (ExecutorService worker : workers) {
+				worker.shutdown();
+			}
+			for (ExecutorService worker : workers) {
+				awaitTermination(worker);
+			}
+		}
+		return processed.get();
+	}
+	
+	/**
+	 * Processes a single queue entry on a worker thread
+	 *
+	 * @return true if the entry was processed, false if it was no longer pending or failed
+	 */
+	private boolean processQueueEntry(Integer hl7InQueueId, UserContext userContext) {
+		Context.setUserContext(userContext);
+		Context.openSessionWithCurrentUser();
+		try {
+			HL7Service hl7Service = Context.getHL7Service();
+			HL7InQueue hl7InQueue = hl7Service.getHL7InQueue(hl7InQueueId);
+			if (hl7InQueue == null || !HL7Constants.HL7_STATUS_PENDING.equals(hl7InQueue.getMessageState())) {
+				return false;
+			}
+			log.debug("Processing HL7 inbound queue (id={} ,key={})", hl7InQueueId, hl7InQueue.getHL7SourceKey());
+			hl7Service.processHL7InQueue(hl7InQueue);
+			return true;
+		}
+		catch (Exception e) {
+			log.error("Unable to process hl7 in queue entry " + hl7InQueueId, e);
+			return false;
+		}
+		finally {
+			Context.closeSessionWithCurrentUser();
+			Context.clearUserContext();
+		}
+	}
+	
+	/**
+	 * Gets the patient identifier list (PID-3) of the given HL7 message without parsing the whole
+	 * message. Messages that refer to the same patient by different identifiers are not recognized as
+	 * being about the same patient.
+	 *
+	 * @param hl7Data the HL7 message
+	 * @return the raw value of the PID-3 field or null if the message has no PID segment
+	 */
+	static String getPatientIdentifiers(String hl7Data) {
+		String message = StringUtils.trimToEmpty(hl7Data);
+		if (!message.startsWith("MSH") || message.length() < 4) {
+			return null;
+		}
+		char fieldSeparator = message.charAt(3);
+		for (String segment : message.split("[\\r\\n]+")) {
+			if (segment.startsWith("PID") && segment.length() > 3 && segment.charAt(3) == fieldSeparator) {
+				String[] fields = StringUtils.splitPreserveAllTokens(segment, fieldSeparator);
+				return fields.length > 3 ? StringUtils.trimToNull(fields[3]) : null;
+			}
+		}
+		return null;
+	}
+	
+	private void recordRun(int processed, long elapsedNanos, int poolSize) {
+		lastRunCount = processed;
+		lastRunMessagesPerSecond = elapsedNanos > 0 ? processed / (elapsedNanos / 1e9) : 0;
+		if (processed > 0) {
+			log.info("Processed {} hl7 inbound queue entries in {} ms with {} thread(s), {} messages/sec", processed,
+			    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), poolSize, String.format("%.1f", lastRunMessagesPerSecond));
+		}
+	}
+	
+	private static void awaitTermination(ExecutorService worker) {
+		try {
+			while (!worker.awaitTermination(1, TimeUnit.MINUTES)) {
+				log.debug("Waiting for hl7 in queue workers to finish");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			worker.shutdownNow();
+		}
+	}
+	
+	private static int getPositiveIntegerGlobalProperty(String propertyName, int defaultValue) {
+		String value = Context.getAdministrationService().getGlobalProperty(propertyName);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int intValue = Integer.parseInt(value.trim());
+				if (intValue > 0) {
+					return intValue;
+				}
+			}
+			catch (NumberFormatException e) {
+				// fall through to the default
+			}
+			log.warn("Invalid value '{}' for global property {}, using {}", value, propertyName, defaultValue);
+		}
+		return defaultValue;
+	}
 }
@@ -218,6 +218,22 @@ public interface HL7Service extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
 	public HL7InQueue getNextHL7InQueue() throws APIException;
 	
+	/**
+	 * Get the next pending queue items in the order they were received, starting after the given
+	 * queue item so that a caller can page through the queue while earlier items are still being
+	 * processed
+	 * 
+	 * @param afterHL7InQueueId only queue items with a greater id are returned, null to start from the
+	 *            beginning of the queue
+	 * @param batchSize the maximum number of queue items to return
+	 * @return the pending queue items ordered by id
+	 * @since 2.7.0
+	 * <strong>Should</strong> return pending queue items after the given id ordered by id
+	 * <strong>Should</strong> not return more than the batch size
+	 */
+	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws APIException;
+	
 	/**
 	 * Completely delete the hl7 in queue item from the database.
 	 * 
@@ -447,16 +463,40 @@ public interface HL7Service extends OpenmrsService {
 	
 	/**
 	 * Method is called by the archives migration thread to transfer hl7 in archives from the
-	 * hl7_in_archives database table to the file system
+	 * hl7_in_archives database table to the file system. The archives are appended to compressed
+	 * segment files by a {@link HL7InArchiveSegmentWriter}, a batch of archives per transaction when
+	 * called outside of a transaction.
 	 * 
 	 * @param progressStatusMap the map holding the number of archives transferred and failed
 	 *            transfers
 	 * @throws APIException
+	 * <strong>Should</strong> write the archives to compressed segment files
 	 */
 	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
 			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException;
 	
+	/**
+	 * Transfers the next batch of hl7 in archives to be migrated to the file system in one
+	 * transaction. The messages are appended to the segments of the given writer and forced to disk
+	 * before the archives are updated with their locations. The archives that fail to be written keep
+	 * their data and are not part of the following batches.
+	 * 
+	 * @param writer the writer of the segments to append the messages to
+	 * @param afterHl7InArchiveId the id returned for the previous batch, null for the first batch
+	 * @param progressStatusMap the map holding the number of archives transferred and failed
+	 *            transfers
+	 * @return the id of the last archive of the batch, null if there are none left to transfer
+	 * @throws APIException if the segments cannot be forced to disk
+	 * @since 2.7.0
+	 * <strong>Should</strong> update the archives of the batch with their locations
+	 * <strong>Should</strong> page past the archives that failed to be written
+	 */
+	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
+			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
+	public Integer migrateHl7InArchiveBatchToFileSystem(HL7InArchiveSegmentWriter writer, Integer afterHl7InArchiveId,
+	        Map<String, Integer> progressStatusMap) throws APIException;
+	
 	/**
 	 * finds a UUID from an array of identifiers
 	 * 
@@ -497,7 +537,8 @@ public interface HL7Service extends OpenmrsService {
 	public void loadHL7InArchiveData(List<HL7InArchive> archives) throws APIException;
 	
 	/**
-	 * Loads HL7 data from the filesystem for an archived HL7InArchive
+	 * Loads HL7 data from the filesystem for an archived HL7InArchive, from its own file or from the
+	 * offset in a segment file given by its location
 	 * 
 	 * @since 1.7
 	 * @throws APIException
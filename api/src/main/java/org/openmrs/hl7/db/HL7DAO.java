@@ -80,6 +80,11 @@ public interface HL7DAO {
 	 */
 	public HL7InQueue getNextHL7InQueue() throws DAOException;
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#purgeHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -158,6 +163,16 @@ public interface HL7DAO {
 	 * provides a list of archives to be migrated
 	 */
 	public List<HL7InArchive> getHL7InArchivesToMigrate();
+
+	/**
+	 * Provides the next batch of archives to be migrated, ordered by their id
+	 * 
+	 * @param afterHl7InArchiveId the id of the last archive of the previous batch, null for the first
+	 *            batch
+	 * @return the archives to be migrated with an id greater than the given one
+	 * @since 2.7.0
+	 */
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterHl7InArchiveId);
 	
 	/* HL7InError */
 
@@ -235,6 +235,20 @@ public class HibernateHL7DAO implements HL7DAO {
 		return JpaUtils.getSingleResultOrNull(query);
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException {
+		TypedQuery<HL7InQueue> query = sessionFactory.getCurrentSession().createQuery(
+		    "from HL7InQueue as hiq where hiq.messageState = :state and hiq.HL7InQueueId > :afterId order by HL7InQueueId",
+		    HL7InQueue.class);
+		query.setParameter("state", HL7Constants.HL7_STATUS_PENDING);
+		query.setParameter("afterId", afterHL7InQueueId == null ? 0 : afterHL7InQueueId);
+		query.setMaxResults(batchSize);
+		return query.getResultList();
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#deleteHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -386,6 +400,14 @@ public class HibernateHL7DAO implements HL7DAO {
 	 */
 	@Override
 	public List<HL7InArchive> getHL7InArchivesToMigrate() {
+		return getHL7InArchivesToMigrate(null);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchivesToMigrate(Integer)
+	 */
+	@Override
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterHl7InArchiveId) {
 		Integer daysToKeep = Hl7InArchivesMigrateThread.getDaysKept();
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
@@ -399,8 +421,12 @@ public class HibernateHL7DAO implements HL7DAO {
 			cal.add(Calendar.DATE, -1 * daysToKeep);
 			predicates.add(cb.lessThan(root.get("dateCreated"), cal.getTime()));
 		}
+		// the archives that failed to be migrated are left behind the last batch instead of fetched again
+		if (afterHl7InArchiveId != null) {
+			predicates.add(cb.greaterThan(root.get("HL7InArchiveId"), afterHl7InArchiveId));
+		}
 
-		cq.where(predicates.toArray(new Predicate[]{}));
+		cq.where(predicates.toArray(new Predicate[]{})).orderBy(cb.asc(root.get("HL7InArchiveId")));
 		return session.createQuery(cq)
 			.setMaxResults(HL7Constants.MIGRATION_MAX_BATCH_SIZE)
 			.getResultList();
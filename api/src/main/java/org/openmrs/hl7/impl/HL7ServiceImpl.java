@@ -10,20 +10,13 @@
 package org.openmrs.hl7.impl;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -39,10 +32,10 @@ import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.context.Context;
-import org.openmrs.api.db.DAOException;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.hl7.HL7Constants;
 import org.openmrs.hl7.HL7InArchive;
+import org.openmrs.hl7.HL7InArchiveSegmentWriter;
 import org.openmrs.hl7.HL7InError;
 import org.openmrs.hl7.HL7InQueue;
 import org.openmrs.hl7.HL7QueueItem;
@@ -58,6 +51,7 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -311,6 +305,15 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getNextHL7InQueue();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) {
+		return dao.getNextHL7InQueueBatch(afterHL7InQueueId, batchSize);
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InArchiveByState(java.lang.Integer)
 	 */
@@ -371,8 +374,8 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	/**
 	 * get a list of archives to be migrated to the filesystem
 	 */
-	private List<HL7InArchive> getHL7InArchivesToMigrate() {
-		return dao.getHL7InArchivesToMigrate();
+	private List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterHl7InArchiveId) {
+		return dao.getHL7InArchivesToMigrate(afterHl7InArchiveId);
 	}
 	
 	/**
@@ -1040,7 +1043,13 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		}
 		
 		try {
-			archive.setHL7Data(OpenmrsUtil.getFileAsString(new File(new URI(archive.getHL7Data()))));
+			URI location = new URI(archive.getHL7Data());
+			if (location.getFragment() == null) {
+				archive.setHL7Data(OpenmrsUtil.getFileAsString(new File(location)));
+			} else {
+				// migrated into a segment with other archives
+				archive.setHL7Data(HL7InArchiveSegmentWriter.readMessage(location));
+			}
 			archive.setLoaded(true);
 		}
 		catch (URISyntaxException e) {
@@ -1055,134 +1064,74 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchivesToFileSystem(Map)
 	 */
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException {
-		int numberTransferred = 0;
-		int numberOfFailedTransfers = 0;
+		File segmentsDir = new File(HL7Util.getHl7ArchivesDirectory(), HL7Constants.HL7_ARCHIVE_SEGMENTS_DIRECTORY_NAME);
+		HL7Service service = Context.getHL7Service();
 		
-		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
-		List<HL7InArchive> hl7InArchives = getHL7InArchivesToMigrate();
-		
-		// while we still we have any archives to be processed, process them
-		while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-		        && hl7InArchives != null && !hl7InArchives.isEmpty()) {
-			
-			Iterator<HL7InArchive> iterator = hl7InArchives.iterator();
-			
-			while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-			        && iterator.hasNext()) {
-				HL7InArchive archive = iterator.next();
-				
-				try {
-					migrateHL7InArchive(archive);
-					progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, numberTransferred++);
-				}
-				catch (DAOException e) {
-					progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, numberOfFailedTransfers++);
+		try (HL7InArchiveSegmentWriter writer = new HL7InArchiveSegmentWriter(segmentsDir,
+		        HL7Constants.HL7_ARCHIVE_SEGMENT_MAX_SIZE)) {
+			// each batch is committed on its own when called by the migration thread, which has no transaction
+			Integer lastHl7InArchiveId = null;
+			while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING) {
+				lastHl7InArchiveId = service.migrateHl7InArchiveBatchToFileSystem(writer, lastHl7InArchiveId,
+				    progressStatusMap);
+				if (lastHl7InArchiveId == null) {
+					break;
 				}
+				// the archives of the batch are not needed any more
+				Context.clearSession();
 			}
-			
-			// fetch more archives to be processed
-			hl7InArchives = getHL7InArchivesToMigrate();
 		}
-		
-		log.debug("Transfer of HL7 archives has completed or has been stopped");
-	}
-	
-	/**
-	 * moves data to the filesystem from an HL7InArchive
-	 *
-	 * @param archive
-	 * @throws APIException
-	 */
-	private void migrateHL7InArchive(HL7InArchive archive) throws APIException {
-		if (archive == null) {
-			throw new APIException("Hl7Service.migrate.null.archive", (Object[]) null);
-		}
-		
-		if (!OpenmrsUtil.nullSafeEquals(archive.getMessageState(), HL7Constants.HL7_STATUS_PROCESSED)) {
-			throw new APIException("Hl7Service.migrate.archive.state", (Object[]) null);
-		}
-		
-		try {
-			URI uri = writeHL7InArchiveToFileSystem(archive);
-			archive.setHL7Data(uri.toString());
-			archive.setMessageState(HL7Constants.HL7_STATUS_MIGRATED);
-			saveHL7InArchive(archive);
-		}
-		catch (APIException e) {
-			throw new APIException("Hl7Service.migrate.archive", null, e);
+		catch (IOException e) {
+			throw new APIException("Hl7Service.write.error", null, e);
 		}
 		
+		log.debug("Transfer of HL7 archives has completed or has been stopped");
 	}
 	
 	/**
-	 * writes a given hl7 archive to the file system
-	 *
-	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchiveBatchToFileSystem(HL7InArchiveSegmentWriter,
+	 *      Integer, Map)
 	 */
-	private URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive) throws APIException {
-		
-		PrintWriter writer = null;
-		File destinationDir = HL7Util.getHl7ArchivesDirectory();
-		try {
-			// number formatter used to format month and day with zero padding
-			DecimalFormat df = new DecimalFormat("00");
-			
-			//write the archive to a separate file while grouping them according to
-			//the year, month and date of month when they were stored in the archives table
-			Calendar calendar = Calendar.getInstance(Context.getLocale());
-			calendar.setTime(hl7InArchive.getDateCreated());
-			
-			//resolve the year folder from the date of creation of the archive
-			File yearDir = new File(destinationDir, Integer.toString(calendar.get(Calendar.YEAR)));
-			if (!yearDir.isDirectory()) {
-				yearDir.mkdirs();
-			}
-			
-			//resolve the appropriate month folder
-			File monthDir = new File(yearDir, df.format(calendar.get(Calendar.MONTH) + 1));
-			if (!monthDir.isDirectory()) {
-				monthDir.mkdirs();
+	@Override
+	public Integer migrateHl7InArchiveBatchToFileSystem(HL7InArchiveSegmentWriter writer, Integer afterHl7InArchiveId,
+	        Map<String, Integer> progressStatusMap) throws APIException {
+		Integer lastHl7InArchiveId = null;
+		Map<HL7InArchive, URI> locations = new LinkedHashMap<>();
+		for (HL7InArchive archive : getHL7InArchivesToMigrate(afterHl7InArchiveId)) {
+			lastHl7InArchiveId = archive.getHL7InArchiveId();
+			if (!OpenmrsUtil.nullSafeEquals(archive.getMessageState(), HL7Constants.HL7_STATUS_PROCESSED)) {
+				continue;
 			}
-			
-			//resolve the appropriate day of month folder
-			File dayDir = new File(monthDir, df.format(calendar.get(Calendar.DAY_OF_MONTH)));
-			if (!dayDir.isDirectory()) {
-				dayDir.mkdirs();
+			try {
+				locations.put(archive, writer.append(archive));
 			}
-			
-			//use the uuid, source id and source key(if present) to generate the file name
-			File fileToWriteTo = new File(dayDir, hl7InArchive.getUuid()
-			        + (StringUtils.isBlank(hl7InArchive.getHL7SourceKey()) ? "" : "_" + hl7InArchive.getHL7SourceKey())
-			        + ".txt");
-			
-			//write the hl7 data to the file
-			writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileToWriteTo), StandardCharsets.UTF_8));
-			writer.write(hl7InArchive.getHL7Data());
-			
-			//check if there was an error while writing to the current file
-			if (writer.checkError()) {
-				log.warn("An Error occured while writing hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-				        + "' to the file system");
-				throw new APIException("Hl7Service.write.no.error", (Object[]) null);
+			catch (IOException e) {
+				log.warn("Failed to write hl7 archive with id '" + archive.getHL7InArchiveId() + "' to the file system",
+				    e);
+				progressStatusMap.merge(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, 1, Integer::sum);
 			}
-			
-			// hand back the URI for the file
-			return fileToWriteTo.toURI();
-			
 		}
-		catch (FileNotFoundException e) {
-			log
-			        .warn("Failed to write hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-			                + "' to the file system ", e);
+		
+		try {
+			writer.sync();
+		}
+		catch (IOException e) {
 			throw new APIException("Hl7Service.write.error", null, e);
-			
 		}
-		finally {
-			if (writer != null) {
-				writer.close();
-			}
+		
+		// the updates are sent in jdbc batches when the transaction is flushed
+		for (Map.Entry<HL7InArchive, URI> location : locations.entrySet()) {
+			HL7InArchive archive = location.getKey();
+			archive.setHL7Data(location.getValue().toString());
+			archive.setMessageState(HL7Constants.HL7_STATUS_MIGRATED);
+			dao.saveHL7InArchive(archive);
 		}
+		Context.flushSession();
+		
+		progressStatusMap.merge(HL7Constants.NUMBER_TRANSFERRED_KEY, locations.size(), Integer::sum);
+		return lastHl7InArchiveId;
 	}
 	
 	@Override
@@ -42,6 +42,7 @@ import java.util.WeakHashMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.APIException;
+import org.openmrs.util.MissingClassCache;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -57,6 +58,10 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	private static final Logger log = LoggerFactory.getLogger(ModuleClassLoader.class);
 	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	private final Module module;
 	
 	private Module[] requiredModules;
@@ -71,6 +76,24 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	private boolean disposed = false;
 	
+	/**
+	 * False if {@link #providedPackages} only lists the packages of the compiled classes of a module
+	 * in development mode and not those of its libraries
+	 */
+	private boolean providedPackagesComplete = true;
+	
+	/**
+	 * The modules imported directly or through other modules, built on first use and reset whenever
+	 * a module is started or stopped
+	 */
+	private volatile Imports imports;
+	
+	/**
+	 * The names of the classes that could neither be found in this module nor in the modules it
+	 * imports, reset whenever a module is started or stopped
+	 */
+	private final MissingClassCache missingClasses = new MissingClassCache();
+	
 	
 	/**
 	 * @param module Module
@@ -108,6 +131,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		
 		File devDir = ModuleUtil.getDevelopmentDirectory(module.getModuleId());
 		if (devDir != null) {
+			providedPackagesComplete = false;
 			File[] fileList = devDir.listFiles();
 			if (fileList == null) {
 				return;
@@ -517,6 +541,19 @@ public class ModuleClassLoader extends URLClassLoader {
 		requiredModules = collectRequiredModuleImports(getModule());
 		awareOfModules = collectAwareOfModuleImports(getModule());
 		libraryCache.entrySet().removeIf(uriFileEntry -> uriFileEntry.getValue() == null);
+		clearLookupCaches();
+	}
+	
+	/**
+	 * Forgets the imported modules and the classes that could not be found, because the started
+	 * modules changed
+	 *
+	 * @see ModuleFactory#startModule(Module)
+	 * @see ModuleFactory#stopModule(Module)
+	 */
+	void clearLookupCaches() {
+		imports = null;
+		missingClasses.clear();
 	}
 	
 	/**
@@ -531,6 +568,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		libraryCache.clear();
 		requiredModules = null;
 		awareOfModules = null;
+		clearLookupCaches();
 		disposed = true;
 	}
 	
@@ -588,7 +626,12 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	/**
 	 * Custom loadClass implementation to allow for loading from a given ModuleClassLoader and skip
-	 * the modules that have been tried already
+	 * the modules that have been tried already.
+	 * <p>
+	 * A lookup started by this class loader finds the imported module providing the class through
+	 * the package index of {@link ModuleFactory#getModuleClassLoadersForPackage(String)} and
+	 * remembers the classes it cannot find. The imported modules are only walked if one of them does
+	 * not index all of its packages.
 	 * 
 	 * @param name String path and name of the class to load
 	 * @param resolve boolean whether or not to resolve this class before returning
@@ -597,7 +640,7 @@ public class ModuleClassLoader extends URLClassLoader {
 	 * @return Class that has been loaded
 	 * @throws ClassNotFoundException if no class found
 	 */
-	protected synchronized Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
+	protected Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
 	        Set<String> seenModules) throws ClassNotFoundException {
 		
 		if (log.isTraceEnabled()) {
@@ -629,18 +672,8 @@ public class ModuleClassLoader extends URLClassLoader {
 			throw new ClassNotFoundException(msg);
 		}
 		
-		// Check if the class has already been loaded by this class loader
-		Class<?> result = findLoadedClass(name);
-		
 		// Try loading the class with this class loader 
-		if (result == null) {
-			try {
-				result = findClass(name);
-			}
-			catch (ClassNotFoundException e) {
-				// Continue trying...
-			}
-		}
+		Class<?> result = findOwnClass(name);
 		
 		// We were able to "find" a class
 		if (result != null) {
@@ -649,22 +682,99 @@ public class ModuleClassLoader extends URLClassLoader {
 			return result;
 		}
 		
-		// Look through this module's imports to see if the class
-		// can be loaded from them.
-		
+		long lookupGeneration = -1;
 		if (seenModules == null) {
+			if (missingClasses.contains(name)) {
+				throw new ClassNotFoundException(name);
+			}
+			lookupGeneration = missingClasses.getGeneration();
+			
+			Imports currentImports = getImports();
+			result = loadClassFromImportedProvider(name, requestor, currentImports);
+			if (result != null) {
+				return result;
+			}
+			if (currentImports.packagesComplete) {
+				missingClasses.add(name, lookupGeneration);
+				throw new ClassNotFoundException(name);
+			}
+			
 			seenModules = new HashSet<>();
 		}
 		
+		// Look through this module's imports to see if the class
+		// can be loaded from them.
+		
 		// Add this module to the list of modules we've tried already
 		seenModules.add(getModule().getModuleId());
 		
-		List<Module> importedModules = new ArrayList<>();
-		if (requiredModules != null) {
-			Collections.addAll(importedModules, requiredModules);
+		result = loadClassFromImports(name, resolve, requestor, seenModules, requiredModules);
+		if (result == null) {
+			result = loadClassFromImports(name, resolve, requestor, seenModules, awareOfModules);
 		}
-		if (awareOfModules != null) {
-			Collections.addAll(importedModules, awareOfModules);
+		if (result != null) {
+			return result;
+		}
+		
+		if (lookupGeneration != -1) {
+			missingClasses.add(name, lookupGeneration);
+		}
+		throw new ClassNotFoundException(name);
+	}
+	
+	/**
+	 * Finds a class among the classes of this module, holding the class loading lock of the class so
+	 * that it is defined only once when requested by several threads at the same time
+	 *
+	 * @param name the name of the class
+	 * @return the class or null if this module does not contain it
+	 */
+	private Class<?> findOwnClass(final String name) {
+		synchronized (getClassLoadingLock(name)) {
+			// Check if the class has already been loaded by this class loader
+			Class<?> result = findLoadedClass(name);
+			if (result == null) {
+				try {
+					result = findClass(name);
+				}
+				catch (ClassNotFoundException e) {
+					// Not contained in this module
+				}
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * Loads a class from the imported module that provides its package according to the package index
+	 *
+	 * @return the class or null if no imported module provides it
+	 */
+	private Class<?> loadClassFromImportedProvider(final String name, final ModuleClassLoader requestor,
+	        final Imports currentImports) throws ClassNotFoundException {
+		String packageName = StringUtils.substringBeforeLast(name, ".");
+		for (ModuleClassLoader provider : ModuleFactory.getModuleClassLoadersForPackage(packageName)) {
+			if (provider != this && currentImports.moduleIds.contains(provider.getModule().getModuleId())
+			        && ModuleFactory.isModuleStarted(provider.getModule())) {
+				Class<?> result = provider.findOwnClass(name);
+				if (result != null) {
+					provider.checkClassVisibility(result, requestor);
+					return result;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Walks the given imported modules and the modules they import
+	 *
+	 * @return the class or null if none of the modules contains it
+	 */
+	private Class<?> loadClassFromImports(final String name, final boolean resolve, final ModuleClassLoader requestor,
+	        final Set<String> seenModules, final Module[] importedModules) {
+		if (importedModules == null) {
+			return null;
 		}
 		
 		for (Module importedModule : importedModules) {
@@ -677,17 +787,62 @@ public class ModuleClassLoader extends URLClassLoader {
 			// Module class loader may be null if module has not been started yet
 			if (moduleClassLoader != null) {
 				try {
-					result = moduleClassLoader.loadClass(name, resolve, requestor, seenModules);
-					
-					return result;
+					return moduleClassLoader.loadClass(name, resolve, requestor, seenModules);
 				}
 				catch (ClassNotFoundException e) {
 					// Continue trying...
 				}
 			}
 		}
+		return null;
+	}
+	
+	private Imports getImports() {
+		Imports currentImports = imports;
+		if (currentImports == null) {
+			currentImports = new Imports();
+			collectImports(this, currentImports);
+			currentImports.moduleIds.remove(getModule().getModuleId());
+			imports = currentImports;
+		}
+		return currentImports;
+	}
+	
+	/**
+	 * Collects the modules the given class loader imports and the modules they import in turn, the
+	 * same modules the walk of {@link #loadClass(String, boolean, ModuleClassLoader, Set)} visits
+	 */
+	private static void collectImports(final ModuleClassLoader moduleClassLoader, final Imports currentImports) {
+		currentImports.moduleIds.add(moduleClassLoader.getModule().getModuleId());
+		if (!moduleClassLoader.providedPackagesComplete) {
+			currentImports.packagesComplete = false;
+		}
 		
-		throw new ClassNotFoundException(name);
+		List<Module> importedModules = new ArrayList<>();
+		if (moduleClassLoader.requiredModules != null) {
+			Collections.addAll(importedModules, moduleClassLoader.requiredModules);
+		}
+		if (moduleClassLoader.awareOfModules != null) {
+			Collections.addAll(importedModules, moduleClassLoader.awareOfModules);
+		}
+		for (Module importedModule : importedModules) {
+			if (!currentImports.moduleIds.contains(importedModule.getModuleId())) {
+				ModuleClassLoader importedClassLoader = ModuleFactory.getModuleClassLoader(importedModule);
+				if (importedClassLoader != null) {
+					collectImports(importedClassLoader, currentImports);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The modules a module imports directly or through other modules
+	 */
+	private static class Imports {
+		
+		private final Set<String> moduleIds = new HashSet<>();
+		
+		private boolean packagesComplete = true;
 	}
 	
 	/**
@@ -716,6 +716,7 @@ public class ModuleFactory {
 				
 				// effectively mark this module as started successfully
 				getStartedModulesMap().put(moduleId, module);
+				clearClassLookupCaches();
 
 				actualStartupOrder.add(moduleId);
 				
@@ -811,6 +812,7 @@ public class ModuleFactory {
 			newSet.add(moduleClassLoader);
 			providedPackages.put(providedPackage, newSet);
 		}
+		clearClassLookupCaches();
 	}
 	
 	private static void unregisterProvidedPackages(ModuleClassLoader moduleClassLoader) {
@@ -825,14 +827,33 @@ public class ModuleFactory {
 			
 			providedPackages.put(providedPackage, newSet);
 		}
+		clearClassLookupCaches();
 	}
 	
+	/**
+	 * Makes the class loaders forget the classes they could not find, because the module that was
+	 * started or stopped may provide them
+	 */
+	private static void clearClassLookupCaches() {
+		for (ModuleClassLoader moduleClassLoader : getModuleClassLoaders()) {
+			moduleClassLoader.clearLookupCaches();
+		}
+		OpenmrsClassLoader.getInstance().clearLookupCaches();
+	}
+	
+	/**
+	 * Gets the class loaders of the modules providing the given package. The returned set must not be
+	 * modified, it is replaced rather than changed when modules are started or stopped.
+	 *
+	 * @param packageName the name of the package
+	 * @return the class loaders providing the package
+	 */
 	public static Set<ModuleClassLoader> getModuleClassLoadersForPackage(String packageName) {
 		Set<ModuleClassLoader> set = providedPackages.get(packageName);
 		if (set == null) {
 			return Collections.emptySet();
 		} else {
-			return new HashSet<>(set);
+			return Collections.unmodifiableSet(set);
 		}
 	}
 	
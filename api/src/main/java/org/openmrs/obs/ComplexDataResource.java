@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * The data of a complex obs fetched with the {@link ComplexObsHandler#STREAM_VIEW}. Nothing is read
+ * until a stream or channel is opened, so callers can send the file to a client, or only a range of
+ * it, without holding it in memory. The streams and channels returned are owned by the caller and
+ * must be closed.
+ *
+ * @since 2.7.0
+ */
+public class ComplexDataResource implements java.io.Serializable {
+	
+	public static final long serialVersionUID = 2713478209L;
+	
+	private final File file;
+	
+	/**
+	 * @param file the file holding the complex data
+	 */
+	public ComplexDataResource(File file) {
+		this.file = file;
+	}
+	
+	/**
+	 * @return the file holding the complex data
+	 */
+	public File getFile() {
+		return file;
+	}
+	
+	/**
+	 * @return the length of the complex data in bytes
+	 */
+	public long getLength() {
+		return file.length();
+	}
+	
+	/**
+	 * @return a new stream reading the whole complex data
+	 * @throws IOException if the file cannot be opened
+	 */
+	public InputStream openStream() throws IOException {
+		return Files.newInputStream(file.toPath());
+	}
+	
+	/**
+	 * @param start the position of the first byte to read
+	 * @param length the number of bytes to read
+	 * @return a new stream reading the given range of the complex data
+	 * @throws IOException if the file cannot be opened
+	 * @throws IllegalArgumentException if the range is not within the complex data
+	 */
+	public InputStream openStream(long start, long length) throws IOException {
+		checkRange(start, length);
+		FileChannel channel = openChannel();
+		try {
+			channel.position(start);
+			return BoundedInputStream.builder().setInputStream(Channels.newInputStream(channel)).setMaxCount(length)
+			        .get();
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @return a new read only channel on the complex data
+	 * @throws IOException if the file cannot be opened
+	 */
+	public FileChannel openChannel() throws IOException {
+		return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	}
+	
+	/**
+	 * Writes a range of the complex data to the given channel with
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which lets the operating
+	 * system copy the bytes directly when the target is a file or a socket
+	 *
+	 * @param start the position of the first byte to write
+	 * @param length the number of bytes to write
+	 * @param target the channel to write to, which is left open
+	 * @return the number of bytes written
+	 * @throws IOException if the file cannot be read or the target cannot be written
+	 * @throws IllegalArgumentException if the range is not within the complex data
+	 */
+	public long transferTo(long start, long length, WritableByteChannel target) throws IOException {
+		checkRange(start, length);
+		try (FileChannel channel = openChannel()) {
+			long transferred = 0;
+			while (transferred < length) {
+				long count = channel.transferTo(start + transferred, length - transferred, target);
+				if (count <= 0) {
+					break;
+				}
+				transferred += count;
+			}
+			return transferred;
+		}
+	}
+	
+	private void checkRange(long start, long length) {
+		if (start < 0 || length < 0 || start + length > getLength()) {
+			throw new IllegalArgumentException("The range " + start + "+" + length + " is not within the "
+			        + getLength() + " bytes of " + file.getName());
+		}
+	}
+}
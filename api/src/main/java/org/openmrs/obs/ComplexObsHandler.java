@@ -44,6 +44,21 @@ public interface ComplexObsHandler {
 	
 	public static final String URI_VIEW = "URI_VIEW";
 	
+	/**
+	 * View whose data is a {@link ComplexDataResource}, which opens the stored file only when it is
+	 * read and can read ranges of it
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String STREAM_VIEW = "STREAM_VIEW";
+	
+	/**
+	 * View of an image scaled down to the size of a thumbnail
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String THUMBNAIL_VIEW = "THUMBNAIL_VIEW";
+	
 	/**
 	 * Save a complex obs. This extracts the ComplexData from an Obs, stores it to a location
 	 * determined by the handler, and returns the Obs with the ComplexData nullified.
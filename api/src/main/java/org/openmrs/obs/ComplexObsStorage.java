@@ -0,0 +1,61 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Lays out the files of complex obs in the complex obs directory. A handler writes the complex data
+ * of an obs to the file returned by {@link #getOutputFile(File, String)}, then passes it to
+ * {@link #store(File, File)} and keeps the returned name as the last part of the value complex of
+ * the obs. That name is relative to the complex obs directory and may contain subdirectories.<br>
+ * <br>
+ * The storage in use is the class named by the global property
+ * {@link org.openmrs.util.OpenmrsConstants#GP_COMPLEX_OBS_STORAGE}, it must have a public no
+ * argument constructor.
+ *
+ * @see FlatComplexObsStorage
+ * @see ContentAddressedComplexObsStorage
+ * @since 2.7.0
+ */
+public interface ComplexObsStorage {
+	
+	/**
+	 * Gets the file the complex data of an obs should be written to
+	 *
+	 * @param directory the complex obs directory
+	 * @param fileName the name made for the complex data of the obs
+	 * @return the file to write to
+	 * @throws IOException if the file cannot be made ready for writing
+	 */
+	public File getOutputFile(File directory, String fileName) throws IOException;
+	
+	/**
+	 * Moves a file written to the file from {@link #getOutputFile(File, String)}, or an existing
+	 * file in the complex obs directory, into its place in the storage
+	 *
+	 * @param directory the complex obs directory
+	 * @param file the written file, which must be closed
+	 * @return the name of the stored file relative to the complex obs directory
+	 * @throws IOException if the file cannot be moved
+	 */
+	public String store(File directory, File file) throws IOException;
+	
+	/**
+	 * Releases a stored file that an obs no longer refers to, the file is deleted unless other obs
+	 * still refer to it
+	 *
+	 * @param directory the complex obs directory
+	 * @param name the name of the stored file relative to the complex obs directory
+	 * @return true if the file was released, false if it could not be deleted
+	 */
+	public boolean release(File directory, String name);
+}
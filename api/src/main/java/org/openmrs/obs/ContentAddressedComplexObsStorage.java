@@ -0,0 +1,195 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ComplexObsStorage} that keeps each distinct file once, named after the SHA-256 hash of
+ * its content in two levels of subdirectories taken from the start of the hash, e.g.
+ * <code>3f/a2/3fa2...9c.jpg</code>, so that no directory grows beyond a few thousand entries.
+ * Identical files saved for several obs are stored once and counted, a file is only deleted when
+ * the last obs referring to it is purged. The previous version of an edited obs keeps its reference
+ * until it is purged as well. The count is kept next to the file in a <code>.refs</code> file,
+ * which is left out while the file is referred to once.<br>
+ * <br>
+ * Files are written to the <code>incoming</code> subdirectory first and moved into place once their
+ * hash is known. Existing files kept under their own name are moved into this layout by
+ * {@link org.openmrs.api.ObsService#migrateComplexObsStorage(Integer, int)}.
+ *
+ * @since 2.7.0
+ */
+public class ContentAddressedComplexObsStorage implements ComplexObsStorage {
+	
+	private static final Logger log = LoggerFactory.getLogger(ContentAddressedComplexObsStorage.class);
+	
+	public static final String INCOMING_DIRECTORY = "incoming";
+	
+	private static final String REFERENCES_SUFFIX = ".refs";
+	
+	private static final Pattern CONTENT_ADDRESSED_NAME = Pattern
+	        .compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(\\.[^/]+)?");
+	
+	// the counts are shared by every instance, handlers of all types may store the same file
+	private static final Object LOCK = new Object();
+	
+	/**
+	 * @see ComplexObsStorage#getOutputFile(File, String)
+	 */
+	@Override
+	public File getOutputFile(File directory, String fileName) throws IOException {
+		File incoming = new File(directory, INCOMING_DIRECTORY);
+		if (!incoming.isDirectory() && !incoming.mkdirs()) {
+			throw new IOException("Could not create the directory " + incoming.getAbsolutePath());
+		}
+		return new File(incoming, fileName);
+	}
+	
+	/**
+	 * @see ComplexObsStorage#store(File, File)
+	 */
+	@Override
+	public String store(File directory, File file) throws IOException {
+		return store(directory, file, 1);
+	}
+	
+	/**
+	 * Stores a file that is referred to by the given number of obs
+	 *
+	 * @param directory the complex obs directory
+	 * @param file the file to store, which is moved or deleted
+	 * @param references the number of obs referring to the file
+	 * @return the name of the stored file relative to the complex obs directory
+	 * @throws IOException if the file cannot be read or moved
+	 */
+	public String store(File directory, File file, int references) throws IOException {
+		String hash;
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			hash = DigestUtils.sha256Hex(in);
+		}
+		String extension = FilenameUtils.getExtension(file.getName()).toLowerCase();
+		String name = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash
+		        + (extension.isEmpty() ? "" : "." + extension);
+		File target = new File(directory, name);
+		
+		synchronized (LOCK) {
+			if (target.isFile()) {
+				// the same content is stored already, only the references are added
+				writeReferences(target, readReferences(target) + references);
+				Files.delete(file.toPath());
+			} else {
+				File parent = target.getParentFile();
+				if (!parent.isDirectory() && !parent.mkdirs()) {
+					throw new IOException("Could not create the directory " + parent.getAbsolutePath());
+				}
+				Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				writeReferences(target, references);
+			}
+		}
+		log.debug("Stored {} as {}", file.getName(), name);
+		return name;
+	}
+	
+	/**
+	 * @see ComplexObsStorage#release(File, String)
+	 */
+	@Override
+	public boolean release(File directory, String name) {
+		File file = new File(directory, name);
+		if (!isContentAddressed(name)) {
+			return !file.exists() || file.delete();
+		}
+		
+		synchronized (LOCK) {
+			try {
+				int references = readReferences(file);
+				if (references > 1) {
+					writeReferences(file, references - 1);
+				} else {
+					Files.deleteIfExists(file.toPath());
+					Files.deleteIfExists(getReferencesFile(file).toPath());
+				}
+				return true;
+			}
+			catch (IOException e) {
+				log.warn("Could not release the complex obs file {}", file.getAbsolutePath(), e);
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * @param name the last part of the value complex of an obs
+	 * @return true if the name is one given to a file by this storage
+	 */
+	public static boolean isContentAddressed(String name) {
+		return name != null && CONTENT_ADDRESSED_NAME.matcher(name).matches();
+	}
+	
+	/**
+	 * @param file a stored file
+	 * @return the number of obs referring to the file
+	 * @throws IOException if the count cannot be read
+	 */
+	static int getReferences(File file) throws IOException {
+		synchronized (LOCK) {
+			return readReferences(file);
+		}
+	}
+	
+	private static File getReferencesFile(File file) {
+		return new File(file.getPath() + REFERENCES_SUFFIX);
+	}
+	
+	private static int readReferences(File file) throws IOException {
+		File referencesFile = getReferencesFile(file);
+		if (!referencesFile.isFile()) {
+			return 1;
+		}
+		String references = new String(Files.readAllBytes(referencesFile.toPath()), StandardCharsets.UTF_8).trim();
+		try {
+			return Integer.parseInt(references);
+		}
+		catch (NumberFormatException e) {
+			throw new IOException("The reference count of " + file.getAbsolutePath() + " is not a number: "
+			        + references, e);
+		}
+	}
+	
+	private static void writeReferences(File file, int references) throws IOException {
+		File referencesFile = getReferencesFile(file);
+		if (references <= 1) {
+			Files.deleteIfExists(referencesFile.toPath());
+			return;
+		}
+		
+		// written next to the count and moved in place so that a crash never leaves half a number
+		File temp = new File(referencesFile.getPath() + ".tmp");
+		try {
+			Files.write(temp.toPath(), Integer.toString(references).getBytes(StandardCharsets.UTF_8));
+			Files.move(temp.toPath(), referencesFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+			    StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import java.io.File;
+
+/**
+ * The default {@link ComplexObsStorage}, every file is kept directly in the complex obs directory
+ * under the name made for it by the handler. Files that were stored by the
+ * {@link ContentAddressedComplexObsStorage} before the storage was switched back are still released
+ * by their reference count.
+ *
+ * @since 2.7.0
+ */
+public class FlatComplexObsStorage implements ComplexObsStorage {
+	
+	/**
+	 * @see ComplexObsStorage#getOutputFile(File, String)
+	 */
+	@Override
+	public File getOutputFile(File directory, String fileName) {
+		return new File(directory, fileName);
+	}
+	
+	/**
+	 * @see ComplexObsStorage#store(File, File)
+	 */
+	@Override
+	public String store(File directory, File file) {
+		return file.getName();
+	}
+	
+	/**
+	 * @see ComplexObsStorage#release(File, String)
+	 */
+	@Override
+	public boolean release(File directory, String name) {
+		if (ContentAddressedComplexObsStorage.isContentAddressed(name)) {
+			return new ContentAddressedComplexObsStorage().release(directory, name);
+		}
+		
+		File file = new File(directory, name);
+		return !file.exists() || file.delete();
+	}
+}
@@ -17,8 +17,13 @@ import java.util.Arrays;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Obs;
+import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataResource;
+import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.obs.ComplexObsStorage;
+import org.openmrs.obs.FlatComplexObsStorage;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -34,6 +39,8 @@ public class AbstractHandler {
 	
 	private static final Logger log = LoggerFactory.getLogger(AbstractHandler.class);
 	
+	private static volatile ComplexObsStorage storage;
+	
 	protected NumberFormat nf;
 	
 	/**
@@ -49,7 +56,9 @@ public class AbstractHandler {
 	/**
 	 * Returns a {@link File} for the given obs complex data to be written to. The output file
 	 * location is determined off of the {@link OpenmrsConstants#GLOBAL_PROPERTY_COMPLEX_OBS_DIR}
-	 * and the file name is determined off the current obs.getComplexData().getTitle().
+	 * and the {@link ComplexObsStorage} in use, and the file name is determined off the current
+	 * obs.getComplexData().getTitle(). Once written the file must be passed to
+	 * {@link #storeOutputFile(File)}.
 	 * 
 	 * @param obs the Obs with a non-null complex data on it
 	 * @return File that the complex data should be written to
@@ -67,9 +76,20 @@ public class AbstractHandler {
 			filename = uuid + extension;
 		}
 		
-		File dir = OpenmrsUtil.getDirectoryInApplicationDataDirectory(
-		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR));
-		return new File(dir, filename);
+		return getComplexObsStorage().getOutputFile(getComplexObsDirectory(), filename);
+	}
+	
+	/**
+	 * Moves a file written to the file from {@link #getOutputFileToWrite(Obs)} into its place in the
+	 * {@link ComplexObsStorage} in use
+	 * 
+	 * @param outfile the written file, which must be closed
+	 * @return the name to keep as the last part of the value complex of the obs
+	 * @throws IOException if the file cannot be moved
+	 * @since 2.7.0
+	 */
+	protected String storeOutputFile(File outfile) throws IOException {
+		return getComplexObsStorage().store(getComplexObsDirectory(), outfile);
 	}
 	
 	/**
@@ -121,6 +141,29 @@ public class AbstractHandler {
 		return obs;
 	}
 	
+	/**
+	 * Attaches the complex data of the {@link ComplexObsHandler#STREAM_VIEW} to the given obs, the
+	 * file is only opened once the caller reads it
+	 * 
+	 * @param obs the obs to attach the complex data to
+	 * @param file the file holding the complex data of the obs
+	 * @param title the title of the complex data
+	 * @param mimeType the mime type of the complex data
+	 * @return the obs with its complex data
+	 * @since 2.7.0
+	 */
+	protected Obs getStreamObs(Obs obs, File file, String title, String mimeType) {
+		if (!file.exists()) {
+			log.warn("The complex data of obs {} at {} does not exist", obs.getObsId(), file.getAbsolutePath());
+		}
+		ComplexData complexData = new ComplexData(title, new ComplexDataResource(file));
+		complexData.setMimeType(mimeType);
+		complexData.setLength(file.length());
+		obs.setComplexData(complexData);
+		
+		return obs;
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#purgeComplexData(org.openmrs.Obs)
 	 */
@@ -128,7 +171,7 @@ public class AbstractHandler {
 		File file = getComplexDataFile(obs);
 		if (!file.exists()) {
 			return true;
-		} else if (file.delete()) {
+		} else if (releaseComplexDataFile(obs)) {
 			obs.setComplexData(null);
 			return true;
 		}
@@ -145,11 +188,67 @@ public class AbstractHandler {
 	 * @return File object
 	 */
 	public static File getComplexDataFile(Obs obs) {
+		return new File(getComplexObsDirectory(), getComplexDataFileName(obs));
+	}
+	
+	/**
+	 * Gets the name of the file of the stored complex data of the given obs, the last part of its value
+	 * complex
+	 * 
+	 * @param obs the obs
+	 * @return the name of the file relative to the complex obs directory
+	 * @since 2.7.0
+	 */
+	public static String getComplexDataFileName(Obs obs) {
 		String[] names = obs.getValueComplex().split("\\|");
-		String filename = names.length < 2 ? names[0] : names[names.length - 1];
-		File dir = OpenmrsUtil.getDirectoryInApplicationDataDirectory(
+		return names.length < 2 ? names[0] : names[names.length - 1];
+	}
+	
+	/**
+	 * Releases the file of the stored complex data of the given obs in the {@link ComplexObsStorage}
+	 * in use, it is deleted unless it is shared with other obs
+	 * 
+	 * @param obs the obs that no longer refers to its file
+	 * @return true if the file was released, false if it could not be deleted
+	 * @since 2.7.0
+	 */
+	public static boolean releaseComplexDataFile(Obs obs) {
+		return getComplexObsStorage().release(getComplexObsDirectory(), getComplexDataFileName(obs));
+	}
+	
+	/**
+	 * @return the directory the complex obs are stored in
+	 * @since 2.7.0
+	 */
+	public static File getComplexObsDirectory() {
+		return OpenmrsUtil.getDirectoryInApplicationDataDirectory(
 		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR));
-		return new File(dir, filename);
+	}
+	
+	/**
+	 * Gets the {@link ComplexObsStorage} named by the global property
+	 * {@link OpenmrsConstants#GP_COMPLEX_OBS_STORAGE}, the instance is kept until the property
+	 * changes
+	 * 
+	 * @return the storage in use
+	 * @throws APIException if the class cannot be loaded
+	 * @since 2.7.0
+	 */
+	public static ComplexObsStorage getComplexObsStorage() {
+		String className = StringUtils.defaultIfBlank(
+		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_COMPLEX_OBS_STORAGE),
+		    FlatComplexObsStorage.class.getName()).trim();
+		ComplexObsStorage current = storage;
+		if (current == null || !current.getClass().getName().equals(className)) {
+			try {
+				current = (ComplexObsStorage) Context.loadClass(className).newInstance();
+			}
+			catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+				throw new APIException("The complex obs storage " + className + " cannot be used", e);
+			}
+			storage = current;
+		}
+		return current;
 	}
 	
 	/**
@@ -34,7 +34,7 @@ import org.springframework.util.Assert;
 public class BinaryStreamHandler extends AbstractHandler implements ComplexObsHandler {
 	
 	/** Views supported by this handler */
-	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, };
+	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.STREAM_VIEW };
 	
 	private static final Logger log = LoggerFactory.getLogger(BinaryStreamHandler.class);
 	
@@ -78,6 +78,10 @@ public class BinaryStreamHandler extends AbstractHandler implements ComplexObsHa
 			catch (Exception e) {
 				throw new APIException("Obs.error.while.trying.get.binary.complex", null, e);
 			}
+		} else if (ComplexObsHandler.STREAM_VIEW.equals(view)) {
+			file = getComplexDataFile(obs);
+			String originalFilename = obs.getValueComplex().split("\\|")[0].replace(",", "").replace(" ", "");
+			return getStreamObs(obs, file, originalFilename, OpenmrsUtil.getFileMimeType(file));
 		} else {
 			// No other view supported
 			// NOTE: if adding support for another view, don't forget to update supportedViews list above
@@ -116,12 +120,12 @@ public class BinaryStreamHandler extends AbstractHandler implements ComplexObsHa
 			OutputStream out = new FileOutputStream(outfile, false);
 			OpenmrsUtil.copyFile(in, out);
 			
-			// Store the filename in the Obs
-			obs.setComplexData(null);
-			obs.setValueComplex(fileName + "|" + outfile.getName());
-			
 			// close the stream
 			out.close();
+			
+			// Store the filename in the Obs
+			obs.setComplexData(null);
+			obs.setValueComplex(fileName + "|" + storeOutputFile(outfile));
 		}
 		catch (Exception e) {
 			throw new APIException("Obs.error.writing.binary.data.complex", null, e);
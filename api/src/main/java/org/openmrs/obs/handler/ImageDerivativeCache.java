@@ -0,0 +1,266 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs.handler;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thumbnails of image complex obs kept on disk next to the complex obs, so that lists of images do
+ * not decode the original images every time. The total size of the thumbnails is bounded, the least
+ * recently used ones are deleted when a new one takes it over the limit. A thumbnail is touched
+ * whenever it is used, so that the order is kept across restarts.
+ *
+ * @since 2.7.0
+ */
+class ImageDerivativeCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(ImageDerivativeCache.class);
+	
+	private static final String TEMP_SUFFIX = ".tmp";
+	
+	private final File directory;
+	
+	private final long maxBytes;
+	
+	// the sizes of the thumbnails by file name, least recently used first
+	private Map<String, Long> entries;
+	
+	private long totalBytes;
+	
+	/**
+	 * @param directory the directory to keep the thumbnails in
+	 * @param maxBytes the total size of the thumbnails to keep
+	 */
+	ImageDerivativeCache(File directory, long maxBytes) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+	
+	File getDirectory() {
+		return directory;
+	}
+	
+	long getMaxBytes() {
+		return maxBytes;
+	}
+	
+	/**
+	 * Gets the thumbnail of the given image, it is made if there is none yet or the image changed
+	 * since it was made
+	 *
+	 * @param image the original image
+	 * @param size the size of the longest side of the thumbnail, smaller images are not enlarged
+	 * @return the thumbnail file
+	 * @throws IOException if the image cannot be read or the thumbnail cannot be written
+	 */
+	File getThumbnail(File image, int size) throws IOException {
+		String name = getThumbnailName(image, size);
+		File thumbnail = new File(directory, name);
+		synchronized (this) {
+			loadEntries();
+			if (thumbnail.isFile() && thumbnail.lastModified() >= image.lastModified()) {
+				// the lookup marks the thumbnail as the most recently used one
+				if (entries.get(name) == null) {
+					put(name, thumbnail.length());
+				}
+				if (!thumbnail.setLastModified(System.currentTimeMillis())) {
+					log.debug("Could not touch the thumbnail {}", thumbnail);
+				}
+				return thumbnail;
+			}
+		}
+		
+		// made outside of the lock, decoding the image is the slow part
+		writeThumbnail(image, size, thumbnail);
+		
+		synchronized (this) {
+			put(name, thumbnail.length());
+			evict(name);
+		}
+		return thumbnail;
+	}
+	
+	/**
+	 * Deletes the thumbnails of all sizes of the given image
+	 *
+	 * @param image the original image
+	 */
+	synchronized void removeThumbnails(File image) {
+		loadEntries();
+		Pattern names = Pattern.compile(Pattern.quote(image.getName()) + "_\\d+\\." + getThumbnailFormat(image));
+		for (Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, Long> entry = it.next();
+			if (names.matcher(entry.getKey()).matches()) {
+				delete(entry.getKey());
+				totalBytes -= entry.getValue();
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * @return the mime type of the thumbnails of the given image
+	 */
+	static String getThumbnailMimeType(File image) {
+		return "jpg".equals(getThumbnailFormat(image)) ? "image/jpeg" : "image/png";
+	}
+	
+	/**
+	 * The thumbnails are named after the whole file name of the image, so that images that only
+	 * differ in their extension never share a thumbnail
+	 */
+	private static String getThumbnailName(File image, int size) {
+		return image.getName() + "_" + size + "." + getThumbnailFormat(image);
+	}
+	
+	/**
+	 * Photos are kept as jpeg, everything else as png so that transparency is kept
+	 */
+	private static String getThumbnailFormat(File image) {
+		String extension = FilenameUtils.getExtension(image.getName()).toLowerCase();
+		return "jpg".equals(extension) || "jpeg".equals(extension) ? "jpg" : "png";
+	}
+	
+	private void loadEntries() {
+		if (entries != null) {
+			return;
+		}
+		
+		entries = new LinkedHashMap<>(16, 0.75f, true);
+		totalBytes = 0;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			log.warn("Could not create the directory of the image thumbnails {}", directory.getAbsolutePath());
+			return;
+		}
+		
+		File[] files = directory.listFiles(File::isFile);
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			if (file.getName().endsWith(TEMP_SUFFIX)) {
+				// left behind by a thumbnail that was being written when the server stopped
+				delete(file.getName());
+			} else {
+				put(file.getName(), file.length());
+			}
+		}
+		evict(null);
+	}
+	
+	private void put(String name, long length) {
+		Long previous = entries.put(name, length);
+		totalBytes += length - (previous == null ? 0 : previous);
+	}
+	
+	/**
+	 * Deletes the least recently used thumbnails until the total size is within the limit
+	 *
+	 * @param keep the name of a thumbnail that is never deleted, the one just made
+	 */
+	private void evict(String keep) {
+		for (Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator(); it.hasNext()
+		        && totalBytes > maxBytes;) {
+			Map.Entry<String, Long> entry = it.next();
+			if (entry.getKey().equals(keep)) {
+				continue;
+			}
+			delete(entry.getKey());
+			totalBytes -= entry.getValue();
+			it.remove();
+		}
+	}
+	
+	private void delete(String name) {
+		try {
+			Files.deleteIfExists(new File(directory, name).toPath());
+		}
+		catch (IOException e) {
+			log.warn("Could not delete the image thumbnail {}", name, e);
+		}
+	}
+	
+	private void writeThumbnail(File image, int size, File thumbnail) throws IOException {
+		BufferedImage decoded;
+		try (ImageInputStream in = ImageIO.createImageInputStream(image)) {
+			if (in == null) {
+				throw new IOException("Cannot read the image " + image.getAbsolutePath());
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) {
+				throw new IOException("The format of the image " + image.getAbsolutePath() + " is not known");
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				// skip pixels while decoding so that large originals are never held in memory in full,
+				// keeping twice the pixels needed for the smooth scaling below
+				int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+				int subsampling = Math.max(1, longestSide / (size * 2));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				decoded = reader.read(0, param);
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		
+		String format = getThumbnailFormat(image);
+		double scale = Math.min(1.0, (double) size / Math.max(decoded.getWidth(), decoded.getHeight()));
+		int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+		int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+		BufferedImage scaled = new BufferedImage(width, height, "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB
+		        : BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(decoded, 0, 0, width, height, null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		
+		// written next to the thumbnail and moved in place so that readers never see half a file
+		File temp = new File(directory, thumbnail.getName() + "." + Thread.currentThread().getId() + TEMP_SUFFIX);
+		try {
+			if (!ImageIO.write(scaled, format, temp)) {
+				throw new IOException("No writer for " + format + " images");
+			}
+			Files.move(temp.toPath(), thumbnail.toPath(), StandardCopyOption.REPLACE_EXISTING,
+			    StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+}
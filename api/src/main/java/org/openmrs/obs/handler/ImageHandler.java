@@ -14,9 +14,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.imageio.ImageIO;
@@ -25,8 +27,11 @@ import javax.imageio.stream.FileImageInputStream;
 
 import org.openmrs.Obs;
 import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataResource;
 import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import java.io.ByteArrayInputStream;
 import org.slf4j.Logger;
@@ -44,12 +49,20 @@ import org.slf4j.LoggerFactory;
 public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 	
 	/** Views supported by this handler */
-	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW };
+	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.STREAM_VIEW,
+	        ComplexObsHandler.THUMBNAIL_VIEW };
 	
 	private static final Logger log = LoggerFactory.getLogger(ImageHandler.class);
 	
+	/** The directory in the complex obs directory where the thumbnails are kept */
+	private static final String DERIVATIVES_DIRECTORY = "derivatives";
+	
+	private static final long DEFAULT_DERIVATIVE_CACHE_MAX_BYTES = 100L * 1024 * 1024;
+	
 	private Set<String> extensions;
 	
+	private ImageDerivativeCache derivativeCache;
+	
 	/**
 	 * Constructor initializes formats for alternative file names to protect from unintentionally
 	 * overwriting existing files.
@@ -63,7 +76,10 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 	}
 	
 	/**
-	 * Currently supports all views and puts the Image file data into the ComplexData object
+	 * Currently supports the raw view, which puts the decoded Image into the ComplexData object, the
+	 * stream view, which leaves the Image file to be read by the caller without decoding it, and the
+	 * thumbnail view, which does the same for a thumbnail of the first size of
+	 * {@link OpenmrsConstants#GP_IMAGE_THUMBNAIL_SIZES}
 	 * 
 	 * @see org.openmrs.obs.ComplexObsHandler#getObs(org.openmrs.Obs, java.lang.String)
 	 */
@@ -83,32 +99,13 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 			
 			ComplexData complexData = new ComplexData(file.getName(), img);
 			
-			String mimeType = null;
-			
-			// Image MIME type
-			try {
-				FileImageInputStream imgStream = new FileImageInputStream(file);
-				Iterator<ImageReader> imgReader = ImageIO.getImageReaders(imgStream);
-				imgStream.close();
-				if (imgReader.hasNext()) {
-					mimeType = "image/" + imgReader.next().getFormatName().toLowerCase();
-				} else {
-					log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
-				}
-			}
-			catch (FileNotFoundException e) {
-				log.error("Image " + file.getAbsolutePath() + " was not found", e);
-			}
-			catch (IOException e) {
-				log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
-			}
-					
-			// If the mimetype is still null, determine it via getFileMimeType()
-			mimeType = mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
-			
-			complexData.setMimeType(mimeType);	
+			complexData.setMimeType(getMimeType(file));
 			
 			obs.setComplexData(complexData);
+		} else if (ComplexObsHandler.STREAM_VIEW.equals(view)) {
+			return getStreamObs(obs, file, file.getName(), getMimeType(file));
+		} else if (ComplexObsHandler.THUMBNAIL_VIEW.equals(view)) {
+			return getThumbnailObs(obs, getThumbnailSizes().get(0));
 		} else {
 			// No other view supported
 			// NOTE: if adding support for another view, don't forget to update supportedViews list above
@@ -118,6 +115,130 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 		return obs;
 	}
 	
+	/**
+	 * Attaches a thumbnail of the image to the obs, the thumbnail is made the first time it is asked
+	 * for and kept on disk, so that the original image is not decoded again until it changes or the
+	 * thumbnail is evicted. The data of the ComplexData is a {@link ComplexDataResource} reading the
+	 * thumbnail.
+	 * 
+	 * @param obs the obs to attach the thumbnail to
+	 * @param size the size in pixels of the longest side of the thumbnail, one of
+	 *            {@link OpenmrsConstants#GP_IMAGE_THUMBNAIL_SIZES}
+	 * @return the obs with the thumbnail as its complex data
+	 * @throws APIException if the size is not configured or the thumbnail cannot be made
+	 * @since 2.7.0
+	 */
+	public Obs getThumbnailObs(Obs obs, int size) throws APIException {
+		if (!getThumbnailSizes().contains(size)) {
+			throw new APIException("Thumbnails of " + size + " pixels are not configured in the global property "
+			        + OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES);
+		}
+		
+		File file = getComplexDataFile(obs);
+		File thumbnail;
+		try {
+			thumbnail = getDerivativeCache().getThumbnail(file, size);
+		}
+		catch (IOException e) {
+			throw new APIException("Obs.error.unable.convert.complex.data", new Object[] { "thumbnail" }, e);
+		}
+		
+		ComplexData complexData = new ComplexData(file.getName(), new ComplexDataResource(thumbnail));
+		complexData.setMimeType(ImageDerivativeCache.getThumbnailMimeType(file));
+		complexData.setLength(thumbnail.length());
+		obs.setComplexData(complexData);
+		
+		return obs;
+	}
+	
+	/**
+	 * Deletes the thumbnails of the image along with the image, they are kept while the image is
+	 * still shared with other obs
+	 * 
+	 * @see org.openmrs.obs.handler.AbstractHandler#purgeComplexData(org.openmrs.Obs)
+	 */
+	@Override
+	public boolean purgeComplexData(Obs obs) {
+		File image = getComplexDataFile(obs);
+		boolean purged = super.purgeComplexData(obs);
+		if (purged && !image.exists()) {
+			getDerivativeCache().removeThumbnails(image);
+		}
+		return purged;
+	}
+	
+	private List<Integer> getThumbnailSizes() {
+		List<Integer> sizes = new ArrayList<>();
+		String value = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES,
+		    "200");
+		for (String size : value.split(",")) {
+			try {
+				sizes.add(Integer.valueOf(size.trim()));
+			}
+			catch (NumberFormatException e) {
+				log.warn("Ignoring the invalid thumbnail size {} in the global property {}", size,
+				    OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES);
+			}
+		}
+		sizes.removeIf(size -> size <= 0);
+		if (sizes.isEmpty()) {
+			sizes.add(200);
+		}
+		return sizes;
+	}
+	
+	/**
+	 * @return the cache of the thumbnails in the complex obs directory, replaced when the directory
+	 *         or the maximum size are changed
+	 */
+	private synchronized ImageDerivativeCache getDerivativeCache() {
+		File directory = new File(OpenmrsUtil.getDirectoryInApplicationDataDirectory(Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR)), DERIVATIVES_DIRECTORY);
+		long maxBytes = DEFAULT_DERIVATIVE_CACHE_MAX_BYTES;
+		String value = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_IMAGE_DERIVATIVE_CACHE_MAX_BYTES);
+		if (value != null) {
+			try {
+				maxBytes = Long.parseLong(value.trim());
+			}
+			catch (NumberFormatException e) {
+				log.warn("Ignoring the invalid value {} of the global property {}", value,
+				    OpenmrsConstants.GP_IMAGE_DERIVATIVE_CACHE_MAX_BYTES);
+			}
+		}
+		
+		if (derivativeCache == null || !derivativeCache.getDirectory().equals(directory)
+		        || derivativeCache.getMaxBytes() != maxBytes) {
+			derivativeCache = new ImageDerivativeCache(directory, maxBytes);
+		}
+		return derivativeCache;
+	}
+	
+	private String getMimeType(File file) {
+		String mimeType = null;
+		
+		// Image MIME type
+		try {
+			FileImageInputStream imgStream = new FileImageInputStream(file);
+			Iterator<ImageReader> imgReader = ImageIO.getImageReaders(imgStream);
+			imgStream.close();
+			if (imgReader.hasNext()) {
+				mimeType = "image/" + imgReader.next().getFormatName().toLowerCase();
+			} else {
+				log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
+			}
+		}
+		catch (FileNotFoundException e) {
+			log.error("Image " + file.getAbsolutePath() + " was not found", e);
+		}
+		catch (IOException e) {
+			log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
+		}
+		
+		// If the mimetype is still null, determine it via getFileMimeType()
+		return mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#getSupportedViews()
 	 */
@@ -174,7 +295,7 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 			ImageIO.write(img, extension, outfile);
 			
 			// Set the Title and URI for the valueComplex
-			obs.setValueComplex(extension + " image |" + outfile.getName());
+			obs.setValueComplex(extension + " image |" + storeOutputFile(outfile));
 			
 			// Remove the ComlexData from the Obs
 			obs.setComplexData(null);
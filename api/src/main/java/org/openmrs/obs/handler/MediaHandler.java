@@ -35,7 +35,7 @@ import org.slf4j.LoggerFactory;
 public class MediaHandler extends AbstractHandler implements ComplexObsHandler {
 	
 	/** Views supported by this handler */
-	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, };
+	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.STREAM_VIEW };
 	
 	private static final Logger log = LoggerFactory.getLogger(MediaHandler.class);
 	
@@ -73,6 +73,9 @@ public class MediaHandler extends AbstractHandler implements ComplexObsHandler {
 			catch (FileNotFoundException e) {
 				log.error("Trying to create media file stream from " + file.getAbsolutePath(), e);
 			}
+		} else if (ComplexObsHandler.STREAM_VIEW.equals(view)) {
+			String originalFilename = obs.getValueComplex().split("\\|")[0].replace(",", "").replace(" ", "");
+			return getStreamObs(obs, file, originalFilename, OpenmrsUtil.getFileMimeType(file));
 		}
 		// No other view supported
 		// NOTE: if adding support for another view, don't forget to update supportedViews list above
@@ -105,12 +108,12 @@ public class MediaHandler extends AbstractHandler implements ComplexObsHandler {
 			FileInputStream mediaStream = (FileInputStream) obs.getComplexData().getData();
 			OpenmrsUtil.copyFile(mediaStream, out);
 			
-			// Store the filename in the Obs
-			obs.setComplexData(null);
-			obs.setValueComplex(fileName + "|" + outfile.getName());
-			
 			// close the stream
 			out.close();
+			
+			// Store the filename in the Obs
+			obs.setComplexData(null);
+			obs.setValueComplex(fileName + "|" + storeOutputFile(outfile));
 		}
 		catch (IOException ioe) {
 			throw new APIException("Obs.error.trying.write.complex", null, ioe);
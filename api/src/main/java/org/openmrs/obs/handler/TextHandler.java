@@ -149,8 +149,10 @@ public class TextHandler extends AbstractHandler implements ComplexObsHandler {
 				}
 			}
 			
+			fout.close();
+			
 			// Set the Title and URI for the valueComplex
-			obs.setValueComplex(outfile.getName() + " file |" + outfile.getName());
+			obs.setValueComplex(outfile.getName() + " file |" + storeOutputFile(outfile));
 			
 			// Remove the ComplexData from the Obs
 			obs.setComplexData(null);
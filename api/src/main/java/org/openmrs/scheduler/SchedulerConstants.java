@@ -33,6 +33,38 @@ public class SchedulerConstants {
 	/** Scheduler admin email property - Used to email administrator if a task fails */
 	public static final String SCHEDULER_ADMIN_EMAIL_PROPERTY = "scheduler.admin_email";
 	
+	/**
+	 * Runtime property that selects the scheduler service implementation, either
+	 * {@link #SCHEDULER_IMPLEMENTATION_TIMER} or {@link #SCHEDULER_IMPLEMENTATION_EXECUTOR}
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY = "scheduler.implementation";
+	
+	/** The default scheduler, runs each task definition on its own java.util.Timer thread */
+	public static final String SCHEDULER_IMPLEMENTATION_TIMER = "timer";
+	
+	/** Runs all task definitions on a shared pool of threads */
+	public static final String SCHEDULER_IMPLEMENTATION_EXECUTOR = "executor";
+	
+	/**
+	 * Runtime property holding the number of threads shared by all tasks when the executor based
+	 * scheduler is used
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY = "scheduler.pool_size";
+	
+	public static final int SCHEDULER_DEFAULT_POOL_SIZE = 4;
+	
+	/**
+	 * Task definition property that sets what the executor based scheduler does when runs of a task
+	 * were missed, see {@link org.openmrs.scheduler.executor.MissedRunPolicy}
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String MISSED_RUN_POLICY_TASK_PROPERTY = "missedRunPolicy";
+	
 	private SchedulerConstants() {
 	}
 	
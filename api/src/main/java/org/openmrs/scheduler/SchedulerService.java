@@ -167,4 +167,18 @@ public interface SchedulerService extends OpenmrsService {
 	 */
 	public void scheduleIfNotRunning(TaskDefinition taskDef);
 	
+	/**
+	 * Gets the run time metrics of the task definition with the given id, not every scheduler
+	 * implementation records these
+	 *
+	 * @param id the id of the task definition
+	 * @return the metrics or null if the task has not been scheduled or the scheduler does not record
+	 *         metrics
+	 * @since 2.7.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public default TaskRunStatistics getTaskRunStatistics(Integer id) {
+		return null;
+	}
+	
 }
@@ -0,0 +1,90 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * Creates the scheduler service implementation selected by the
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property, the timer
+ * based scheduler is used if it is not set.
+ *
+ * @since 2.7.0
+ */
+public class SchedulerServiceFactoryBean implements FactoryBean<SchedulerService> {
+	
+	private static final Logger log = LoggerFactory.getLogger(SchedulerServiceFactoryBean.class);
+	
+	private SchedulerDAO schedulerDAO;
+	
+	public void setSchedulerDAO(SchedulerDAO schedulerDAO) {
+		this.schedulerDAO = schedulerDAO;
+	}
+	
+	/**
+	 * @see org.springframework.beans.factory.FactoryBean#getObject()
+	 */
+	@Override
+	public SchedulerService getObject() {
+		Properties properties = Context.getRuntimeProperties();
+		String implementation = properties.getProperty(SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY,
+		    SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER).trim();
+		
+		if (SchedulerConstants.SCHEDULER_IMPLEMENTATION_EXECUTOR.equalsIgnoreCase(implementation)) {
+			ExecutorSchedulerServiceImpl schedulerService = new ExecutorSchedulerServiceImpl();
+			schedulerService.setSchedulerDAO(schedulerDAO);
+			String poolSize = properties.getProperty(SchedulerConstants.SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY);
+			if (StringUtils.isNotBlank(poolSize)) {
+				try {
+					schedulerService.setPoolSize(Integer.parseInt(poolSize.trim()));
+				}
+				catch (IllegalArgumentException e) {
+					log.warn("Invalid value '{}' for runtime property {}, using a pool of {} threads", poolSize,
+					    SchedulerConstants.SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY, schedulerService.getPoolSize());
+				}
+			}
+			log.info("Using the executor based scheduler with a pool of {} threads", schedulerService.getPoolSize());
+			return schedulerService;
+		}
+		
+		if (!SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER.equalsIgnoreCase(implementation)) {
+			log.warn("Unknown scheduler implementation '{}' set in runtime property {}, using the timer based scheduler",
+			    implementation, SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY);
+		}
+		TimerSchedulerServiceImpl schedulerService = new TimerSchedulerServiceImpl();
+		schedulerService.setSchedulerDAO(schedulerDAO);
+		return schedulerService;
+	}
+	
+	/**
+	 * @see org.springframework.beans.factory.FactoryBean#getObjectType()
+	 */
+	@Override
+	public Class<?> getObjectType() {
+		return SchedulerService.class;
+	}
+	
+	/**
+	 * @see org.springframework.beans.factory.FactoryBean#isSingleton()
+	 */
+	@Override
+	public boolean isSingleton() {
+		return true;
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.util.Date;
+
+/**
+ * Run time metrics of a scheduled task definition, kept in memory by the scheduler across
+ * reschedules of the same task definition. This also tracks whether a run is in progress, the
+ * scheduler uses it to make sure runs of the same task definition never overlap.
+ *
+ * @since 2.7.0
+ */
+public class TaskRunStatistics {
+	
+	private boolean running;
+	
+	private long runCount;
+	
+	private long failureCount;
+	
+	private long skippedCount;
+	
+	private long lastStartTime;
+	
+	private long lastEndTime;
+	
+	private long lastDuration;
+	
+	private long totalDuration;
+	
+	private long maxDuration;
+	
+	private String lastFailure;
+	
+	/**
+	 * Marks the start of a run unless a run is already in progress
+	 *
+	 * @param startTime the start time of the run in milliseconds
+	 * @return true if the run may start, false if another run is still in progress
+	 */
+	public synchronized boolean runStarted(long startTime) {
+		if (running) {
+			return false;
+		}
+		running = true;
+		lastStartTime = startTime;
+		return true;
+	}
+	
+	/**
+	 * Marks the end of the run in progress
+	 *
+	 * @param endTime the end time of the run in milliseconds
+	 * @param duration how long the run took in milliseconds
+	 * @param failure the exception the run failed with or null if it succeeded
+	 */
+	public synchronized void runFinished(long endTime, long duration, Throwable failure) {
+		running = false;
+		runCount++;
+		lastEndTime = endTime;
+		lastDuration = duration;
+		totalDuration += duration;
+		maxDuration = Math.max(maxDuration, duration);
+		if (failure != null) {
+			failureCount++;
+			lastFailure = failure.getClass().getName() + ": " + failure.getMessage();
+		}
+	}
+	
+	/**
+	 * Records a scheduled run that was not executed because it was missed or overlapped with a run
+	 * in progress
+	 */
+	public synchronized void runSkipped() {
+		skippedCount++;
+	}
+	
+	/**
+	 * @return true if a run is in progress
+	 */
+	public synchronized boolean isRunning() {
+		return running;
+	}
+	
+	/**
+	 * @return the number of completed runs, including failed ones
+	 */
+	public synchronized long getRunCount() {
+		return runCount;
+	}
+	
+	/**
+	 * @return the number of runs that failed with an exception
+	 */
+	public synchronized long getFailureCount() {
+		return failureCount;
+	}
+	
+	/**
+	 * @return the number of scheduled runs that were skipped
+	 */
+	public synchronized long getSkippedCount() {
+		return skippedCount;
+	}
+	
+	/**
+	 * @return the start time of the most recent run or null if the task has not run yet
+	 */
+	public synchronized Date getLastStartTime() {
+		return lastStartTime > 0 ? new Date(lastStartTime) : null;
+	}
+	
+	/**
+	 * @return the end time of the most recent completed run in milliseconds or 0 if none completed
+	 */
+	public synchronized long getLastEndTime() {
+		return lastEndTime;
+	}
+	
+	/**
+	 * @return the duration of the most recent completed run in milliseconds
+	 */
+	public synchronized long getLastDuration() {
+		return lastDuration;
+	}
+	
+	/**
+	 * @return the average duration of the completed runs in milliseconds
+	 */
+	public synchronized long getAverageDuration() {
+		return runCount > 0 ? totalDuration / runCount : 0;
+	}
+	
+	/**
+	 * @return the duration of the longest completed run in milliseconds
+	 */
+	public synchronized long getMaxDuration() {
+		return maxDuration;
+	}
+	
+	/**
+	 * @return the exception class and message of the most recent failed run or null if no run failed
+	 */
+	public synchronized String getLastFailure() {
+		return lastFailure;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "runs: " + runCount + ", failures: " + failureCount + ", skipped: " + skippedCount + ", last: "
+		        + lastDuration + "ms, average: " + getAverageDuration() + "ms, max: " + maxDuration + "ms";
+	}
+}
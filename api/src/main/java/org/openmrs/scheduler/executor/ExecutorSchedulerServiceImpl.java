@@ -0,0 +1,315 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.APIException;
+import org.openmrs.scheduler.AbstractSchedulerService;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskFactory;
+import org.openmrs.scheduler.TaskRunStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduler service that runs all scheduled tasks on a fixed size pool of threads instead of one
+ * {@link java.util.Timer} thread per task definition. A task that fails does not affect the
+ * schedule of other tasks, runs of the same task definition never overlap, runs that were missed are
+ * handled according to the {@link MissedRunPolicy} of the task and the run time of every task is
+ * recorded in its {@link TaskRunStatistics}. <br>
+ * <br>
+ * It is used instead of the timer based scheduler when the
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property is set to
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_EXECUTOR}, the size of the pool is set with the
+ * {@link SchedulerConstants#SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY} runtime property.
+ *
+ * @since 2.7.0
+ */
+@Transactional
+public class ExecutorSchedulerServiceImpl extends AbstractSchedulerService {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerServiceImpl.class);
+	
+	/**
+	 * How long to wait in seconds for runs in progress to complete when shutting down
+	 */
+	private static final long SHUTDOWN_TIMEOUT = 10;
+	
+	private final Map<Integer, ExecutorSchedulerTask> scheduledTasks = new ConcurrentHashMap<>();
+	
+	private final Map<Integer, TaskRunStatistics> statistics = new ConcurrentHashMap<>();
+	
+	private ScheduledThreadPoolExecutor executor;
+	
+	private int poolSize = SchedulerConstants.SCHEDULER_DEFAULT_POOL_SIZE;
+	
+	private MissedRunPolicy missedRunPolicy = MissedRunPolicy.RUN_ONCE;
+	
+	public int getPoolSize() {
+		return poolSize;
+	}
+	
+	/**
+	 * @param poolSize the number of threads shared by all tasks, takes effect the next time the
+	 *            scheduler is started
+	 */
+	public void setPoolSize(int poolSize) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("The pool size must be at least 1");
+		}
+		this.poolSize = poolSize;
+	}
+	
+	public MissedRunPolicy getMissedRunPolicy() {
+		return missedRunPolicy;
+	}
+	
+	/**
+	 * @param missedRunPolicy the policy for tasks that do not set one in their task properties
+	 */
+	public void setMissedRunPolicy(MissedRunPolicy missedRunPolicy) {
+		this.missedRunPolicy = missedRunPolicy;
+	}
+	
+	/**
+	 * @see org.openmrs.api.impl.BaseOpenmrsService#onShutdown()
+	 */
+	@Override
+	public void onShutdown() {
+		log.debug("Gracefully shutting down scheduler service ...");
+		try {
+			shutdownAllTasks();
+		}
+		catch (APIException e) {
+			log.error("Failed to stop all tasks due to API exception", e);
+		}
+		finally {
+			scheduledTasks.clear();
+			shutdownExecutor();
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#scheduleTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public Task scheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
+		Task clientTask = null;
+		if (taskDefinition != null) {
+			
+			if (taskDefinition.getId() != null) {
+				ExecutorSchedulerTask schedulerTask = scheduledTasks.remove(taskDefinition.getId());
+				if (schedulerTask != null) {
+					log.info("Shutting down the existing instance of this task to avoid conflicts!!");
+					schedulerTask.cancel();
+				}
+			}
+			
+			try {
+				clientTask = TaskFactory.getInstance().createInstance(taskDefinition);
+				if (clientTask != null) {
+					taskDefinition.setTaskInstance(clientTask);
+					if (taskDefinition.getId() == null) {
+						// the id is needed to keep track of the task
+						saveTaskDefinition(taskDefinition);
+					}
+					
+					long repeatInterval = 0;
+					if (taskDefinition.getRepeatInterval() != null) {
+						repeatInterval = taskDefinition.getRepeatInterval() * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND;
+					}
+					
+					long now = System.currentTimeMillis();
+					long firstExecutionTime;
+					if (taskDefinition.getStartTime() != null) {
+						firstExecutionTime = SchedulerUtil.getNextExecution(taskDefinition).getTime();
+					} else if (repeatInterval > 0) {
+						firstExecutionTime = now + SchedulerConstants.SCHEDULER_DEFAULT_DELAY;
+					} else {
+						firstExecutionTime = now;
+					}
+					log.info("Starting task ... the task will execute for the first time at " + new Date(firstExecutionTime));
+					
+					ExecutorSchedulerTask schedulerTask = new ExecutorSchedulerTask(clientTask,
+					        statistics.computeIfAbsent(taskDefinition.getId(), id -> new TaskRunStatistics()),
+					        getMissedRunPolicy(taskDefinition), firstExecutionTime, repeatInterval);
+					long delay = Math.max(0, firstExecutionTime - now);
+					ScheduledFuture<?> future;
+					if (repeatInterval > 0) {
+						future = getExecutor().scheduleAtFixedRate(schedulerTask, delay, repeatInterval,
+						    TimeUnit.MILLISECONDS);
+					} else {
+						future = getExecutor().schedule(schedulerTask, delay, TimeUnit.MILLISECONDS);
+					}
+					schedulerTask.setFuture(future);
+					scheduledTasks.put(taskDefinition.getId(), schedulerTask);
+					
+					taskDefinition.setStarted(true);
+					saveTaskDefinition(taskDefinition);
+				}
+			}
+			catch (Exception e) {
+				log.error("Failed to schedule task " + taskDefinition.getName(), e);
+				throw new SchedulerException("Failed to schedule task", e);
+			}
+		}
+		return clientTask;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#shutdownTask(TaskDefinition)
+	 */
+	@Override
+	public void shutdownTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition != null) {
+			if (taskDefinition.getId() != null) {
+				ExecutorSchedulerTask schedulerTask = scheduledTasks.remove(taskDefinition.getId());
+				if (schedulerTask != null) {
+					schedulerTask.cancel();
+				}
+			}
+			
+			taskDefinition.setStarted(false);
+			saveTaskDefinition(taskDefinition);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#deleteTask(java.lang.Integer)
+	 */
+	@Override
+	public void deleteTask(Integer id) {
+		super.deleteTask(id);
+		statistics.remove(id);
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getSystemVariables()
+	 */
+	@Override
+	public SortedMap<String, String> getSystemVariables() {
+		SortedMap<String, String> systemVariables = super.getSystemVariables();
+		systemVariables.put("SCHEDULER_POOL_SIZE", String.valueOf(poolSize));
+		return systemVariables;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getStatus(java.lang.Integer)
+	 */
+	@Override
+	public String getStatus(Integer id) {
+		ExecutorSchedulerTask scheduledTask = id != null ? scheduledTasks.get(id) : null;
+		if (scheduledTask != null) {
+			if (scheduledTask.getStatistics().isRunning()) {
+				return "Currently executing";
+			}
+			Date nextExecutionTime = scheduledTask.getNextExecutionTime();
+			if (nextExecutionTime != null) {
+				return "Scheduled to execute at " + nextExecutionTime;
+			}
+		}
+		return "Not Running";
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskRunStatistics(java.lang.Integer)
+	 */
+	@Override
+	public TaskRunStatistics getTaskRunStatistics(Integer id) {
+		return id != null ? statistics.get(id) : null;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.AbstractSchedulerService#getScheduledTaskIds()
+	 */
+	@Override
+	protected Collection<Integer> getScheduledTaskIds() {
+		return new ArrayList<>(scheduledTasks.keySet());
+	}
+	
+	ExecutorSchedulerTask getSchedulerTask(Integer id) {
+		return scheduledTasks.get(id);
+	}
+	
+	private MissedRunPolicy getMissedRunPolicy(TaskDefinition taskDefinition) {
+		String policy = taskDefinition.getProperty(SchedulerConstants.MISSED_RUN_POLICY_TASK_PROPERTY);
+		if (StringUtils.isNotBlank(policy)) {
+			try {
+				return MissedRunPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+			}
+			catch (IllegalArgumentException e) {
+				log.warn("Invalid missed run policy '{}' for task {}, using {}", policy, taskDefinition.getName(),
+				    missedRunPolicy);
+			}
+		}
+		return missedRunPolicy;
+	}
+	
+	private synchronized ScheduledThreadPoolExecutor getExecutor() {
+		if (executor == null || executor.isShutdown()) {
+			executor = new ScheduledThreadPoolExecutor(poolSize, new SchedulerThreadFactory());
+			executor.setRemoveOnCancelPolicy(true);
+			executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+		}
+		return executor;
+	}
+	
+	private synchronized void shutdownExecutor() {
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				log.warn("Scheduled tasks did not complete within {} seconds, interrupting them", SHUTDOWN_TIMEOUT);
+				executor.shutdownNow();
+			}
+		}
+		catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		executor = null;
+	}
+	
+	/**
+	 * Creates named daemon threads so that the pool does not keep the application alive
+	 */
+	private static class SchedulerThreadFactory implements ThreadFactory {
+		
+		private static final AtomicInteger threadNumber = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "OpenMRS Scheduler-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
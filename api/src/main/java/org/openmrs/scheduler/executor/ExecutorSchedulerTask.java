@@ -0,0 +1,205 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openmrs.api.context.Daemon;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskRunStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link Task} on the shared thread pool of the {@link ExecutorSchedulerServiceImpl}. Each
+ * time it is triggered it works out which scheduled run the trigger belongs to, so that runs that
+ * were missed can be handled as set by the {@link MissedRunPolicy}, and it never starts a run while
+ * another run of the same task definition is in progress.
+ *
+ * @since 2.7.0
+ */
+public class ExecutorSchedulerTask implements Runnable {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerTask.class);
+	
+	private final Task task;
+	
+	private final TaskRunStatistics statistics;
+	
+	private final MissedRunPolicy missedRunPolicy;
+	
+	/**
+	 * The repeat interval in milliseconds, 0 for one-shot tasks
+	 */
+	private final long repeatInterval;
+	
+	/**
+	 * The time in milliseconds the next trigger was scheduled for, the executor triggers a periodic
+	 * task once per interval, in order, and never concurrently
+	 */
+	private volatile long nextScheduledTime;
+	
+	private volatile ScheduledFuture<?> future;
+	
+	private volatile boolean cancelled;
+	
+	/**
+	 * @param task the task to run
+	 * @param statistics the metrics of the task definition, shared with earlier schedules of it
+	 * @param missedRunPolicy what to do with missed runs
+	 * @param firstExecutionTime the time in milliseconds of the first run
+	 * @param repeatInterval the repeat interval in milliseconds, 0 to run the task once
+	 */
+	public ExecutorSchedulerTask(Task task, TaskRunStatistics statistics, MissedRunPolicy missedRunPolicy,
+	    long firstExecutionTime, long repeatInterval) {
+		this.task = task;
+		this.statistics = statistics;
+		this.missedRunPolicy = missedRunPolicy;
+		this.nextScheduledTime = firstExecutionTime;
+		this.repeatInterval = repeatInterval;
+	}
+	
+	/**
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		run(System.currentTimeMillis());
+	}
+	
+	void run(long now) {
+		long scheduledTime = nextScheduledTime;
+		nextScheduledTime = scheduledTime + repeatInterval;
+		if (cancelled) {
+			return;
+		}
+		
+		if (isMissed(scheduledTime, now)) {
+			log.debug("Skipping the run of task {} that was due at {}", task.getClass(), new Date(scheduledTime));
+			statistics.runSkipped();
+			return;
+		}
+		
+		if (!statistics.runStarted(now)) {
+			log.warn("Skipping the run of task {} because its previous run is still in progress", task.getClass());
+			statistics.runSkipped();
+			return;
+		}
+		
+		long start = System.nanoTime();
+		Exception failure = null;
+		try {
+			execute();
+		}
+		catch (Exception e) {
+			// Never let the exception escape, the executor would not run the task again
+			failure = e;
+			log.error("Task [" + task.getClass() + "] failed due to exception [" + e.getClass().getName() + "]", e);
+			reportFailure(e);
+		}
+		finally {
+			long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			statistics.runFinished(System.currentTimeMillis(), duration, failure);
+		}
+	}
+	
+	/**
+	 * Runs the task as the daemon user, in a session of its own
+	 */
+	void execute() throws Exception {
+		Daemon.executeScheduledTask(task);
+	}
+	
+	/**
+	 * Notifies the administrator of a failed run
+	 */
+	void reportFailure(Exception e) {
+		SchedulerUtil.sendSchedulerError(e);
+	}
+	
+	/**
+	 * Checks whether the run that was scheduled for the given time was missed and should not be
+	 * executed according to the missed run policy
+	 *
+	 * @param scheduledTime the time in milliseconds the run was scheduled for
+	 * @param now the current time in milliseconds
+	 * @return true if the run should be skipped
+	 */
+	boolean isMissed(long scheduledTime, long now) {
+		if (repeatInterval <= 0) {
+			return false;
+		}
+		switch (missedRunPolicy) {
+			case RUN_ALL:
+				return false;
+			case SKIP:
+				// the previous run overran into this one or the run is so late that it is the next one's turn
+				return statistics.getLastEndTime() > scheduledTime || now - scheduledTime >= repeatInterval;
+			default:
+				// only the latest of the runs that are due is executed
+				return now - scheduledTime >= repeatInterval;
+		}
+	}
+	
+	/**
+	 * Cancels all future runs and calls the task's shutdown callback, a run in progress is allowed to
+	 * complete
+	 */
+	public void cancel() {
+		cancelled = true;
+		if (future != null) {
+			future.cancel(false);
+		}
+		task.shutdown();
+	}
+	
+	/**
+	 * @return true if {@link #cancel()} was called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * @return true if the task is repeating or its single run has not completed yet
+	 */
+	public boolean isScheduled() {
+		return !cancelled && future != null && !future.isDone();
+	}
+	
+	/**
+	 * @return the time of the next run or null if no run is scheduled
+	 */
+	public Date getNextExecutionTime() {
+		if (!isScheduled()) {
+			return null;
+		}
+		return new Date(System.currentTimeMillis() + Math.max(0, future.getDelay(TimeUnit.MILLISECONDS)));
+	}
+	
+	public Task getTask() {
+		return task;
+	}
+	
+	public TaskRunStatistics getStatistics() {
+		return statistics;
+	}
+	
+	public MissedRunPolicy getMissedRunPolicy() {
+		return missedRunPolicy;
+	}
+	
+	void setFuture(ScheduledFuture<?> future) {
+		this.future = future;
+	}
+}
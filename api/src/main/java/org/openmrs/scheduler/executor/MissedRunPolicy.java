@@ -0,0 +1,38 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+/**
+ * What the {@link ExecutorSchedulerServiceImpl} does with the runs of a repeating task that were due
+ * while a previous run was still in progress or the server was too busy to start them on time. It
+ * can be set per task with the
+ * {@link org.openmrs.scheduler.SchedulerConstants#MISSED_RUN_POLICY_TASK_PROPERTY} task property.
+ *
+ * @since 2.7.0
+ */
+public enum MissedRunPolicy {
+	
+	/**
+	 * Every missed run is made up for, one after the other, this is how the timer based scheduler
+	 * behaves
+	 */
+	RUN_ALL,
+	
+	/**
+	 * All missed runs are collapsed into a single run which starts as soon as possible
+	 */
+	RUN_ONCE,
+	
+	/**
+	 * Missed runs are dropped, a run that fell due while the previous run was still in progress is
+	 * not made up for and the task runs again at its next regularly scheduled time
+	 */
+	SKIP
+}
@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that moves the files of existing complex obs into the
+ * {@link org.openmrs.obs.ContentAddressedComplexObsStorage} once it is made the complex obs storage
+ * in use, see {@link org.openmrs.api.ObsService#migrateComplexObsStorage(Integer, int)}. The obs
+ * are moved in batches of the size given by the "batchSize" property of the task, each in its own
+ * transaction, until there are none left or the task is shut down. Running it again is safe, obs
+ * that were moved already are not looked at.
+ *
+ * @since 2.7.0
+ */
+public class MigrateComplexObsStorageTask extends AbstractTask {
+	
+	private static final Logger log = LoggerFactory.getLogger(MigrateComplexObsStorageTask.class);
+	
+	public static final String BATCH_SIZE_PROPERTY = "batchSize";
+	
+	private static final int DEFAULT_BATCH_SIZE = 500;
+	
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Starting Migrate Complex Obs Storage Task...");
+			
+			startExecuting();
+			try {
+				int batchSize = getBatchSize();
+				int batches = 0;
+				Integer lastObsId = null;
+				do {
+					lastObsId = Context.getObsService().migrateComplexObsStorage(lastObsId, batchSize);
+					// the obs of a batch are not needed any more
+					Context.clearSession();
+					batches++;
+				} while (lastObsId != null && taskDefinition != null);
+				log.info("Looked at {} batches of complex obs to move into the content addressed storage", batches);
+			}
+			catch (Exception e) {
+				log.error("Error while moving complex obs files:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+	
+	private int getBatchSize() {
+		String batchSize = taskDefinition == null ? null : taskDefinition.getProperty(BATCH_SIZE_PROPERTY);
+		return Math.max(1, NumberUtils.toInt(batchSize, DEFAULT_BATCH_SIZE));
+	}
+}
@@ -14,35 +14,28 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.Timer;
-import java.util.TreeMap;
 import java.util.WeakHashMap;
 
 import org.openmrs.api.APIException;
-import org.openmrs.api.impl.BaseOpenmrsService;
+import org.openmrs.scheduler.AbstractSchedulerService;
 import org.openmrs.scheduler.SchedulerConstants;
 import org.openmrs.scheduler.SchedulerException;
-import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.SchedulerUtil;
 import org.openmrs.scheduler.Task;
 import org.openmrs.scheduler.TaskDefinition;
 import org.openmrs.scheduler.TaskFactory;
-import org.openmrs.scheduler.db.SchedulerDAO;
-import org.openmrs.util.OpenmrsMemento;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Simple scheduler service that uses JDK timer to trigger and execute scheduled tasks.
  */
 @Transactional
-public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements SchedulerService {
+public class TimerSchedulerServiceImpl extends AbstractSchedulerService {
 	
 	/**
 	 * Logger
@@ -69,53 +62,6 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 	 */
 	private Map<TaskDefinition, Timer> taskDefinitionTimerMap = new HashMap<>();
 	
-	/**
-	 * Global data access object context
-	 */
-	private SchedulerDAO schedulerDAO;
-	
-	/**
-	 * Gets the scheduler data access object.
-	 */
-	public SchedulerDAO getSchedulerDAO() {
-		return this.schedulerDAO;
-	}
-	
-	/**
-	 * Sets the scheduler data access object.
-	 */
-	public void setSchedulerDAO(SchedulerDAO dao) {
-		this.schedulerDAO = dao;
-	}
-	
-	/**
-	 * Start up hook for the scheduler and all of its scheduled tasks.
-	 */
-	@Override
-	public void onStartup() {
-		log.debug("Starting scheduler service ...");
-		
-		// Get all of the tasks in the database
-		Collection<TaskDefinition> taskDefinitions = getSchedulerDAO().getTasks();
-		
-		// Iterate through the tasks and start them if their startOnStartup flag is true
-		if (taskDefinitions != null) {
-			for (TaskDefinition taskDefinition : taskDefinitions) {
-				try {
-					// If the task is configured to start on startup, we schedule it to run
-					// Otherwise it needs to be started manually.
-					if (taskDefinition.getStartOnStartup()) {
-						scheduleTask(taskDefinition);
-					}
-					
-				}
-				catch (Exception e) {
-					log.error("Failed to schedule task for class " + taskDefinition.getTaskClass(), e);
-				}
-			}
-		}
-	}
-	
 	public static void setScheduledTasks(Map<Integer, TimerSchedulerTask> scheduledTasks) {
 		if (scheduledTasks != null) {
 			TimerSchedulerServiceImpl.scheduledTasks = scheduledTasks;
@@ -153,27 +99,6 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 		}
 	}
 	
-	/**
-	 * Shutdown all running tasks.
-	 */
-	public void shutdownAllTasks() {
-		
-		// iterate over this (copied) list of tasks and stop them all
-		for (TaskDefinition task : getScheduledTasks()) {
-			try {
-				
-				shutdownTask(task);
-				
-			}
-			catch (SchedulerException e) {
-				log.error("Failed to stop task " + task.getTaskClass() + " due to Scheduler exception", e);
-			}
-			catch (APIException e) {
-				log.error("Failed to stop task " + task.getTaskClass() + " due to API exception", e);
-			}
-		}
-	}
-	
 	/**
 	 * Get the {@link Timer} that is assigned to the given {@link TaskDefinition} object. If a Timer
 	 * doesn't exist yet, one is created, added to {@link #taskDefinitionTimerMap} and then returned
@@ -301,31 +226,6 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 		}
 	}
 	
-	/**
-	 * Loop over all currently started tasks and cycle them. This should be done after the
-	 * classloader has been changed (e.g. during module start/stop)
-	 */
-	@Override
-	public void rescheduleAllTasks() throws SchedulerException {
-		for (TaskDefinition task : getScheduledTasks()) {
-			try {
-				rescheduleTask(task);
-			}
-			catch (SchedulerException e) {
-				log.error("Failed to restart task: " + task.getName(), e);
-			}
-		}
-	}
-	
-	/**
-	 * @see org.openmrs.scheduler.SchedulerService#rescheduleTask(org.openmrs.scheduler.TaskDefinition)
-	 */
-	@Override
-	public Task rescheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
-		shutdownTask(taskDefinition);
-		return scheduleTask(taskDefinition);
-	}
-	
 	/**
 	 * Register a new task by adding it to our task map with an empty schedule map.
 	 *
@@ -335,170 +235,6 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 		registeredTasks.add(definition);
 	}
 	
-	/**
-	 * Get all scheduled tasks.
-	 *
-	 * @return all scheduled tasks
-	 */
-	@Override
-	public Collection<TaskDefinition> getScheduledTasks() {
-		// The real list of scheduled tasks is kept up-to-date in the scheduledTasks map
-		// TODO change the index for the scheduledTasks map to be the TaskDefinition rather than the ID
-		List<TaskDefinition> list = new ArrayList<>();
-		if (scheduledTasks != null) {
-			Set<Integer> taskIds = scheduledTasks.keySet();
-			for (Integer id : taskIds) {
-				TaskDefinition task = getTask(id);
-				log.debug("Adding scheduled task " + id + " to list (" + task.getRepeatInterval() + ")");
-				list.add(task);
-			}
-		}
-		return list;
-		
-	}
-	
-	/**
-	 * Get all registered tasks.
-	 *
-	 * @return all registerd tasks
-	 */
-	@Override
-	@Transactional(readOnly = true)
-	public Collection<TaskDefinition> getRegisteredTasks() {
-		return getSchedulerDAO().getTasks();
-	}
-	
-	/**
-	 * Get the task with the given identifier.
-	 *
-	 * @param id the identifier of the task
-	 */
-	@Override
-	@Transactional(readOnly = true)
-	public TaskDefinition getTask(Integer id) {
-		log.debug("get task {}", id);
-		return getSchedulerDAO().getTask(id);
-	}
-	
-	/**
-	 * Get the task with the given name.
-	 *
-	 * @param name name of the task
-	 */
-	@Override
-	@Transactional(readOnly = true)
-	public TaskDefinition getTaskByName(String name) {
-		log.debug("get task {}", name);
-		TaskDefinition foundTask = null;
-		try {
-			foundTask = getSchedulerDAO().getTaskByName(name);
-		}
-		catch (ObjectRetrievalFailureException orfe) {
-			log.warn("getTaskByName(" + name + ") failed, because: " + orfe);
-		}
-		return foundTask;
-	}
-	
-	/**
-	 * Save a task in the database.
-	 *
-	 * @param task the <code>TaskDefinition</code> to save
-	 */
-	@Override
-	public void saveTaskDefinition(TaskDefinition task) {
-		if (task.getId() != null) {
-			getSchedulerDAO().updateTask(task);
-		} else {
-			getSchedulerDAO().createTask(task);
-		}
-	}
-	
-	/**
-	 * Delete the task with the given identifier.
-	 *
-	 * @param id the identifier of the task
-	 */
-	@Override
-	public void deleteTask(Integer id) {
-		
-		TaskDefinition task = getTask(id);
-		if (task.getStarted()) {
-			throw new APIException("Scheduler.timer.task.delete", (Object[]) null);
-		}
-		
-		// delete the task
-		getSchedulerDAO().deleteTask(id);
-	}
-	
-	/**
-	 * Get system variables.
-	 */
-	@Override
-	public SortedMap<String, String> getSystemVariables() {
-		SortedMap<String, String> systemVariables = new TreeMap<>();
-		// scheduler username and password can be found in the global properties
-		// TODO Look into java.util.concurrent.TimeUnit class.  
-		// TODO Remove this from global properties.  This is a constant value that should never change.  
-		systemVariables.put("SCHEDULER_MILLIS_PER_SECOND", String.valueOf(SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND));
-		return systemVariables;
-	}
-	
-	/**
-	 * Saves and stops all active tasks
-	 *
-	 * @return OpenmrsMemento
-	 */
-	@Override
-	public OpenmrsMemento saveToMemento() {
-		
-		Set<Integer> tasks = new HashSet<>();
-		
-		for (TaskDefinition task : getScheduledTasks()) {
-			tasks.add(task.getId());
-			try {
-				shutdownTask(task);
-			}
-			catch (SchedulerException e) {
-				// just swallow exceptions
-				log.debug("Failed to stop task while saving memento " + task.getName(), e);
-			}
-		}
-		
-		TimerSchedulerMemento memento = new TimerSchedulerMemento(tasks);
-		memento.saveErrorTasks();
-		
-		return memento;
-	}
-	
-	/**
-	 *
-	 */
-	@Override
-	@SuppressWarnings("unchecked")
-	public void restoreFromMemento(OpenmrsMemento memento) {
-		
-		if (memento != null && memento instanceof TimerSchedulerMemento) {
-			TimerSchedulerMemento timerMemento = (TimerSchedulerMemento) memento;
-			
-			Set<Integer> taskIds = (HashSet<Integer>) timerMemento.getState();
-			
-			// try to start all of the tasks that were stopped right before this restore
-			for (Integer taskId : taskIds) {
-				TaskDefinition task = getTask(taskId);
-				try {
-					scheduleTask(task);
-				}
-				catch (Exception e) {
-					// essentially swallow exceptions
-					log.debug("EXPECTED ERROR IF STOPPING THIS TASK'S MODULE: Unable to start task " + taskId, e);
-					
-					// save this errored task and try again next time we restore
-					timerMemento.addErrorTask(taskId);
-				}
-			}
-		}
-	}
-	
 	/**
 	 * @see org.openmrs.scheduler.SchedulerService#getStatus(java.lang.Integer) TODO
 	 *      internationalization of string status messages
@@ -519,34 +255,13 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 		return "Not Running";
 	}
 	
-	@Override
-	public void scheduleIfNotRunning(TaskDefinition taskDef) {
-		Task task = taskDef.getTaskInstance();
-		if (task == null) {
-			try {
-				scheduleTask(taskDef);
-			}
-			catch (SchedulerException e) {
-				log.error("Failed to schedule task, because:", e);
-			}
-		} else if (!task.isExecuting()) {
-			try {
-				rescheduleTask(taskDef);
-			}
-			catch (SchedulerException e) {
-				log.error("Failed to re-schedule task, because:", e);
-			}
-		}
-	}
-
 	/**
-	 * @see org.openmrs.scheduler.SchedulerService#getTaskByUuid(java.lang.String)
-	 *
+	 * @see org.openmrs.scheduler.AbstractSchedulerService#getScheduledTaskIds()
 	 */
 	@Override
-	@Transactional(readOnly = true)
-	public TaskDefinition getTaskByUuid(String uuid) {
-		return getSchedulerDAO().getTaskByUuid(uuid);
+	protected Collection<Integer> getScheduledTaskIds() {
+		// TODO change the index for the scheduledTasks map to be the TaskDefinition rather than the ID
+		return new ArrayList<>(scheduledTasks.keySet());
 	}
 	
 }
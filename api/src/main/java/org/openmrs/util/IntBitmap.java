@@ -0,0 +1,642 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of int values, typically patient ids, laid out like a Roaring bitmap: values are
+ * grouped by their upper 16 bits and the lower 16 bits of each group are stored either as a sorted
+ * array, while the group is sparse, or as a 65536 bit bitmap once it is dense. Set algebra is done
+ * group by group on these containers, which is much cheaper in time and memory than on sets of
+ * boxed Integers. <br>
+ * <br>
+ * Values are iterated in ascending unsigned order, i.e. ascending for non negative values. This
+ * class is not thread safe, {@link #or(IntBitmap, IntBitmap)}, {@link #and(IntBitmap, IntBitmap)}
+ * and {@link #andNot(IntBitmap, IntBitmap)} never modify their arguments.
+ *
+ * @since 2.7.0
+ */
+public final class IntBitmap implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The maximum number of values in an array container, beyond this a bitmap container is smaller
+	 */
+	static final int MAX_ARRAY_SIZE = 4096;
+	
+	private static final int BITMAP_WORDS = 1024;
+	
+	private char[] keys;
+	
+	private Container[] containers;
+	
+	private int containerCount;
+	
+	public IntBitmap() {
+		this(4);
+	}
+	
+	private IntBitmap(int initialCapacity) {
+		keys = new char[initialCapacity];
+		containers = new Container[initialCapacity];
+	}
+	
+	/**
+	 * @param values the values to add
+	 * @return a new bitmap containing the given values
+	 */
+	public static IntBitmap of(int... values) {
+		IntBitmap bitmap = new IntBitmap();
+		for (int value : values) {
+			bitmap.add(value);
+		}
+		return bitmap;
+	}
+	
+	/**
+	 * @param values the values to add, null elements are ignored
+	 * @return a new bitmap containing the given values
+	 */
+	public static IntBitmap of(Collection<Integer> values) {
+		IntBitmap bitmap = new IntBitmap();
+		for (Integer value : values) {
+			if (value != null) {
+				bitmap.add(value);
+			}
+		}
+		return bitmap;
+	}
+	
+	/**
+	 * Adds a value to this bitmap
+	 *
+	 * @param value the value to add
+	 * @return true if the value was not in this bitmap yet
+	 */
+	public boolean add(int value) {
+		char key = highBits(value);
+		int index = indexOfKey(key);
+		if (index >= 0) {
+			Container container = containers[index];
+			int cardinalityBefore = container.getCardinality();
+			containers[index] = container.add(lowBits(value));
+			return containers[index].getCardinality() > cardinalityBefore;
+		}
+		
+		ArrayContainer container = new ArrayContainer(new char[4], 0);
+		container.add(lowBits(value));
+		insertContainer(-index - 1, key, container);
+		return true;
+	}
+	
+	/**
+	 * @param value the value to look for
+	 * @return true if the value is in this bitmap
+	 */
+	public boolean contains(int value) {
+		int index = indexOfKey(highBits(value));
+		return index >= 0 && containers[index].contains(lowBits(value));
+	}
+	
+	/**
+	 * @return the number of values in this bitmap
+	 */
+	public int getCardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < containerCount; i++) {
+			cardinality += containers[i].getCardinality();
+		}
+		return cardinality;
+	}
+	
+	/**
+	 * @return true if this bitmap contains no values
+	 */
+	public boolean isEmpty() {
+		return containerCount == 0;
+	}
+	
+	/**
+	 * Passes all values of this bitmap to the given consumer in ascending unsigned order
+	 *
+	 * @param consumer the consumer to pass the values to
+	 */
+	public void forEach(IntConsumer consumer) {
+		for (int i = 0; i < containerCount; i++) {
+			containers[i].forEach(keys[i] << 16, consumer);
+		}
+	}
+	
+	/**
+	 * @return the values of this bitmap in ascending unsigned order
+	 */
+	public int[] toArray() {
+		int[] values = new int[getCardinality()];
+		int[] position = { 0 };
+		forEach(value -> values[position[0]++] = value);
+		return values;
+	}
+	
+	/**
+	 * @return the values of this bitmap as a sorted set
+	 */
+	public Set<Integer> toSet() {
+		Set<Integer> values = new TreeSet<>();
+		forEach(values::add);
+		return values;
+	}
+	
+	/**
+	 * @return a copy of this bitmap that can be modified independently
+	 */
+	public IntBitmap copy() {
+		IntBitmap copy = new IntBitmap(Math.max(containerCount, 1));
+		for (int i = 0; i < containerCount; i++) {
+			copy.appendContainer(keys[i], containers[i].copy());
+		}
+		return copy;
+	}
+	
+	/**
+	 * @param a the first bitmap
+	 * @param b the second bitmap
+	 * @return a new bitmap containing the values that are in either bitmap
+	 */
+	public static IntBitmap or(IntBitmap a, IntBitmap b) {
+		IntBitmap result = new IntBitmap(Math.max(a.containerCount + b.containerCount, 1));
+		int i = 0;
+		int j = 0;
+		while (i < a.containerCount && j < b.containerCount) {
+			if (a.keys[i] < b.keys[j]) {
+				result.appendContainer(a.keys[i], a.containers[i++].copy());
+			} else if (a.keys[i] > b.keys[j]) {
+				result.appendContainer(b.keys[j], b.containers[j++].copy());
+			} else {
+				result.appendContainer(a.keys[i], a.containers[i++].or(b.containers[j++]));
+			}
+		}
+		while (i < a.containerCount) {
+			result.appendContainer(a.keys[i], a.containers[i++].copy());
+		}
+		while (j < b.containerCount) {
+			result.appendContainer(b.keys[j], b.containers[j++].copy());
+		}
+		return result;
+	}
+	
+	/**
+	 * @param a the first bitmap
+	 * @param b the second bitmap
+	 * @return a new bitmap containing the values that are in both bitmaps
+	 */
+	public static IntBitmap and(IntBitmap a, IntBitmap b) {
+		IntBitmap result = new IntBitmap(Math.max(Math.min(a.containerCount, b.containerCount), 1));
+		int i = 0;
+		int j = 0;
+		while (i < a.containerCount && j < b.containerCount) {
+			if (a.keys[i] < b.keys[j]) {
+				i++;
+			} else if (a.keys[i] > b.keys[j]) {
+				j++;
+			} else {
+				Container container = a.containers[i].and(b.containers[j]);
+				if (container.getCardinality() > 0) {
+					result.appendContainer(a.keys[i], container);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @param a the bitmap to subtract from
+	 * @param b the bitmap to subtract
+	 * @return a new bitmap containing the values of the first bitmap that are not in the second one
+	 */
+	public static IntBitmap andNot(IntBitmap a, IntBitmap b) {
+		IntBitmap result = new IntBitmap(Math.max(a.containerCount, 1));
+		int j = 0;
+		for (int i = 0; i < a.containerCount; i++) {
+			while (j < b.containerCount && b.keys[j] < a.keys[i]) {
+				j++;
+			}
+			if (j < b.containerCount && b.keys[j] == a.keys[i]) {
+				Container container = a.containers[i].andNot(b.containers[j]);
+				if (container.getCardinality() > 0) {
+					result.appendContainer(a.keys[i], container);
+				}
+			} else {
+				result.appendContainer(a.keys[i], a.containers[i].copy());
+			}
+		}
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IntBitmap)) {
+			return false;
+		}
+		IntBitmap other = (IntBitmap) obj;
+		if (containerCount != other.containerCount) {
+			return false;
+		}
+		for (int i = 0; i < containerCount; i++) {
+			if (keys[i] != other.keys[i] || !containers[i].equals(other.containers[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public int hashCode() {
+		int[] hash = { 1 };
+		forEach(value -> hash[0] = 31 * hash[0] + value);
+		return hash[0];
+	}
+	
+	@Override
+	public String toString() {
+		return "IntBitmap[cardinality=" + getCardinality() + "]";
+	}
+	
+	private int indexOfKey(char key) {
+		// the last container is checked first since values are usually added in ascending order
+		int last = containerCount - 1;
+		if (last >= 0 && keys[last] == key) {
+			return last;
+		}
+		return binarySearch(keys, 0, containerCount, key);
+	}
+	
+	private void insertContainer(int index, char key, Container container) {
+		ensureCapacity(containerCount + 1);
+		System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+		System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+		keys[index] = key;
+		containers[index] = container;
+		containerCount++;
+	}
+	
+	private void appendContainer(char key, Container container) {
+		ensureCapacity(containerCount + 1);
+		keys[containerCount] = key;
+		containers[containerCount] = container;
+		containerCount++;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > keys.length) {
+			int newCapacity = Math.max(capacity, keys.length * 2);
+			keys = Arrays.copyOf(keys, newCapacity);
+			containers = Arrays.copyOf(containers, newCapacity);
+		}
+	}
+	
+	private static char highBits(int value) {
+		return (char) (value >>> 16);
+	}
+	
+	private static char lowBits(int value) {
+		return (char) value;
+	}
+	
+	private static int binarySearch(char[] array, int fromIndex, int toIndex, char key) {
+		int low = fromIndex;
+		int high = toIndex - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char value = array[middle];
+			if (value < key) {
+				low = middle + 1;
+			} else if (value > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+	
+	/**
+	 * Creates the most compact container for the given bitmap words
+	 */
+	private static Container fromWords(long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		if (cardinality > MAX_ARRAY_SIZE) {
+			return new BitmapContainer(words, cardinality);
+		}
+		char[] values = new char[cardinality];
+		int position = 0;
+		for (int i = 0; i < words.length; i++) {
+			long word = words[i];
+			while (word != 0) {
+				values[position++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return new ArrayContainer(values, cardinality);
+	}
+	
+	/**
+	 * Holds the lower 16 bits of the values that share the same upper 16 bits, a container holds at
+	 * most {@link #MAX_ARRAY_SIZE} values if and only if it is an {@link ArrayContainer}
+	 */
+	private abstract static class Container implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		abstract int getCardinality();
+		
+		abstract boolean contains(char value);
+		
+		/**
+		 * @return this container or a new one if it had to change its representation
+		 */
+		abstract Container add(char value);
+		
+		abstract Container or(Container other);
+		
+		abstract Container and(Container other);
+		
+		abstract Container andNot(Container other);
+		
+		abstract void forEach(int high, IntConsumer consumer);
+		
+		abstract long[] toWords();
+		
+		abstract Container copy();
+	}
+	
+	private static final class ArrayContainer extends Container {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private char[] values;
+		
+		private int cardinality;
+		
+		ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+		
+		@Override
+		int getCardinality() {
+			return cardinality;
+		}
+		
+		@Override
+		boolean contains(char value) {
+			return binarySearch(values, 0, cardinality, value) >= 0;
+		}
+		
+		@Override
+		Container add(char value) {
+			int index = cardinality > 0 && values[cardinality - 1] < value ? -(cardinality + 1)
+			        : binarySearch(values, 0, cardinality, value);
+			if (index >= 0) {
+				return this;
+			}
+			if (cardinality == MAX_ARRAY_SIZE) {
+				return new BitmapContainer(toWords(), cardinality).add(value);
+			}
+			index = -index - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), MAX_ARRAY_SIZE));
+			}
+			System.arraycopy(values, index, values, index + 1, cardinality - index);
+			values[index] = value;
+			cardinality++;
+			return this;
+		}
+		
+		@Override
+		Container or(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.or(this);
+			}
+			ArrayContainer array = (ArrayContainer) other;
+			if (cardinality + array.cardinality > MAX_ARRAY_SIZE) {
+				long[] words = toWords();
+				for (int i = 0; i < array.cardinality; i++) {
+					words[array.values[i] >>> 6] |= 1L << array.values[i];
+				}
+				return fromWords(words);
+			}
+			char[] merged = new char[cardinality + array.cardinality];
+			int i = 0;
+			int j = 0;
+			int k = 0;
+			while (i < cardinality && j < array.cardinality) {
+				if (values[i] < array.values[j]) {
+					merged[k++] = values[i++];
+				} else if (values[i] > array.values[j]) {
+					merged[k++] = array.values[j++];
+				} else {
+					merged[k++] = values[i++];
+					j++;
+				}
+			}
+			while (i < cardinality) {
+				merged[k++] = values[i++];
+			}
+			while (j < array.cardinality) {
+				merged[k++] = array.values[j++];
+			}
+			return new ArrayContainer(merged, k);
+		}
+		
+		@Override
+		Container and(Container other) {
+			char[] result = new char[cardinality];
+			int k = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (other.contains(values[i])) {
+					result[k++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, k);
+		}
+		
+		@Override
+		Container andNot(Container other) {
+			char[] result = new char[cardinality];
+			int k = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (!other.contains(values[i])) {
+					result[k++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, k);
+		}
+		
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < cardinality; i++) {
+				consumer.accept(high | values[i]);
+			}
+		}
+		
+		@Override
+		long[] toWords() {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return words;
+		}
+		
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ArrayContainer)) {
+				return false;
+			}
+			ArrayContainer other = (ArrayContainer) obj;
+			if (cardinality != other.cardinality) {
+				return false;
+			}
+			for (int i = 0; i < cardinality; i++) {
+				if (values[i] != other.values[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = 1;
+			for (int i = 0; i < cardinality; i++) {
+				hash = 31 * hash + values[i];
+			}
+			return hash;
+		}
+	}
+	
+	private static final class BitmapContainer extends Container {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] words;
+		
+		private int cardinality;
+		
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+		
+		@Override
+		int getCardinality() {
+			return cardinality;
+		}
+		
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+		
+		@Override
+		Container add(char value) {
+			long before = words[value >>> 6];
+			long after = before | (1L << value);
+			if (before != after) {
+				words[value >>> 6] = after;
+				cardinality++;
+			}
+			return this;
+		}
+		
+		@Override
+		Container or(Container other) {
+			long[] result = other.toWords();
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] |= words[i];
+			}
+			return fromWords(result);
+		}
+		
+		@Override
+		Container and(Container other) {
+			if (other instanceof ArrayContainer) {
+				return other.and(this);
+			}
+			long[] otherWords = ((BitmapContainer) other).words;
+			long[] result = new long[BITMAP_WORDS];
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] = words[i] & otherWords[i];
+			}
+			return fromWords(result);
+		}
+		
+		@Override
+		Container andNot(Container other) {
+			long[] otherWords = other.toWords();
+			long[] result = new long[BITMAP_WORDS];
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] = words[i] & ~otherWords[i];
+			}
+			return fromWords(result);
+		}
+		
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					consumer.accept(high | (i * 64 + Long.numberOfTrailingZeros(word)));
+					word &= word - 1;
+				}
+			}
+		}
+		
+		@Override
+		long[] toWords() {
+			return words.clone();
+		}
+		
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof BitmapContainer && Arrays.equals(words, ((BitmapContainer) obj).words);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(words);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The names of the classes a class loader could not find, so that looking them up again fails
+ * without searching the modules. The cache is cleared whenever a module is started or stopped. A
+ * lookup takes the generation of the cache before it starts searching, and a name is only
+ * remembered if the cache was not cleared since then, because a module started in the meantime may
+ * provide the class.
+ *
+ * @since 2.7.0
+ */
+public class MissingClassCache {
+	
+	/**
+	 * The number of class names remembered before the cache is cleared
+	 */
+	public static final int MAX_MISSING_CLASSES = 10000;
+	
+	private final Set<String> names = ConcurrentHashMap.newKeySet();
+	
+	private final AtomicLong generation = new AtomicLong();
+	
+	/**
+	 * @return the generation to pass to {@link #add(String, long)} once the lookup failed
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+	
+	/**
+	 * @param name the name of a class
+	 * @return true if the class could not be found since the cache was last cleared
+	 */
+	public boolean contains(String name) {
+		return names.contains(name);
+	}
+	
+	/**
+	 * Remembers a class that could not be found, unless the cache was cleared since the lookup
+	 * started
+	 *
+	 * @param name the name of the class
+	 * @param lookupGeneration the generation taken before the lookup started
+	 */
+	public void add(String name, long lookupGeneration) {
+		if (generation.get() != lookupGeneration) {
+			return;
+		}
+		if (names.size() >= MAX_MISSING_CLASSES) {
+			names.clear();
+		}
+		names.add(name);
+		// the cache may have been cleared while the name was added
+		if (generation.get() != lookupGeneration) {
+			names.remove(name);
+		}
+	}
+	
+	/**
+	 * Forgets all classes and makes the lookups still running skip remembering theirs
+	 */
+	public void clear() {
+		generation.incrementAndGet();
+		names.clear();
+	}
+}
@@ -67,9 +67,19 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 */
 	private Map<String, WeakReference<Class<?>>> cachedClasses = new ConcurrentHashMap<>();
 	
+	/**
+	 * Holds the names of the classes that could neither be found in the modules nor in the web
+	 * container, reset whenever a module is started or stopped
+	 */
+	private final MissingClassCache missingClasses = new MissingClassCache();
+	
 	// suffix of the OpenMRS required library cache folder
 	private static final String LIBCACHESUFFIX = ".openmrs-lib-cache";
 	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	/**
 	 * Creates the instance for the OpenmrsClassLoader
 	 */
@@ -139,10 +149,15 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 * <strong>Should</strong> load class if two module class loaders have same packages
 	 */
 	@Override
-	public synchronized Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
+	public Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
 		// Check if the class has already been requested from this class loader
 		Class<?> c = getCachedClass(name);
 		if (c == null) {
+			if (missingClasses.contains(name)) {
+				throw new ClassNotFoundException(name);
+			}
+			long lookupGeneration = missingClasses.getGeneration();
+			
 			// We do not try to load classes using this.findClass on purpose.
 			// All classes are loaded by web container or by module class loaders.
 			
@@ -164,7 +179,13 @@ public class OpenmrsClassLoader extends URLClassLoader {
 			
 			if (c == null) {
 				// Finally try loading from web container
-				c = getParent().loadClass(name);
+				try {
+					c = getParent().loadClass(name);
+				}
+				catch (ClassNotFoundException e) {
+					missingClasses.add(name, lookupGeneration);
+					throw e;
+				}
 			}
 			
 			cacheClass(name, c);
@@ -203,6 +224,16 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		cachedClasses.put(name, new WeakReference<>(clazz));
 	}
 	
+	/**
+	 * Forgets the classes that could not be found, because a module providing them may have been
+	 * started
+	 *
+	 * @since 2.7.0
+	 */
+	public void clearLookupCaches() {
+		missingClasses.clear();
+	}
+	
 	/**
 	 * @see java.net.URLClassLoader#findResource(java.lang.String)
 	 */
@@ -559,6 +590,7 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		OpenmrsClassLoader.log = null;
 		
 		getInstance().cachedClasses.clear();
+		getInstance().missingClasses.clear();
 	}
 	
 	/**
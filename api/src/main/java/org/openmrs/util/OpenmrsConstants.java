@@ -177,6 +177,58 @@ public final class OpenmrsConstants {
 	 */
 	public static final String AUTO_UPDATE_DATABASE_RUNTIME_PROPERTY = "auto_update_database";
 	
+	/**
+	 * The name of the runtime property that specifies how the search index is updated for objects
+	 * saved by the api, either {@link #SEARCH_INDEX_UPDATE_MODE_SYNC} (the default) or
+	 * {@link #SEARCH_INDEX_UPDATE_MODE_ASYNC}
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY = "search_index_update_mode";
+	
+	/**
+	 * The search index is updated by a background worker after the transaction commits, so a search
+	 * run right after a change may not see it yet
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SEARCH_INDEX_UPDATE_MODE_ASYNC = "async";
+	
+	/**
+	 * The search index is updated before the call that changed an object returns, this guarantees
+	 * that a search run right after sees the change
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SEARCH_INDEX_UPDATE_MODE_SYNC = "sync";
+	
+	/**
+	 * The name of the runtime property that specifies how many objects can wait for the search index
+	 * to be updated in the async mode, once it is reached the objects are indexed by the thread that
+	 * saved them
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SEARCH_INDEX_UPDATE_QUEUE_SIZE_RUNTIME_PROPERTY = "search_index_update_queue_size";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final int SEARCH_INDEX_UPDATE_QUEUE_SIZE_DEFAULT_VALUE = 10000;
+	
+	/**
+	 * The name of the runtime property that specifies the maximum number of objects the background
+	 * worker writes to the search index at once in the async mode
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SEARCH_INDEX_UPDATE_BATCH_SIZE_RUNTIME_PROPERTY = "search_index_update_batch_size";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final int SEARCH_INDEX_UPDATE_BATCH_SIZE_DEFAULT_VALUE = 100;
+	
 	/**
 	 * These words are ignored in concept and patient searches
 	 *
@@ -291,6 +343,14 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_GZIP_ACCEPT_COMPRESSED_REQUESTS_FOR_PATHS = "gzip.acceptCompressedRequestsForPaths";
 	
+	public static final String GLOBAL_PROPERTY_GZIP_STREAMING = "gzip.streaming";
+	
+	public static final String GLOBAL_PROPERTY_GZIP_MINIMUM_SIZE = "gzip.minimumSize";
+	
+	public static final String GLOBAL_PROPERTY_GZIP_EXCLUDED_CONTENT_TYPES = "gzip.excludedContentTypes";
+	
+	public static final String GLOBAL_PROPERTY_GZIP_ENCODINGS = "gzip.encodings";
+	
 	public static final String GLOBAL_PROPERTY_MEDICAL_RECORD_OBSERVATIONS = "concept.medicalRecordObservations";
 	
 	public static final String GLOBAL_PROPERTY_PROBLEM_LIST = "concept.problemList";
@@ -317,6 +377,12 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_COMPLEX_OBS_DIR = "obs.complex_obs_dir";
 	
+	public static final String GP_IMAGE_THUMBNAIL_SIZES = "obs.image_thumbnail_sizes";
+	
+	public static final String GP_IMAGE_DERIVATIVE_CACHE_MAX_BYTES = "obs.image_derivative_cache_max_bytes";
+	
+	public static final String GP_COMPLEX_OBS_STORAGE = "obs.complex_obs_storage";
+	
 	public static final String GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS = "minSearchCharacters";
 	
 	public static final int GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS = 2;
@@ -349,6 +415,42 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS = "hl7_processor.ignore_missing_patient_non_local";
 	
+	/**
+	 * The number of threads processing the HL7 inbound queue, 1 processes one message at a time
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_HL7_PROCESSOR_POOL_SIZE = "hl7_processor.pool_size";
+	
+	/**
+	 * The number of HL7 inbound queue entries fetched at a time when processing the queue with more than
+	 * one thread
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_HL7_PROCESSOR_BATCH_SIZE = "hl7_processor.batch_size";
+	
+	/**
+	 * The number of observations or encounters written by the batch save methods before the session
+	 * is flushed and cleared
+	 * 
+	 * @see org.openmrs.api.ObsService#saveObsBatch(java.util.List, String)
+	 * @see org.openmrs.api.EncounterService#saveEncounters(java.util.List)
+	 * @since 2.7.0
+	 */
+	public static final String GP_BATCH_SAVE_CHUNK_SIZE = "batch_save.chunk_size";
+	
+	public static final int GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE = 50;
+	
+	/**
+	 * The number of threads looking up the names of the new concepts of a concept import for
+	 * duplicates in the database, 0 or less uses a thread per processor
+	 * 
+	 * @see org.openmrs.api.ConceptService#importConcepts(java.util.List)
+	 * @since 2.7.0
+	 */
+	public static final String GP_CONCEPT_IMPORT_VALIDATION_THREADS = "concept_import.validation_threads";
+	
 	public static final String GLOBAL_PROPERTY_TRUE_CONCEPT = "concept.true";
 	
 	public static final String GLOBAL_PROPERTY_FALSE_CONCEPT = "concept.false";
@@ -586,6 +688,13 @@ public final class OpenmrsConstants {
 	
 	public static final String GP_ORDER_NUMBER_GENERATOR_BEAN_ID = "order.orderNumberGeneratorBeanId";
 	
+	/**
+	 * Specifies how many order number seeds the block order number generator reserves at a time
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_ORDER_NUMBER_SEED_BLOCK_SIZE = "order.orderNumberSeedBlockSize";
+	
 	/**
 	 * Specifies the uuid of the concept set where its members represent the possible drug routes
 	 */
@@ -611,7 +720,60 @@ public final class OpenmrsConstants {
 	 *
 	 * @since 1.11
 	 */
-	public static final Integer SEARCH_INDEX_VERSION = 7;
+	public static final Integer SEARCH_INDEX_VERSION = 9;
+	
+	/**
+	 * The types indexed so far by a rebuild of the search index for the {@link #SEARCH_INDEX_VERSION}
+	 * prefixed with the version, so that a rebuild that was interrupted can skip them
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEX_COMPLETED_TYPES = "search.indexCompletedTypes";
+	
+	/**
+	 * The number of threads loading the entities of a type when rebuilding the search index
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS = "search.indexer.threadsToLoadObjects";
+	
+	public static final int GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS_DEFAULT_VALUE = 6;
+	
+	/**
+	 * Overrides {@link #GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS} for single types, e.g.
+	 * "Obs:8,PersonName:4"
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEXER_THREADS_PER_TYPE = "search.indexer.threadsPerType";
+	
+	/**
+	 * The number of entities loaded at a time by each thread when rebuilding the search index
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS = "search.indexer.batchSizeToLoadObjects";
+	
+	public static final int GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS_DEFAULT_VALUE = 10;
+	
+	/**
+	 * The JDBC fetch size used to scroll through the ids of the entities when rebuilding the search
+	 * index
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEXER_ID_FETCH_SIZE = "search.indexer.idFetchSize";
+	
+	public static final int GP_SEARCH_INDEXER_ID_FETCH_SIZE_DEFAULT_VALUE = 100;
+	
+	/**
+	 * The number of types indexed at the same time when rebuilding the search index
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SEARCH_INDEXER_TYPES_IN_PARALLEL = "search.indexer.typesToIndexInParallel";
+	
+	public static final int GP_SEARCH_INDEXER_TYPES_IN_PARALLEL_DEFAULT_VALUE = 1;
 
 	/**
 	 * @since 1.12
@@ -809,6 +971,23 @@ public final class OpenmrsConstants {
 		                "Set to 'true' to turn on OpenMRS's gzip filter, and have the webapp compress data before sending it to any client that supports it. Generally use this if you are running Tomcat standalone. If you are running Tomcat behind Apache, then you'd want to use Apache to do gzip compression.",
 		                BooleanDatatype.class, null));
 		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_GZIP_STREAMING, "true",
+		        "Set to 'true' to have the gzip filter compress responses as they are written, or to 'false' to compress "
+		                + "them once they are complete, which holds the whole response in memory",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_GZIP_MINIMUM_SIZE, "1024",
+		        "Responses of up to this many bytes are sent uncompressed by the streaming gzip filter"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_GZIP_EXCLUDED_CONTENT_TYPES,
+		        "image/*,audio/*,video/*,application/zip,application/gzip,application/x-gzip,font/woff,font/woff2",
+		        "Comma separated content types that the streaming gzip filter leaves uncompressed since they are "
+		                + "compressed already, a type ending with /* matches all its subtypes"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_GZIP_ENCODINGS, "gzip",
+		        "Comma separated content encodings the streaming gzip filter may use, in order of preference, the "
+		                + "supported encodings are gzip and deflate"));
+		
 	
 		props
 		        .add(new GlobalProperty(
@@ -837,6 +1016,19 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_COMPLEX_OBS_DIR, "complex_obs",
 		        "Default directory for storing complex obs."));
 		
+		props.add(new GlobalProperty(GP_IMAGE_THUMBNAIL_SIZES, "200",
+		        "Comma separated sizes in pixels of the longest side of the thumbnails made of image complex obs, the "
+		                + "thumbnail view serves the first size"));
+		
+		props.add(new GlobalProperty(GP_IMAGE_DERIVATIVE_CACHE_MAX_BYTES, "104857600",
+		        "The total size in bytes of the thumbnails of image complex obs kept on disk, the least recently used "
+		                + "ones are deleted beyond it"));
+		
+		props.add(new GlobalProperty(GP_COMPLEX_OBS_STORAGE, "org.openmrs.obs.FlatComplexObsStorage",
+		        "The class of the org.openmrs.obs.ComplexObsStorage that lays out the files of complex obs in the complex "
+		                + "obs directory, org.openmrs.obs.ContentAddressedComplexObsStorage keeps each distinct file once "
+		                + "in subdirectories named after its content hash"));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_ENCOUNTER_FORM_OBS_SORT_ORDER,
@@ -892,6 +1084,22 @@ public final class OpenmrsConstants {
 		        "If true, hl7 messages for patients that are not found and are non-local will silently be dropped/ignored",
 		        BooleanDatatype.class, null));
 		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_POOL_SIZE, "1",
+		        "The number of threads processing the hl7 inbound queue, messages for the same patient identifier are "
+		                + "always processed in order by the same thread"));
+		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_BATCH_SIZE, "100",
+		        "The number of hl7 inbound queue entries fetched at a time when the hl7 inbound queue is processed by "
+		                + "more than one thread"));
+		
+		props.add(new GlobalProperty(GP_BATCH_SAVE_CHUNK_SIZE, String.valueOf(GP_BATCH_SAVE_CHUNK_SIZE_DEFAULT_VALUE),
+		        "The number of observations or encounters saved by a batch save before the changes are flushed to the "
+		                + "database and the session is cleared, best kept equal to hibernate.jdbc.batch_size"));
+		
+		props.add(new GlobalProperty(GP_CONCEPT_IMPORT_VALIDATION_THREADS, "0",
+		        "The number of threads looking up the names of the new concepts of a concept import for duplicates "
+		                + "in the database, 0 or less uses a thread per processor"));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_SHOW_PATIENT_NAME,
@@ -1025,6 +1233,30 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_SEARCH_INDEX_VERSION, "",
 		        "Indicates the index version. If it is blank, the index needs to be rebuilt."));
 		
+		props.add(new GlobalProperty(GP_SEARCH_INDEX_COMPLETED_TYPES, "",
+		        "The types indexed so far by a rebuild of the search index, used to resume the rebuild if it was "
+		                + "interrupted. Clear it to rebuild the index of all types."));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS,
+		        String.valueOf(GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS_DEFAULT_VALUE),
+		        "The number of threads loading the entities of a type when rebuilding the search index"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_THREADS_PER_TYPE, "",
+		        "Comma separated overrides of the number of threads loading the entities of single types when "
+		                + "rebuilding the search index, e.g. Obs:8,PersonName:4"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS,
+		        String.valueOf(GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS_DEFAULT_VALUE),
+		        "The number of entities loaded at a time by each thread when rebuilding the search index"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_ID_FETCH_SIZE,
+		        String.valueOf(GP_SEARCH_INDEXER_ID_FETCH_SIZE_DEFAULT_VALUE),
+		        "The JDBC fetch size used to scroll through the ids of the entities when rebuilding the search index"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_TYPES_IN_PARALLEL,
+		        String.valueOf(GP_SEARCH_INDEXER_TYPES_IN_PARALLEL_DEFAULT_VALUE),
+		        "The number of types indexed at the same time when rebuilding the search index"));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_ALLOW_OVERLAPPING_VISITS, "true",
 		        "true/false whether or not to allow visits of a given patient to overlap", BooleanDatatype.class, null));
 		
@@ -1048,6 +1280,10 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_ORDER_NUMBER_GENERATOR_BEAN_ID, "",
 		        "Specifies spring bean id of the order generator to use when assigning order numbers"));
 		
+		props.add(new GlobalProperty(GP_ORDER_NUMBER_SEED_BLOCK_SIZE, "50",
+		        "Specifies how many order number seeds are reserved at a time when the blockOrderNumberGenerator is the "
+		                + "configured order number generator, unused seeds in a block are skipped on restart"));
+		
 		props.add(new GlobalProperty(GP_DRUG_ROUTES_CONCEPT_UUID, "",
 		        "Specifies the uuid of the concept set where its members represent the possible drug routes"));
 		
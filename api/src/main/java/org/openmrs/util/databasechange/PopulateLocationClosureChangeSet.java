@@ -0,0 +1,100 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util.databasechange;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Liquibase custom changeset used to fill the location_closure table with a row for every location
+ * and each of its ancestors, including a row with depth 0 that links a location to itself. Locations
+ * whose parent chain forms a cycle only get the rows up to the point where the cycle closes.
+ *
+ * @since 2.7.0
+ */
+public class PopulateLocationClosureChangeSet implements CustomTaskChange {
+	
+	private static final int BATCH_SIZE = 1000;
+	
+	private int rowCount = 0;
+	
+	@Override
+	public String getConfirmationMessage() {
+		return "Finished populating location_closure with " + rowCount + " rows";
+	}
+	
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+	
+	@Override
+	public void setUp() throws SetupException {
+	}
+	
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+	
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		JdbcConnection connection = (JdbcConnection) database.getConnection();
+		Map<Integer, Integer> parentIds = new LinkedHashMap<>();
+		try (Statement stmt = connection.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("select location_id, parent_location from location")) {
+				while (rs.next()) {
+					int parentId = rs.getInt(2);
+					parentIds.put(rs.getInt(1), rs.wasNull() ? null : parentId);
+				}
+			}
+			stmt.executeUpdate("delete from location_closure");
+			
+			try (PreparedStatement insert = connection.prepareStatement(
+			    "insert into location_closure (ancestor_location_id, descendant_location_id, depth) values (?, ?, ?)")) {
+				int pending = 0;
+				for (Integer locationId : parentIds.keySet()) {
+					Set<Integer> ancestorIds = new HashSet<>();
+					int depth = 0;
+					for (Integer ancestorId = locationId; ancestorId != null && ancestorIds.add(ancestorId)
+					        && parentIds.containsKey(ancestorId); ancestorId = parentIds.get(ancestorId)) {
+						insert.setInt(1, ancestorId);
+						insert.setInt(2, locationId);
+						insert.setInt(3, depth++);
+						insert.addBatch();
+						rowCount++;
+						if (++pending == BATCH_SIZE) {
+							insert.executeBatch();
+							pending = 0;
+						}
+					}
+				}
+				if (pending > 0) {
+					insert.executeBatch();
+				}
+			}
+		}
+		catch (Exception e) {
+			throw new CustomChangeException("Failed to populate the location_closure table", e);
+		}
+	}
+}
@@ -336,4 +336,83 @@ public class CohortTest {
 		assertFalse(cohort.hasNoActiveMemberships());
 		
 	}
+	
+	@Test
+	public void getMemberships_shouldCreateMembershipsForCohortsCreatedFromPatientIds() {
+		Cohort cohort = new Cohort("name", "description", ids);
+		
+		Collection<CohortMembership> memberships = cohort.getMemberships();
+		
+		assertEquals(ids.length, memberships.size());
+		memberships.forEach(m -> {
+			assertTrue(ArrayUtils.contains(ids, m.getPatientId()));
+			assertEquals(cohort, m.getCohort());
+			assertTrue(m.isActive());
+		});
+	}
+	
+	@Test
+	public void union_shouldContainTheMembersOfBothCohorts() {
+		Cohort cohortOne = new Cohort("1,2,3");
+		Cohort cohortTwo = new Cohort("3,4");
+		
+		Cohort cohortUnion = Cohort.union(cohortOne, cohortTwo);
+		
+		assertEquals(4, cohortUnion.size());
+		assertTrue(cohortUnion.contains(4));
+		assertFalse(cohortUnion.contains(5));
+		assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4)), cohortUnion.getMemberPatientIds().toSet());
+	}
+	
+	@Test
+	public void intersect_shouldOnlyCountNonVoidedMembersOfTheFirstCohort() {
+		Cohort cohortOne = new Cohort("name", "description", ids);
+		CohortMembership voidedMembership = new CohortMembership(4);
+		voidedMembership.setVoided(true);
+		cohortOne.addMembership(voidedMembership);
+		Cohort cohortTwo = new Cohort("2,3,4");
+		
+		Cohort cohortIntersect = Cohort.intersect(cohortOne, cohortTwo);
+		
+		assertEquals(2, cohortIntersect.size());
+		assertFalse(cohortIntersect.contains(4));
+		assertEquals(3, cohortIntersect.getMemberships().size());
+		assertEquals(2, cohortIntersect.size());
+	}
+	
+	@Test
+	public void subtract_shouldKeepTheMembershipsOfTheFirstCohort() {
+		Cohort cohortOne = new Cohort("name", "description", ids);
+		Cohort cohortTwo = new Cohort("2");
+		
+		Cohort cohortSubtract = Cohort.subtract(Cohort.union(cohortOne, cohortTwo), cohortTwo);
+		
+		assertEquals(2, cohortSubtract.size());
+		assertFalse(cohortSubtract.contains(2));
+		cohortSubtract.getMemberships().forEach(m -> assertEquals(cohortOne, m.getCohort()));
+		assertEquals(2, cohortSubtract.getMemberships().size());
+	}
+	
+	@Test
+	public void union_shouldSupportLargeCohorts() {
+		int cohortSize = 1000000;
+		Set<Integer> even = new HashSet<>();
+		Set<Integer> odd = new HashSet<>();
+		for (int i = 0; i < cohortSize; i++) {
+			even.add(2 * i);
+			odd.add(2 * i + 1);
+		}
+		Cohort evenCohort = new Cohort(even);
+		Cohort oddCohort = new Cohort(odd);
+		
+		Cohort all = Cohort.union(evenCohort, oddCohort);
+		Cohort none = Cohort.intersect(evenCohort, oddCohort);
+		Cohort evenAgain = Cohort.subtract(all, oddCohort);
+		
+		assertEquals(2 * cohortSize, all.size());
+		assertEquals(0, none.size());
+		assertEquals(cohortSize, evenAgain.size());
+		assertTrue(evenAgain.contains(2));
+		assertFalse(evenAgain.contains(3));
+	}
 }
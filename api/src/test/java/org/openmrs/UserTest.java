@@ -12,6 +12,9 @@ package org.openmrs;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.util.RoleConstants;
@@ -92,4 +95,90 @@ public class UserTest {
 		assertFalse(user.containsRole(ROLE_WHICH_DOES_NOT_EXIT));
 	}
 	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldIncludePrivilegesOfInheritedRoles() {
+		Role parent = new Role("Parent Role");
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+		Role child = new Role("Child Role");
+		child.getInheritedRoles().add(parent);
+		user.addRole(child);
+		
+		assertTrue(user.hasPrivilege("Parent Privilege"));
+		assertTrue(user.hasPrivilege("parent privilege"));
+		assertFalse(user.hasPrivilege("Other Privilege"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReflectPrivilegesAddedToARoleAfterAPreviousCheck() {
+		Role role = new Role("Clerk");
+		user.addRole(role);
+		assertFalse(user.hasPrivilege("Add Patients"));
+		
+		role.addPrivilege(new Privilege("Add Patients"));
+		
+		assertTrue(user.hasPrivilege("Add Patients"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReflectPrivilegesOfARoleReplacedAfterAPreviousCheck() {
+		Role role = new Role("Clerk");
+		role.addPrivilege(new Privilege("Add Patients"));
+		user.addRole(role);
+		assertTrue(user.hasPrivilege("Add Patients"));
+		
+		role.setPrivileges(new HashSet<>(Collections.singletonList(new Privilege("View Patients"))));
+		
+		assertFalse(user.hasPrivilege("Add Patients"));
+		assertTrue(user.hasPrivilege("View Patients"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReflectInheritedRolesReplacedAfterAPreviousCheck() {
+		Role parent = new Role("Parent Role");
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+		Role child = new Role("Child Role");
+		user.addRole(child);
+		assertFalse(user.hasPrivilege("Parent Privilege"));
+		
+		child.setInheritedRoles(new HashSet<>(Collections.singletonList(parent)));
+		
+		assertTrue(user.hasPrivilege("Parent Privilege"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReflectRolesRemovedAfterAPreviousCheck() {
+		Role role = new Role("Clerk");
+		role.addPrivilege(new Privilege("Add Patients"));
+		user.addRole(role);
+		assertTrue(user.hasPrivilege("Add Patients"));
+		
+		user.removeRole(role);
+		
+		assertFalse(user.hasPrivilege("Add Patients"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReturnTrueForAnyPrivilegeIfSuperUser() {
+		user.addRole(new Role(RoleConstants.SUPERUSER));
+		assertTrue(user.hasPrivilege("Any Privilege"));
+	}
+	
 }
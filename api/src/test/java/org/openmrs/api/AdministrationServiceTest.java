@@ -42,6 +42,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UserContext;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.api.impl.GlobalPropertyCache;
 import org.openmrs.customdatatype.datatype.BooleanDatatype;
 import org.openmrs.customdatatype.datatype.DateDatatype;
 import org.openmrs.messagesource.MutableMessageSource;
@@ -726,6 +727,50 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 			property.getDeletePrivilege(), property.getProperty()));
 	}
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getGlobalProperty(java.lang.String)
+	 */
+	@Test
+	public void getGlobalProperty_shouldServeRepeatedLookupsFromTheCache() {
+		executeDataSet(ADMIN_INITIAL_DATA_XML);
+		GlobalPropertyCache globalPropertyCache = Context.getRegisteredComponent("globalPropertyCache",
+		    GlobalPropertyCache.class);
+		long hits = globalPropertyCache.getHitCount();
+		long misses = globalPropertyCache.getMissCount();
+		
+		assertEquals("anothervalue", adminService.getGlobalProperty("another-global-property"));
+		assertEquals("anothervalue", adminService.getGlobalProperty("another-global-property"));
+		
+		assertEquals(misses + 1, globalPropertyCache.getMissCount());
+		assertEquals(hits + 1, globalPropertyCache.getHitCount());
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getGlobalProperty(java.lang.String)
+	 */
+	@Test
+	public void getGlobalProperty_shouldReturnTheNewValueAfterTheGlobalPropertyIsSaved() {
+		executeDataSet(ADMIN_INITIAL_DATA_XML);
+		assertEquals("anothervalue", adminService.getGlobalProperty("another-global-property"));
+		
+		adminService.setGlobalProperty("another-global-property", "newvalue");
+		
+		assertEquals("newvalue", adminService.getGlobalProperty("another-global-property"));
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getGlobalProperty(java.lang.String)
+	 */
+	@Test
+	public void getGlobalProperty_shouldReturnNullAfterTheGlobalPropertyIsPurged() {
+		executeDataSet(ADMIN_INITIAL_DATA_XML);
+		assertEquals("anothervalue", adminService.getGlobalProperty("another-global-property"));
+		
+		adminService.purgeGlobalProperty(adminService.getGlobalPropertyObject("another-global-property"));
+		
+		assertNull(adminService.getGlobalProperty("another-global-property"));
+	}
+	
 	/**
 	 * Gets global property and adds view privilege to it
 	 *
@@ -34,6 +34,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.IntBitmap;
 
 /**
  * Tests methods in the CohortService class TODO add all the rest of the tests
@@ -824,4 +825,24 @@ public class CohortServiceTest extends BaseContextSensitiveTest {
 
 		assertTrue(foundVoidedCohortMembership, "Expected to find a membership from a voided cohort");
 	}
+	
+	@Test
+	public void getMemberPatientIds_shouldGetThePatientIdsOfAllNonVoidedMembers() throws Exception {
+		executeDataSet(COHORT_XML);
+		Cohort cohort = service.getCohort(2);
+		cohort.getActiveMemberships().forEach(m -> service.voidCohortMembership(m, "test"));
+		
+		assertThat(service.getMemberPatientIds(cohort, null), is(IntBitmap.of(6)));
+		assertTrue(service.getMemberPatientIds(cohort, new Date()).isEmpty());
+	}
+	
+	@Test
+	public void getMemberPatientIds_shouldOnlyGetThePatientIdsOfMembersActiveOnTheGivenDate() throws Exception {
+		executeDataSet(COHORT_XML);
+		Cohort cohort = service.getCohort(2);
+		
+		assertThat(service.getMemberPatientIds(cohort, DateUtils.parseDate("2000-06-01", "yyyy-MM-dd")),
+		    is(IntBitmap.of(6)));
+		assertTrue(service.getMemberPatientIds(cohort, DateUtils.parseDate("1999-12-31", "yyyy-MM-dd")).isEmpty());
+	}
 }
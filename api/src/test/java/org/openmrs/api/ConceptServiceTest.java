@@ -78,6 +78,7 @@ import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.Person;
 import org.openmrs.User;
+import org.openmrs.api.cache.CacheRegionStatistics;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
@@ -1035,6 +1036,48 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertThat(ehcache.getSize(), is(0));
 	}
 	
+	/**
+	 * @see ConceptService#getConceptLookupCacheStatistics()
+	 */
+	@Test
+	public void getConceptLookupCacheStatistics_shouldCountHitsAndMissesOfConceptLookups() {
+		String uuid = "0cbe2ed3-cd5f-4f46-9459-26127c9265ab";
+		cacheManager.getCache("conceptIdsByUuid").clear();
+		CacheRegionStatistics before = conceptService.getConceptLookupCacheStatistics().get("conceptIdsByUuid");
+		
+		assertEquals(3, conceptService.getConceptByUuid(uuid).getConceptId().intValue());
+		assertEquals(3, conceptService.getConceptByUuid(uuid).getConceptId().intValue());
+		
+		CacheRegionStatistics after = conceptService.getConceptLookupCacheStatistics().get("conceptIdsByUuid");
+		assertEquals(before.getMissCount() + 1, after.getMissCount());
+		assertEquals(before.getHitCount() + 1, after.getHitCount());
+		assertEquals(1, after.getSize());
+	}
+	
+	/**
+	 * @see ConceptService#saveConcept(Concept)
+	 */
+	@Test
+	public void saveConcept_shouldOnlyEvictTheCachedLookupsOfTheSavedConcept() {
+		Cache uuidCache = cacheManager.getCache("conceptIdsByUuid");
+		Cache mappingCache = cacheManager.getCache("conceptIdsByMapping");
+		String uuid = "0cbe2ed3-cd5f-4f46-9459-26127c9265ab";
+		String otherUuid = "a09ab2c5-878e-4905-b25d-5784167d0216";
+		Concept concept = conceptService.getConceptByUuid(uuid);
+		conceptService.getConceptByUuid(otherUuid);
+		conceptService.getConceptIdsByMapping("WGT234", "SSTRM", true);
+		assertNotNull(uuidCache.get(uuid));
+		assertNotNull(uuidCache.get(otherUuid));
+		assertNotNull(mappingCache.get(new SimpleKey("wgt234", "sstrm", true)));
+		
+		concept.setVersion("2.0");
+		conceptService.saveConcept(concept);
+		
+		assertNull(uuidCache.get(uuid));
+		assertNotNull(uuidCache.get(otherUuid));
+		assertNotNull(mappingCache.get(new SimpleKey("wgt234", "sstrm", true)));
+	}
+	
 	/**
 	 * @see ConceptService#getConceptAnswerByUuid(String)
 	 */
@@ -2125,6 +2168,30 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		//So we should see 2 results only
 		assertEquals(2, searchResults.size());
 	}
+	
+	/**
+	 * @see ConceptService#getConcepts(String, List, boolean, List, List, List, List, Concept, Integer, Integer)
+	 */
+	@Test
+	public void getConcepts_shouldReturnTheRequestedPageOfUniqueConcepts() {
+		executeDataSet("org/openmrs/api/include/ConceptServiceTest-names.xml");
+		List<Locale> locales = Collections.singletonList(Locale.ENGLISH);
+		List<ConceptSearchResult> allResults = conceptService.getConcepts("trust", locales, false, null, null, null,
+		    null, null, null, null);
+		
+		List<ConceptSearchResult> firstPage = conceptService.getConcepts("trust", locales, false, null, null, null, null,
+		    null, 0, 1);
+		List<ConceptSearchResult> secondPage = conceptService.getConcepts("trust", locales, false, null, null, null,
+		    null, null, 1, 1);
+		
+		assertEquals(2, allResults.size());
+		assertEquals(1, firstPage.size());
+		assertEquals(1, secondPage.size());
+		assertEquals(allResults.get(0).getConcept(), firstPage.get(0).getConcept());
+		assertEquals(allResults.get(1).getConcept(), secondPage.get(0).getConcept());
+		assertEquals(2, conceptService.getCountOfConcepts("trust", locales, false, null, null, null, null, null)
+		        .intValue());
+	}
 
     /**
      * @see ConceptService#getConcepts(String, List, boolean, List, List, List, List, Concept, Integer, Integer)
@@ -3954,4 +4021,119 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertNull(conceptService.getConceptByReference("id, name or map which does not match to any concept"));
 		assertNull(conceptService.getConceptByReference("1000")); //invalid uuid but exists in standardTestDataset
 	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldSaveNewConceptsWithTheirNamesMappingsAndAnswers() {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, "1");
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_CONCEPT_IMPORT_VALIDATION_THREADS, "1");
+		Concept answer = createConceptToImport("bulk imported answer", 4);
+		Concept question = createConceptToImport("bulk imported question", 2);
+		question.addAnswer(new ConceptAnswer(answer));
+		question.addConceptMapping(new ConceptMap(conceptService.getConceptReferenceTerm(3), null));
+		
+		List<Concept> imported = conceptService.importConcepts(Arrays.asList(answer, question));
+		
+		assertEquals(Arrays.asList(answer, question), imported);
+		assertNotNull(answer.getConceptId());
+		assertNotNull(question.getConceptId());
+		Context.clearSession();
+		Concept savedQuestion = conceptService.getConcept(question.getConceptId());
+		assertEquals("bulk imported question", savedQuestion.getName(Context.getLocale()).getName());
+		assertEquals(1, savedQuestion.getAnswers().size());
+		assertEquals(answer.getConceptId(), savedQuestion.getAnswers().iterator().next().getAnswerConcept().getConceptId());
+		assertThat(conceptService.getConceptsByMapping("2332523", "SNOMED CT"), hasItem(savedQuestion));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldMakeTheImportedConceptsSearchableByName() {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_CONCEPT_IMPORT_VALIDATION_THREADS, "1");
+		Concept concept = createConceptToImport("bulkimportedsearchable", 4);
+		
+		conceptService.importConcepts(Collections.singletonList(concept));
+		
+		List<ConceptSearchResult> results = conceptService.getConcepts("bulkimportedsearchable", Context.getLocale(),
+		    false);
+		assertEquals(1, results.size());
+		assertEquals(concept.getConceptId(), results.get(0).getConcept().getConceptId());
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldFailForANameThatIsDuplicatedAmongTheImportedConcepts() {
+		Concept concept = createConceptToImport("bulk imported duplicate", 4);
+		Concept duplicate = createConceptToImport("Bulk Imported Duplicate", 4);
+		
+		assertThrows(DuplicateConceptNameException.class,
+		    () -> conceptService.importConcepts(Arrays.asList(concept, duplicate)));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldUpdateConceptsAlreadyExistingInDatabase() {
+		executeDataSet(INITIAL_CONCEPTS_XML);
+		Concept concept = conceptService.getConcept(2);
+		assertFalse(concept.getSet());
+		concept.setSet(true);
+		
+		conceptService.importConcepts(Collections.singletonList(concept));
+		
+		Context.clearSession();
+		assertTrue(conceptService.getConcept(2).getSet());
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldFailForANameThatDuplicatesTheNameOfAnExistingConcept() {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_CONCEPT_IMPORT_VALIDATION_THREADS, "2");
+		Concept concept = createConceptToImport("bulk imported unique", 4);
+		Concept duplicate = new Concept();
+		duplicate.addName(new ConceptName("COUGH SYRUP", Locale.UK));
+		duplicate.setDatatype(conceptService.getConceptDatatype(4));
+		duplicate.setConceptClass(conceptService.getConceptClass(1));
+		
+		assertThrows(DuplicateConceptNameException.class,
+		    () -> conceptService.importConcepts(Arrays.asList(concept, duplicate)));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(List)
+	 */
+	@Test
+	public void importConcepts_shouldValidateConceptsReferringToLoadedConceptsWithSeveralThreads() {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_CONCEPT_IMPORT_VALIDATION_THREADS, "4");
+		Concept existingAnswer = conceptService.getConcept(7);
+		List<Concept> concepts = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Concept question = createConceptToImport("bulk imported question " + i, 2);
+			question.addAnswer(new ConceptAnswer(existingAnswer));
+			concepts.add(question);
+		}
+		
+		conceptService.importConcepts(concepts);
+		
+		for (Concept question : concepts) {
+			assertNotNull(question.getConceptId());
+		}
+	}
+	
+	private Concept createConceptToImport(String name, Integer datatypeId) {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, Context.getLocale()));
+		concept.addDescription(new ConceptDescription("imported in bulk", Context.getLocale()));
+		concept.setDatatype(conceptService.getConceptDatatype(datatypeId));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		return concept;
+	}
 }
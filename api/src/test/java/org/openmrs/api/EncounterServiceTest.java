@@ -31,6 +31,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -2364,6 +2365,89 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(1, encounter.getAllObs().size());
 	}
 	
+	/**
+	 * @see EncounterService#saveEncounters(List)
+	 */
+	@Test
+	public void saveEncounters_shouldSaveNewEncountersWithTheirObs() {
+		EncounterService es = Context.getEncounterService();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, "2");
+		Concept concept = Context.getConceptService().getConcept(1);
+		
+		List<Encounter> encounters = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Encounter encounter = buildEncounter();
+			Obs obs = new Obs();
+			obs.setConcept(concept);
+			obs.setValueNumeric(50d + i);
+			encounter.addObs(obs);
+			encounters.add(encounter);
+		}
+		Obs groupObs = new Obs();
+		groupObs.setConcept(concept);
+		Obs childObs = new Obs();
+		childObs.setConcept(concept);
+		childObs.setValueNumeric(70d);
+		groupObs.addGroupMember(childObs);
+		encounters.get(2).addObs(groupObs);
+		
+		List<Encounter> savedEncounters = es.saveEncounters(encounters);
+		
+		assertEquals(encounters, savedEncounters);
+		assertNotNull(childObs.getObsId());
+		assertEquals(encounters.get(2).getEncounterDatetime(), childObs.getObsDatetime());
+		Context.clearSession();
+		assertEquals(1, es.getEncounter(savedEncounters.get(0).getEncounterId()).getObsAtTopLevel(false).size());
+		assertEquals(1, es.getEncounter(savedEncounters.get(1).getEncounterId()).getObsAtTopLevel(false).size());
+		assertEquals(2, es.getEncounter(savedEncounters.get(2).getEncounterId()).getObsAtTopLevel(false).size());
+	}
+	
+	/**
+	 * @see EncounterService#saveEncounters(List)
+	 */
+	@Test
+	public void saveEncounters_shouldVoidAndCreateNewObsOfExistingEncounters() {
+		EncounterService es = Context.getEncounterService();
+		Encounter encounter = buildEncounter();
+		Obs obs = new Obs();
+		obs.setConcept(Context.getConceptService().getConcept(1));
+		obs.setValueNumeric(50d);
+		encounter.addObs(obs);
+		es.saveEncounter(encounter);
+		int oldObsId = obs.getObsId();
+		
+		obs.setValueNumeric(100d);
+		es.saveEncounters(Collections.singletonList(encounter));
+		
+		encounter = es.getEncounter(encounter.getEncounterId());
+		assertEquals(2, encounter.getAllObs(true).size());
+		assertEquals(1, encounter.getAllObs().size());
+		Obs newObs = encounter.getAllObs().iterator().next();
+		assertTrue(oldObsId != newObs.getObsId());
+		assertEquals(100d, newObs.getValueNumeric(), 0);
+	}
+	
+	/**
+	 * @see EncounterService#saveEncounters(List)
+	 */
+	@Test
+	public void saveEncounters_shouldSaveEncountersLoadedInTheSessionAfterTheFirstChunk() {
+		EncounterService es = Context.getEncounterService();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, "1");
+		Patient patient = Context.getPatientService().getPatient(7);
+		Encounter firstEncounter = es.getEncounter(3);
+		Encounter secondEncounter = es.getEncounter(4);
+		firstEncounter.getAllObs().iterator().next().setComment("Changed in the first chunk");
+		
+		List<Encounter> savedEncounters = es.saveEncounters(Arrays.asList(firstEncounter, secondEncounter));
+		
+		assertEquals(Arrays.asList(firstEncounter, secondEncounter), savedEncounters);
+		assertFalse(patient.getIdentifiers().isEmpty());
+		Context.clearSession();
+		assertEquals(3, es.getEncounter(3).getAllObs(true).size());
+		assertEquals(6, es.getEncounter(4).getAllObs(true).size());
+	}
+	
 	/**
 	 * @see EncounterService#voidEncounter(Encounter, String)
 	 */
@@ -2725,6 +2809,23 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertThrows(APIException.class, () -> Context.getEncounterService().saveEncounter(encounter));
 	}
 	
+	/**
+	 * @see EncounterService#saveEncounters(List)
+	 */
+	@Test
+	public void saveEncounters_shouldFailIfUserIsNotSupposedToEditEncountersOfTypeOfGivenEncounter() {
+		// get encounter that has type with edit privilege set
+		Encounter encounter = getEncounterWithEditPrivilege();
+		
+		User user = Context.getUserService().getUserByUsername("test_user");
+		assertNotNull(user);
+		Context.becomeUser(user.getSystemId());
+		Context.addProxyPrivilege(PrivilegeConstants.EDIT_ENCOUNTERS);
+		
+		assertThrows(APIException.class,
+		    () -> Context.getEncounterService().saveEncounters(Collections.singletonList(encounter)));
+	}
+	
 	/**
 	 * @see EncounterService#voidEncounter(Encounter, String)
 	 */
@@ -18,8 +18,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -271,6 +273,91 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(2, locations.size());
 	}
 	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location, boolean)
+	 */
+	@Test
+	public void getDescendantLocationIds_shouldReturnTheIdsOfAllDescendants() {
+		Location root = new Location();
+		root.setName("hierarchy root");
+		Location childA = new Location();
+		childA.setName("hierarchy child A");
+		root.addChildLocation(childA);
+		Location childB = new Location();
+		childB.setName("hierarchy child B");
+		root.addChildLocation(childB);
+		Location grandchild = new Location();
+		grandchild.setName("hierarchy grandchild");
+		childA.addChildLocation(grandchild);
+		Context.getLocationService().saveLocation(root);
+		
+		List<Integer> descendantIds = Context.getLocationService().getDescendantLocationIds(root, true);
+		
+		assertEquals(3, descendantIds.size());
+		assertEquals(new HashSet<>(Arrays.asList(childA.getLocationId(), childB.getLocationId())),
+		    new HashSet<>(descendantIds.subList(0, 2)));
+		assertEquals(grandchild.getLocationId(), descendantIds.get(2));
+		assertEquals(Collections.singletonList(grandchild.getLocationId()),
+		    Context.getLocationService().getDescendantLocationIds(childA, true));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location, boolean)
+	 */
+	@Test
+	public void getDescendantLocationIds_shouldNotReturnRetiredDescendantsIfIncludeRetiredIsFalse() {
+		Location root = saveLocationWithParent("hierarchy root", null);
+		Location child = saveLocationWithParent("hierarchy child", root);
+		Location retiredChild = saveLocationWithParent("hierarchy retired child", root);
+		Context.getLocationService().retireLocation(retiredChild, "test");
+		
+		assertEquals(Collections.singletonList(child.getLocationId()),
+		    Context.getLocationService().getDescendantLocationIds(root, false));
+		assertEquals(Arrays.asList(child.getLocationId(), retiredChild.getLocationId()),
+		    Context.getLocationService().getDescendantLocationIds(root, true));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location, boolean)
+	 */
+	@Test
+	public void getDescendantLocationIds_shouldReturnTheNewDescendantsOfALocationAfterAChildIsMoved() {
+		Location rootA = saveLocationWithParent("hierarchy root A", null);
+		Location rootB = saveLocationWithParent("hierarchy root B", null);
+		Location child = saveLocationWithParent("hierarchy child", rootA);
+		Location grandchild = saveLocationWithParent("hierarchy grandchild", child);
+		
+		child.setParentLocation(rootB);
+		Context.getLocationService().saveLocation(child);
+		
+		assertEquals(Collections.emptyList(), Context.getLocationService().getDescendantLocationIds(rootA, true));
+		assertEquals(Arrays.asList(child.getLocationId(), grandchild.getLocationId()),
+		    Context.getLocationService().getDescendantLocationIds(rootB, true));
+		assertEquals(Arrays.asList(child.getLocationId(), rootB.getLocationId()),
+		    Context.getLocationService().getAncestorLocationIds(grandchild));
+	}
+	
+	/**
+	 * @see LocationService#getAncestorLocationIds(Location)
+	 */
+	@Test
+	public void getAncestorLocationIds_shouldReturnTheIdsOfAllAncestorsStartingWithTheParent() {
+		Location root = saveLocationWithParent("hierarchy root", null);
+		Location child = saveLocationWithParent("hierarchy child", root);
+		Location grandchild = saveLocationWithParent("hierarchy grandchild", child);
+		
+		assertEquals(Arrays.asList(child.getLocationId(), root.getLocationId()),
+		    Context.getLocationService().getAncestorLocationIds(grandchild));
+		assertEquals(Collections.emptyList(), Context.getLocationService().getAncestorLocationIds(root));
+	}
+	
+	private Location saveLocationWithParent(String name, Location parent) {
+		Location location = new Location();
+		location.setName(name);
+		location.setParentLocation(parent);
+		return Context.getLocationService().saveLocation(location);
+	}
+	
 	/**
 	 * @see LocationService#getAllLocations(null)
 	 */
@@ -26,19 +26,27 @@ import java.io.CharArrayReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
@@ -52,9 +60,12 @@ import org.openmrs.Order;
 import org.openmrs.Patient;
 import org.openmrs.Person;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.api.impl.ObsServiceImpl;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.obs.ContentAddressedComplexObsStorage;
+import org.openmrs.obs.handler.AbstractHandler;
 import org.openmrs.obs.handler.BinaryDataHandler;
 import org.openmrs.obs.handler.ImageHandler;
 import org.openmrs.obs.handler.TextHandler;
@@ -979,6 +990,56 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertEquals(9, obss.get(0).getObsId().intValue());
 	}
 	
+	/**
+	 * @see ObsService#streamObservations(List,List,List,List,List,List,List,Integer,Integer,Date,Date,boolean,String,Consumer)
+	 */
+	@Test
+	public void streamObservations_shouldPassTheSameObsInTheSameOrderAsGetObservations() {
+		executeDataSet(INITIAL_OBS_XML);
+		ObsService obsService = Context.getObsService();
+		List<Integer> expected = new ArrayList<>();
+		for (Obs o : obsService.getObservations(null, null, null, null, null, null, null, null, null, null, null, false,
+		    null)) {
+			expected.add(o.getObsId());
+		}
+		
+		List<Integer> streamed = new ArrayList<>();
+		long count = obsService.streamObservations(null, null, null, null, null, null, null, null, null, null, null, false,
+		    null, o -> streamed.add(o.getObsId()));
+		
+		assertEquals(expected, streamed);
+		assertEquals(expected.size(), count);
+	}
+	
+	/**
+	 * @see ObsService#streamObservations(List,List,List,List,List,List,List,Integer,Integer,Date,Date,boolean,String,Consumer)
+	 */
+	@Test
+	public void streamObservations_shouldNotIncludeVoidedObs() {
+		executeDataSet(INITIAL_OBS_XML);
+		List<Integer> streamed = new ArrayList<>();
+		
+		Context.getObsService().streamObservations(Collections.singletonList(new Person(9)), null, null, null, null, null,
+		    null, null, null, null, null, false, null, o -> streamed.add(o.getObsId()));
+		
+		assertEquals(Collections.singletonList(9), streamed);
+	}
+	
+	/**
+	 * @see ObsService#streamObservations(List,List,List,List,List,List,List,Integer,Integer,Date,Date,boolean,String,Consumer)
+	 */
+	@Test
+	public void streamObservations_shouldLimitNumberOfObsPassedToMostRecentNParameter() {
+		executeDataSet(INITIAL_OBS_XML);
+		List<Obs> streamed = new ArrayList<>();
+		
+		long count = Context.getObsService().streamObservations(Collections.singletonList(new Person(8)), null, null, null,
+		    null, null, null, 1, null, null, null, false, null, streamed::add);
+		
+		assertEquals(1, count);
+		assertEquals(1, streamed.size());
+	}
+	
 	/**
 	 * @see ObsService#getObservationCount(List,List,List,List,List,List,Integer,Date,Date,boolean)
 	 * @see ObsService#getObservationCount(List,List,List,List,List,List,Integer,Date,Date,boolean,String)
@@ -1693,6 +1754,112 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertEquals(changeMessage, obs.getVoidReason());
 	}
 	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldSaveNewObsAndTheirGroupMembers() {
+		ObsService obsService = Context.getObsService();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, "2");
+		
+		Obs parentObs = buildObs(null);
+		Obs groupMember = buildObs(1.0);
+		parentObs.addGroupMember(groupMember);
+		List<Obs> observations = Arrays.asList(buildObs(10.0), parentObs, buildObs(20.0), buildObs(30.0));
+		
+		List<Obs> savedObs = obsService.saveObsBatch(observations, null);
+		
+		assertEquals(observations, savedObs);
+		for (Obs obs : savedObs) {
+			assertNotNull(obs.getObsId());
+		}
+		assertNotNull(groupMember.getObsId());
+		Context.clearSession();
+		assertEquals(1, obsService.getObs(parentObs.getObsId()).getGroupMembers().size());
+		assertEquals(30.0, obsService.getObs(savedObs.get(3).getObsId()).getValueNumeric(), 0);
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldVoidAndCreateNewObsForExistingObs() {
+		ObsService obsService = Context.getObsService();
+		Obs existingObs = obsService.getObs(7);
+		existingObs.setComment("A batch comment");
+		Obs newObs = buildObs(10.0);
+		
+		List<Obs> savedObs = obsService.saveObsBatch(Arrays.asList(existingObs, newObs), "Testing batch");
+		
+		assertEquals(2, savedObs.size());
+		assertFalse(existingObs.equals(savedObs.get(0)));
+		assertEquals("A batch comment", savedObs.get(0).getComment());
+		assertEquals(7, savedObs.get(0).getPreviousVersion().getObsId().intValue());
+		assertEquals(newObs, savedObs.get(1));
+		Obs voidedObs = obsService.getObs(7);
+		assertTrue(voidedObs.getVoided());
+		assertEquals("Testing batch", voidedObs.getVoidReason());
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldSaveObsLoadedInTheSessionAfterTheFirstChunk() {
+		ObsService obsService = Context.getObsService();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_BATCH_SAVE_CHUNK_SIZE, "1");
+		Obs firstObs = obsService.getObs(7);
+		Obs secondObs = obsService.getObs(10);
+		firstObs.setComment("Changed in the first chunk");
+		secondObs.setComment("Changed in the second chunk");
+		
+		List<Obs> savedObs = obsService.saveObsBatch(Arrays.asList(firstObs, secondObs), "Testing batch");
+		
+		assertEquals(7, savedObs.get(0).getPreviousVersion().getObsId().intValue());
+		assertEquals(10, savedObs.get(1).getPreviousVersion().getObsId().intValue());
+		assertEquals("Changed in the second chunk", savedObs.get(1).getComment());
+		assertFalse(secondObs.getPerson().getNames().isEmpty());
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldSetCreatorAndDateCreatedOnNewObs() {
+		Obs obs = buildObs(50.0);
+		
+		Context.getObsService().saveObsBatch(Collections.singletonList(obs), null);
+		
+		assertNotNull(obs.getDateCreated());
+		assertNotNull(obs.getCreator());
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldFailIfAnExistingObsIsSavedWithoutAChangeMessage() {
+		ObsService obsService = Context.getObsService();
+		Obs existingObs = obsService.getObs(7);
+		existingObs.setComment("A batch comment");
+		
+		APIException exception = assertThrows(APIException.class,
+		    () -> obsService.saveObsBatch(Collections.singletonList(existingObs), null));
+		assertThat(exception.getMessage(), is(Context.getMessageSourceService().getMessage(
+		    "Obs.error.ChangeMessage.required")));
+	}
+	
+	private Obs buildObs(Double valueNumeric) {
+		Obs obs = new Obs();
+		obs.setConcept(Context.getConceptService().getConcept(3));
+		obs.setPerson(new Patient(2));
+		obs.setEncounter(new Encounter(3));
+		obs.setObsDatetime(new Date());
+		obs.setLocation(new Location(1));
+		obs.setValueNumeric(valueNumeric);
+		return obs;
+	}
+	
 	@Test
 	public void saveObs_shouldOverwriteObsPersonValueWithEncounterPatient() {
 		String changeMessage = "Testing TRUNK-3283";
@@ -1969,4 +2136,270 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertThat(existing.getVoided(), is(true));
 		assertThat(newObs.getStatus(), is(Obs.Status.FINAL));
 	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldGetTheLatestObsForEachPersonAndConcept() {
+		Person person = Context.getPersonService().getPerson(7);
+		ConceptService cs = Context.getConceptService();
+		
+		List<Obs> latestObs = obsService.getLatestObs(Collections.singletonList(person),
+		    Arrays.asList(cs.getConcept(5497), cs.getConcept(5089), cs.getConcept(3)));
+		
+		assertEquals(Arrays.asList(obsService.getObs(16), obsService.getObs(11)), latestObs);
+	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldReturnANewlySavedObsIfItIsMoreRecent() {
+		Person person = Context.getPersonService().getPerson(7);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Obs obs = new Obs(person, weight, new Date(), null);
+		obs.setValueNumeric(62.0);
+		obsService.saveObs(obs, null);
+		
+		assertEquals(Collections.singletonList(obs),
+		    obsService.getLatestObs(Collections.singletonList(person), Collections.singletonList(weight)));
+	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldReturnThePreviousObsWhenTheLatestObsIsVoided() {
+		Person person = Context.getPersonService().getPerson(7);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Obs obs = new Obs(person, weight, new Date(), null);
+		obs.setValueNumeric(62.0);
+		obsService.saveObs(obs, null);
+		
+		obsService.voidObs(obs, "testing");
+		
+		assertEquals(Collections.singletonList(obsService.getObs(16)),
+		    obsService.getLatestObs(Collections.singletonList(person), Collections.singletonList(weight)));
+	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldReturnTheRevisedObsWhenTheLatestObsIsEdited() {
+		Person person = Context.getPersonService().getPerson(7);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Obs existing = obsService.getObs(16);
+		existing.setValueNumeric(65.0);
+		Obs revised = obsService.saveObs(existing, "testing");
+		
+		List<Obs> latestObs = obsService.getLatestObs(Collections.singletonList(person),
+		    Collections.singletonList(weight));
+		
+		assertEquals(Collections.singletonList(revised), latestObs);
+		assertEquals(65.0, latestObs.get(0).getValueNumeric());
+	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldReturnTheMostRecentObsWhenTheFirstObsOfAPersonAndConceptAreSavedConcurrently()
+	        throws Exception {
+		final int threads = 4;
+		UserContext userContext = Context.getUserContext();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CyclicBarrier start = new CyclicBarrier(threads);
+		List<Future<Integer>> savedObsIds = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				Date obsDatetime = new GregorianCalendar(2020, Calendar.JANUARY, i + 1).getTime();
+				// each obs is saved and committed in a transaction of its own
+				savedObsIds.add(executor.submit(() -> {
+					Context.openSession();
+					Context.setUserContext(userContext);
+					try {
+						Obs obs = new Obs(Context.getPersonService().getPerson(2),
+						        Context.getConceptService().getConcept(5089), obsDatetime, null);
+						obs.setValueNumeric(60.0);
+						start.await();
+						return Context.getObsService().saveObs(obs, null).getObsId();
+					}
+					finally {
+						Context.closeSession();
+					}
+				}));
+			}
+			List<Integer> obsIds = new ArrayList<>();
+			for (Future<Integer> savedObsId : savedObsIds) {
+				obsIds.add(savedObsId.get());
+			}
+			
+			assertEquals(Collections.singletonList(obsService.getObs(obsIds.get(threads - 1))),
+			    obsService.getLatestObs(Collections.singletonList(Context.getPersonService().getPerson(2)),
+			        Collections.singletonList(Context.getConceptService().getConcept(5089))));
+		}
+		finally {
+			executor.shutdownNow();
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see ObsService#getLatestObs(List, List)
+	 */
+	@Test
+	public void getLatestObs_shouldReturnAnEmptyListIfNoPersonsOrConceptsAreGiven() {
+		Person person = Context.getPersonService().getPerson(7);
+		
+		assertTrue(obsService.getLatestObs(Collections.singletonList(person), Collections.emptyList()).isEmpty());
+		assertTrue(obsService.getLatestObs(Collections.emptyList(),
+		    Collections.singletonList(Context.getConceptService().getConcept(5089))).isEmpty());
+	}
+	
+	/**
+	 * @see ObsService#migrateComplexObsStorage(Integer, int)
+	 */
+	@Test
+	public void migrateComplexObsStorage_shouldMoveTheFilesOfComplexObsIntoTheContentAddressedStorage()
+	        throws IOException {
+		executeDataSet(COMPLEX_OBS_XML);
+		useContentAddressedComplexObsStorage();
+		File complexObsDir = AbstractHandler.getComplexObsDirectory();
+		File textFile = new File(complexObsDir, "sometext.txt");
+		FileUtils.writeStringToFile(textFile, "some text", StandardCharsets.UTF_8);
+		File movedFile = null;
+		try {
+			assertEquals(45, obsService.migrateComplexObsStorage(null, 10));
+			Context.clearSession();
+			
+			Obs obs = obsService.getObs(45);
+			String name = AbstractHandler.getComplexDataFileName(obs);
+			movedFile = new File(complexObsDir, name);
+			assertTrue(obs.getValueComplex().startsWith("txt image |"));
+			assertTrue(ContentAddressedComplexObsStorage.isContentAddressed(name));
+			assertFalse(textFile.exists());
+			assertEquals("some text", FileUtils.readFileToString(movedFile, StandardCharsets.UTF_8));
+			assertFalse(obs.getVoided());
+		}
+		finally {
+			FileUtils.deleteQuietly(textFile);
+			FileUtils.deleteQuietly(movedFile);
+		}
+	}
+	
+	/**
+	 * @see ObsService#migrateComplexObsStorage(Integer, int)
+	 */
+	@Test
+	public void migrateComplexObsStorage_shouldCountTheReferencesOfObsSharingAFile() throws IOException {
+		executeDataSet(COMPLEX_OBS_XML);
+		useContentAddressedComplexObsStorage();
+		File complexObsDir = AbstractHandler.getComplexObsDirectory();
+		File textFile = new File(complexObsDir, "sometext.txt");
+		FileUtils.writeStringToFile(textFile, "some text", StandardCharsets.UTF_8);
+		Obs copy = new Obs(new Person(2), Context.getConceptService().getConcept(8474), new Date(), new Location(1));
+		copy.setValueComplex("copy |sometext.txt");
+		obsService.saveObs(copy, null);
+		File movedFile = null;
+		try {
+			assertEquals(copy.getObsId(), obsService.migrateComplexObsStorage(null, 10));
+			Context.flushSession();
+			Context.clearSession();
+			
+			Obs obs = obsService.getObs(45);
+			copy = obsService.getObs(copy.getObsId());
+			movedFile = AbstractHandler.getComplexDataFile(obs);
+			assertEquals("copy |" + AbstractHandler.getComplexDataFileName(obs), copy.getValueComplex());
+			
+			assertTrue(AbstractHandler.releaseComplexDataFile(obs));
+			assertTrue(movedFile.exists());
+			assertTrue(AbstractHandler.releaseComplexDataFile(copy));
+			assertFalse(movedFile.exists());
+		}
+		finally {
+			FileUtils.deleteQuietly(textFile);
+			if (movedFile != null) {
+				FileUtils.deleteQuietly(movedFile);
+				FileUtils.deleteQuietly(new File(movedFile.getPath() + ".refs"));
+			}
+		}
+	}
+	
+	/**
+	 * @see ObsService#migrateComplexObsStorage(Integer, int)
+	 */
+	@Test
+	public void migrateComplexObsStorage_shouldSkipObsWhoseFileIsMissing() {
+		executeDataSet(COMPLEX_OBS_XML);
+		useContentAddressedComplexObsStorage();
+		File textFile = new File(AbstractHandler.getComplexObsDirectory(), "sometext.txt");
+		FileUtils.deleteQuietly(textFile);
+		
+		assertEquals(44, obsService.migrateComplexObsStorage(null, 1));
+		assertEquals(45, obsService.migrateComplexObsStorage(44, 1));
+		Context.clearSession();
+		
+		assertEquals("txt image |sometext.txt", obsService.getObs(45).getValueComplex());
+	}
+	
+	/**
+	 * @see ObsService#migrateComplexObsStorage(Integer, int)
+	 */
+	@Test
+	public void migrateComplexObsStorage_shouldReturnNullWhenThereAreNoMoreObsToMove() {
+		executeDataSet(COMPLEX_OBS_XML);
+		useContentAddressedComplexObsStorage();
+		
+		assertNull(obsService.migrateComplexObsStorage(45, 10));
+	}
+	
+	/**
+	 * @see ObsService#migrateComplexObsStorage(Integer, int)
+	 */
+	@Test
+	public void migrateComplexObsStorage_shouldFailIfTheContentAddressedStorageIsNotInUse() {
+		executeDataSet(COMPLEX_OBS_XML);
+		
+		assertThrows(APIException.class, () -> obsService.migrateComplexObsStorage(null, 10));
+	}
+	
+	/**
+	 * @see ObsService#purgeObs(Obs)
+	 */
+	@Test
+	public void purgeObs_shouldKeepTheSharedFileOfTheRevisionWhenTheRevisedObsIsPurged() throws IOException {
+		executeDataSet(COMPLEX_OBS_XML);
+		useContentAddressedComplexObsStorage();
+		Obs obs = new Obs(new Person(1), Context.getConceptService().getConcept(8474), new Date(), new Location(1));
+		obs.setComplexData(new ComplexData("nameOfFile.txt", new CharArrayReader("some text".toCharArray())));
+		obsService.saveObs(obs, null);
+		Integer previousObsId = obs.getObsId();
+		File file = AbstractHandler.getComplexDataFile(obs);
+		try {
+			obs.setComplexData(new ComplexData("nameOfFile.txt", new CharArrayReader("some text".toCharArray())));
+			Obs revised = obsService.saveObs(obs, "saving the same text again");
+			Context.flushSession();
+			Context.clearSession();
+			assertEquals(file, AbstractHandler.getComplexDataFile(obsService.getObs(revised.getObsId())));
+			assertTrue(file.exists());
+			
+			obsService.purgeObs(obsService.getObs(previousObsId));
+			
+			assertNull(obsService.getObs(previousObsId));
+			assertTrue(file.exists());
+			assertEquals("some text", new String((byte[]) obsService.getObs(revised.getObsId()).getComplexData().getData(),
+			        StandardCharsets.UTF_8));
+		}
+		finally {
+			FileUtils.deleteQuietly(file);
+			FileUtils.deleteQuietly(new File(file.getPath() + ".refs"));
+		}
+	}
+	
+	private void useContentAddressedComplexObsStorage() {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_COMPLEX_OBS_STORAGE,
+		    ContentAddressedComplexObsStorage.class.getName());
+	}
 }
@@ -91,6 +91,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -228,6 +229,30 @@ public class OrderServiceTest extends BaseContextSensitiveTest {
 		assertNull(os.getObsByUuid(obsUuid));
 	}
 
+	/**
+	 * @see OrderService#purgeOrder(org.openmrs.Order, boolean)
+	 */
+	@Test
+	public void purgeOrder_shouldMoveTheLatestObsToThePreviousObsWhenTheLatestObsIsDeleted() {
+		executeDataSet("org/openmrs/api/include/OrderServiceTest-deleteObsThatReference.xml");
+		ObsService os = Context.getObsService();
+		Order order = orderService.getOrderByUuid("0c96f25c-4949-4f72-9931-d808fbcdb612");
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Obs obs = new Obs(order.getPatient(), weight, new Date(), null);
+		obs.setValueNumeric(62.0);
+		obs.setOrder(order);
+		os.saveObs(obs, null);
+		assertEquals(Collections.singletonList(obs),
+		    os.getLatestObs(Collections.singletonList(order.getPatient()), Collections.singletonList(weight)));
+		
+		orderService.purgeOrder(order, true);
+		Context.flushSession();
+		
+		assertNull(os.getObsByUuid(obs.getUuid()));
+		assertEquals(Collections.singletonList(os.getObs(16)),
+		    os.getLatestObs(Collections.singletonList(order.getPatient()), Collections.singletonList(weight)));
+	}
+	
 	/**
 	 * @see OrderService#purgeOrder(org.openmrs.Order, boolean)
 	 */
@@ -273,6 +298,25 @@ public class OrderServiceTest extends BaseContextSensitiveTest {
 		assertEquals(N, uniqueOrderNumbers.size());
 	}
 
+	/**
+	 * @see OrderService#reserveOrderNumberSeedBlock(int)
+	 */
+	@Test
+	public void reserveOrderNumberSeedBlock_shouldAdvanceTheSeedByTheBlockSize() {
+		Long first = orderService.reserveOrderNumberSeedBlock(10);
+		Long second = orderService.reserveOrderNumberSeedBlock(10);
+		assertEquals(first + 10, (long) second);
+		assertEquals(second + 10, (long) orderService.getNextOrderNumberSeedSequenceValue());
+	}
+
+	/**
+	 * @see OrderService#reserveOrderNumberSeedBlock(int)
+	 */
+	@Test
+	public void reserveOrderNumberSeedBlock_shouldFailIfTheBlockSizeIsLessThanOne() {
+		assertThrows(IllegalArgumentException.class, () -> orderService.reserveOrderNumberSeedBlock(0));
+	}
+
 	/**
 	 * @see OrderService#getOrderByOrderNumber(String)
 	 */
@@ -59,6 +59,7 @@ import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
 import org.openmrs.PatientProgram;
+import org.openmrs.PatientSummary;
 import org.openmrs.Person;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
@@ -70,6 +71,8 @@ import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.PatientServiceImpl;
 import org.openmrs.api.impl.PatientServiceImplTest;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
 import org.openmrs.patient.IdentifierValidator;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
@@ -3294,10 +3297,145 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertEquals(patientIdentifier.iterator().next().getIdentifier(), "XXXCCCAAA11");
 	}
 
+	@Test
+	public void getPatientSummary_shouldGetTheActiveOrdersLatestObsConditionsAllergiesAndActiveVisit() {
+		Patient patient = patientService.getPatient(7);
+		
+		PatientSummary summary = patientService.getPatientSummary(patient);
+		
+		assertEquals(patient, summary.getPatient());
+		assertThat(summary.getActiveOrders(),
+		    containsInAnyOrder(Context.getOrderService().getActiveOrders(patient, null, null, null).toArray()));
+		assertThat(summary.getActiveConditions(),
+		    containsInAnyOrder(Context.getConditionService().getActiveConditions(patient).toArray()));
+		assertThat(summary.getAllergies(), containsInAnyOrder(patientService.getAllergies(patient).toArray()));
+		assertEquals(patientService.getAllergies(patient).getAllergyStatus(), summary.getAllergies().getAllergyStatus());
+		
+		List<Obs> allObs = Context.getObsService().getObservationsByPerson(patient);
+		assertFalse(summary.getLatestObsByConceptId().isEmpty());
+		assertEquals(allObs.stream().map(obs -> obs.getConcept().getConceptId()).collect(Collectors.toSet()),
+		    summary.getLatestObsByConceptId().keySet());
+		for (Obs obs : allObs) {
+			Obs latest = summary.getLatestObs(obs.getConcept());
+			assertFalse(latest.getObsDatetime().before(obs.getObsDatetime()));
+		}
+		
+		// the cached summary is the same
+		PatientSummary cached = patientService.getPatientSummary(patient);
+		assertEquals(summary.getActiveOrders(), cached.getActiveOrders());
+		assertEquals(summary.getLatestObsByConceptId(), cached.getLatestObsByConceptId());
+		assertEquals(summary.getActiveVisit(), cached.getActiveVisit());
+	}
+	
+	@Test
+	public void getPatientSummary_shouldReflectObsSavedAfterTheSummaryWasCached() {
+		Patient patient = patientService.getPatient(7);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		patientService.getPatientSummary(patient);
+		
+		Obs obs = new Obs(patient, weight, new Date(), null);
+		obs.setValueNumeric(70.0);
+		Context.getObsService().saveObs(obs, null);
+		
+		assertEquals(obs, patientService.getPatientSummary(patient).getLatestObs(weight));
+	}
+	
+	@Test
+	public void getPatientSummary_shouldReflectOrdersVoidedAfterTheSummaryWasCached() {
+		Patient patient = patientService.getPatient(7);
+		List<Order> activeOrders = patientService.getPatientSummary(patient).getActiveOrders();
+		Order order = activeOrders.stream().filter(o -> o.getPreviousOrder() == null).findFirst().get();
+		
+		Context.getOrderService().voidOrder(order, "testing");
+		
+		List<Order> activeOrdersAfterVoid = patientService.getPatientSummary(patient).getActiveOrders();
+		assertFalse(activeOrdersAfterVoid.contains(order));
+		assertEquals(activeOrders.size() - 1, activeOrdersAfterVoid.size());
+	}
+	
+	@Test
+	public void getPatientSummary_shouldFailIfPatientIsNull() {
+		assertThrows(IllegalArgumentException.class, () -> patientService.getPatientSummary(null));
+	}
+	
 	@Test
 	public void getIdentifierValidator_shouldThrowPatientIdentifierExceptionWhenClassNotFound() throws Exception {
 		PatientIdentifierException patientIdentifierException = assertThrows(PatientIdentifierException.class, () -> patientService.getIdentifierValidator("com.example.InvalidIdentifierValidator"));
 		assertEquals("Could not find patient identifier validator com.example.InvalidIdentifierValidator", patientIdentifierException.getMessage());
 	}
-
+	
+	@Test
+	public void searchPatients_shouldPageThroughAllMatchingPatientsWithoutRepeatingAny() throws Exception {
+		executeDataSet(FIND_PATIENTS_XML);
+		updateSearchIndex();
+		Set<Patient> expected = new HashSet<>(patientService.getPatients("Jea", false, 0, null));
+		assertTrue(expected.size() > 1);
+		
+		List<Patient> paged = new ArrayList<>();
+		String continuationToken = null;
+		do {
+			SearchResultPage<Patient> page = patientService.searchPatients("Jea", false, continuationToken, 1, false);
+			assertTrue(page.getResults().size() <= 1);
+			assertNull(page.getApproximateCount());
+			paged.addAll(page.getResults());
+			continuationToken = page.getContinuationToken();
+		} while (continuationToken != null);
+		
+		assertEquals(expected.size(), paged.size());
+		assertEquals(expected, new HashSet<>(paged));
+	}
+	
+	@Test
+	public void searchPatients_shouldReturnTheApproximateCountIfRequested() throws Exception {
+		executeDataSet(FIND_PATIENTS_XML);
+		updateSearchIndex();
+		
+		SearchResultPage<Patient> page = patientService.searchPatients("Jea", false, null, 1, true);
+		
+		assertEquals(1, page.getResults().size());
+		assertTrue(page.hasNextPage());
+		assertEquals(patientService.getPatients("Jea", false, 0, null).size(), page.getApproximateCount().intValue());
+	}
+	
+	@Test
+	public void searchPatients_shouldFailForAContinuationTokenOfADifferentSearch() throws Exception {
+		executeDataSet(FIND_PATIENTS_XML);
+		updateSearchIndex();
+		String continuationToken = patientService.searchPatients("Jea", false, null, 1, false).getContinuationToken();
+		assertNotNull(continuationToken);
+		
+		assertThrows(APIException.class, () -> patientService.searchPatients("Claud", false, continuationToken, 1, false));
+	}
+	
+	@Test
+	public void findDuplicatePatients_shouldFindPatientsWithTheSameNamesBirthdateAndGender() {
+		Patient patient = patientService.getPatient(6);
+		patient.getPersonName().setGivenName("Horatio");
+		patient.getPersonName().setFamilyName("Hornblower");
+		patient.setBirthdate(patientService.getPatient(2).getBirthdate());
+		patientService.savePatient(patient);
+		
+		List<DuplicatePatientMatch> matches = new ArrayList<>();
+		long count = patientService.findDuplicatePatients(0.75, matches::add);
+		
+		assertEquals(matches.size(), count);
+		DuplicatePatientMatch match = matches.stream().filter(m -> m.getPatientId() == 2 && m.getOtherPatientId() == 6)
+		        .findFirst().orElse(null);
+		assertNotNull(match);
+		assertEquals(0.8, match.getScore(), 0.0001);
+	}
+	
+	@Test
+	public void findDuplicatePatients_shouldNotFindPatientsThatScoreBelowTheMinimumScore() {
+		Patient patient = patientService.getPatient(6);
+		patient.getPersonName().setGivenName("Horatio");
+		patient.getPersonName().setFamilyName("Hornblower");
+		patient.setBirthdate(patientService.getPatient(2).getBirthdate());
+		patientService.savePatient(patient);
+		
+		List<DuplicatePatientMatch> matches = new ArrayList<>();
+		patientService.findDuplicatePatients(0.9, matches::add);
+		
+		assertTrue(matches.stream().noneMatch(m -> m.getPatientId() == 2 && m.getOtherPatientId() == 6));
+	}
 }
@@ -29,6 +29,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,6 +52,7 @@ import org.openmrs.Relationship;
 import org.openmrs.RelationshipType;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.search.SearchResultPage;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
@@ -2452,4 +2454,53 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 	    assertNotNull(personService.getPersonAddressByUuid("y403fafk-e5k4-42d0-9d11-4f52e89d123r"));
 	}
 	
+	
+	@Test
+	public void searchPeople_shouldPageThroughAllPeopleByIdForABlankSearchPhrase() throws Exception {
+		List<Person> expected = Context.getPersonService().getPeople("", null, false);
+		
+		List<Integer> pagedIds = new ArrayList<>();
+		String continuationToken = null;
+		do {
+			SearchResultPage<Person> page = Context.getPersonService().searchPeople("", false, continuationToken, 2,
+			    true);
+			assertEquals(expected.size(), page.getApproximateCount().intValue());
+			page.getResults().forEach(person -> pagedIds.add(person.getPersonId()));
+			continuationToken = page.getContinuationToken();
+		} while (continuationToken != null);
+		
+		assertEquals(expected.size(), pagedIds.size());
+		for (int i = 1; i < pagedIds.size(); i++) {
+			assertTrue(pagedIds.get(i - 1) < pagedIds.get(i));
+		}
+		for (Person person : expected) {
+			assertTrue(pagedIds.contains(person.getPersonId()));
+		}
+	}
+	
+	@Test
+	public void searchPeople_shouldPageThroughAllMatchingPeopleWithoutRepeatingAny() throws Exception {
+		executeDataSet("org/openmrs/api/include/PersonServiceTest-extranames.xml");
+		updateSearchIndex();
+		
+		List<Person> expected = Context.getPersonService().searchPeople("John", true, null, 1000, false).getResults();
+		assertTrue(expected.size() > 1);
+		
+		List<Person> paged = new ArrayList<>();
+		String continuationToken = null;
+		do {
+			SearchResultPage<Person> page = Context.getPersonService().searchPeople("John", true, continuationToken, 1,
+			    true);
+			assertEquals(1, page.getResults().size());
+			assertEquals(expected.size(), page.getApproximateCount().intValue());
+			paged.addAll(page.getResults());
+			continuationToken = page.getContinuationToken();
+			// every page but the last one links to the next page
+			assertEquals(paged.size() < expected.size(), page.hasNextPage());
+		} while (continuationToken != null);
+		
+		assertEquals(expected, paged);
+		assertEquals(paged.size(), new HashSet<>(paged).size());
+	}
+	
 }
@@ -12,26 +12,36 @@ package org.openmrs.api.db;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import javax.annotation.Resource;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openmrs.ConceptName;
 import org.openmrs.User;
 import org.openmrs.UserSessionListener;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.UserService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.db.hibernate.HibernateContextDAO;
+import org.openmrs.api.search.SearchIndexProgress;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
 import org.springframework.stereotype.Component;
 
 /**
@@ -403,4 +413,63 @@ public class ContextDAOTest extends BaseContextSensitiveTest {
 				contains("admin:LOGOUT:SUCCESS"));
 		assertThat(testUserSessionListener.logins, empty());
 	}
+
+	@Test
+	public void updateSearchIndex_shouldReportTheProgressOfEveryIndexedType() {
+		dao.updateSearchIndex();
+		
+		List<SearchIndexProgress> progress = dao.getSearchIndexProgress();
+		assertThat(progress, not(empty()));
+		for (SearchIndexProgress typeProgress : progress) {
+			assertEquals(SearchIndexProgress.Status.COMPLETED, typeProgress.getStatus(), typeProgress.getType());
+			assertNotNull(typeProgress.getEndTime());
+		}
+		assertEquals(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(),
+		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION));
+		assertEquals("",
+		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_COMPLETED_TYPES, ""));
+	}
+	
+	@Test
+	public void updateSearchIndexAsync_shouldRebuildTheIndexInASessionOfItsOwn() throws Exception {
+		Future<?> rebuild = dao.updateSearchIndexAsync();
+		Context.clearSession();
+		
+		rebuild.get(1, TimeUnit.MINUTES);
+		
+		List<SearchIndexProgress> progress = dao.getSearchIndexProgress();
+		assertThat(progress, not(empty()));
+		for (SearchIndexProgress typeProgress : progress) {
+			assertEquals(SearchIndexProgress.Status.COMPLETED, typeProgress.getStatus(), typeProgress.getType());
+		}
+	}
+	
+	@Test
+	public void getSearchIndexUpdateStatistics_shouldReportNoAsyncUpdatesInTheSyncMode() {
+		SearchIndexUpdateStatistics statistics = dao.getSearchIndexUpdateStatistics();
+		
+		assertFalse(statistics.isAsync());
+		assertEquals(0, statistics.getQueueDepth());
+		assertEquals(0, statistics.getLagMillis());
+	}
+	
+	@Test
+	public void setupSearchIndex_shouldSkipTheTypesIndexedByAnInterruptedRebuild() {
+		AdministrationService as = Context.getAdministrationService();
+		as.setGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION, "");
+		as.setGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_COMPLETED_TYPES,
+		    OpenmrsConstants.SEARCH_INDEX_VERSION + ":" + ConceptName.class.getName());
+		
+		dao.setupSearchIndex();
+		
+		for (SearchIndexProgress typeProgress : dao.getSearchIndexProgress()) {
+			if (ConceptName.class.getName().equals(typeProgress.getType())) {
+				assertEquals(SearchIndexProgress.Status.SKIPPED, typeProgress.getStatus());
+			} else {
+				assertEquals(SearchIndexProgress.Status.COMPLETED, typeProgress.getStatus(), typeProgress.getType());
+			}
+		}
+		assertEquals(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(),
+		    as.getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION));
+	}
 }
@@ -0,0 +1,74 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Patient;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.search.DuplicatePatientMatch;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+public class DuplicatePatientDetectorTest extends BaseContextSensitiveTest {
+
+	private SessionFactory sessionFactory;
+
+	@BeforeEach
+	public void makePatientsDuplicates() {
+		sessionFactory = (SessionFactory) applicationContext.getBean("sessionFactory");
+		PatientService patientService = Context.getPatientService();
+		Patient patient = patientService.getPatient(6);
+		patient.getPersonName().setGivenName("Horatio");
+		patient.getPersonName().setFamilyName("Hornblower");
+		patient.setBirthdate(patientService.getPatient(2).getBirthdate());
+		patientService.savePatient(patient);
+		Context.flushSession();
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#findDuplicates(double, java.util.function.Consumer)
+	 */
+	@Test
+	public void findDuplicates_shouldFindTheSameMatchesWhenTheKeysAreSplitIntoSeveralPartitions() {
+		Set<String> matches = findDuplicates(DuplicatePatientDetector.DEFAULT_PATIENTS_PER_PARTITION);
+
+		assertTrue(matches.contains("2-6"));
+		assertEquals(matches, findDuplicates(1));
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#findDuplicates(double, java.util.function.Consumer)
+	 */
+	@Test
+	public void findDuplicates_shouldScoreAPairThatSharesBlocksInSeveralPartitionsOnce() {
+		List<DuplicatePatientMatch> matches = new ArrayList<>();
+		new DuplicatePatientDetector(sessionFactory, DuplicatePatientDetector.DEFAULT_MAX_BLOCK_SIZE, 2, 1)
+		        .findDuplicates(0.5, matches::add);
+
+		assertEquals(1, matches.stream().filter(m -> m.getPatientId() == 2 && m.getOtherPatientId() == 6).count());
+	}
+
+	private Set<String> findDuplicates(int patientsPerPartition) {
+		Set<String> matches = new TreeSet<>();
+		new DuplicatePatientDetector(sessionFactory, DuplicatePatientDetector.DEFAULT_MAX_BLOCK_SIZE, 2,
+		        patientsPerPartition).findDuplicates(0.5, m -> matches.add(m.getPatientId() + "-" + m.getOtherPatientId()));
+		return matches;
+	}
+}
@@ -10,14 +10,18 @@
 package org.openmrs.api.db.hibernate;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -97,4 +101,23 @@ public class HibernateObsDAOTest extends BaseContextSensitiveTest {
 			null, null, null, null, false, null);
 		assertArrayEquals(obsListExpected.toArray(), obsListActual.toArray());
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.hibernate.HibernateObsDAO#streamObservations(List, List, List, List, List, List, List, Integer, Integer, java.util.Date, java.util.Date, boolean, String, int, java.util.function.Consumer)
+	 */
+	@Test
+	public void streamObservations_shouldClearTheSessionAfterEveryBatch() {
+		Session session = sessionFactory.getCurrentSession();
+		List<Obs> expected = dao.getObservations(null, null, null, null, null, null, Collections.singletonList("obsId asc"),
+			null, null, null, null, false, null);
+		
+		List<Obs> streamed = new ArrayList<>();
+		long count = dao.streamObservations(null, null, null, null, null, null, Collections.singletonList("obsId asc"), null,
+			null, null, null, false, null, 2, streamed::add);
+		
+		assertEquals(expected.size(), count);
+		assertEquals(expected.stream().map(Obs::getObsId).collect(Collectors.toList()),
+			streamed.stream().map(Obs::getObsId).collect(Collectors.toList()));
+		assertFalse(session.contains(streamed.get(0)));
+	}
 }
@@ -0,0 +1,82 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.HibernateException;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Concept;
+import org.openmrs.api.search.SearchIndexUpdateStatistics;
+import org.openmrs.util.OpenmrsConstants;
+
+public class SearchIndexUpdateQueueTest {
+	
+	@Test
+	public void isAsyncMode_shouldReturnTrueOnlyForTheAsyncMode() {
+		Properties properties = new Properties();
+		assertFalse(SearchIndexUpdateQueue.isAsyncMode(properties));
+		
+		properties.setProperty(OpenmrsConstants.SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY, "sync");
+		assertFalse(SearchIndexUpdateQueue.isAsyncMode(properties));
+		
+		properties.setProperty(OpenmrsConstants.SEARCH_INDEX_UPDATE_MODE_RUNTIME_PROPERTY, " ASYNC ");
+		assertTrue(SearchIndexUpdateQueue.isAsyncMode(properties));
+	}
+	
+	@Test
+	public void add_shouldCountTheObjectsThatFailToBeIndexed() throws Exception {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		SearchIndexUpdateQueue queue = new SearchIndexUpdateQueue(() -> {
+			threads.add(Thread.currentThread().getName());
+			throw new HibernateException("database is down");
+		}, 10, 10);
+		try {
+			queue.add(Concept.class, 1);
+			queue.add(Concept.class, 2);
+			
+			assertTrue(queue.awaitIdle(10, TimeUnit.SECONDS));
+			SearchIndexUpdateStatistics statistics = queue.getStatistics();
+			assertTrue(statistics.isAsync());
+			assertEquals(0, statistics.getQueueDepth());
+			assertEquals(10, statistics.getQueueCapacity());
+			assertEquals(0, statistics.getLagMillis());
+			assertEquals(2, statistics.getFailedCount());
+			assertEquals(0, statistics.getIndexedCount());
+			assertFalse(threads.contains(Thread.currentThread().getName()));
+		}
+		finally {
+			queue.stop(10, TimeUnit.SECONDS);
+		}
+	}
+	
+	@Test
+	public void stop_shouldIndexObjectsAddedAfterwardsOnTheCallingThread() {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		SearchIndexUpdateQueue queue = new SearchIndexUpdateQueue(() -> {
+			threads.add(Thread.currentThread().getName());
+			throw new HibernateException("database is down");
+		}, 10, 10);
+		queue.stop(10, TimeUnit.SECONDS);
+		
+		queue.add(Concept.class, 1);
+		
+		assertEquals(1, threads.size());
+		assertEquals(Thread.currentThread().getName(), threads.get(0));
+		assertEquals(1, queue.getStatistics().getFailedCount());
+	}
+}
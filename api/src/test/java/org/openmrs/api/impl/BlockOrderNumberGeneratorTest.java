@@ -0,0 +1,140 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Tests {@link BlockOrderNumberGenerator}.
+ */
+public class BlockOrderNumberGeneratorTest {
+	
+	private static final int THREADS = 8;
+	
+	private static final int ORDERS_PER_THREAD = 200;
+	
+	private InMemorySeed seed;
+	
+	private BlockOrderNumberGenerator generator;
+	
+	@BeforeEach
+	public void setUp() {
+		seed = new InMemorySeed();
+		generator = new TestBlockOrderNumberGenerator(seed, 10);
+	}
+	
+	@Test
+	public void getNewOrderNumber_shouldReserveANewBlockOnlyWhenTheCurrentOneIsUsedUp() {
+		for (int i = 1; i <= 25; i++) {
+			assertEquals(OrderServiceImpl.ORDER_NUMBER_PREFIX + i, generator.getNewOrderNumber(null));
+		}
+		assertEquals(3, seed.reservations.get());
+	}
+	
+	@Test
+	public void getNewOrderNumber_shouldStartFromANewBlockWhenTheSeedGlobalPropertyChanges() {
+		generator.getNewOrderNumber(null);
+		generator.globalPropertyChanged(new GlobalProperty(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED, "100"));
+		assertEquals(OrderServiceImpl.ORDER_NUMBER_PREFIX + 11, generator.getNewOrderNumber(null));
+		assertEquals(2, seed.reservations.get());
+	}
+	
+	@Test
+	public void supportsPropertyName_shouldSupportTheSeedAndBlockSizeGlobalProperties() {
+		assertTrue(generator.supportsPropertyName(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED));
+		assertTrue(generator.supportsPropertyName(OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE));
+		assertFalse(generator.supportsPropertyName(OpenmrsConstants.GP_ORDER_NUMBER_GENERATOR_BEAN_ID));
+	}
+	
+	@Test
+	public void getNewOrderNumber_shouldAlwaysReturnUniqueOrderNumbersWhenCalledConcurrently() throws Exception {
+		Set<String> orderNumbers = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < ORDERS_PER_THREAD; j++) {
+						orderNumbers.add(generator.getNewOrderNumber(null));
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					done.countDown();
+				}
+			});
+		}
+		start.countDown();
+		assertTrue(done.await(1, TimeUnit.MINUTES));
+		executor.shutdown();
+		
+		assertEquals(THREADS * ORDERS_PER_THREAD, orderNumbers.size());
+	}
+	
+	/**
+	 * Stands in for the seed global property row, reservations are serialized like they are by the
+	 * database row lock
+	 */
+	private static class InMemorySeed {
+		
+		private long next = 1;
+		
+		private final AtomicInteger reservations = new AtomicInteger();
+		
+		synchronized long reserve(int blockSize) {
+			reservations.incrementAndGet();
+			long start = next;
+			next += blockSize;
+			return start;
+		}
+	}
+	
+	private static class TestBlockOrderNumberGenerator extends BlockOrderNumberGenerator {
+		
+		private final InMemorySeed seed;
+		
+		private final int blockSize;
+		
+		TestBlockOrderNumberGenerator(InMemorySeed seed, int blockSize) {
+			this.seed = seed;
+			this.blockSize = blockSize;
+		}
+		
+		@Override
+		SeedBlock reserveBlock(int blockSize) {
+			long start = seed.reserve(blockSize);
+			return new SeedBlock(start, start + blockSize);
+		}
+		
+		@Override
+		int getBlockSize() {
+			return blockSize;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests methods on the {@link HL7InArchiveSegmentWriter} class.
+ */
+public class HL7InArchiveSegmentWriterTest {
+	
+	private static final String MESSAGE = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|"
+	        + "JqnfhKKtouEz8kzTk6Zo|P|2.5|1||||||||16^AMRS.ELD.FORMID\rPID|||3^^^^||John3^Doe^||";
+	
+	@TempDir
+	public File segmentsDir;
+	
+	/**
+	 * @see HL7InArchiveSegmentWriter#append(HL7InArchive)
+	 * @see HL7InArchiveSegmentWriter#readMessage(URI)
+	 */
+	@Test
+	public void append_shouldWriteMessagesThatCanBeReadBackByTheirLocation() throws IOException {
+		URI first;
+		URI second;
+		try (HL7InArchiveSegmentWriter writer = new HL7InArchiveSegmentWriter(segmentsDir, 1024 * 1024)) {
+			first = writer.append(archive(MESSAGE + "1"));
+			second = writer.append(archive(MESSAGE + "2"));
+		}
+		
+		assertEquals(MESSAGE + "1", HL7InArchiveSegmentWriter.readMessage(first));
+		assertEquals(MESSAGE + "2", HL7InArchiveSegmentWriter.readMessage(second));
+		assertEquals(new File(first.getSchemeSpecificPart()).getParentFile(), segmentsDir);
+		assertEquals(2, segmentsDir.list().length);
+	}
+	
+	/**
+	 * @see HL7InArchiveSegmentWriter#append(HL7InArchive)
+	 */
+	@Test
+	public void append_shouldListTheOffsetOfEachMessageInTheIndexOfItsSegment() throws IOException {
+		HL7InArchive archive = archive(MESSAGE);
+		URI location;
+		try (HL7InArchiveSegmentWriter writer = new HL7InArchiveSegmentWriter(segmentsDir, 1024 * 1024)) {
+			writer.append(archive(MESSAGE));
+			location = writer.append(archive);
+		}
+		
+		File segment = new File(location.getSchemeSpecificPart());
+		List<String> index = Files.readAllLines(new File(segmentsDir, segment.getName()
+		        + HL7InArchiveSegmentWriter.INDEX_SUFFIX).toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, index.size());
+		assertEquals(archive.getUuid() + "\t" + location.getFragment().replace('+', '\t'), index.get(1));
+	}
+	
+	/**
+	 * @see HL7InArchiveSegmentWriter#append(HL7InArchive)
+	 */
+	@Test
+	public void append_shouldStartANewSegmentOnceTheCurrentOneIsFull() throws IOException {
+		URI first;
+		URI second;
+		try (HL7InArchiveSegmentWriter writer = new HL7InArchiveSegmentWriter(segmentsDir, 100)) {
+			first = writer.append(archive(MESSAGE + "1"));
+			second = writer.append(archive(MESSAGE + "2"));
+		}
+		
+		assertNotEquals(first.getSchemeSpecificPart(), second.getSchemeSpecificPart());
+		assertEquals("0", second.getFragment().split("\\+")[0]);
+		assertEquals(MESSAGE + "2", HL7InArchiveSegmentWriter.readMessage(second));
+		assertEquals(4, segmentsDir.list().length);
+	}
+	
+	/**
+	 * @see HL7InArchiveSegmentWriter#readMessage(URI)
+	 */
+	@Test
+	public void readMessage_shouldFailForALocationWithoutAnOffset() {
+		URI location = new File(segmentsDir, "message.txt").toURI();
+		
+		assertThrows(IOException.class, () -> HL7InArchiveSegmentWriter.readMessage(location));
+	}
+	
+	private HL7InArchive archive(String hl7Data) {
+		HL7InArchive archive = new HL7InArchive();
+		archive.setHL7Data(hl7Data);
+		return archive;
+	}
+}
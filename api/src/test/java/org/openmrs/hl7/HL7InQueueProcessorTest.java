@@ -0,0 +1,55 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link HL7InQueueProcessor}.
+ */
+public class HL7InQueueProcessorTest {
+	
+	private static final String MSH = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1||||||||16^AMRS.ELD.FORMID\r";
+	
+	/**
+	 * @see HL7InQueueProcessor#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldReturnThePatientIdentifierListOfThePidSegment() {
+		String message = MSH + "PID|||7^^^^~3-4^^^Old Identification Number||Collet^Test^Chebaskwony||\r"
+		        + "PV1||O|1^Unknown Location||||1^Super User (1-8)|||||||||||||||||||||||||||||||||||||20080212|||||||V\r";
+		
+		assertEquals("7^^^^~3-4^^^Old Identification Number", HL7InQueueProcessor.getPatientIdentifiers(message));
+	}
+	
+	/**
+	 * @see HL7InQueueProcessor#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldUseTheFieldSeparatorOfTheMessage() {
+		String message = "MSH#^~\\&#FORMENTRY\nPID###7^^^^##Collet^Test\n";
+		
+		assertEquals("7^^^^", HL7InQueueProcessor.getPatientIdentifiers(message));
+	}
+	
+	/**
+	 * @see HL7InQueueProcessor#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldReturnNullIfThereIsNoPatientIdentifier() {
+		assertNull(HL7InQueueProcessor.getPatientIdentifiers(MSH + "PV1||O|1^Unknown Location\r"));
+		assertNull(HL7InQueueProcessor.getPatientIdentifiers(MSH + "PID|||\r"));
+		assertNull(HL7InQueueProcessor.getPatientIdentifiers("a malformed hl7 message"));
+		assertNull(HL7InQueueProcessor.getPatientIdentifiers(null));
+	}
+}
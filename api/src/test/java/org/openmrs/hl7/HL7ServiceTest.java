@@ -21,9 +21,14 @@ import static org.openmrs.util.OpenmrsUtil.deleteDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -77,6 +82,37 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		assertNotNull(hl7.getUuid());
 	}
 	
+	/**
+	 * @see HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueueBatch_shouldReturnPendingQueueItemsAfterTheGivenIdOrderedById() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		
+		List<HL7InQueue> batch = hl7service.getNextHL7InQueueBatch(null, 10);
+		assertEquals(2, batch.size());
+		assertEquals(1, batch.get(0).getHL7InQueueId().intValue());
+		assertEquals(2, batch.get(1).getHL7InQueueId().intValue());
+		
+		batch = hl7service.getNextHL7InQueueBatch(1, 10);
+		assertEquals(1, batch.size());
+		assertEquals(2, batch.get(0).getHL7InQueueId().intValue());
+	}
+	
+	/**
+	 * @see HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueueBatch_shouldNotReturnMoreThanTheBatchSize() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		List<HL7InQueue> batch = Context.getHL7Service().getNextHL7InQueueBatch(null, 1);
+		
+		assertEquals(1, batch.size());
+		assertEquals(1, batch.get(0).getHL7InQueueId().intValue());
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @throws IOException
@@ -799,4 +835,108 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		Integer userId = hl7service.resolveUserId(xcn);
 		assertThat(userId, is(502));
 	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchivesToFileSystem(java.util.Map)
+	 */
+	@Test
+	public void migrateHl7InArchivesToFileSystem_shouldWriteTheArchivesToCompressedSegmentFiles() throws IOException {
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), HL7Constants.HL7_ARCHIVE_DIRECTORY_NAME);
+		if (tempDir.exists() && tempDir.isDirectory())
+			assertTrue(deleteDirectory(tempDir));
+		
+		GlobalProperty gp = new GlobalProperty();
+		gp.setProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY);
+		gp.setPropertyValue(tempDir.getAbsolutePath());
+		gp.setDescription("temp test dir");
+		Context.getAdministrationService().saveGlobalProperty(gp);
+		
+		HL7Service hl7service = Context.getHL7Service();
+		List<Integer> archiveIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			HL7InArchive archive = new HL7InArchive();
+			archive.setHL7Source(hl7service.getHL7Source(1));
+			archive.setHL7SourceKey("key" + i);
+			archive.setHL7Data("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|" + i);
+			archive.setMessageState(HL7Constants.HL7_STATUS_PROCESSED);
+			archive.setDateCreated(new GregorianCalendar(2008, Calendar.FEBRUARY, 26).getTime());
+			archiveIds.add(hl7service.saveHL7InArchive(archive).getHL7InArchiveId());
+		}
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		Hl7InArchivesMigrateThread.setActive(true);
+		Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.RUNNING);
+		try {
+			hl7service.migrateHl7InArchivesToFileSystem(progressStatusMap);
+		}
+		finally {
+			Hl7InArchivesMigrateThread.setActive(false);
+			Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.NONE);
+		}
+		
+		try {
+			assertEquals(3, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY));
+			for (int i = 0; i < 3; i++) {
+				HL7InArchive archive = hl7service.getHL7InArchive(archiveIds.get(i));
+				assertEquals(HL7Constants.HL7_STATUS_MIGRATED, archive.getMessageState());
+				assertNotNull(URI.create(archive.getHL7Data()).getFragment());
+				
+				hl7service.loadHL7InArchiveData(archive);
+				assertEquals("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|" + i,
+				    archive.getHL7Data());
+			}
+			// one segment and its index instead of a file per archive
+			assertEquals(2, new File(tempDir, HL7Constants.HL7_ARCHIVE_SEGMENTS_DIRECTORY_NAME).list().length);
+		}
+		finally {
+			deleteDirectory(tempDir);
+		}
+	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchiveBatchToFileSystem(HL7InArchiveSegmentWriter, Integer, Map)
+	 */
+	@Test
+	public void migrateHl7InArchiveBatchToFileSystem_shouldPagePastTheArchivesThatFailedToBeWritten() throws IOException {
+		HL7Service hl7service = Context.getHL7Service();
+		List<HL7InArchive> archives = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			HL7InArchive archive = new HL7InArchive();
+			archive.setHL7Source(hl7service.getHL7Source(1));
+			archive.setHL7SourceKey("key" + i);
+			archive.setHL7Data("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|" + i);
+			archive.setMessageState(HL7Constants.HL7_STATUS_PROCESSED);
+			archive.setDateCreated(new GregorianCalendar(2008, Calendar.FEBRUARY, 26).getTime());
+			archives.add(hl7service.saveHL7InArchive(archive));
+		}
+		String failingUuid = archives.get(1).getUuid();
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		File segmentsDir = Files.createTempDirectory("segments").toFile();
+		try (HL7InArchiveSegmentWriter writer = new HL7InArchiveSegmentWriter(segmentsDir, 1024 * 1024) {
+			
+			@Override
+			public URI append(HL7InArchive archive) throws IOException {
+				if (archive.getUuid().equals(failingUuid)) {
+					throw new IOException("The disk is full");
+				}
+				return super.append(archive);
+			}
+		}) {
+			Integer lastHl7InArchiveId = hl7service.migrateHl7InArchiveBatchToFileSystem(writer, null, progressStatusMap);
+			assertEquals(archives.get(2).getHL7InArchiveId(), lastHl7InArchiveId);
+			
+			// the failed archive is still processed but not fetched again
+			assertNull(hl7service.migrateHl7InArchiveBatchToFileSystem(writer, lastHl7InArchiveId, progressStatusMap));
+		}
+		finally {
+			deleteDirectory(segmentsDir);
+		}
+		
+		assertEquals(1, progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY));
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSED, hl7service.getHL7InArchive(archives.get(1).getHL7InArchiveId())
+		        .getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_MIGRATED, hl7service.getHL7InArchive(archives.get(2).getHL7InArchiveId())
+		        .getMessageState());
+	}
 }
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsClassLoader;
 
 public class ModuleFactoryTest extends BaseContextSensitiveTest {
 	
@@ -38,6 +39,10 @@ public class ModuleFactoryTest extends BaseContextSensitiveTest {
 	protected static final String MODULE3 = "test3";
 	protected static final String MODULE3_PATH = "org/openmrs/module/include/test3-1.0-SNAPSHOT.omod";
 	
+	private static final String MODULE1_SERVICE_PACKAGE = "org.openmrs.module.test1.api";
+	
+	private static final String MODULE1_SERVICE_CLASS = MODULE1_SERVICE_PACKAGE + ".Test1Service";
+	
 	@BeforeEach
 	public void before() {
 		ModuleUtil.shutdown();
@@ -179,6 +184,36 @@ public class ModuleFactoryTest extends BaseContextSensitiveTest {
 		assertFalse(test3.isStarted());
 	}
 	
+	@Test
+	public void getModuleClassLoadersForPackage_shouldReturnTheClassLoadersOfTheStartedModulesProvidingThePackage() {
+		ModuleClassLoader test1ClassLoader = ModuleFactory.getModuleClassLoader(MODULE1);
+		
+		assertTrue(ModuleFactory.getModuleClassLoadersForPackage(MODULE1_SERVICE_PACKAGE).contains(test1ClassLoader));
+		assertTrue(ModuleFactory.getModuleClassLoadersForPackage("org.openmrs.module.unknown").isEmpty());
+	}
+	
+	@Test
+	public void stopModule_shouldRemoveThePackagesOfTheModuleFromThePackageIndex() {
+		ModuleFactory.stopModule(ModuleFactory.getModuleById(MODULE1));
+		
+		assertTrue(ModuleFactory.getModuleClassLoadersForPackage(MODULE1_SERVICE_PACKAGE).isEmpty());
+	}
+	
+	@Test
+	public void startModule_shouldLoadAClassThatWasMissingBeforeTheModuleWasStarted() throws ClassNotFoundException {
+		Module test1 = ModuleFactory.getModuleById(MODULE1);
+		ModuleFactory.stopModule(test1);
+		OpenmrsClassLoader classLoader = OpenmrsClassLoader.getInstance();
+		assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(MODULE1_SERVICE_CLASS));
+		// the second lookup is answered by the cache of missing classes
+		assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(MODULE1_SERVICE_CLASS));
+		
+		ModuleFactory.startModule(test1);
+		
+		Class<?> serviceClass = classLoader.loadClass(MODULE1_SERVICE_CLASS);
+		assertEquals(MODULE1, ((ModuleClassLoader) serviceClass.getClassLoader()).getModule().getModuleId());
+	}
+	
 	private Module loadModule(String location, String moduleName, boolean replace) {
 		String moduleLocation = ModuleUtil.class.getClassLoader().getResource(location).getPath();
 
@@ -14,9 +14,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.file.Path;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -46,7 +50,7 @@ public class BinaryDataHandlerTest extends BaseContextSensitiveTest {
 	@Test
     public void shouldReturnSupportedViews() {
         String[] actualViews = handler.getSupportedViews();
-        String[] expectedViews = { ComplexObsHandler.RAW_VIEW };
+        String[] expectedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.STREAM_VIEW };
 
         assertArrayEquals(actualViews, expectedViews);
     }
@@ -101,4 +105,25 @@ public class BinaryDataHandlerTest extends BaseContextSensitiveTest {
 		assertEquals(complexObs2.getComplexData().getMimeType(), mimetype);
 	}
 	
+	@Test
+	public void getObs_shouldReturnAResourceReadingRangesOfTheFileForTheStreamView() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("TestingComplexObsStreaming", "Teststring".getBytes()));
+		handler.saveObs(obs);
+		
+		ComplexData complexData = handler.getObs(obs, ComplexObsHandler.STREAM_VIEW).getComplexData();
+		
+		assertEquals("application/octet-stream", complexData.getMimeType());
+		assertEquals(Long.valueOf(10), complexData.getLength());
+		ComplexDataResource resource = (ComplexDataResource) complexData.getData();
+		try (InputStream in = resource.openStream(4, 6)) {
+			assertEquals("string", IOUtils.toString(in, "UTF-8"));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(4, resource.transferTo(0, 4, Channels.newChannel(out)));
+		assertEquals("Test", out.toString("UTF-8"));
+	}
+	
 }
@@ -0,0 +1,144 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests methods on the {@link ContentAddressedComplexObsStorage} class.
+ */
+public class ContentAddressedComplexObsStorageTest {
+	
+	private static final String CONTENT = "the content of a complex obs";
+	
+	@TempDir
+	public File complexObsTestFolder;
+	
+	private ContentAddressedComplexObsStorage storage;
+	
+	@BeforeEach
+	public void setUp() {
+		storage = new ContentAddressedComplexObsStorage();
+	}
+	
+	/**
+	 * @see ContentAddressedComplexObsStorage#getOutputFile(File, String)
+	 */
+	@Test
+	public void getOutputFile_shouldReturnAFileInTheIncomingDirectory() throws IOException {
+		File outputFile = storage.getOutputFile(complexObsTestFolder, "scan_1234.pdf");
+		
+		assertEquals(new File(complexObsTestFolder, ContentAddressedComplexObsStorage.INCOMING_DIRECTORY), outputFile
+		        .getParentFile());
+		assertTrue(outputFile.getParentFile().isDirectory());
+		assertEquals("scan_1234.pdf", outputFile.getName());
+	}
+	
+	/**
+	 * @see ContentAddressedComplexObsStorage#store(File, File)
+	 */
+	@Test
+	public void store_shouldMoveTheFileIntoSubdirectoriesNamedAfterItsHash() throws IOException {
+		File written = write("scan_1234.PDF");
+		String hash = DigestUtils.sha256Hex(CONTENT);
+		
+		String name = storage.store(complexObsTestFolder, written);
+		
+		assertEquals(hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".pdf", name);
+		assertFalse(written.exists());
+		assertEquals(CONTENT, new String(Files.readAllBytes(new File(complexObsTestFolder, name).toPath()),
+		        StandardCharsets.UTF_8));
+		assertEquals(1, ContentAddressedComplexObsStorage.getReferences(new File(complexObsTestFolder, name)));
+	}
+	
+	/**
+	 * @see ContentAddressedComplexObsStorage#store(File, File)
+	 */
+	@Test
+	public void store_shouldKeepIdenticalFilesOnceAndCountTheirReferences() throws IOException {
+		String first = storage.store(complexObsTestFolder, write("scan_1.pdf"));
+		File second = write("scan_2.pdf");
+		
+		assertEquals(first, storage.store(complexObsTestFolder, second));
+		assertEquals(first, storage.store(complexObsTestFolder, write("scan_3.pdf"), 2));
+		
+		assertFalse(second.exists());
+		assertEquals(4, ContentAddressedComplexObsStorage.getReferences(new File(complexObsTestFolder, first)));
+	}
+	
+	/**
+	 * @see ContentAddressedComplexObsStorage#release(File, String)
+	 */
+	@Test
+	public void release_shouldDeleteTheFileWhenTheLastReferenceIsReleased() throws IOException {
+		String name = storage.store(complexObsTestFolder, write("scan_1.pdf"));
+		storage.store(complexObsTestFolder, write("scan_2.pdf"));
+		File stored = new File(complexObsTestFolder, name);
+		
+		assertTrue(storage.release(complexObsTestFolder, name));
+		assertTrue(stored.exists());
+		assertEquals(1, ContentAddressedComplexObsStorage.getReferences(stored));
+		
+		assertTrue(storage.release(complexObsTestFolder, name));
+		assertFalse(stored.exists());
+		assertFalse(new File(stored.getPath() + ".refs").exists());
+	}
+	
+	/**
+	 * @see FlatComplexObsStorage#release(File, String)
+	 */
+	@Test
+	public void release_shouldCountTheReferencesWhenReleasedByTheFlatStorage() throws IOException {
+		String name = storage.store(complexObsTestFolder, write("scan_1.pdf"));
+		storage.store(complexObsTestFolder, write("scan_2.pdf"));
+		File flat = write("scan_3.pdf");
+		
+		FlatComplexObsStorage flatStorage = new FlatComplexObsStorage();
+		assertTrue(flatStorage.release(complexObsTestFolder, name));
+		assertTrue(flatStorage.release(complexObsTestFolder, flat.getName()));
+		
+		assertTrue(new File(complexObsTestFolder, name).exists());
+		assertFalse(flat.exists());
+	}
+	
+	/**
+	 * @see ContentAddressedComplexObsStorage#isContentAddressed(String)
+	 */
+	@Test
+	public void isContentAddressed_shouldOnlyMatchNamesGivenByTheStorage() {
+		String hash = DigestUtils.sha256Hex(CONTENT);
+		
+		assertTrue(ContentAddressedComplexObsStorage.isContentAddressed(hash.substring(0, 2) + "/"
+		        + hash.substring(2, 4) + "/" + hash + ".jpg"));
+		assertTrue(ContentAddressedComplexObsStorage.isContentAddressed(hash.substring(0, 2) + "/"
+		        + hash.substring(2, 4) + "/" + hash));
+		assertFalse(ContentAddressedComplexObsStorage.isContentAddressed("scan_" + hash + ".jpg"));
+		assertFalse(ContentAddressedComplexObsStorage.isContentAddressed("../../" + hash + ".jpg"));
+		assertFalse(ContentAddressedComplexObsStorage.isContentAddressed(null));
+	}
+	
+	private File write(String fileName) throws IOException {
+		File file = new File(complexObsTestFolder, fileName);
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
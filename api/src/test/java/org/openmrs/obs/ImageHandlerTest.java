@@ -12,6 +12,9 @@ package org.openmrs.obs;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
@@ -28,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.openmrs.GlobalProperty;
 import org.openmrs.Obs;
+import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.obs.handler.ImageHandler;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
@@ -49,7 +53,8 @@ public class ImageHandlerTest extends BaseContextSensitiveTest {
 	@Test
 	public void shouldReturnSupportedViews() {
 		String[] actualViews = handler.getSupportedViews();
-		String[] expectedViews = { ComplexObsHandler.RAW_VIEW };
+		String[] expectedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.STREAM_VIEW,
+		        ComplexObsHandler.THUMBNAIL_VIEW };
 		
 		assertArrayEquals(actualViews, expectedViews);
 	}
@@ -115,4 +120,107 @@ public class ImageHandlerTest extends BaseContextSensitiveTest {
 		        complexObsTestFolder.toAbsolutePath().toString()));
 		handler.saveObs(obs);
 	}
+	
+	@Test
+	public void getObs_shouldReturnTheImageFileWithoutDecodingItForTheStreamView() throws IOException {
+		Path sourceFile = Paths.get("src", "test", "resources", "ComplexObsTestImage.png");
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("TestingComplexObsStreaming.png", Files.readAllBytes(sourceFile)));
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		handler.saveObs(obs);
+		
+		ComplexData complexData = handler.getObs(obs, ComplexObsHandler.STREAM_VIEW).getComplexData();
+		
+		assertEquals("image/png", complexData.getMimeType());
+		ComplexDataResource resource = (ComplexDataResource) complexData.getData();
+		assertEquals(resource.getLength(), complexData.getLength().longValue());
+		assertNotNull(ImageIO.read(resource.getFile()));
+	}
+	
+	@Test
+	public void getObs_shouldReturnAThumbnailOfTheFirstConfiguredSizeForTheThumbnailView() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES, "64,128"));
+		Obs obs = saveImageObs("TestingThumbnail.png");
+		
+		ComplexData complexData = handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW).getComplexData();
+		
+		assertEquals("image/png", complexData.getMimeType());
+		File thumbnail = ((ComplexDataResource) complexData.getData()).getFile();
+		BufferedImage img = ImageIO.read(thumbnail);
+		assertEquals(64, img.getWidth());
+		assertEquals(32, img.getHeight());
+		assertEquals(thumbnail, ((ComplexDataResource) handler.getThumbnailObs(obs, 64).getComplexData().getData())
+		        .getFile());
+		assertEquals(128, ImageIO.read(
+		    ((ComplexDataResource) handler.getThumbnailObs(obs, 128).getComplexData().getData()).getFile()).getWidth());
+	}
+	
+	@Test
+	public void getThumbnailObs_shouldFailForASizeThatIsNotConfigured() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES, "64"));
+		Obs obs = saveImageObs("TestingThumbnail.png");
+		
+		assertThrows(APIException.class, () -> handler.getThumbnailObs(obs, 65));
+	}
+	
+	@Test
+	public void getThumbnailObs_shouldDeleteTheLeastRecentlyUsedThumbnailsBeyondTheMaximumSize() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES, "64"));
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_IMAGE_DERIVATIVE_CACHE_MAX_BYTES, "1"));
+		Obs obs1 = saveImageObs("TestingThumbnail1.png");
+		Obs obs2 = saveImageObs("TestingThumbnail2.png");
+		
+		File thumbnail1 = ((ComplexDataResource) handler.getThumbnailObs(obs1, 64).getComplexData().getData()).getFile();
+		File thumbnail2 = ((ComplexDataResource) handler.getThumbnailObs(obs2, 64).getComplexData().getData()).getFile();
+		
+		assertFalse(thumbnail1.exists());
+		assertTrue(thumbnail2.exists());
+	}
+	
+	@Test
+	public void purgeComplexData_shouldDeleteTheThumbnailsOfTheImage() throws IOException {
+		Obs obs = saveImageObs("TestingThumbnail.png");
+		File thumbnail = ((ComplexDataResource) handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW).getComplexData()
+		        .getData()).getFile();
+		
+		assertTrue(handler.purgeComplexData(obs));
+		
+		assertFalse(thumbnail.exists());
+	}
+	
+	@Test
+	public void purgeComplexData_shouldKeepTheThumbnailsOfAnImageThatOnlyDiffersInItsExtension() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_IMAGE_THUMBNAIL_SIZES, "64"));
+		Obs gif = writeImageObs("TestingThumbnail.gif", "gif");
+		Obs png = writeImageObs("TestingThumbnail.png", "png");
+		File gifThumbnail = ((ComplexDataResource) handler.getThumbnailObs(gif, 64).getComplexData().getData())
+		        .getFile();
+		File pngThumbnail = ((ComplexDataResource) handler.getThumbnailObs(png, 64).getComplexData().getData())
+		        .getFile();
+		
+		assertNotEquals(gifThumbnail, pngThumbnail);
+		assertTrue(handler.purgeComplexData(gif));
+		
+		assertFalse(gifThumbnail.exists());
+		assertTrue(pngThumbnail.exists());
+	}
+	
+	private Obs writeImageObs(String fileName, String format) throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), format, complexObsTestFolder.resolve(
+		    fileName).toFile());
+		Obs obs = new Obs();
+		obs.setValueComplex(fileName + " |" + fileName);
+		return obs;
+	}
+	
+	private Obs saveImageObs(String title) {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData(title, new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB)));
+		return handler.saveObs(obs);
+	}
 }
@@ -0,0 +1,132 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Calendar;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+/**
+ * Tests methods in {@link ExecutorSchedulerServiceImpl}
+ */
+public class ExecutorSchedulerServiceImplTest extends BaseContextSensitiveTest {
+	
+	private ExecutorSchedulerServiceImpl schedulerService;
+	
+	@BeforeEach
+	public void setUp() {
+		schedulerService = new ExecutorSchedulerServiceImpl();
+		schedulerService.setSchedulerDAO(Context.getRegisteredComponent("schedulerDAO", SchedulerDAO.class));
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		schedulerService.onShutdown();
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldScheduleTheTaskForItsNextExecutionTime() throws SchedulerException {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		
+		assertNotNull(schedulerService.scheduleTask(taskDefinition));
+		
+		assertNotNull(taskDefinition.getId());
+		assertTrue(taskDefinition.getStarted());
+		assertTrue(schedulerService.getScheduledTasks().contains(taskDefinition));
+		assertTrue(schedulerService.getStatus(taskDefinition.getId()).startsWith("Scheduled to execute at"));
+		assertEquals(0, schedulerService.getTaskRunStatistics(taskDefinition.getId()).getRunCount());
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldUseTheMissedRunPolicySetInTheTaskProperties() throws SchedulerException {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		taskDefinition.setProperty(SchedulerConstants.MISSED_RUN_POLICY_TASK_PROPERTY, "skip");
+		schedulerService.scheduleTask(taskDefinition);
+		
+		TaskDefinition otherTaskDefinition = createTaskDefinition();
+		otherTaskDefinition.setName("OtherTestTask");
+		schedulerService.scheduleTask(otherTaskDefinition);
+		
+		assertEquals(MissedRunPolicy.SKIP, getSchedulerTask(taskDefinition).getMissedRunPolicy());
+		assertEquals(schedulerService.getMissedRunPolicy(), getSchedulerTask(otherTaskDefinition).getMissedRunPolicy());
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldCancelTheExistingScheduleOfTheTask() throws SchedulerException {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		schedulerService.scheduleTask(taskDefinition);
+		ExecutorSchedulerTask first = getSchedulerTask(taskDefinition);
+		
+		schedulerService.scheduleTask(taskDefinition);
+		
+		assertTrue(first.isCancelled());
+		assertTrue(getSchedulerTask(taskDefinition).isScheduled());
+		assertEquals(first.getStatistics(), getSchedulerTask(taskDefinition).getStatistics());
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#shutdownTask(TaskDefinition)
+	 */
+	@Test
+	public void shutdownTask_shouldCancelTheTask() throws SchedulerException {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		schedulerService.scheduleTask(taskDefinition);
+		ExecutorSchedulerTask schedulerTask = getSchedulerTask(taskDefinition);
+		
+		schedulerService.shutdownTask(taskDefinition);
+		
+		assertTrue(schedulerTask.isCancelled());
+		assertFalse(taskDefinition.getStarted());
+		assertTrue(schedulerService.getScheduledTasks().isEmpty());
+		assertEquals("Not Running", schedulerService.getStatus(taskDefinition.getId()));
+	}
+	
+	private ExecutorSchedulerTask getSchedulerTask(TaskDefinition taskDefinition) {
+		return schedulerService.getSchedulerTask(taskDefinition.getId());
+	}
+	
+	/**
+	 * Creates a task which is due in an hour so that it does not run during the test
+	 */
+	private TaskDefinition createTaskDefinition() {
+		Calendar startTime = Calendar.getInstance();
+		startTime.add(Calendar.HOUR, 1);
+		
+		TaskDefinition taskDefinition = new TaskDefinition();
+		taskDefinition.setName("TestTask");
+		taskDefinition.setTaskClass("org.openmrs.scheduler.tasks.TestTask");
+		taskDefinition.setStartTime(startTime.getTime());
+		taskDefinition.setRepeatInterval(3600L);
+		taskDefinition.setStartOnStartup(false);
+		return taskDefinition;
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskRunStatistics;
+
+/**
+ * Tests {@link ExecutorSchedulerTask}.
+ */
+public class ExecutorSchedulerTaskTest {
+	
+	private static final long INTERVAL = 1000;
+	
+	private static final long START = 1_000_000;
+	
+	@Test
+	public void run_shouldRecordTheRunTimeMetrics() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.RUN_ONCE);
+		
+		schedulerTask.run(START);
+		schedulerTask.run(START + INTERVAL);
+		
+		TaskRunStatistics statistics = schedulerTask.getStatistics();
+		assertEquals(2, schedulerTask.executions.get());
+		assertEquals(2, statistics.getRunCount());
+		assertEquals(0, statistics.getFailureCount());
+		assertEquals(START + INTERVAL, statistics.getLastStartTime().getTime());
+		assertFalse(statistics.isRunning());
+	}
+	
+	@Test
+	public void run_shouldKeepRunningTheTaskAfterAFailure() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.RUN_ONCE);
+		schedulerTask.failure = new IllegalStateException("broken");
+		
+		schedulerTask.run(START);
+		schedulerTask.failure = null;
+		schedulerTask.run(START + INTERVAL);
+		
+		TaskRunStatistics statistics = schedulerTask.getStatistics();
+		assertEquals(2, statistics.getRunCount());
+		assertEquals(1, statistics.getFailureCount());
+		assertEquals(1, schedulerTask.reportedFailures.get());
+		assertEquals("java.lang.IllegalStateException: broken", statistics.getLastFailure());
+	}
+	
+	@Test
+	public void run_shouldNotStartARunWhileAnotherRunOfTheTaskIsInProgress() {
+		TaskRunStatistics statistics = new TaskRunStatistics();
+		assertTrue(statistics.runStarted(START));
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(statistics, MissedRunPolicy.RUN_ALL);
+		
+		schedulerTask.run(START);
+		
+		assertEquals(0, schedulerTask.executions.get());
+		assertEquals(1, statistics.getSkippedCount());
+	}
+	
+	@Test
+	public void run_shouldMakeUpForEveryMissedRunIfThePolicyIsRunAll() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.RUN_ALL);
+		
+		triggerThreeRunsLate(schedulerTask);
+		
+		assertEquals(3, schedulerTask.executions.get());
+	}
+	
+	@Test
+	public void run_shouldCollapseMissedRunsIntoOneIfThePolicyIsRunOnce() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.RUN_ONCE);
+		
+		triggerThreeRunsLate(schedulerTask);
+		
+		assertEquals(1, schedulerTask.executions.get());
+		assertEquals(2, schedulerTask.getStatistics().getSkippedCount());
+	}
+	
+	@Test
+	public void run_shouldSkipARunThatThePreviousRunOverranIfThePolicyIsSkip() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.SKIP);
+		schedulerTask.getStatistics().runStarted(START - INTERVAL);
+		schedulerTask.getStatistics().runFinished(START + INTERVAL / 2, INTERVAL + INTERVAL / 2, null);
+		
+		schedulerTask.run(START + INTERVAL / 2);
+		
+		assertEquals(0, schedulerTask.executions.get());
+	}
+	
+	@Test
+	public void cancel_shouldStopFutureRunsAndShutdownTheTask() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(MissedRunPolicy.RUN_ALL);
+		ScheduledFuture<?> future = mock(ScheduledFuture.class);
+		schedulerTask.setFuture(future);
+		
+		schedulerTask.cancel();
+		schedulerTask.run(START);
+		
+		assertTrue(schedulerTask.isCancelled());
+		assertFalse(schedulerTask.isScheduled());
+		assertEquals(0, schedulerTask.executions.get());
+		verify(future).cancel(false);
+		verify(schedulerTask.getTask()).shutdown();
+	}
+	
+	@Test
+	public void isMissed_shouldNeverSkipOneShotTasks() {
+		TestExecutorSchedulerTask schedulerTask = new TestExecutorSchedulerTask(new TaskRunStatistics(),
+		        MissedRunPolicy.SKIP, 0);
+		
+		assertFalse(schedulerTask.isMissed(START, START + 10 * INTERVAL));
+	}
+	
+	/**
+	 * Triggers the runs due at START, START + INTERVAL and START + 2 * INTERVAL at once, as the
+	 * executor does after the server was too busy to run the task for a while
+	 */
+	private void triggerThreeRunsLate(TestExecutorSchedulerTask schedulerTask) {
+		long now = START + 2 * INTERVAL + INTERVAL / 2;
+		for (int i = 0; i < 3; i++) {
+			schedulerTask.run(now);
+		}
+	}
+	
+	private static class TestExecutorSchedulerTask extends ExecutorSchedulerTask {
+		
+		private final AtomicInteger executions = new AtomicInteger();
+		
+		private final AtomicInteger reportedFailures = new AtomicInteger();
+		
+		private RuntimeException failure;
+		
+		TestExecutorSchedulerTask(MissedRunPolicy missedRunPolicy) {
+			this(new TaskRunStatistics(), missedRunPolicy);
+		}
+		
+		TestExecutorSchedulerTask(TaskRunStatistics statistics, MissedRunPolicy missedRunPolicy) {
+			this(statistics, missedRunPolicy, INTERVAL);
+		}
+		
+		TestExecutorSchedulerTask(TaskRunStatistics statistics, MissedRunPolicy missedRunPolicy, long repeatInterval) {
+			super(mock(Task.class), statistics, missedRunPolicy, START, repeatInterval);
+		}
+		
+		@Override
+		void execute() {
+			executions.incrementAndGet();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+		
+		@Override
+		void reportFailure(Exception e) {
+			reportedFailures.incrementAndGet();
+		}
+	}
+}
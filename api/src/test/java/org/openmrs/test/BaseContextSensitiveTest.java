@@ -84,6 +84,7 @@ import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.ContextMockHelper;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.api.impl.GlobalPropertyCache;
 import org.openmrs.module.ModuleConstants;
 import org.openmrs.util.DatabaseUtil;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -836,6 +837,7 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			clearGlobalPropertyCache();
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
@@ -906,6 +908,17 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		clearGlobalPropertyCache();
+	}
+	
+	/**
+	 * Global properties inserted by datasets or rolled back with a test bypass the service layer, so
+	 * the cached values have to be dropped
+	 */
+	private void clearGlobalPropertyCache() {
+		if (applicationContext.containsBean("globalPropertyCache")) {
+			applicationContext.getBean("globalPropertyCache", GlobalPropertyCache.class).clear();
+		}
 	}
 	
 	/**
@@ -74,6 +74,7 @@ import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.ContextMockHelper;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.api.impl.GlobalPropertyCache;
 import org.openmrs.module.ModuleConstants;
 import org.openmrs.test.Containers;
 import org.openmrs.test.OpenmrsMetadataHandler;
@@ -826,6 +827,7 @@ public abstract class BaseContextSensitiveTest {
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			clearGlobalPropertyCache();
 			
 			if (isPostgreSQL()) {
 				Context.getAdministrationService().updatePostgresSequence();
@@ -915,6 +917,17 @@ public abstract class BaseContextSensitiveTest {
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		clearGlobalPropertyCache();
+	}
+	
+	/**
+	 * Global properties inserted by datasets or rolled back with a test bypass the service layer, so
+	 * the cached values have to be dropped
+	 */
+	private void clearGlobalPropertyCache() {
+		if (applicationContext.containsBean("globalPropertyCache")) {
+			applicationContext.getBean("globalPropertyCache", GlobalPropertyCache.class).clear();
+		}
 	}
 	
 	/**
@@ -0,0 +1,148 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IntBitmap}.
+ */
+public class IntBitmapTest {
+	
+	private final Random random = new Random(42);
+	
+	@Test
+	public void add_shouldReturnTrueOnlyForNewValues() {
+		IntBitmap bitmap = new IntBitmap();
+		assertTrue(bitmap.add(5));
+		assertFalse(bitmap.add(5));
+		assertTrue(bitmap.add(70000));
+		assertEquals(2, bitmap.getCardinality());
+	}
+	
+	@Test
+	public void add_shouldKeepValuesWhenASparseGroupBecomesDense() {
+		IntBitmap bitmap = new IntBitmap();
+		for (int i = 0; i < 10000; i++) {
+			bitmap.add(i * 3);
+		}
+		assertEquals(10000, bitmap.getCardinality());
+		for (int i = 0; i < 30000; i++) {
+			assertEquals(i % 3 == 0, bitmap.contains(i));
+		}
+	}
+	
+	@Test
+	public void toArray_shouldReturnTheValuesInAscendingOrder() {
+		IntBitmap bitmap = IntBitmap.of(200000, 3, 70000, 1, 3);
+		assertArrayEquals(new int[] { 1, 3, 70000, 200000 }, bitmap.toArray());
+		assertEquals(new TreeSet<>(Arrays.asList(1, 3, 70000, 200000)), bitmap.toSet());
+	}
+	
+	@Test
+	public void or_shouldMatchTheUnionOfSets() {
+		for (int round = 0; round < 5; round++) {
+			Set<Integer> a = randomValues();
+			Set<Integer> b = randomValues();
+			Set<Integer> expected = new TreeSet<>(a);
+			expected.addAll(b);
+			assertEquals(expected, IntBitmap.or(IntBitmap.of(a), IntBitmap.of(b)).toSet());
+		}
+	}
+	
+	@Test
+	public void and_shouldMatchTheIntersectionOfSets() {
+		for (int round = 0; round < 5; round++) {
+			Set<Integer> a = randomValues();
+			Set<Integer> b = randomValues();
+			Set<Integer> expected = new TreeSet<>(a);
+			expected.retainAll(b);
+			IntBitmap result = IntBitmap.and(IntBitmap.of(a), IntBitmap.of(b));
+			assertEquals(expected, result.toSet());
+			assertEquals(expected.size(), result.getCardinality());
+		}
+	}
+	
+	@Test
+	public void andNot_shouldMatchTheDifferenceOfSets() {
+		for (int round = 0; round < 5; round++) {
+			Set<Integer> a = randomValues();
+			Set<Integer> b = randomValues();
+			Set<Integer> expected = new TreeSet<>(a);
+			expected.removeAll(b);
+			IntBitmap result = IntBitmap.andNot(IntBitmap.of(a), IntBitmap.of(b));
+			assertEquals(expected, result.toSet());
+			assertEquals(expected.size(), result.getCardinality());
+		}
+	}
+	
+	@Test
+	public void or_shouldNotModifyTheArguments() {
+		IntBitmap a = IntBitmap.of(1, 2, 3);
+		IntBitmap b = IntBitmap.of(3, 4);
+		IntBitmap.or(a, b).add(5);
+		assertEquals(IntBitmap.of(1, 2, 3), a);
+		assertEquals(IntBitmap.of(3, 4), b);
+	}
+	
+	@Test
+	public void andNot_shouldReturnAnEmptyBitmapWhenSubtractingItself() {
+		IntBitmap a = IntBitmap.of(randomValues());
+		IntBitmap result = IntBitmap.andNot(a, a);
+		assertTrue(result.isEmpty());
+		assertEquals(0, result.getCardinality());
+	}
+	
+	@Test
+	public void equals_shouldCompareTheValues() {
+		Set<Integer> values = randomValues();
+		IntBitmap a = IntBitmap.of(values);
+		IntBitmap b = IntBitmap.of(new TreeSet<>(values).descendingSet());
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		b.add(-1);
+		assertNotEquals(a, b);
+	}
+	
+	@Test
+	public void copy_shouldBeIndependentOfTheOriginal() {
+		IntBitmap original = IntBitmap.of(1, 2);
+		IntBitmap copy = original.copy();
+		copy.add(3);
+		assertFalse(original.contains(3));
+		assertEquals(original, SerializationUtils.clone(original));
+	}
+	
+	/**
+	 * Values in a mix of sparse and dense groups so all container combinations are exercised
+	 */
+	private Set<Integer> randomValues() {
+		Set<Integer> values = new TreeSet<>();
+		for (int group = 0; group < 6; group++) {
+			int count = random.nextBoolean() ? random.nextInt(IntBitmap.MAX_ARRAY_SIZE) : 20000 + random.nextInt(20000);
+			for (int i = 0; i < count; i++) {
+				values.add((group << 16) | random.nextInt(1 << 16));
+			}
+		}
+		return values;
+	}
+}
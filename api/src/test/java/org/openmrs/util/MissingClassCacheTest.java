@@ -0,0 +1,77 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests methods on the {@link MissingClassCache} class.
+ */
+public class MissingClassCacheTest {
+	
+	private final MissingClassCache cache = new MissingClassCache();
+	
+	/**
+	 * @see MissingClassCache#add(String, long)
+	 */
+	@Test
+	public void add_shouldRememberAClassThatWasNotFound() {
+		cache.add("org.openmrs.Missing", cache.getGeneration());
+		
+		assertTrue(cache.contains("org.openmrs.Missing"));
+		assertFalse(cache.contains("org.openmrs.Other"));
+	}
+	
+	/**
+	 * @see MissingClassCache#add(String, long)
+	 */
+	@Test
+	public void add_shouldNotRememberAClassIfTheCacheWasClearedDuringTheLookup() {
+		long lookupGeneration = cache.getGeneration();
+		cache.clear();
+		
+		cache.add("org.openmrs.Missing", lookupGeneration);
+		
+		assertFalse(cache.contains("org.openmrs.Missing"));
+	}
+	
+	/**
+	 * @see MissingClassCache#add(String, long)
+	 */
+	@Test
+	public void add_shouldForgetTheRememberedClassesOnceTheMaximumIsReached() {
+		long lookupGeneration = cache.getGeneration();
+		for (int i = 0; i < MissingClassCache.MAX_MISSING_CLASSES; i++) {
+			cache.add("org.openmrs.Missing" + i, lookupGeneration);
+		}
+		
+		cache.add("org.openmrs.Missing", lookupGeneration);
+		
+		assertFalse(cache.contains("org.openmrs.Missing0"));
+		assertTrue(cache.contains("org.openmrs.Missing"));
+	}
+	
+	/**
+	 * @see MissingClassCache#clear()
+	 */
+	@Test
+	public void clear_shouldForgetTheRememberedClasses() {
+		cache.add("org.openmrs.Missing", cache.getGeneration());
+		
+		cache.clear();
+		
+		assertFalse(cache.contains("org.openmrs.Missing"));
+		cache.add("org.openmrs.Missing", cache.getGeneration());
+		assertTrue(cache.contains("org.openmrs.Missing"));
+	}
+}
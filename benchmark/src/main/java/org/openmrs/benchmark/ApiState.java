@@ -0,0 +1,57 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Starts the api and generates the baseline dataset once per benchmark run
+ */
+@State(Scope.Benchmark)
+public class ApiState {
+	
+	@Param({ "1000" })
+	public int patientCount;
+	
+	@Param({ "10" })
+	public int obsPerPatient;
+	
+	@Param({ "500" })
+	public int conceptCount;
+	
+	private BenchmarkContext context;
+	
+	private List<Integer> patientIds;
+	
+	@Setup(Level.Trial)
+	public void start() throws Exception {
+		context = BenchmarkContext.start();
+		BaselineDatasetGenerator generator = new BaselineDatasetGenerator(patientCount, obsPerPatient, conceptCount);
+		generator.generate(context);
+		patientIds = generator.getPatientIds();
+	}
+	
+	public BenchmarkContext getContext() {
+		return context;
+	}
+	
+	/**
+	 * @return the ids of the generated patients
+	 */
+	public List<Integer> getPatientIds() {
+		return patientIds;
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.PersonName;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds a reproducible set of patients, encounters, observations and concepts on top of the
+ * standard test dataset so that searches and retrievals run against more than a handful of rows.
+ * The same sizes always produce the same data, which keeps the results of different releases
+ * comparable.
+ */
+public class BaselineDatasetGenerator {
+	
+	private static final Logger log = LoggerFactory.getLogger(BaselineDatasetGenerator.class);
+	
+	public static final String[] GIVEN_NAMES = { "Amani", "Baraka", "Chausiku", "Daudi", "Esther", "Faraji", "Grace",
+	        "Hamisi", "Imani", "Jabari", "Kesi", "Lulu", "Mosi", "Neema", "Obi", "Penda", "Rehema", "Sefu", "Tumaini",
+	        "Upendo", "Wanjiru", "Zawadi" };
+	
+	public static final String[] FAMILY_NAMES = { "Achieng", "Banda", "Chege", "Dlamini", "Eze", "Fofana", "Gathoni",
+	        "Hakizimana", "Irungu", "Juma", "Kamau", "Lungu", "Mwangi", "Nkosi", "Odhiambo", "Phiri", "Rotich",
+	        "Sesay", "Tembo", "Uwimana", "Wekesa", "Zulu" };
+	
+	public static final String CONCEPT_NAME_PREFIX = "BENCHMARK CONCEPT ";
+	
+	public static final String CONCEPT_SYNONYM_PREFIX = "BENCHMARK SYNONYM ";
+	
+	/**
+	 * The numeric weight concept of the standard test dataset
+	 */
+	public static final int OBS_CONCEPT_ID = 5089;
+	
+	private static final int IDENTIFIER_TYPE_ID = 2;
+	
+	private static final int LOCATION_ID = 1;
+	
+	private static final int ENCOUNTER_TYPE_ID = 1;
+	
+	private static final int MISC_CONCEPT_CLASS_ID = 11;
+	
+	private static final int NA_CONCEPT_DATATYPE_ID = 4;
+	
+	private static final int CHUNK_SIZE = 100;
+	
+	private final int patientCount;
+	
+	private final int obsPerPatient;
+	
+	private final int conceptCount;
+	
+	private final Random random = new Random(20240101L);
+	
+	private final List<Integer> patientIds = new ArrayList<>();
+	
+	public BaselineDatasetGenerator(int patientCount, int obsPerPatient, int conceptCount) {
+		this.patientCount = patientCount;
+		this.obsPerPatient = obsPerPatient;
+		this.conceptCount = conceptCount;
+	}
+	
+	/**
+	 * Saves the generated data in chunks of committed transactions and rebuilds the search indexes
+	 *
+	 * @param context the started benchmark context
+	 */
+	public void generate(BenchmarkContext context) {
+		long start = System.currentTimeMillis();
+		for (int first = 0; first < conceptCount; first += CHUNK_SIZE) {
+			int last = Math.min(first + CHUNK_SIZE, conceptCount);
+			int from = first;
+			context.inTransaction(() -> saveConcepts(from, last));
+			Context.clearSession();
+		}
+		for (int first = 0; first < patientCount; first += CHUNK_SIZE) {
+			int last = Math.min(first + CHUNK_SIZE, patientCount);
+			int from = first;
+			patientIds.addAll(context.inTransaction(() -> savePatients(from, last)));
+			Context.clearSession();
+		}
+		context.inTransaction(() -> {
+			context.updateSearchIndex();
+			return null;
+		});
+		log.info("Generated {} patients with {} observations each and {} concepts in {}ms", patientCount, obsPerPatient,
+		    conceptCount, System.currentTimeMillis() - start);
+	}
+	
+	/**
+	 * @return the ids of the generated patients in the order they were saved
+	 */
+	public List<Integer> getPatientIds() {
+		return patientIds;
+	}
+	
+	private Void saveConcepts(int first, int last) {
+		ConceptService conceptService = Context.getConceptService();
+		for (int i = first; i < last; i++) {
+			Concept concept = new Concept();
+			concept.setFullySpecifiedName(new ConceptName(CONCEPT_NAME_PREFIX + i, Locale.ENGLISH));
+			concept.addName(new ConceptName(CONCEPT_SYNONYM_PREFIX + i, Locale.ENGLISH));
+			concept.setConceptClass(conceptService.getConceptClass(MISC_CONCEPT_CLASS_ID));
+			concept.setDatatype(conceptService.getConceptDatatype(NA_CONCEPT_DATATYPE_ID));
+			conceptService.saveConcept(concept);
+		}
+		return null;
+	}
+	
+	private List<Integer> savePatients(int first, int last) {
+		PatientIdentifierType identifierType = Context.getPatientService().getPatientIdentifierType(IDENTIFIER_TYPE_ID);
+		Location location = Context.getLocationService().getLocation(LOCATION_ID);
+		EncounterType encounterType = Context.getEncounterService().getEncounterType(ENCOUNTER_TYPE_ID);
+		Concept obsConcept = Context.getConceptService().getConcept(OBS_CONCEPT_ID);
+		
+		List<Integer> savedIds = new ArrayList<>();
+		for (int i = first; i < last; i++) {
+			Patient patient = new Patient();
+			patient.setGender(random.nextBoolean() ? "F" : "M");
+			patient.setBirthdate(randomDate(1940, 2020));
+			patient.addName(new PersonName(pick(GIVEN_NAMES), null, pick(FAMILY_NAMES)));
+			PatientIdentifier identifier = new PatientIdentifier(getIdentifier(i), identifierType, location);
+			identifier.setPreferred(true);
+			patient.addIdentifier(identifier);
+			Context.getPatientService().savePatient(patient);
+			savedIds.add(patient.getPatientId());
+			
+			Encounter encounter = new Encounter();
+			encounter.setPatient(patient);
+			encounter.setEncounterType(encounterType);
+			encounter.setLocation(location);
+			encounter.setEncounterDatetime(randomDate(2015, 2023));
+			for (int j = 0; j < obsPerPatient; j++) {
+				Obs obs = new Obs(patient, obsConcept, encounter.getEncounterDatetime(), location);
+				obs.setValueNumeric(40 + random.nextInt(600) / 10d);
+				encounter.addObs(obs);
+			}
+			Context.getEncounterService().saveEncounter(encounter);
+		}
+		return savedIds;
+	}
+	
+	/**
+	 * @param index the index of a generated patient
+	 * @return the identifier of the generated patient
+	 */
+	public static String getIdentifier(int index) {
+		return String.format("BM%07d", index);
+	}
+	
+	private String pick(String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+	
+	private Date randomDate(int fromYear, int toYear) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(fromYear + random.nextInt(toYear - fromYear), random.nextInt(12), 1 + random.nextInt(28));
+		return calendar.getTime();
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.function.Supplier;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.test.context.TestContextManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Starts the api against the in-memory database with the standard test dataset, the same way
+ * {@link BaseContextSensitiveTest} does for the api tests. The spring context is started once per
+ * JVM, JMH runs every benchmark in a forked JVM of its own.
+ */
+public class BenchmarkContext extends BaseContextSensitiveTest {
+	
+	private static BenchmarkContext instance;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Starts the spring context and loads the standard test dataset unless it is already started
+	 *
+	 * @return the started context
+	 */
+	public static synchronized BenchmarkContext start() throws Exception {
+		if (instance == null) {
+			BenchmarkContext context = new BenchmarkContext();
+			new TestContextManager(BenchmarkContext.class).prepareTestInstance(context);
+			context.transactionTemplate = new TransactionTemplate(context.applicationContext.getBean(
+			    "transactionManager", PlatformTransactionManager.class));
+			context.inTransaction(() -> {
+				try {
+					context.baseSetupWithStandardDataAndAuthentication();
+				}
+				catch (Exception e) {
+					throw new IllegalStateException("Failed to load the standard test dataset", e);
+				}
+				return null;
+			});
+			instance = context;
+		}
+		return instance;
+	}
+	
+	/**
+	 * Opens a session for the current thread and authenticates it as the admin user of the test
+	 * dataset, benchmark threads need a session of their own
+	 */
+	public static void openUserSession() {
+		Context.openSession();
+		Context.authenticate(new UsernamePasswordCredentials("admin", "test"));
+	}
+	
+	/**
+	 * Closes the session of the current thread
+	 */
+	public static void closeUserSession() {
+		Context.closeSession();
+	}
+	
+	/**
+	 * Runs the given work in a transaction that is committed
+	 *
+	 * @param work the work to run
+	 * @return the result of the work
+	 */
+	public <T> T inTransaction(Supplier<T> work) {
+		return transactionTemplate.execute(status -> work.get());
+	}
+	
+	/**
+	 * Runs the given work in a transaction that is rolled back after the session has been flushed,
+	 * so that benchmarks of saves include the sql statements without growing the database. The
+	 * session is cleared afterwards since it still holds the rolled back objects.
+	 *
+	 * @param work the work to run
+	 * @return the result of the work
+	 */
+	public <T> T inRolledBackTransaction(Supplier<T> work) {
+		try {
+			return transactionTemplate.execute(status -> {
+				status.setRollbackOnly();
+				T result = work.get();
+				Context.flushSession();
+				return result;
+			});
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+}
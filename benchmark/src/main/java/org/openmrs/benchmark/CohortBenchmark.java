@@ -0,0 +1,93 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Cohort;
+import org.openmrs.util.IntBitmap;
+
+/**
+ * Cohort set algebra and membership checks on cohorts of patient ids, no database is involved.
+ * The two cohorts draw their members from the same range of ids so that about half of them
+ * overlap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CohortBenchmark {
+	
+	@Param({ "10000", "100000", "1000000" })
+	public int size;
+	
+	private Cohort a;
+	
+	private Cohort b;
+	
+	private int[] probes;
+	
+	private int nextProbe;
+	
+	@Setup
+	public void createCohorts() {
+		Random random = new Random(42);
+		a = new Cohort("a", null, randomIds(random));
+		b = new Cohort("b", null, randomIds(random));
+		probes = new int[1024];
+		for (int i = 0; i < probes.length; i++) {
+			probes[i] = 1 + random.nextInt(size * 2);
+		}
+	}
+	
+	private IntBitmap randomIds(Random random) {
+		IntBitmap ids = new IntBitmap();
+		while (ids.getCardinality() < size) {
+			ids.add(1 + random.nextInt(size * 2));
+		}
+		return ids;
+	}
+	
+	@Benchmark
+	public Cohort union() {
+		return Cohort.union(a, b);
+	}
+	
+	@Benchmark
+	public Cohort intersect() {
+		return Cohort.intersect(a, b);
+	}
+	
+	@Benchmark
+	public Cohort subtract() {
+		return Cohort.subtract(a, b);
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean contains() {
+		nextProbe = (nextProbe + 1) & (probes.length - 1);
+		return a.contains(probes[nextProbe]);
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Concept;
+import org.openmrs.ConceptClass;
+import org.openmrs.ConceptDatatype;
+import org.openmrs.ConceptDescription;
+import org.openmrs.ConceptName;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Loading a generated dictionary one concept at a time through saveConcept compared with the bulk
+ * import, which batches the inserts, looks up duplicate names in parallel and rebuilds the concept
+ * name index once at the end. Every generated concept has two names and a description, run with
+ * {@code -p dictionarySize=50000} for a dictionary of the size of CIEL. The transaction is rolled
+ * back after every invocation, the names are numbered across invocations so that they never clash
+ * with the ones of an earlier invocation that are still in the search index.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ConceptImportBenchmark {
+	
+	private static final String IMPORTED_NAME_PREFIX = "IMPORTED CONCEPT ";
+	
+	private static final String IMPORTED_SYNONYM_PREFIX = "IMPORTED SYNONYM ";
+	
+	private static final int MISC_CONCEPT_CLASS_ID = 11;
+	
+	private static final int NA_CONCEPT_DATATYPE_ID = 4;
+	
+	/**
+	 * Generates the concepts to load before every invocation in the session of the benchmark thread,
+	 * they are new objects every time since saving them assigns their ids
+	 */
+	@State(Scope.Thread)
+	public static class DictionaryState {
+		
+		@Param({ "5000" })
+		public int dictionarySize;
+		
+		private int generation;
+		
+		private List<Concept> concepts;
+		
+		@Setup(Level.Invocation)
+		public void generate(ApiState api, UserSessionState session) {
+			concepts = api.getContext().inTransaction(() -> {
+				ConceptService conceptService = Context.getConceptService();
+				ConceptClass conceptClass = conceptService.getConceptClass(MISC_CONCEPT_CLASS_ID);
+				ConceptDatatype datatype = conceptService.getConceptDatatype(NA_CONCEPT_DATATYPE_ID);
+				String suffix = "-" + generation++;
+				List<Concept> generated = new ArrayList<>(dictionarySize);
+				for (int i = 0; i < dictionarySize; i++) {
+					Concept concept = new Concept();
+					concept.setFullySpecifiedName(new ConceptName(IMPORTED_NAME_PREFIX + i + suffix, Locale.ENGLISH));
+					concept.addName(new ConceptName(IMPORTED_SYNONYM_PREFIX + i + suffix, Locale.ENGLISH));
+					concept.addDescription(new ConceptDescription("Generated for the import benchmark", Locale.ENGLISH));
+					concept.setConceptClass(conceptClass);
+					concept.setDatatype(datatype);
+					generated.add(concept);
+				}
+				return generated;
+			});
+		}
+		
+		public List<Concept> getConcepts() {
+			return concepts;
+		}
+	}
+	
+	@Benchmark
+	public int saveConceptsOneByOne(ApiState api, DictionaryState dictionary, UserSessionState session) {
+		return api.getContext().inRolledBackTransaction(() -> {
+			ConceptService conceptService = Context.getConceptService();
+			for (Concept concept : dictionary.getConcepts()) {
+				conceptService.saveConcept(concept);
+			}
+			return dictionary.getConcepts().size();
+		});
+	}
+	
+	@Benchmark
+	public int importConcepts(ApiState api, DictionaryState dictionary, UserSessionState session) {
+		return api.getContext().inRolledBackTransaction(
+		    () -> Context.getConceptService().importConcepts(dictionary.getConcepts()).size());
+	}
+}
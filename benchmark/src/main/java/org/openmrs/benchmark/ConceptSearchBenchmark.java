@@ -0,0 +1,121 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Concept;
+import org.openmrs.ConceptSearchResult;
+import org.openmrs.api.context.Context;
+
+/**
+ * Concept searches by phrase, which go through the lucene query of the concept names, and concept
+ * lookups by name and by mapping. Every generated concept has two names, run with
+ * {@code -p conceptCount=50000} for a dictionary of the size of CIEL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConceptSearchBenchmark {
+	
+	private static final List<Locale> LOCALES = Collections.singletonList(Locale.ENGLISH);
+	
+	private static final int PAGE_SIZE = 20;
+	
+	@Benchmark
+	public List<ConceptSearchResult> searchConceptsByPhrase(ApiState api, UserSessionState session) {
+		String phrase = "concept " + session.nextIndex(api.conceptCount);
+		try {
+			return Context.getConceptService().getConcepts(phrase, Locale.ENGLISH, false);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<ConceptSearchResult> searchConceptsByWordPrefix(UserSessionState session) {
+		try {
+			return Context.getConceptService().getConcepts("bench", Locale.ENGLISH, false);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	/**
+	 * The first page of a short typeahead phrase, which matches both names of every generated concept
+	 */
+	@Benchmark
+	public List<ConceptSearchResult> searchConceptsFirstPage(UserSessionState session) {
+		try {
+			return Context.getConceptService().getConcepts("bench", LOCALES, false, null, null, null, null, null, 0,
+			    PAGE_SIZE);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<ConceptSearchResult> searchConceptsLaterPage(ApiState api, UserSessionState session) {
+		int start = session.nextIndex(Math.max(1, api.conceptCount / PAGE_SIZE)) * PAGE_SIZE;
+		try {
+			return Context.getConceptService().getConcepts("bench", LOCALES, false, null, null, null, null, null, start,
+			    PAGE_SIZE);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public Integer countConceptsOfTypeaheadPhrase(UserSessionState session) {
+		try {
+			return Context.getConceptService().getCountOfConcepts("bench", LOCALES, false, null, null, null, null, null);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public Concept getConceptByName(ApiState api, UserSessionState session) {
+		String name = BaselineDatasetGenerator.CONCEPT_NAME_PREFIX + session.nextIndex(api.conceptCount);
+		try {
+			return Context.getConceptService().getConceptByName(name);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public Concept getConceptByMapping(UserSessionState session) {
+		try {
+			return Context.getConceptService().getConceptByMapping("WGT234", "SSTRM");
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+}
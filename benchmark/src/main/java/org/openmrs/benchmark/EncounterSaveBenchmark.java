@@ -0,0 +1,68 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+
+/**
+ * Saving a new encounter with observations, the transaction is rolled back after the inserts have
+ * been flushed
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncounterSaveBenchmark {
+	
+	@Param({ "1", "20", "100" })
+	public int obsPerEncounter;
+	
+	@Benchmark
+	public Encounter saveEncounterWithObs(ApiState api, UserSessionState session) {
+		Integer patientId = session.nextPatientId();
+		return api.getContext().inRolledBackTransaction(() -> {
+			Patient patient = Context.getPatientService().getPatient(patientId);
+			Location location = Context.getLocationService().getLocation(1);
+			Concept concept = Context.getConceptService().getConcept(BaselineDatasetGenerator.OBS_CONCEPT_ID);
+			
+			Encounter encounter = new Encounter();
+			encounter.setPatient(patient);
+			encounter.setEncounterType(Context.getEncounterService().getEncounterType(1));
+			encounter.setLocation(location);
+			encounter.setEncounterDatetime(new Date());
+			for (int i = 0; i < obsPerEncounter; i++) {
+				Obs obs = new Obs(patient, concept, encounter.getEncounterDatetime(), location);
+				obs.setValueNumeric(50d + i);
+				encounter.addObs(obs);
+			}
+			return Context.getEncounterService().saveEncounter(encounter);
+		});
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Person;
+import org.openmrs.api.context.Context;
+
+/**
+ * Retrieval of the observations of a patient
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObsRetrievalBenchmark {
+	
+	@Benchmark
+	public List<Obs> getObservationsByPerson(UserSessionState session) {
+		Person person = new Person(session.nextPatientId());
+		try {
+			return Context.getObsService().getObservationsByPerson(person);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<Obs> getObservationsByPersonAndConcept(UserSessionState session) {
+		Person person = new Person(session.nextPatientId());
+		Concept concept = new Concept(BaselineDatasetGenerator.OBS_CONCEPT_ID);
+		try {
+			return Context.getObsService().getObservationsByPersonAndConcept(person, concept);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.api.OrderNumberGenerator;
+import org.openmrs.api.context.Context;
+
+/**
+ * Generating order numbers from several threads at once, locking the seed global property for every
+ * order as the default generator does compared with the block generator, which only locks it once
+ * per reserved block of seeds. Every order number is generated in its own committed transaction.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OrderNumberBenchmark {
+	
+	@Benchmark
+	public String lockSeedPerOrder(ApiState api, UserSessionState session) {
+		return api.getContext().inTransaction(() -> getGenerator("orderServiceTarget").getNewOrderNumber(null));
+	}
+	
+	@Benchmark
+	public String reserveSeedBlocks(ApiState api, UserSessionState session) {
+		return api.getContext().inTransaction(() -> getGenerator("blockOrderNumberGenerator").getNewOrderNumber(null));
+	}
+	
+	private static OrderNumberGenerator getGenerator(String beanId) {
+		return Context.getRegisteredComponent(beanId, OrderNumberGenerator.class);
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Order;
+import org.openmrs.TestOrder;
+import org.openmrs.api.context.Context;
+
+/**
+ * Placing a new test order through the order service, including the order validation and the
+ * order number generation, the transaction is rolled back after the insert has been flushed
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSaveBenchmark {
+	
+	@Benchmark
+	public Order saveTestOrder(ApiState api, UserSessionState session) {
+		return api.getContext().inRolledBackTransaction(() -> {
+			TestOrder order = new TestOrder();
+			order.setPatient(Context.getPatientService().getPatient(7));
+			order.setConcept(Context.getConceptService().getConcept(5497));
+			order.setOrderer(Context.getProviderService().getProvider(1));
+			order.setCareSetting(Context.getOrderService().getCareSetting(1));
+			order.setEncounter(Context.getEncounterService().getEncounter(3));
+			order.setDateActivated(new Date());
+			return Context.getOrderService().saveOrder(order, null);
+		});
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Patient;
+import org.openmrs.Person;
+import org.openmrs.api.context.Context;
+
+/**
+ * Patient and person searches, which go through the lucene queries of the patient and person
+ * names and identifiers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSearchBenchmark {
+	
+	@Benchmark
+	public List<Patient> searchPatientsByName(UserSessionState session) {
+		String name = session.next(BaselineDatasetGenerator.FAMILY_NAMES);
+		try {
+			return Context.getPatientService().getPatients(name, 0, 50);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<Patient> searchPatientsByNamePrefix(UserSessionState session) {
+		String name = session.next(BaselineDatasetGenerator.GIVEN_NAMES);
+		try {
+			return Context.getPatientService().getPatients(name.substring(0, 3), 0, 50);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<Patient> searchPatientsByIdentifier(ApiState api, UserSessionState session) {
+		String identifier = BaselineDatasetGenerator.getIdentifier(session.nextIndex(api.patientCount));
+		try {
+			return Context.getPatientService().getPatients(identifier, 0, 50);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+	
+	@Benchmark
+	public List<Person> searchPeopleByName(UserSessionState session) {
+		String name = session.next(BaselineDatasetGenerator.GIVEN_NAMES);
+		try {
+			return Context.getPersonService().getPeople(name, null);
+		}
+		finally {
+			Context.clearSession();
+		}
+	}
+}
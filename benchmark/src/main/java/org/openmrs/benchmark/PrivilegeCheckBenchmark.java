@@ -0,0 +1,66 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.User;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.PrivilegeConstants;
+
+/**
+ * Privilege checks of the authenticated super user and of a user that only has roles, the latter
+ * walks the role hierarchy on every check
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrivilegeCheckBenchmark {
+	
+	/**
+	 * A user of the standard test dataset with the Provider role
+	 */
+	private User user;
+	
+	@Setup(Level.Iteration)
+	public void loadUser(UserSessionState session) {
+		user = Context.getUserService().getUser(501);
+		user.getAllRoles();
+	}
+	
+	@Benchmark
+	public boolean authenticatedUserHasPrivilege(UserSessionState session) {
+		return Context.hasPrivilege(PrivilegeConstants.GET_PATIENTS);
+	}
+	
+	@Benchmark
+	public boolean userHasPrivilege() {
+		return user.hasPrivilege(PrivilegeConstants.GET_PATIENTS);
+	}
+	
+	@Benchmark
+	public boolean userDoesNotHavePrivilege() {
+		return user.hasPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.web.filter.GZIPResponseWrapper;
+import org.openmrs.web.filter.StreamingCompressionResponseStream;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Compressing a generated json payload the size of a large rest response, written in chunks the
+ * way a renderer writes it, with the gzip filter buffering the whole response compared with the
+ * streaming mode. The compressed output is counted and discarded. Run with {@code -prof gc} to
+ * compare the memory allocated per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseCompressionBenchmark {
+	
+	private static final int CHUNK_SIZE = 8192;
+	
+	private static final int MINIMUM_SIZE = 1024;
+	
+	private static final List<String> EXCLUDED_CONTENT_TYPES = Arrays.asList("image/*", "application/zip");
+	
+	@State(Scope.Benchmark)
+	public static class PayloadState {
+		
+		@Param({ "65536", "4194304" })
+		public int payloadSize;
+		
+		private byte[] payload;
+		
+		@Setup(Level.Trial)
+		public void generate() {
+			Random random = new Random(20240101L);
+			StringBuilder json = new StringBuilder(payloadSize + 256).append("{\"results\":[");
+			for (int i = 0; json.length() < payloadSize; i++) {
+				String uuid = Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+				String givenName = BaselineDatasetGenerator.GIVEN_NAMES[random
+				        .nextInt(BaselineDatasetGenerator.GIVEN_NAMES.length)];
+				String familyName = BaselineDatasetGenerator.FAMILY_NAMES[random
+				        .nextInt(BaselineDatasetGenerator.FAMILY_NAMES.length)];
+				json.append("{\"uuid\":\"").append(uuid).append("\",\"display\":\"").append(givenName).append(' ')
+				        .append(familyName).append("\",\"index\":").append(i).append("},");
+			}
+			json.append("{}]}");
+			payload = json.toString().getBytes(StandardCharsets.UTF_8);
+		}
+	}
+	
+	@Benchmark
+	public long bufferedGZIP(PayloadState state) throws IOException {
+		DiscardingResponse response = new DiscardingResponse();
+		return write(new GZIPResponseWrapper(response), response, state.payload);
+	}
+	
+	@Benchmark
+	public long streamingGZIP(PayloadState state) throws IOException {
+		DiscardingResponse response = new DiscardingResponse();
+		return write(new GZIPResponseWrapper(response, StreamingCompressionResponseStream.GZIP, MINIMUM_SIZE,
+		        EXCLUDED_CONTENT_TYPES), response, state.payload);
+	}
+	
+	@Benchmark
+	public long streamingDeflate(PayloadState state) throws IOException {
+		DiscardingResponse response = new DiscardingResponse();
+		return write(new GZIPResponseWrapper(response, StreamingCompressionResponseStream.DEFLATE, MINIMUM_SIZE,
+		        EXCLUDED_CONTENT_TYPES), response, state.payload);
+	}
+	
+	private long write(GZIPResponseWrapper wrapper, DiscardingResponse response, byte[] payload) throws IOException {
+		wrapper.setContentType("application/json");
+		ServletOutputStream output = wrapper.getOutputStream();
+		for (int off = 0; off < payload.length; off += CHUNK_SIZE) {
+			output.write(payload, off, Math.min(CHUNK_SIZE, payload.length - off));
+		}
+		wrapper.finishResponse();
+		return response.written;
+	}
+	
+	/**
+	 * A response whose output stream only counts the bytes sent to the client
+	 */
+	private static class DiscardingResponse extends MockHttpServletResponse {
+		
+		private long written;
+		
+		private final ServletOutputStream output = new ServletOutputStream() {
+			
+			@Override
+			public void write(int b) {
+				written++;
+			}
+			
+			@Override
+			public void write(byte[] b, int off, int len) {
+				written += len;
+			}
+			
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+			
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+			}
+		};
+		
+		@Override
+		public ServletOutputStream getOutputStream() {
+			return output;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Gives every benchmark thread an authenticated session and hands out the generated patients in
+ * turn, so that successive invocations do not hit the same rows
+ */
+@State(Scope.Thread)
+public class UserSessionState {
+	
+	private ApiState api;
+	
+	private int next;
+	
+	@Setup(Level.Iteration)
+	public void openSession(ApiState api) {
+		this.api = api;
+		BenchmarkContext.openUserSession();
+	}
+	
+	@TearDown(Level.Iteration)
+	public void closeSession() {
+		BenchmarkContext.closeUserSession();
+	}
+	
+	/**
+	 * @return the id of the next generated patient
+	 */
+	public Integer nextPatientId() {
+		return api.getPatientIds().get(nextIndex(api.getPatientIds().size()));
+	}
+	
+	/**
+	 * @param bound the number of values to cycle through
+	 * @return the next value from 0 to bound - 1, cycling through them in turn
+	 */
+	public int nextIndex(int bound) {
+		int index = next % bound;
+		next = next == Integer.MAX_VALUE ? 0 : next + 1;
+		return index;
+	}
+	
+	/**
+	 * @param values the values to cycle through
+	 * @return the next of the given values in turn
+	 */
+	public String next(String[] values) {
+		return values[nextIndex(values.length)];
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.web;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataResource;
+
+/**
+ * Sends the complex data of an obs fetched with the
+ * {@link org.openmrs.obs.ComplexObsHandler#STREAM_VIEW} to the client without reading it into
+ * memory, answering requests for a single byte range with a partial response so that media players
+ * can seek and interrupted downloads can resume.
+ *
+ * @since 2.7.0
+ */
+public class ComplexDataResponseWriter {
+	
+	private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+	
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+	
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+	
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+	
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+	
+	private ComplexDataResponseWriter() {
+	}
+	
+	/**
+	 * Writes the complex data, or the byte range asked for by the Range header of the request, to
+	 * the response. The bytes are transferred from the file channel to the response, a container
+	 * that supports sendfile, like Tomcat with NIO, is left to send the file itself when the
+	 * response is not wrapped. Requests for several ranges are answered with the whole content.
+	 *
+	 * @param complexData complex data whose data is a {@link ComplexDataResource}
+	 * @param request the request, whose Range header is honored
+	 * @param response the response to write to
+	 * @throws IOException if the complex data cannot be read or the response cannot be written
+	 */
+	public static void write(ComplexData complexData, HttpServletRequest request, HttpServletResponse response)
+	        throws IOException {
+		ComplexDataResource resource = (ComplexDataResource) complexData.getData();
+		long length = resource.getLength();
+		long start = 0;
+		long end = length - 1;
+		
+		response.setHeader("Accept-Ranges", "bytes");
+		if (complexData.getMimeType() != null) {
+			response.setContentType(complexData.getMimeType());
+		}
+		
+		Matcher range = getByteRange(request.getHeader("Range"));
+		if (range != null) {
+			try {
+				if (range.group(1).isEmpty()) {
+					// the last bytes of the content
+					start = Math.max(0, length - Long.parseLong(range.group(2)));
+				} else {
+					start = Long.parseLong(range.group(1));
+					if (!range.group(2).isEmpty()) {
+						end = Math.min(Long.parseLong(range.group(2)), length - 1);
+					}
+				}
+			}
+			catch (NumberFormatException e) {
+				start = length;
+			}
+			
+			if (start >= length || start > end) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+		}
+		
+		long count = end - start + 1;
+		response.setContentLengthLong(count);
+		if (count == 0) {
+			return;
+		}
+		
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))
+		        && !(response instanceof ServletResponseWrapper)) {
+			request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, resource.getFile().getAbsolutePath());
+			request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+			// the end is exclusive
+			request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+			return;
+		}
+		
+		resource.transferTo(start, count, Channels.newChannel(response.getOutputStream()));
+	}
+	
+	/**
+	 * @return the matched single byte range, null if there is no header or it is not a single byte
+	 *         range
+	 */
+	private static Matcher getByteRange(String rangeHeader) {
+		if (rangeHeader == null) {
+			return null;
+		}
+		
+		Matcher range = BYTE_RANGE.matcher(rangeHeader.trim());
+		if (!range.matches() || (range.group(1).isEmpty() && range.group(2).isEmpty())) {
+			return null;
+		}
+		return range;
+	}
+}
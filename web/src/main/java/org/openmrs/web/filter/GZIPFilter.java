@@ -10,6 +10,11 @@
 package org.openmrs.web.filter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -17,6 +22,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.openmrs.api.APIException;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
@@ -37,6 +43,14 @@ public class GZIPFilter extends OncePerRequestFilter {
 	
 	private String cachedGZipCompressedRequestForPathAccepted = null;
 	
+	private Boolean cachedStreamingEnabledFlag = null;
+	
+	private int cachedMinimumSize;
+	
+	private List<String> cachedExcludedContentTypes;
+	
+	private List<String> cachedEncodings;
+	
 	/**
 	 * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest,
 	 *      javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
@@ -51,7 +65,21 @@ public class GZIPFilter extends OncePerRequestFilter {
 			response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
 			return;
 		}
-		if (isGZIPSupported(request) && isGZIPEnabled()) {
+		if (isGZIPEnabled() && isStreamingEnabled()) {
+			String encoding = getAcceptedEncoding(request, cachedEncodings);
+			if (encoding != null) {
+				log.debug("{} supported and enabled, compressing response as it is written", encoding);
+				
+				response.addHeader("Vary", "Accept-Encoding");
+				GZIPResponseWrapper wrappedResponse = new GZIPResponseWrapper(response, encoding, cachedMinimumSize,
+				        cachedExcludedContentTypes);
+				
+				chain.doFilter(request, wrappedResponse);
+				wrappedResponse.finishResponse();
+				
+				return;
+			}
+		} else if (isGZIPSupported(request) && isGZIPEnabled()) {
 			log.debug("GZIP supported and enabled, compressing response");
 			
 			GZIPResponseWrapper wrappedResponse = new GZIPResponseWrapper(response);
@@ -101,18 +129,45 @@ public class GZIPFilter extends OncePerRequestFilter {
 	 * @return boolean indicating GZIP support
 	 */
 	private boolean isGZIPSupported(HttpServletRequest req) {
-		String browserEncodings = req.getHeader("accept-encoding");
-		boolean supported = ((browserEncodings != null) && (browserEncodings.contains("gzip")));
-		
+		return getAcceptedEncoding(req, Collections.singletonList(StreamingCompressionResponseStream.GZIP)) != null;
+	}
+	
+	/**
+	 * Picks the content encoding to compress the response with
+	 *
+	 * @param req The current user request
+	 * @param encodings the encodings that may be used, in order of preference
+	 * @return the first of the encodings that the client accepts, null if it accepts none of them
+	 */
+	private String getAcceptedEncoding(HttpServletRequest req, List<String> encodings) {
 		String userAgent = req.getHeader("user-agent");
-		
 		if ((userAgent != null) && userAgent.startsWith("httpunit")) {
 			log.debug("httpunit detected, disabling filter...");
 			
-			return false;
-		} else {
-			return supported;
+			return null;
+		}
+		
+		String browserEncodings = req.getHeader("accept-encoding");
+		if (browserEncodings == null) {
+			return null;
+		}
+		
+		Set<String> accepted = new HashSet<>();
+		for (String browserEncoding : browserEncodings.split(",")) {
+			String[] parts = browserEncoding.split(";");
+			// a quality of 0 means that the client does not accept the encoding
+			if (parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?")) {
+				continue;
+			}
+			accepted.add(parts[0].trim().toLowerCase());
+		}
+		
+		for (String encoding : encodings) {
+			if (accepted.contains(encoding) || accepted.contains("*")) {
+				return encoding;
+			}
 		}
+		return null;
 	}
 	
 	/**
@@ -139,6 +194,57 @@ public class GZIPFilter extends OncePerRequestFilter {
 		}
 	}
 	
+	/**
+	 * Returns global property gzip.streaming as boolean and reads the settings of the streaming mode
+	 */
+	private boolean isStreamingEnabled() {
+		if (cachedStreamingEnabledFlag != null) {
+			return cachedStreamingEnabledFlag;
+		}
+		
+		try {
+			AdministrationService administrationService = Context.getAdministrationService();
+			
+			cachedMinimumSize = Integer.parseInt(administrationService.getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_GZIP_MINIMUM_SIZE, "1024").trim());
+			cachedExcludedContentTypes = splitList(administrationService.getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_GZIP_EXCLUDED_CONTENT_TYPES, ""));
+			
+			List<String> encodings = new ArrayList<>();
+			for (String encoding : splitList(administrationService.getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENCODINGS, StreamingCompressionResponseStream.GZIP))) {
+				if (StreamingCompressionResponseStream.GZIP.equals(encoding)
+				        || StreamingCompressionResponseStream.DEFLATE.equals(encoding)) {
+					encodings.add(encoding);
+				} else {
+					log.warn("Ignoring the unsupported content encoding {} in the global property {}", encoding,
+					    OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENCODINGS);
+				}
+			}
+			cachedEncodings = encodings;
+			
+			cachedStreamingEnabledFlag = Boolean.valueOf(administrationService.getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_GZIP_STREAMING, "true"));
+			return cachedStreamingEnabledFlag;
+		}
+		catch (Exception e) {
+			log.warn("Unable to get the global properties of the streaming gzip mode", e);
+			// not caching the flag here in case the properties become available before the next request
+			
+			return false;
+		}
+	}
+	
+	private static List<String> splitList(String value) {
+		List<String> values = new ArrayList<>();
+		for (String item : value.split(",")) {
+			if (!item.trim().isEmpty()) {
+				values.add(item.trim().toLowerCase());
+			}
+		}
+		return values;
+	}
+	
 	/**
 	 * Returns true if path matches pattern in gzip.acceptCompressedRequestsForPaths property
 	 */
@@ -12,6 +12,7 @@ package org.openmrs.web.filter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.Collection;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -37,13 +38,47 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	
 	protected int error = 0;
 	
+	// the encoding to compress with as the response is written, null to compress the complete response
+	private final String encoding;
+	
+	private final int minimumSize;
+	
+	private final Collection<String> excludedContentTypes;
+	
+	private long contentLength = -1;
+	
 	public GZIPResponseWrapper(HttpServletResponse response) {
+		this(response, null, 0, null);
+	}
+	
+	/**
+	 * Creates a wrapper that compresses the response as it is written instead of once it is complete
+	 *
+	 * @param response the response to wrap
+	 * @param encoding the content encoding to compress with, gzip or deflate
+	 * @param minimumSize responses of up to this many bytes are sent uncompressed
+	 * @param excludedContentTypes the content types to send uncompressed
+	 * @see StreamingCompressionResponseStream
+	 * @since 2.7.0
+	 */
+	public GZIPResponseWrapper(HttpServletResponse response, String encoding, int minimumSize,
+	    Collection<String> excludedContentTypes) {
 		super(response);
 		origResponse = response;
+		this.encoding = encoding;
+		this.minimumSize = minimumSize;
+		this.excludedContentTypes = excludedContentTypes;
 	}
 	
 	public ServletOutputStream createOutputStream() throws IOException {
-		return new GZIPResponseStream(origResponse);
+		if (encoding == null) {
+			return new GZIPResponseStream(origResponse);
+		}
+		
+		StreamingCompressionResponseStream compressionStream = new StreamingCompressionResponseStream(origResponse,
+		        encoding, minimumSize, excludedContentTypes);
+		compressionStream.setContentLength(contentLength);
+		return compressionStream;
 	}
 	
 	public void finishResponse() {
@@ -51,7 +86,7 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 			if (writer != null) {
 				writer.close();
 			} else {
-				if (stream != null && !((GZIPResponseStream)stream).closed()) {
+				if (stream != null && !isClosed()) {
 					stream.close();
 				}
 			}
@@ -61,6 +96,13 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 		}
 	}
 	
+	private boolean isClosed() {
+		if (stream instanceof StreamingCompressionResponseStream) {
+			return ((StreamingCompressionResponseStream) stream).closed();
+		}
+		return ((GZIPResponseStream) stream).closed();
+	}
+	
 	@Override
 	public void flushBuffer() throws IOException {
 		if (stream != null) {
@@ -115,10 +157,20 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	}
 	
 	public void setContentLength(int length) {
-		//Intentionally left blank to ignore whatever length the caller sets, because
+		setContentLengthLong(length);
+	}
+	
+	@Override
+	public void setContentLengthLong(long length) {
+		//Intentionally not passed on to ignore whatever length the caller sets, because
 		//we are going to zip the response and hence end up with a smaller length.
-		//Without this empty method, the base class's setContentLength() method will be
+		//Without this method, the base class's setContentLength() method will be
 		//called, leading to the browser's waiting for more data than what we actually
 		//have for the compressed output, hence slowing down the response. TRUNK-5978
+		//The streaming mode sets it itself if the response ends up uncompressed.
+		contentLength = length;
+		if (stream instanceof StreamingCompressionResponseStream) {
+			((StreamingCompressionResponseStream) stream).setContentLength(length);
+		}
 	}
 }
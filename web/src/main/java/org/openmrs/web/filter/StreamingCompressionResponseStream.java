@@ -0,0 +1,219 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.web.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Wraps the response stream for the GZIPFilter and compresses the content as it is written, so that
+ * only a bounded buffer is held in memory and the client starts receiving the response while it is
+ * still being rendered. The first bytes are held back until there are more than the minimum size,
+ * responses that never get there are sent uncompressed with their length. The content type is
+ * checked once the minimum size is reached, content that is compressed already is passed through
+ * as is.
+ *
+ * @since 2.7.0
+ */
+public class StreamingCompressionResponseStream extends ServletOutputStream {
+	
+	public static final String GZIP = "gzip";
+	
+	public static final String DEFLATE = "deflate";
+	
+	private static final int COMPRESSION_BUFFER_SIZE = 8192;
+	
+	private final HttpServletResponse response;
+	
+	private final String encoding;
+	
+	private final Collection<String> excludedContentTypes;
+	
+	// the first bytes of the response, until it is known whether it is worth compressing
+	private byte[] buffer;
+	
+	private int count;
+	
+	// the stream writing to the client, null while the first bytes are still buffered
+	private OutputStream output;
+	
+	private Deflater deflater;
+	
+	private long contentLength = -1;
+	
+	private boolean closed;
+	
+	/**
+	 * @param response the response to write to
+	 * @param encoding the content encoding to compress with, either {@link #GZIP} or {@link #DEFLATE}
+	 * @param minimumSize responses of up to this many bytes are sent uncompressed
+	 * @param excludedContentTypes the content types to send uncompressed, a type ending with /*
+	 *            matches all its subtypes
+	 */
+	public StreamingCompressionResponseStream(HttpServletResponse response, String encoding, int minimumSize,
+	    Collection<String> excludedContentTypes) {
+		if (!GZIP.equals(encoding) && !DEFLATE.equals(encoding)) {
+			throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+		}
+		this.response = response;
+		this.encoding = encoding;
+		this.excludedContentTypes = excludedContentTypes;
+		this.buffer = new byte[Math.max(minimumSize, 0)];
+	}
+	
+	/**
+	 * Sets the length of the uncompressed content, which is passed on to the response if it ends up
+	 * not being compressed
+	 *
+	 * @param contentLength the length declared by the servlet
+	 */
+	public void setContentLength(long contentLength) {
+		this.contentLength = contentLength;
+	}
+	
+	@Override
+	public void write(int b) throws IOException {
+		if (closed) {
+			throw new IOException("Cannot write to a closed output stream");
+		}
+		
+		if (output == null) {
+			if (count < buffer.length) {
+				buffer[count++] = (byte) b;
+				return;
+			}
+			startOutput();
+		}
+		output.write(b);
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Cannot write to a closed output stream");
+		}
+		
+		if (output == null) {
+			if (count + len <= buffer.length) {
+				System.arraycopy(b, off, buffer, count, len);
+				count += len;
+				return;
+			}
+			startOutput();
+		}
+		output.write(b, off, len);
+	}
+	
+	/**
+	 * Sends what has been compressed so far to the client, nothing is sent while the response is
+	 * still shorter than the minimum size since it is not known yet whether it will be compressed
+	 *
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			throw new IOException("Cannot flush a closed output stream");
+		}
+		
+		if (output != null) {
+			output.flush();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			throw new IOException("This output stream has already been closed");
+		}
+		
+		try {
+			if (output == null) {
+				// the whole response fit in the buffer, it is too short to be worth compressing
+				response.setContentLengthLong(contentLength >= 0 ? contentLength : count);
+				output = response.getOutputStream();
+				output.write(buffer, 0, count);
+				buffer = null;
+			}
+			// finishes the compression
+			output.close();
+		}
+		finally {
+			if (deflater != null) {
+				deflater.end();
+			}
+			closed = true;
+		}
+	}
+	
+	public boolean closed() {
+		return closed;
+	}
+	
+	@Override
+	public boolean isReady() {
+		throw new UnsupportedOperationException("Asynchonous operation is not supported.");
+	}
+	
+	@Override
+	public void setWriteListener(WriteListener writeListener) {
+		throw new UnsupportedOperationException("Asynchonous operation is not supported.");
+	}
+	
+	private void startOutput() throws IOException {
+		ServletOutputStream responseOutput = response.getOutputStream();
+		if (isCompressible()) {
+			response.setHeader("Content-Encoding", encoding);
+			// sync flush so that flushing the stream sends everything compressed so far
+			if (GZIP.equals(encoding)) {
+				output = new GZIPOutputStream(responseOutput, COMPRESSION_BUFFER_SIZE, true);
+			} else {
+				deflater = new Deflater();
+				output = new DeflaterOutputStream(responseOutput, deflater, COMPRESSION_BUFFER_SIZE, true);
+			}
+		} else {
+			if (contentLength >= 0) {
+				response.setContentLengthLong(contentLength);
+			}
+			output = responseOutput;
+		}
+		output.write(buffer, 0, count);
+		buffer = null;
+	}
+	
+	private boolean isCompressible() {
+		// the servlet encoded the content itself
+		if (response.containsHeader("Content-Encoding")) {
+			return false;
+		}
+		
+		String contentType = response.getContentType();
+		if (contentType == null) {
+			return true;
+		}
+		
+		String mimeType = contentType.split(";")[0].trim().toLowerCase();
+		for (String excluded : excludedContentTypes) {
+			if (excluded.endsWith("/*") ? mimeType.startsWith(excluded.substring(0, excluded.length() - 1)) : mimeType
+			        .equals(excluded)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
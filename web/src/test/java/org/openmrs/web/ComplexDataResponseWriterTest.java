@@ -0,0 +1,135 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests methods on the {@link ComplexDataResponseWriter} class.
+ */
+public class ComplexDataResponseWriterTest {
+	
+	@TempDir
+	public Path complexObsTestFolder;
+	
+	private Path file;
+	
+	private ComplexData complexData;
+	
+	@BeforeEach
+	public void setUp() throws IOException {
+		file = complexObsTestFolder.resolve("TestingComplexObsStreaming.txt");
+		Files.write(file, "0123456789".getBytes(StandardCharsets.UTF_8));
+		complexData = new ComplexData("TestingComplexObsStreaming.txt", new ComplexDataResource(file.toFile()));
+		complexData.setMimeType("text/plain");
+	}
+	
+	/**
+	 * @see ComplexDataResponseWriter#write(ComplexData, javax.servlet.http.HttpServletRequest,
+	 *      HttpServletResponse)
+	 */
+	@Test
+	public void write_shouldWriteTheWholeContentWithoutARangeHeader() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		ComplexDataResponseWriter.write(complexData, new MockHttpServletRequest(), response);
+		
+		assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertEquals("text/plain", response.getContentType());
+		assertEquals(10, response.getContentLength());
+		assertEquals("0123456789", response.getContentAsString());
+	}
+	
+	/**
+	 * @see ComplexDataResponseWriter#write(ComplexData, javax.servlet.http.HttpServletRequest,
+	 *      HttpServletResponse)
+	 */
+	@Test
+	public void write_shouldWriteTheRequestedRangeAsAPartialResponse() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=2-5");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		ComplexDataResponseWriter.write(complexData, request, response);
+		
+		assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+		assertEquals(4, response.getContentLength());
+		assertEquals("2345", response.getContentAsString());
+	}
+	
+	/**
+	 * @see ComplexDataResponseWriter#write(ComplexData, javax.servlet.http.HttpServletRequest,
+	 *      HttpServletResponse)
+	 */
+	@Test
+	public void write_shouldWriteTheLastBytesForASuffixRange() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=-3");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		ComplexDataResponseWriter.write(complexData, request, response);
+		
+		assertEquals("bytes 7-9/10", response.getHeader("Content-Range"));
+		assertEquals("789", response.getContentAsString());
+	}
+	
+	/**
+	 * @see ComplexDataResponseWriter#write(ComplexData, javax.servlet.http.HttpServletRequest,
+	 *      HttpServletResponse)
+	 */
+	@Test
+	public void write_shouldRejectARangeStartingAfterTheEndOfTheContent() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=10-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		ComplexDataResponseWriter.write(complexData, request, response);
+		
+		assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+		assertEquals("bytes */10", response.getHeader("Content-Range"));
+	}
+	
+	/**
+	 * @see ComplexDataResponseWriter#write(ComplexData, javax.servlet.http.HttpServletRequest,
+	 *      HttpServletResponse)
+	 */
+	@Test
+	public void write_shouldLeaveTheFileToTheContainerWhenItSupportsSendfile() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.addHeader("Range", "bytes=2-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		ComplexDataResponseWriter.write(complexData, request, response);
+		
+		assertEquals(file.toFile().getAbsolutePath(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(8, response.getContentLength());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+}
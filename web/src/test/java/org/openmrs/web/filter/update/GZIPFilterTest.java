@@ -10,25 +10,34 @@
 package org.openmrs.web.filter.update;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.openmrs.GlobalProperty;
 import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.web.filter.GZIPFilter;
 import org.openmrs.web.test.BaseWebContextSensitiveTest;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -82,4 +91,90 @@ public class GZIPFilterTest extends BaseWebContextSensitiveTest {
 		
 	}
 	
+	/**
+	 * @see org.openmrs.web.filter.GZIPFilter#doFilterInternal(HttpServletRequest,HttpServletResponse, javax.servlet.FilterChain)
+	 */
+	@Test
+	public void doFilterInternal_shouldCompressLargeResponsesAsTheyAreWritten() throws Exception {
+		enableGZIP();
+		String content = StringUtils.repeat("{\"uuid\":\"0cbe2ed3-cd5f-4f46-9459-26127c9265ab\"},", 1000);
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		
+		new GZIPFilter().doFilterInternal(createRequest("gzip, deflate"), resp, (request, response) -> {
+			PrintWriter writer = response.getWriter();
+			writer.write(content);
+			writer.flush();
+			// the compressed content reaches the client before the response is complete
+			assertThat(resp.getContentAsByteArray().length, greaterThan(0));
+		});
+		
+		assertThat(resp.getHeader("Content-Encoding"), is("gzip"));
+		assertThat(resp.getHeader("Vary"), is("Accept-Encoding"));
+		assertThat(IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())),
+		    StandardCharsets.UTF_8), is(content));
+	}
+	
+	/**
+	 * @see org.openmrs.web.filter.GZIPFilter#doFilterInternal(HttpServletRequest,HttpServletResponse, javax.servlet.FilterChain)
+	 */
+	@Test
+	public void doFilterInternal_shouldSendResponsesShorterThanTheMinimumSizeUncompressed() throws Exception {
+		enableGZIP();
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		
+		new GZIPFilter().doFilterInternal(createRequest("gzip"), resp,
+		    (request, response) -> response.getWriter().write("message string"));
+		
+		assertThat(resp.getHeader("Content-Encoding"), nullValue());
+		assertThat(resp.getContentLength(), is("message string".length()));
+		assertThat(resp.getContentAsString(), is("message string"));
+	}
+	
+	/**
+	 * @see org.openmrs.web.filter.GZIPFilter#doFilterInternal(HttpServletRequest,HttpServletResponse, javax.servlet.FilterChain)
+	 */
+	@Test
+	public void doFilterInternal_shouldNotCompressContentTypesThatAreCompressedAlready() throws Exception {
+		enableGZIP();
+		byte[] content = new byte[5000];
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		
+		new GZIPFilter().doFilterInternal(createRequest("gzip"), resp, (request, response) -> {
+			response.setContentType("image/png");
+			response.getOutputStream().write(content);
+		});
+		
+		assertThat(resp.getHeader("Content-Encoding"), nullValue());
+		assertThat(resp.getContentAsByteArray(), is(content));
+	}
+	
+	/**
+	 * @see org.openmrs.web.filter.GZIPFilter#doFilterInternal(HttpServletRequest,HttpServletResponse, javax.servlet.FilterChain)
+	 */
+	@Test
+	public void doFilterInternal_shouldUseTheFirstConfiguredEncodingThatTheClientAccepts() throws Exception {
+		enableGZIP();
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENCODINGS, "deflate,gzip"));
+		String content = StringUtils.repeat("message string ", 1000);
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		
+		new GZIPFilter().doFilterInternal(createRequest("gzip, deflate;q=0.5"), resp,
+		    (request, response) -> response.getWriter().write(content));
+		
+		assertThat(resp.getHeader("Content-Encoding"), is("deflate"));
+		assertThat(IOUtils.toString(new InflaterInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())),
+		    StandardCharsets.UTF_8), is(content));
+	}
+	
+	private void enableGZIP() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED, "true"));
+	}
+	
+	private MockHttpServletRequest createRequest(String acceptEncoding) {
+		MockHttpServletRequest req = new MockHttpServletRequest();
+		req.addHeader("Accept-Encoding", acceptEncoding);
+		return req;
+	}
 }